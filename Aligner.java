@@ -0,0 +1,396 @@
+import java.util.Arrays;
+
+/**
+ * Aligns pairs of sequences with linear gap costs: globally (Needleman-Wunsch) or
+ * locally (Smith-Waterman), optionally within a band around the main diagonal. The
+ * traceback takes memory linear in the sequence lengths, through Hirschberg's
+ * divide and conquer: the first sequence is split in half, one score row is computed
+ * forward over the top half and one backward over the bottom half, and the column
+ * where their sum is best splits the second sequence. Subproblems of up to
+ * {@value #FULL_CELLS} cells are solved with a full traceback matrix. A local
+ * alignment is found with one forward pass for its end and best score, one backward
+ * pass from the end for its start, and a global alignment between the two.
+ *
+ * <p>A band of width w keeps only cells whose diagonal is within w of the diagonals
+ * between the two sequence ends, cutting time to about (w + length difference) per
+ * base; alignments that leave the band are not found. Characters compare
+ * case-insensitively, with U equal to T. An instance reuses its score rows, traceback
+ * matrix and encoded sequences between calls, so the inner loops do not allocate; it is
+ * not safe for concurrent use.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class Aligner {
+
+    /** Band width that keeps every cell. */
+    public static final int NO_BAND = -1;
+    /** Default score of a match. */
+    public static final int DEFAULT_MATCH = 2;
+    /** Default score of a mismatch. */
+    public static final int DEFAULT_MISMATCH = -3;
+    /** Default score of each gap position. */
+    public static final int DEFAULT_GAP = -5;
+
+    private static final int FULL_CELLS = 1 << 14;
+    private static final int NEGATIVE = Integer.MIN_VALUE / 4;
+    private static final byte DIAGONAL = 0;
+    private static final byte UP = 1;
+    private static final byte LEFT = 2;
+
+    private final int match;
+    private final int mismatch;
+    private final int gap;
+    private final int band;
+
+    private byte[] a = new byte[64];
+    private byte[] b = new byte[64];
+    private byte[] reversedA = new byte[64];
+    private byte[] reversedB = new byte[64];
+    private int[] forward = new int[65];
+    private int[] backward = new int[65];
+    private byte[] trace = new byte[FULL_CELLS];
+    private byte[] operations = new byte[128];
+    private byte[] path = new byte[128];
+    private int operationCount;
+    private int m;
+    private int n;
+    private int lowDiagonal;
+    private int highDiagonal;
+    private int bestScore;
+    private int bestRow;
+    private int bestColumn;
+
+    /**
+     * Creates an aligner with the default scores and no band.
+     */
+    public Aligner() {
+        this(DEFAULT_MATCH, DEFAULT_MISMATCH, DEFAULT_GAP, NO_BAND);
+    }
+
+    /**
+     * Creates an aligner.
+     *
+     * @param match the score of a match, positive.
+     * @param mismatch the score of a mismatch, below the match score.
+     * @param gap the score of each gap position, negative.
+     * @param band the band width in diagonals, or {@link #NO_BAND}.
+     */
+    public Aligner(int match, int mismatch, int gap, int band) {
+        if (match <= 0 || mismatch >= match || gap >= 0) {
+            throw new IllegalArgumentException("Scores must have match > 0, mismatch < match and gap < 0: " +
+                    match + ", " + mismatch + ", " + gap);
+        }
+        if (band < NO_BAND) {
+            throw new IllegalArgumentException("Band cannot be negative: " + band);
+        }
+        this.match = match;
+        this.mismatch = mismatch;
+        this.gap = gap;
+        this.band = band;
+    }
+
+    /**
+     * Aligns two sequences end to end.
+     *
+     * @param first the first sequence.
+     * @param second the second sequence.
+     * @return the best global alignment.
+     */
+    public Alignment global(CharSequence first, CharSequence second) {
+        load(first, second);
+        pass(0, m, 0, n, false, false, 0, forward);
+        int score = forward[n];
+        operationCount = 0;
+        align(0, m, 0, n);
+        return build(first, second, score, 0, 0);
+    }
+
+    /**
+     * Finds the best-scoring alignment between any two substrings of the sequences.
+     *
+     * @param first the first sequence.
+     * @param second the second sequence.
+     * @return the best local alignment, empty with score 0 if no bases match.
+     */
+    public Alignment local(CharSequence first, CharSequence second) {
+        load(first, second);
+        pass(0, m, 0, n, false, true, 0, forward);
+        int score = bestScore;
+        operationCount = 0;
+        if (score == 0) {
+            return build(first, second, 0, 0, 0);
+        }
+        int endA = bestRow;
+        int endB = bestColumn;
+        pass(0, endA, 0, endB, true, false, score, backward);
+        int startA = endA - bestRow;
+        int startB = endB - bestColumn;
+        align(startA, endA, startB, endB);
+        return build(first, second, score, startA, startB);
+    }
+
+    /**
+     * Returns the global alignment score, in one pass without traceback.
+     *
+     * @param first the first sequence.
+     * @param second the second sequence.
+     * @return the best global score.
+     */
+    public int globalScore(CharSequence first, CharSequence second) {
+        load(first, second);
+        pass(0, m, 0, n, false, false, 0, forward);
+        return forward[n];
+    }
+
+    /**
+     * Returns the local alignment score, in one pass without traceback.
+     *
+     * @param first the first sequence.
+     * @param second the second sequence.
+     * @return the best local score, 0 if no bases match.
+     */
+    public int localScore(CharSequence first, CharSequence second) {
+        load(first, second);
+        pass(0, m, 0, n, false, true, 0, forward);
+        return bestScore;
+    }
+
+    /**
+     * Scores every pair of sequences on a fork-join pool, with one aligner with these
+     * scores per worker thread.
+     *
+     * @param sequences An array of DNA sequences; null entries are aligned as empty.
+     * @param local whether to score local instead of global alignments.
+     * @param parallelism the number of worker threads.
+     * @return the symmetric matrix of scores.
+     */
+    public int[][] allVsAll(String[] sequences, boolean local, int parallelism) {
+        return AllVsAll.compute(sequences, () -> {
+            Aligner aligner = new Aligner(match, mismatch, gap, band);
+            return local ? aligner::localScore : aligner::globalScore;
+        }, parallelism);
+    }
+
+    /**
+     * Encodes both sequences, forward and reversed, into the reused buffers and sets
+     * the band.
+     */
+    private void load(CharSequence first, CharSequence second) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Sequences cannot be null");
+        }
+        m = first.length();
+        n = second.length();
+        if (a.length < m) {
+            a = new byte[m];
+            reversedA = new byte[m];
+        }
+        if (b.length < n) {
+            b = new byte[n];
+            reversedB = new byte[n];
+            forward = new int[n + 1];
+            backward = new int[n + 1];
+        }
+        for (int i = 0; i < m; i++) {
+            a[i] = (byte) EditDistance.symbol(first.charAt(i));
+            reversedA[m - 1 - i] = a[i];
+        }
+        for (int j = 0; j < n; j++) {
+            b[j] = (byte) EditDistance.symbol(second.charAt(j));
+            reversedB[n - 1 - j] = b[j];
+        }
+        if (band == NO_BAND) {
+            lowDiagonal = -m;
+            highDiagonal = n;
+        } else {
+            lowDiagonal = Math.min(0, n - m) - band;
+            highDiagonal = Math.max(0, n - m) + band;
+        }
+    }
+
+    /**
+     * Computes the scores of a[aFrom..aTo) against b[bFrom..bTo) row by row into one
+     * reused row, leaving the last row in it. A backward pass aligns both ranges from
+     * their ends. A local pass floors scores at 0 and records the best cell; a pass
+     * with a positive target stops at the first cell reaching it. Cells off the band are
+     * never computed, and the cells bordering the band are kept at minus infinity.
+     */
+    private void pass(int aFrom, int aTo, int bFrom, int bTo, boolean reverse, boolean local, int target,
+            int[] row) {
+        int rows = aTo - aFrom;
+        int columns = bTo - bFrom;
+        byte[] x = reverse ? reversedA : a;
+        byte[] y = reverse ? reversedB : b;
+        int xBase = (reverse ? m - aTo : aFrom) - 1;
+        int yBase = (reverse ? n - bTo : bFrom) - 1;
+        int lowShift = reverse ? bTo - aTo - highDiagonal : aFrom - bFrom + lowDiagonal;
+        int highShift = reverse ? bTo - aTo - lowDiagonal : aFrom - bFrom + highDiagonal;
+
+        int high = Math.min(columns, highShift);
+        for (int j = 0; j <= high; j++) {
+            row[j] = local ? 0 : j * gap;
+        }
+        if (high < columns) {
+            row[high + 1] = NEGATIVE;
+        }
+        bestScore = 0;
+        bestRow = 0;
+        bestColumn = 0;
+        for (int i = 1; i <= rows; i++) {
+            int low = Math.max(0, i + lowShift);
+            high = Math.min(columns, i + highShift);
+            byte base = x[xBase + i];
+            int diagonal;
+            int j;
+            if (low == 0) {
+                diagonal = row[0];
+                row[0] = local ? 0 : i * gap;
+                j = 1;
+            } else {
+                diagonal = row[low - 1];
+                row[low - 1] = NEGATIVE;
+                j = low;
+            }
+            for (; j <= high; j++) {
+                int up = row[j];
+                int score = Math.max(diagonal + (base == y[yBase + j] ? match : mismatch),
+                        Math.max(up, row[j - 1]) + gap);
+                if (local) {
+                    if (score < 0) {
+                        score = 0;
+                    } else if (score > bestScore) {
+                        bestScore = score;
+                        bestRow = i;
+                        bestColumn = j;
+                    }
+                } else if (score == target && target > 0) {
+                    bestRow = i;
+                    bestColumn = j;
+                    return;
+                }
+                diagonal = up;
+                row[j] = score;
+            }
+            if (high < columns) {
+                row[high + 1] = NEGATIVE;
+            }
+        }
+    }
+
+    /**
+     * Appends the operations of the best global alignment of a[aFrom..aTo) against
+     * b[bFrom..bTo), splitting the problem at its middle row until it is small.
+     */
+    private void align(int aFrom, int aTo, int bFrom, int bTo) {
+        int rows = aTo - aFrom;
+        int columns = bTo - bFrom;
+        if (rows <= 1 || (long) (rows + 1) * (columns + 1) <= FULL_CELLS) {
+            alignFull(aFrom, aTo, bFrom, bTo);
+            return;
+        }
+        int middle = (aFrom + aTo) >>> 1;
+        pass(aFrom, middle, bFrom, bTo, false, false, 0, forward);
+        pass(middle, aTo, bFrom, bTo, true, false, 0, backward);
+        int split = -1;
+        int best = Integer.MIN_VALUE;
+        for (int j = Math.max(bFrom, middle + lowDiagonal), last = Math.min(bTo, middle + highDiagonal);
+                j <= last; j++) {
+            int score = forward[j - bFrom] + backward[bTo - j];
+            if (score > best) {
+                best = score;
+                split = j;
+            }
+        }
+        align(aFrom, middle, bFrom, split);
+        align(middle, aTo, split, bTo);
+    }
+
+    /**
+     * Appends the operations of the best global alignment of a small subproblem, from
+     * a full matrix of traceback moves.
+     */
+    private void alignFull(int aFrom, int aTo, int bFrom, int bTo) {
+        int rows = aTo - aFrom;
+        int columns = bTo - bFrom;
+        int width = columns + 1;
+        int cells = (rows + 1) * width;
+        if (trace.length < cells) {
+            trace = new byte[cells];
+        }
+        int[] row = forward;
+        for (int j = 0; j <= columns; j++) {
+            row[j] = inBand(aFrom, bFrom + j) ? j * gap : NEGATIVE;
+            trace[j] = LEFT;
+        }
+        for (int i = 1; i <= rows; i++) {
+            byte base = a[aFrom + i - 1];
+            int diagonal = row[0];
+            row[0] = inBand(aFrom + i, bFrom) ? i * gap : NEGATIVE;
+            trace[i * width] = UP;
+            for (int j = 1; j <= columns; j++) {
+                int up = row[j];
+                int score;
+                byte move;
+                if (!inBand(aFrom + i, bFrom + j)) {
+                    score = NEGATIVE;
+                    move = DIAGONAL;
+                } else {
+                    score = diagonal + (base == b[bFrom + j - 1] ? match : mismatch);
+                    move = DIAGONAL;
+                    if (up + gap > score) {
+                        score = up + gap;
+                        move = UP;
+                    }
+                    if (row[j - 1] + gap > score) {
+                        score = row[j - 1] + gap;
+                        move = LEFT;
+                    }
+                }
+                diagonal = up;
+                row[j] = score;
+                trace[i * width + j] = move;
+            }
+        }
+        if (path.length < rows + columns) {
+            path = new byte[Math.max(rows + columns, path.length * 2)];
+        }
+        int length = 0;
+        for (int i = rows, j = columns; i > 0 || j > 0; ) {
+            byte move = trace[i * width + j];
+            path[length++] = move;
+            if (move != LEFT) {
+                i--;
+            }
+            if (move != UP) {
+                j--;
+            }
+        }
+        if (operations.length < operationCount + length) {
+            operations = Arrays.copyOf(operations, Math.max(operationCount + length, operations.length * 2));
+        }
+        while (length > 0) {
+            operations[operationCount++] = path[--length];
+        }
+    }
+
+    private boolean inBand(int row, int column) {
+        int diagonal = column - row;
+        return diagonal >= lowDiagonal && diagonal <= highDiagonal;
+    }
+
+    /**
+     * Builds the gapped rows from the appended operations.
+     */
+    private Alignment build(CharSequence first, CharSequence second, int score, int startA, int startB) {
+        StringBuilder alignedA = new StringBuilder(operationCount);
+        StringBuilder alignedB = new StringBuilder(operationCount);
+        int i = startA;
+        int j = startB;
+        for (int k = 0; k < operationCount; k++) {
+            byte move = operations[k];
+            alignedA.append(move == LEFT ? '-' : first.charAt(i++));
+            alignedB.append(move == UP ? '-' : second.charAt(j++));
+        }
+        return new Alignment(score, startA, i, startB, j, alignedA.toString(), alignedB.toString());
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * A pairwise alignment found by an {@link Aligner}: its score, the aligned ranges of
+ * both sequences and the gapped rows, with '-' marking a gap.
+ *
+ * @author Ajay Shenoy
+ */
+public final class Alignment {
+
+    private final int score;
+    private final int startA;
+    private final int endA;
+    private final int startB;
+    private final int endB;
+    private final String alignedA;
+    private final String alignedB;
+
+    /**
+     * Creates an alignment.
+     *
+     * @param score the alignment score.
+     * @param startA the first aligned position of the first sequence.
+     * @param endA the position after the last aligned base of the first sequence.
+     * @param startB the first aligned position of the second sequence.
+     * @param endB the position after the last aligned base of the second sequence.
+     * @param alignedA the aligned part of the first sequence, with gaps.
+     * @param alignedB the aligned part of the second sequence, with gaps.
+     */
+    public Alignment(int score, int startA, int endA, int startB, int endB, String alignedA, String alignedB) {
+        this.score = score;
+        this.startA = startA;
+        this.endA = endA;
+        this.startB = startB;
+        this.endB = endB;
+        this.alignedA = alignedA;
+        this.alignedB = alignedB;
+    }
+
+    /**
+     * Returns the alignment score.
+     *
+     * @return the score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the first aligned position of the first sequence.
+     *
+     * @return the start, inclusive.
+     */
+    public int getStartA() {
+        return startA;
+    }
+
+    /**
+     * Returns the position after the last aligned base of the first sequence.
+     *
+     * @return the end, exclusive.
+     */
+    public int getEndA() {
+        return endA;
+    }
+
+    /**
+     * Returns the first aligned position of the second sequence.
+     *
+     * @return the start, inclusive.
+     */
+    public int getStartB() {
+        return startB;
+    }
+
+    /**
+     * Returns the position after the last aligned base of the second sequence.
+     *
+     * @return the end, exclusive.
+     */
+    public int getEndB() {
+        return endB;
+    }
+
+    /**
+     * Returns the aligned part of the first sequence, with '-' for gaps.
+     *
+     * @return the gapped row.
+     */
+    public String getAlignedA() {
+        return alignedA;
+    }
+
+    /**
+     * Returns the aligned part of the second sequence, with '-' for gaps.
+     *
+     * @return the gapped row.
+     */
+    public String getAlignedB() {
+        return alignedB;
+    }
+
+    /**
+     * Returns the alignment as a CIGAR string with the second sequence as the
+     * reference: M for aligned bases, I for bases only in the first sequence and D for
+     * bases only in the second.
+     *
+     * @return the CIGAR string, empty for an empty alignment.
+     */
+    public String getCigar() {
+        StringBuilder cigar = new StringBuilder();
+        char previous = 0;
+        int run = 0;
+        for (int i = 0; i < alignedA.length(); i++) {
+            char operation = alignedA.charAt(i) == '-' ? 'D' : alignedB.charAt(i) == '-' ? 'I' : 'M';
+            if (operation != previous && run > 0) {
+                cigar.append(run).append(previous);
+                run = 0;
+            }
+            previous = operation;
+            run++;
+        }
+        if (run > 0) {
+            cigar.append(run).append(previous);
+        }
+        return cigar.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "score " + score + ", " + getCigar() + "\n" + alignedA + "\n" + alignedB;
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Scores every pair of a set of sequences on a fork-join pool. The upper triangle of
+ * the matrix is split into row ranges holding about the same number of pairs, and every
+ * worker thread scores with its own scorer, so scorers may keep reusable rows and masks
+ * without synchronization.
+ *
+ * @author Ajay Shenoy
+ */
+final class AllVsAll {
+
+    /**
+     * Scores one pair of sequences.
+     */
+    interface PairScorer {
+        /**
+         * Scores a pair.
+         *
+         * @param a the first sequence.
+         * @param b the second sequence.
+         * @return the score.
+         */
+        int score(CharSequence a, CharSequence b);
+    }
+
+    private static final long PAIRS_PER_TASK = 256;
+
+    private AllVsAll() {
+    }
+
+    /**
+     * Scores every pair, including each sequence against itself.
+     *
+     * @param sequences An array of DNA sequences; null entries are scored as empty.
+     * @param scorers creates the scorer of each worker thread.
+     * @param parallelism the number of worker threads.
+     * @return the symmetric matrix of scores.
+     */
+    static int[][] compute(String[] sequences, Supplier<PairScorer> scorers, int parallelism) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        int[][] scores = new int[sequences.length][sequences.length];
+        Map<Thread, PairScorer> workers = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RowTask(sequences, scores, scorers, workers, 0, sequences.length));
+        } finally {
+            pool.shutdown();
+        }
+        return scores;
+    }
+
+    /**
+     * Scores the pairs of a range of rows, splitting the range where it holds half of
+     * its pairs until few pairs are left.
+     */
+    private static final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] sequences;
+        private final int[][] scores;
+        private final Supplier<PairScorer> scorers;
+        private final Map<Thread, PairScorer> workers;
+        private final int from;
+        private final int to;
+
+        RowTask(String[] sequences, int[][] scores, Supplier<PairScorer> scorers, Map<Thread, PairScorer> workers,
+                int from, int to) {
+            this.sequences = sequences;
+            this.scores = scores;
+            this.scorers = scorers;
+            this.workers = workers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int n = sequences.length;
+            long pairs = pairs(from, to, n);
+            if (pairs <= PAIRS_PER_TASK || to - from == 1) {
+                PairScorer scorer = workers.computeIfAbsent(Thread.currentThread(), thread -> scorers.get());
+                for (int i = from; i < to; i++) {
+                    String a = sequences[i] == null ? "" : sequences[i];
+                    for (int j = i; j < n; j++) {
+                        int score = scorer.score(a, sequences[j] == null ? "" : sequences[j]);
+                        scores[i][j] = score;
+                        scores[j][i] = score;
+                    }
+                }
+                return;
+            }
+            int middle = from + 1;
+            while (middle < to - 1 && pairs(from, middle, n) * 2 < pairs) {
+                middle++;
+            }
+            invokeAll(new RowTask(sequences, scores, scorers, workers, from, middle),
+                    new RowTask(sequences, scores, scorers, workers, middle, to));
+        }
+
+        /**
+         * Returns the number of pairs in rows from (inclusive) to to (exclusive).
+         */
+        private static long pairs(int from, int to, int n) {
+            return (long) (to - from) * (2L * n - from - to + 1) / 2;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters for the hot paths of {@link H10CustomApp}: calls, records, bases, invalid
+ * (non-ACGT) bases, wall time and bytes allocated by the calling thread, kept per
+ * {@link Stage} in {@link LongAdder}s so concurrent callers do not contend.
+ *
+ * <p>Instrumentation is off by default and enabled with {@code -Dsequence.metrics=true}.
+ * The flag is a static final constant, so when it is off {@link #start(Stage)} returns
+ * null without reading a clock and the JIT removes the recording entirely. When it is
+ * on, each stage is registered as an MXBean named
+ * {@code GeneticSequenceAnalysis:type=AnalysisMetrics,stage=<STAGE>}, and a summary
+ * line is logged every {@code sequence.metrics.interval} seconds (10 by default, 0 to
+ * disable) whenever the counters have changed.</p>
+ *
+ * <p>Allocation is read from the calling thread only, so work handed to other threads,
+ * such as parallel k-mer counting, is not included.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public final class AnalysisMetrics {
+
+    /** Whether instrumentation is enabled, from the {@code sequence.metrics} property. */
+    public static final boolean ENABLED = Boolean.getBoolean("sequence.metrics");
+
+    /** The instrumented operations. */
+    public enum Stage {
+        /** Nucleotide frequencies and counts. */
+        FREQUENCIES,
+        /** Per-sequence GC content. */
+        GC_CONTENT,
+        /** Per-sequence AT content. */
+        AT_CONTENT,
+        /** Sliding-window GC content. */
+        GC_WINDOWS,
+        /** Sequence length distribution and histogram. */
+        LENGTH_DISTRIBUTION,
+        /** Most common nucleotides. */
+        MOST_COMMON,
+        /** Most common k-mers. */
+        KMERS,
+        /** Approximate statistics in a sequence sketch. */
+        SKETCH,
+        /** Complementary strand. */
+        COMPLEMENT,
+        /** Reverse complement. */
+        REVERSE_COMPLEMENT,
+        /** Motif search. */
+        MOTIFS,
+        /** Pairwise alignment and edit distance. */
+        ALIGNMENT,
+        /** Six-frame translation and open reading frames. */
+        TRANSLATION,
+        /** FASTQ base-quality statistics. */
+        QUALITY,
+        /** Streaming analysis of a reader. */
+        STREAM
+    }
+
+    /**
+     * The counters of one stage, as exposed over JMX.
+     */
+    public interface StageMXBean {
+        /** @return the number of completed calls. */
+        long getCalls();
+
+        /** @return the number of records processed. */
+        long getRecords();
+
+        /** @return the number of bases processed, including invalid bases. */
+        long getBases();
+
+        /** @return the number of bases that were not A, C, G or T. */
+        long getInvalidBases();
+
+        /** @return the total wall time in nanoseconds. */
+        long getNanos();
+
+        /** @return the bytes allocated by the calling threads, or 0 if unsupported. */
+        long getAllocatedBytes();
+
+        /** @return the bases processed per second of wall time. */
+        double getBasesPerSecond();
+
+        /** Resets all counters of the stage to zero. */
+        void reset();
+    }
+
+    /**
+     * A measurement in progress, returned by {@link #start(Stage)}.
+     */
+    public static final class Span {
+        private final Stage stage;
+        private final long startNanos;
+        private final long startBytes;
+
+        private Span(Stage stage) {
+            this.stage = stage;
+            this.startBytes = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    private static final class Counters implements StageMXBean {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder records = new LongAdder();
+        private final LongAdder bases = new LongAdder();
+        private final LongAdder invalidBases = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        @Override
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        @Override
+        public long getRecords() {
+            return records.sum();
+        }
+
+        @Override
+        public long getBases() {
+            return bases.sum();
+        }
+
+        @Override
+        public long getInvalidBases() {
+            return invalidBases.sum();
+        }
+
+        @Override
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        @Override
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        @Override
+        public double getBasesPerSecond() {
+            long elapsed = nanos.sum();
+            return elapsed == 0 ? 0.0 : bases.sum() * 1e9 / elapsed;
+        }
+
+        @Override
+        public void reset() {
+            calls.reset();
+            records.reset();
+            bases.reset();
+            invalidBases.reset();
+            nanos.reset();
+            allocatedBytes.reset();
+        }
+    }
+
+    private static final Map<Stage, Counters> COUNTERS = new EnumMap<>(Stage.class);
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    static {
+        for (Stage stage : Stage.values()) {
+            COUNTERS.put(stage, new Counters());
+        }
+        if (ENABLED) {
+            register();
+            schedule(Long.getLong("sequence.metrics.interval", 10));
+        }
+    }
+
+    private AnalysisMetrics() {
+    }
+
+    /**
+     * Starts measuring one call of a stage.
+     *
+     * @param stage the operation being measured.
+     * @return the measurement to pass to {@code stop}, or null if instrumentation is disabled.
+     */
+    public static Span start(Stage stage) {
+        return ENABLED ? new Span(stage) : null;
+    }
+
+    /**
+     * Finishes a measurement started by {@link #start(Stage)}. Does nothing if the
+     * measurement is null.
+     *
+     * @param span the measurement, or null.
+     * @param records the number of records processed.
+     * @param bases the number of bases processed, including invalid bases.
+     * @param invalidBases the number of bases that were not A, C, G or T.
+     */
+    public static void stop(Span span, long records, long bases, long invalidBases) {
+        if (!ENABLED || span == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - span.startNanos;
+        long bytes = allocatedBytes() - span.startBytes;
+        Counters counters = COUNTERS.get(span.stage);
+        counters.nanos.add(nanos);
+        counters.allocatedBytes.add(Math.max(bytes, 0));
+        counters.records.add(records);
+        counters.bases.add(bases);
+        counters.invalidBases.add(invalidBases);
+        counters.calls.increment();
+    }
+
+    /**
+     * Finishes a measurement of an operation over an array of sequences, counting each
+     * sequence as a record and its characters as bases; no bases are counted as
+     * invalid. Does nothing if the measurement is null, without looking at the array.
+     *
+     * @param span the measurement, or null.
+     * @param sequences the sequences processed; null entries count as empty.
+     */
+    public static void stop(Span span, String[] sequences) {
+        if (!ENABLED || span == null) {
+            return;
+        }
+        long bases = 0;
+        for (String sequence : sequences) {
+            bases += sequence == null ? 0 : sequence.length();
+        }
+        stop(span, sequences.length, bases, 0);
+    }
+
+    /**
+     * Finishes a measurement of an operation that computed {@link SequenceMetrics},
+     * taking the records, bases and invalid bases from them. Does nothing if the
+     * measurement is null.
+     *
+     * @param span the measurement, or null.
+     * @param metrics the metrics computed by the operation.
+     */
+    public static void stop(Span span, SequenceMetrics metrics) {
+        if (!ENABLED || span == null) {
+            return;
+        }
+        NucleotideCounts counts = metrics.getNucleotideCounts();
+        stop(span, metrics.getSequenceCount(), counts.getTotal(), counts.get(NucleotideCounts.OTHER));
+    }
+
+    /**
+     * Returns the counters of a stage.
+     *
+     * @param stage the operation.
+     * @return the live counters of the stage.
+     */
+    public static StageMXBean get(Stage stage) {
+        return COUNTERS.get(stage);
+    }
+
+    /**
+     * Resets the counters of every stage.
+     */
+    public static void reset() {
+        for (Counters counters : COUNTERS.values()) {
+            counters.reset();
+        }
+    }
+
+    /**
+     * Summarizes the stages that have been called, in one line.
+     *
+     * @return the summary, or "no calls" if nothing has been recorded.
+     */
+    public static String summary() {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<Stage, Counters> entry : COUNTERS.entrySet()) {
+            Counters counters = entry.getValue();
+            long calls = counters.getCalls();
+            if (calls == 0) {
+                continue;
+            }
+            if (line.length() > 0) {
+                line.append("; ");
+            }
+            line.append(entry.getKey()).append(" calls=").append(calls)
+                    .append(" records=").append(counters.getRecords())
+                    .append(" bases=").append(counters.getBases())
+                    .append(" invalid=").append(counters.getInvalidBases())
+                    .append(" ms=").append(counters.getNanos() / 1_000_000)
+                    .append(" bases/s=").append(Math.round(counters.getBasesPerSecond()))
+                    .append(" allocated=").append(counters.getAllocatedBytes());
+        }
+        return line.length() == 0 ? "no calls" : line.toString();
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ENABLED && ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    private static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Map.Entry<Stage, Counters> entry : COUNTERS.entrySet()) {
+            try {
+                ObjectName name = new ObjectName(
+                        "GeneticSequenceAnalysis:type=AnalysisMetrics,stage=" + entry.getKey());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(entry.getValue(), name);
+                }
+            } catch (JMException e) {
+                System.err.println("Could not register analysis metrics: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void schedule(long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "analysis-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.Logger log = System.getLogger(AnalysisMetrics.class.getName());
+        String[] last = {summary()};
+        logger.scheduleAtFixedRate(() -> {
+            String line = summary();
+            if (!line.equals(last[0])) {
+                last[0] = line;
+                log.log(System.Logger.Level.INFO, "Analysis metrics: " + line);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+}
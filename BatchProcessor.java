@@ -0,0 +1,252 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the {@link H10CustomApp} metrics over many FASTA or FASTQ files, such as the
+ * per-sample files of a sequencing run, and writes one tab-separated summary row per
+ * file. Each file is read on its own thread, so I/O on one file overlaps with parsing
+ * of the others, and a semaphore bounds how many files are open at once.
+ *
+ * <p>Files run on virtual threads when the runtime provides them (Java 21 and later)
+ * and on an unbounded platform thread pool otherwise; either way the semaphore is what
+ * limits concurrency, so there is no pool size to tune. The project targets Java 17,
+ * so virtual threads are looked up reflectively.</p>
+ *
+ * <p>Rows are written in file order. A file that cannot be read or parsed gets a row
+ * with its error message instead of metrics, and does not stop the batch.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class BatchProcessor {
+
+    /** Default number of files processed at once. */
+    public static final int DEFAULT_CONCURRENCY = 64;
+
+    /** Column names of the summary rows. */
+    public static final String HEADER = "file\tsequences\tbases\tA\tC\tG\tT\tother\t"
+            + "mean_gc\tmean_at\tmin_length\tmax_length\tmost_common\terror";
+
+    private final int concurrency;
+
+    /**
+     * Creates a processor that handles {@link #DEFAULT_CONCURRENCY} files at once.
+     */
+    public BatchProcessor() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Creates a processor.
+     *
+     * @param concurrency the maximum number of files processed at once.
+     */
+    public BatchProcessor(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be a positive integer");
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Lists the files named by a directory or a glob. A directory gives every regular
+     * file directly inside it; a glob such as {@code runs/*}{@code /*.fa} is matched
+     * below the directory that precedes its first wildcard.
+     *
+     * @param directoryOrGlob a directory path or a glob pattern.
+     * @return the matching regular files, sorted by path.
+     * @throws IOException if a directory cannot be listed.
+     */
+    public static List<Path> resolve(String directoryOrGlob) throws IOException {
+        int wildcard = indexOfWildcard(directoryOrGlob);
+        if (wildcard < 0) {
+            Path path = Path.of(directoryOrGlob);
+            if (!Files.isDirectory(path)) {
+                return Files.isRegularFile(path) ? List.of(path) : List.of();
+            }
+            try (Stream<Path> files = Files.list(path)) {
+                return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        }
+
+        int separator = Math.max(directoryOrGlob.lastIndexOf('/', wildcard),
+                directoryOrGlob.lastIndexOf(File.separatorChar, wildcard));
+        Path base = Path.of(directoryOrGlob.substring(0, separator + 1));
+        String relative = directoryOrGlob.substring(separator + 1);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + relative);
+        int depth = relative.contains("**") ? Integer.MAX_VALUE
+                : (int) relative.chars().filter(c -> c == '/' || c == File.separatorChar).count() + 1;
+        Path root = base.toString().isEmpty() ? Path.of(".") : base;
+        try (Stream<Path> files = Files.walk(root, depth)) {
+            return files.filter(Files::isRegularFile)
+                    .map(root::relativize)
+                    .filter(matcher::matches)
+                    .map(base::resolve)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int indexOfWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if ("*?[{".indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Processes every file and writes a header and one summary row per file.
+     *
+     * @param files the FASTA or FASTQ files.
+     * @param out the stream to write the tab-separated rows to.
+     * @return the number of files that could not be processed.
+     * @throws InterruptedException if interrupted while waiting for files to finish.
+     */
+    public int process(List<Path> files, PrintStream out) throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
+        ExecutorService executor = newExecutor();
+        List<Future<Summary>> summaries = new ArrayList<>(files.size());
+        try {
+            for (Path file : files) {
+                permits.acquire();
+                summaries.add(executor.submit(() -> {
+                    try {
+                        return new Summary(summarize(file), false);
+                    } catch (IOException | RuntimeException e) {
+                        return new Summary(errorRow(file, e), true);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            out.println(HEADER);
+            int failures = 0;
+            for (int i = 0; i < summaries.size(); i++) {
+                Summary summary;
+                try {
+                    summary = summaries.get(i).get();
+                } catch (ExecutionException e) {
+                    summary = new Summary(errorRow(files.get(i), e.getCause()), true);
+                }
+                out.println(summary.row);
+                if (summary.failed) {
+                    failures++;
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes the summary row of one file.
+     */
+    private static String summarize(Path file) throws IOException {
+        SequenceMetrics metrics = new SequenceMetrics(false);
+        double gcContentSum = 0;
+        double atContentSum = 0;
+        try (SequenceReader reader = SequenceReader.open(file)) {
+            while (reader.next()) {
+                metrics.add(reader.sequenceBuffer(), 0, reader.sequenceLength());
+                gcContentSum += metrics.getLastGCContent();
+                atContentSum += metrics.getLastATContent();
+            }
+        }
+
+        NucleotideCounts counts = metrics.getNucleotideCounts();
+        long sequences = metrics.getSequenceCount();
+        int[] lengthRange = {Integer.MAX_VALUE, 0};
+        metrics.getLengthHistogram().forEach((length, count) -> {
+            lengthRange[0] = Math.min(lengthRange[0], length);
+            lengthRange[1] = Math.max(lengthRange[1], length);
+        });
+        StringBuilder mostCommon = new StringBuilder();
+        for (char nucleotide : metrics.getMostCommonNucleotides()) {
+            mostCommon.append(nucleotide);
+        }
+        return file
+                + "\t" + sequences
+                + "\t" + counts.getTotal()
+                + "\t" + counts.get(NucleotideCounts.A)
+                + "\t" + counts.get(NucleotideCounts.C)
+                + "\t" + counts.get(NucleotideCounts.G)
+                + "\t" + counts.get(NucleotideCounts.T)
+                + "\t" + counts.get(NucleotideCounts.OTHER)
+                + "\t" + (sequences == 0 ? 0.0 : gcContentSum / sequences)
+                + "\t" + (sequences == 0 ? 0.0 : atContentSum / sequences)
+                + "\t" + (sequences == 0 ? 0 : lengthRange[0])
+                + "\t" + lengthRange[1]
+                + "\t" + mostCommon
+                + "\t";
+    }
+
+    /**
+     * Builds the row of a file that failed, with empty metrics and the error message.
+     */
+    private static String errorRow(Path file, Throwable error) {
+        return file + "\t".repeat(13) + String.valueOf(error.getMessage()).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Returns whether files run on virtual threads in this runtime.
+     *
+     * @return true on Java 21 and later, false otherwise.
+     */
+    public static boolean usesVirtualThreads() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            return false;
+        }
+        executor.shutdown();
+        return true;
+    }
+
+    private static ExecutorService newExecutor() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        return executor != null ? executor : Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "batch-file");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The summary row of one file and whether it failed.
+     */
+    private static final class Summary {
+        final String row;
+        final boolean failed;
+
+        Summary(String row, boolean failed) {
+            this.row = row;
+            this.failed = failed;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses BGZF input, the blocked gzip used for FASTQ and reference files,
+ * across a pool of threads. BGZF is a series of independent gzip members of at most
+ * 64 KB of text, each recording its compressed size in a {@code BC} extra field, so
+ * blocks can be cut from the stream without inflating them.
+ *
+ * <p>Reads pull whole compressed blocks from the input in order and submit each one to
+ * be inflated, keeping up to a fixed number of blocks in flight. Their futures form a
+ * bounded queue in input order: the consumer takes the oldest, and the blocks behind
+ * it keep inflating while its bases are counted. Inflaters and 64 KB output buffers are
+ * recycled between blocks, and every block's CRC-32 and size are checked.</p>
+ *
+ * <p>Channels share one daemon pool with a thread per processor, created on first use,
+ * so opening many compressed files at once, as {@link BatchProcessor} does, does not
+ * multiply the inflating threads.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class BgzfChannel implements ReadableByteChannel {
+
+    /** The largest amount of text one BGZF block holds. */
+    static final int MAX_BLOCK_SIZE = 1 << 16;
+    private static final int HEADER_SIZE = 12;
+    private static final int TRAILER_SIZE = 8;
+
+    private final InputStream in;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int depth;
+    private final ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+    private final byte[] header = new byte[HEADER_SIZE];
+    private long offset;
+    private boolean endOfInput;
+    private volatile boolean open = true;
+    private Block current;
+    private int position;
+
+    /**
+     * Inflated text of one block.
+     */
+    private static final class Block {
+        private final byte[] data;
+        private final int length;
+
+        Block(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The pool shared by channels that are not given a thread count, created when the
+     * first of them is.
+     */
+    private static final class SharedPool {
+        static final int THREADS = Runtime.getRuntime().availableProcessors();
+        static final ExecutorService EXECUTOR = newPool(THREADS);
+    }
+
+    /**
+     * Creates a channel decompressing the given BGZF stream on the shared pool. The
+     * stream is closed when the channel is closed.
+     *
+     * @param in the compressed input, positioned at the start of a block.
+     */
+    public BgzfChannel(InputStream in) {
+        this(in, SharedPool.EXECUTOR, 2 * SharedPool.THREADS, false);
+    }
+
+    /**
+     * Creates a channel decompressing the given BGZF stream on its own threads, which
+     * are stopped when the channel is closed. The stream is closed when the channel is
+     * closed.
+     *
+     * @param in the compressed input, positioned at the start of a block.
+     * @param threads the number of threads inflating blocks.
+     */
+    public BgzfChannel(InputStream in, int threads) {
+        this(in, newPool(threads), 4 * threads, true);
+    }
+
+    private BgzfChannel(InputStream in, ExecutorService executor, int depth, boolean ownsExecutor) {
+        if (in == null) {
+            if (ownsExecutor) {
+                executor.shutdown();
+            }
+            throw new IllegalArgumentException("Input stream cannot be null");
+        }
+        this.in = in;
+        this.depth = depth;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    private static ExecutorService newPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "bgzf-inflate");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns whether the given bytes start a BGZF block: a gzip header with the extra
+     * field flag whose first subfield is {@code BC}, as written by bgzip and htslib.
+     *
+     * @param bytes the first bytes of the input.
+     * @param length the number of bytes available; at least 16 are needed.
+     * @return true if the input is BGZF.
+     */
+    static boolean isBgzf(byte[] bytes, int length) {
+        return length >= 16 && isGzip(bytes, length) && (bytes[3] & 4) != 0
+                && bytes[12] == 'B' && bytes[13] == 'C' && bytes[14] == 2 && bytes[15] == 0;
+    }
+
+    /**
+     * Returns whether the given bytes start a gzip member.
+     *
+     * @param bytes the first bytes of the input.
+     * @param length the number of bytes available.
+     * @return true if the input is gzip.
+     */
+    static boolean isGzip(byte[] bytes, int length) {
+        return length >= 3 && (bytes[0] & 0xFF) == 0x1F && (bytes[1] & 0xFF) == 0x8B && bytes[2] == 8;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        while (current == null || position == current.length) {
+            if (current != null) {
+                buffers.offer(current.data);
+                current = null;
+            }
+            submitBlocks();
+            Future<Block> next = pending.poll();
+            if (next == null) {
+                return -1;
+            }
+            current = await(next);
+            position = 0;
+        }
+        int count = Math.min(dst.remaining(), current.length - position);
+        dst.put(current.data, position, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        for (Future<Block> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+        endInflaters();
+        in.close();
+    }
+
+    /**
+     * Releases the native state of the pooled inflaters. Cancelled tasks may still be
+     * running after close; each returns its inflater to the pool before checking
+     * whether the channel is open, so either this drain or the task's own ends it.
+     */
+    private void endInflaters() {
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads compressed blocks and submits them until the queue is full or the input ends.
+     */
+    private void submitBlocks() throws IOException {
+        while (!endOfInput && pending.size() < depth) {
+            byte[] block = readBlock();
+            if (block == null) {
+                endOfInput = true;
+            } else {
+                pending.add(executor.submit(() -> inflate(block)));
+            }
+        }
+    }
+
+    /**
+     * Reads the compressed data, CRC-32 and size of the next block.
+     *
+     * @return the block after its header, or null at the end of the input.
+     */
+    private byte[] readBlock() throws IOException {
+        int read = in.readNBytes(header, 0, HEADER_SIZE);
+        if (read == 0) {
+            return null;
+        }
+        if (read < HEADER_SIZE || !isGzip(header, read) || (header[3] & 4) == 0) {
+            throw new IOException("Not a BGZF block at offset " + offset);
+        }
+        int extraLength = unsignedShort(header, 10);
+        byte[] extra = readFully(extraLength);
+        int blockSize = -1;
+        for (int i = 0; i + 4 <= extraLength; i += 4 + unsignedShort(extra, i + 2)) {
+            if (extra[i] == 'B' && extra[i + 1] == 'C' && unsignedShort(extra, i + 2) == 2
+                    && i + 6 <= extraLength) {
+                blockSize = unsignedShort(extra, i + 4) + 1;
+            }
+        }
+        int remaining = blockSize - HEADER_SIZE - extraLength;
+        if (blockSize < 0 || remaining < TRAILER_SIZE) {
+            throw new IOException("Not a BGZF block at offset " + offset);
+        }
+        byte[] block = readFully(remaining);
+        offset += blockSize;
+        return block;
+    }
+
+    private byte[] readFully(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        if (in.readNBytes(bytes, 0, length) < length) {
+            throw new EOFException("Truncated BGZF block at offset " + offset);
+        }
+        return bytes;
+    }
+
+    /**
+     * Inflates one block on a pool thread and checks its size and CRC-32.
+     */
+    private Block inflate(byte[] block) throws IOException {
+        int compressedLength = block.length - TRAILER_SIZE;
+        int expectedCrc = littleEndianInt(block, compressedLength);
+        int size = littleEndianInt(block, compressedLength + 4);
+        if (size < 0 || size > MAX_BLOCK_SIZE) {
+            throw new IOException("Invalid BGZF block size " + size);
+        }
+        byte[] data = buffers.poll();
+        if (data == null) {
+            data = new byte[MAX_BLOCK_SIZE];
+        }
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(block, 0, compressedLength);
+            int inflated = 0;
+            while (inflated < size) {
+                int count = inflater.inflate(data, inflated, size - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, inflated);
+            if (inflated != size || (int) crc.getValue() != expectedCrc) {
+                throw new IOException("Corrupt BGZF block: size or checksum mismatch");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt BGZF block: " + e.getMessage(), e);
+        } finally {
+            inflater.reset();
+            inflaters.offer(inflater);
+            if (!open) {
+                endInflaters();
+            }
+        }
+        return new Block(data, size);
+    }
+
+    private static Block await(Future<Block> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while inflating BGZF block");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static int unsignedShort(byte[] bytes, int index) {
+        return (bytes[index] & 0xFF) | (bytes[index + 1] & 0xFF) << 8;
+    }
+
+    private static int littleEndianInt(byte[] bytes, int index) {
+        return unsignedShort(bytes, index) | unsignedShort(bytes, index + 2) << 16;
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers the per-sequence operations of {@link H10CustomApp} through
+ * {@link SequenceCache}s, so batches with many duplicate reads or repeated reference
+ * fragments compute each distinct sequence once. Results are equal to the uncached
+ * methods. Complements and GC/AT contents are cached separately, each bounded to the
+ * given number of bases.
+ *
+ * @author Ajay Shenoy
+ */
+public class CachedSequenceAnalysis {
+
+    /** Default number of bases each cache keeps. */
+    public static final long DEFAULT_CAPACITY = 1L << 24;
+
+    private final SequenceCache<String> complements;
+    private final SequenceCache<double[]> contents;
+
+    /**
+     * Creates an analysis whose caches keep {@link #DEFAULT_CAPACITY} bases each.
+     */
+    public CachedSequenceAnalysis() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an analysis.
+     *
+     * @param maxBases the number of bases of cached sequences each cache keeps.
+     */
+    public CachedSequenceAnalysis(long maxBases) {
+        this.complements = new SequenceCache<>(maxBases, Complementer::complement);
+        this.contents = new SequenceCache<>(maxBases, CachedSequenceAnalysis::computeContents);
+    }
+
+    private static double[] computeContents(String sequence) {
+        long[] counts = new long[5];
+        NucleotideCounts.count(sequence, counts);
+        int length = sequence.length();
+        if (length == 0) {
+            return new double[] {0.0, 0.0};
+        }
+        return new double[] {
+            (counts[NucleotideCounts.G] + counts[NucleotideCounts.C]) * 100.0 / length,
+            (counts[NucleotideCounts.A] + counts[NucleotideCounts.T]) * 100.0 / length
+        };
+    }
+
+    /**
+     * Generates the complementary DNA strand, like
+     * {@link H10CustomApp#generateComplementaryStrand(String)}.
+     *
+     * @param strand the input DNA strand.
+     * @return the complementary DNA strand.
+     */
+    public String generateComplementaryStrand(String strand) {
+        if (strand == null) {
+            throw new IllegalArgumentException("Strand cannot be null");
+        }
+        return complements.get(strand);
+    }
+
+    /**
+     * Calculates the GC content of each given DNA sequence, like
+     * {@link H10CustomApp#calculateGCContentForAll(String[])}.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return gcContents A list of GC content percentages for each sequence.
+     */
+    public List<Double> calculateGCContentForAll(String[] sequences) {
+        return contentsForAll(sequences, 0);
+    }
+
+    /**
+     * Calculates the AT content of each given DNA sequence, like
+     * {@link H10CustomApp#calculateATContentForAll(String[])}.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return atContents A list of AT content percentages for each sequence.
+     */
+    public List<Double> calculateATContentForAll(String[] sequences) {
+        return contentsForAll(sequences, 1);
+    }
+
+    private List<Double> contentsForAll(String[] sequences, int index) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        List<Double> results = new ArrayList<>(sequences.length);
+        for (String sequence : sequences) {
+            results.add(sequence == null ? 0.0 : contents.get(sequence)[index]);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the cache of complementary strands, for its counters.
+     *
+     * @return the complement cache.
+     */
+    public SequenceCache<String> getComplementCache() {
+        return complements;
+    }
+
+    /**
+     * Returns the cache of GC and AT contents, for its counters.
+     *
+     * @return the content cache.
+     */
+    public SequenceCache<double[]> getContentCache() {
+        return contents;
+    }
+}
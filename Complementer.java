@@ -0,0 +1,190 @@
+/**
+ * Table-driven complement and reverse complement of DNA strands. Every IUPAC
+ * nucleotide code is complemented (A/T, C/G, R/Y, K/M, B/V, D/H, S, W and N map as
+ * usual, U maps to A) and case is preserved. Characters that are not IUPAC codes are
+ * skipped. Output goes into a presized array, either a caller-provided buffer or one
+ * reused across a batch, instead of a growing {@link StringBuilder}.
+ *
+ * @author Ajay Shenoy
+ */
+public class Complementer {
+
+    private static final char[] COMPLEMENT = new char[128];
+
+    static {
+        String codes = "ACGTURYKMBDHVNSW";
+        String complements = "TGCAAYRMKVHDBNSW";
+        for (int i = 0; i < codes.length(); i++) {
+            char code = codes.charAt(i);
+            char complement = complements.charAt(i);
+            COMPLEMENT[code] = complement;
+            COMPLEMENT[Character.toLowerCase(code)] = Character.toLowerCase(complement);
+        }
+    }
+
+    private Complementer() {
+    }
+
+    /**
+     * Returns the complement of a single nucleotide code.
+     *
+     * @param nucleotide the nucleotide code.
+     * @return the complementary code with the same case, or 0 if it is not an IUPAC code.
+     */
+    public static char complementOf(char nucleotide) {
+        return nucleotide < 128 ? COMPLEMENT[nucleotide] : 0;
+    }
+
+    /**
+     * Generates the complementary strand.
+     *
+     * @param strand the input DNA strand.
+     * @return the complementary DNA strand.
+     */
+    public static String complement(CharSequence strand) {
+        char[] buffer = new char[strand.length()];
+        return new String(buffer, 0, complement(strand, buffer, 0));
+    }
+
+    /**
+     * Generates the reverse complement of a strand.
+     *
+     * @param strand the input DNA strand.
+     * @return the reverse-complemented DNA strand.
+     */
+    public static String reverseComplement(CharSequence strand) {
+        char[] buffer = new char[strand.length()];
+        return new String(buffer, 0, reverseComplement(strand, buffer, 0));
+    }
+
+    /**
+     * Writes the complement of a strand into a buffer.
+     *
+     * @param strand the input DNA strand.
+     * @param target the buffer to write to, with room for {@code strand.length()} characters.
+     * @param offset the index in the buffer to start writing at.
+     * @return the number of characters written.
+     */
+    public static int complement(CharSequence strand, char[] target, int offset) {
+        int written = offset;
+        for (int i = 0, length = strand.length(); i < length; i++) {
+            char complement = complementOf(strand.charAt(i));
+            if (complement != 0) {
+                target[written++] = complement;
+            }
+        }
+        return written - offset;
+    }
+
+    /**
+     * Writes the reverse complement of a strand into a buffer.
+     *
+     * @param strand the input DNA strand.
+     * @param target the buffer to write to, with room for {@code strand.length()} characters.
+     * @param offset the index in the buffer to start writing at.
+     * @return the number of characters written.
+     */
+    public static int reverseComplement(CharSequence strand, char[] target, int offset) {
+        int written = offset;
+        for (int i = strand.length() - 1; i >= 0; i--) {
+            char complement = complementOf(strand.charAt(i));
+            if (complement != 0) {
+                target[written++] = complement;
+            }
+        }
+        return written - offset;
+    }
+
+    /**
+     * Writes the complement of an ASCII strand into a buffer. The source and target may
+     * be the same array to complement in place.
+     *
+     * @param source the buffer holding the strand.
+     * @param sourceOffset the index of the first base.
+     * @param length the number of bases.
+     * @param target the buffer to write to, with room for {@code length} bytes.
+     * @param targetOffset the index in the target to start writing at.
+     * @return the number of bytes written.
+     */
+    public static int complement(byte[] source, int sourceOffset, int length, byte[] target,
+            int targetOffset) {
+        int written = targetOffset;
+        for (int i = sourceOffset, end = sourceOffset + length; i < end; i++) {
+            byte base = source[i];
+            char complement = base >= 0 ? COMPLEMENT[base] : 0;
+            if (complement != 0) {
+                target[written++] = (byte) complement;
+            }
+        }
+        return written - targetOffset;
+    }
+
+    /**
+     * Writes the reverse complement of an ASCII strand into a buffer. The source and
+     * target must not overlap.
+     *
+     * @param source the buffer holding the strand.
+     * @param sourceOffset the index of the first base.
+     * @param length the number of bases.
+     * @param target the buffer to write to, with room for {@code length} bytes.
+     * @param targetOffset the index in the target to start writing at.
+     * @return the number of bytes written.
+     */
+    public static int reverseComplement(byte[] source, int sourceOffset, int length, byte[] target,
+            int targetOffset) {
+        int written = targetOffset;
+        for (int i = sourceOffset + length - 1; i >= sourceOffset; i--) {
+            byte base = source[i];
+            char complement = base >= 0 ? COMPLEMENT[base] : 0;
+            if (complement != 0) {
+                target[written++] = (byte) complement;
+            }
+        }
+        return written - targetOffset;
+    }
+
+    /**
+     * Generates the complementary strand of every sequence, reusing one buffer for the
+     * whole batch.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return the complementary strands, in order; null sequences stay null.
+     */
+    public static String[] complementAll(String[] sequences) {
+        return transformAll(sequences, false);
+    }
+
+    /**
+     * Generates the reverse complement of every sequence, reusing one buffer for the
+     * whole batch.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return the reverse-complemented strands, in order; null sequences stay null.
+     */
+    public static String[] reverseComplementAll(String[] sequences) {
+        return transformAll(sequences, true);
+    }
+
+    private static String[] transformAll(String[] sequences, boolean reverse) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        int longest = 0;
+        for (String sequence : sequences) {
+            if (sequence != null) {
+                longest = Math.max(longest, sequence.length());
+            }
+        }
+        char[] buffer = new char[longest];
+        String[] results = new String[sequences.length];
+        for (int i = 0; i < sequences.length; i++) {
+            String sequence = sequences[i];
+            if (sequence != null) {
+                int written = reverse ? reverseComplement(sequence, buffer, 0)
+                        : complement(sequence, buffer, 0);
+                results[i] = new String(buffer, 0, written);
+            }
+        }
+        return results;
+    }
+}
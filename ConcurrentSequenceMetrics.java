@@ -0,0 +1,264 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A running total that many ingest threads can add sequences to at once without
+ * sharing a lock. Each sequence is counted into a scratch array reused by the calling
+ * thread, and only the per-sequence totals are published to shared {@link LongAdder}
+ * and {@link DoubleAdder} cells, whose contended cells are padded and spread over
+ * threads, so producers do not serialize on a shared counter or falsely share cache
+ * lines. Lengths below {@value #COMMON_LENGTHS} are counted in an array of adders
+ * indexed by length, so adding a sequence of such a length allocates nothing once its
+ * adder exists; longer lengths fall back to a map of adders.
+ *
+ * <p>{@link #snapshot()} never blocks producers. A snapshot taken while sequences are
+ * being added may include part of a concurrently added sequence; once producers have
+ * finished it is exact and matches the static {@link H10CustomApp} methods.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class ConcurrentSequenceMetrics {
+
+    private static final int COMMON_LENGTHS = 4096;
+    private static final ThreadLocal<long[]> SCRATCH = ThreadLocal.withInitial(() -> new long[5]);
+
+    private final LongAdder[] nucleotideCounts = new LongAdder[5];
+    private final AtomicReferenceArray<LongAdder> commonLengthCounts =
+            new AtomicReferenceArray<>(COMMON_LENGTHS);
+    private final Map<Integer, LongAdder> otherLengthCounts = new ConcurrentHashMap<>();
+    private final LongAdder sequenceCount = new LongAdder();
+    private final DoubleAdder gcContentSum = new DoubleAdder();
+    private final DoubleAdder atContentSum = new DoubleAdder();
+
+    /**
+     * Creates an empty accumulator.
+     */
+    public ConcurrentSequenceMetrics() {
+        for (int i = 0; i < nucleotideCounts.length; i++) {
+            nucleotideCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Adds a sequence. A null sequence counts as 0% GC and AT content but does not
+     * contribute to the nucleotide frequencies or length distribution.
+     *
+     * @param sequence the DNA sequence, or null.
+     */
+    public void add(CharSequence sequence) {
+        if (sequence == null) {
+            sequenceCount.increment();
+            return;
+        }
+        long[] counts = scratch();
+        NucleotideCounts.count(sequence, counts);
+        publish(counts, sequence.length());
+    }
+
+    /**
+     * Adds a sequence held as ASCII bytes.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     */
+    public void add(byte[] bases, int offset, int length) {
+        long[] counts = scratch();
+        NucleotideCounts.count(bases, offset, length, counts);
+        publish(counts, length);
+    }
+
+    /**
+     * Adds every sequence of a batch.
+     *
+     * @param sequences An array of DNA sequences.
+     */
+    public void addAll(String[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        for (String sequence : sequences) {
+            add(sequence);
+        }
+    }
+
+    private static long[] scratch() {
+        long[] counts = SCRATCH.get();
+        Arrays.fill(counts, 0);
+        return counts;
+    }
+
+    private void publish(long[] counts, int length) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                nucleotideCounts[i].add(counts[i]);
+            }
+        }
+        lengthCount(length).increment();
+        if (length > 0) {
+            gcContentSum.add((counts[NucleotideCounts.G] + counts[NucleotideCounts.C]) * 100.0 / length);
+            atContentSum.add((counts[NucleotideCounts.A] + counts[NucleotideCounts.T]) * 100.0 / length);
+        }
+        sequenceCount.increment();
+    }
+
+    private LongAdder lengthCount(int length) {
+        if (length < COMMON_LENGTHS) {
+            LongAdder lengthCount = commonLengthCounts.get(length);
+            if (lengthCount == null) {
+                commonLengthCounts.compareAndSet(length, null, new LongAdder());
+                lengthCount = commonLengthCounts.get(length);
+            }
+            return lengthCount;
+        }
+        LongAdder lengthCount = otherLengthCounts.get(length);
+        if (lengthCount == null) {
+            lengthCount = otherLengthCounts.computeIfAbsent(length, key -> new LongAdder());
+        }
+        return lengthCount;
+    }
+
+    /**
+     * Takes a snapshot of the running totals without blocking producers.
+     *
+     * @return the snapshot.
+     */
+    public Snapshot snapshot() {
+        NucleotideCounts counts = new NucleotideCounts();
+        long[] totals = new long[5];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = nucleotideCounts[i].sum();
+        }
+        counts.add(totals);
+        LengthHistogram histogram = new LengthHistogram();
+        for (int length = 0; length < COMMON_LENGTHS; length++) {
+            LongAdder lengthCount = commonLengthCounts.get(length);
+            if (lengthCount != null) {
+                histogram.add(length, lengthCount.sum());
+            }
+        }
+        otherLengthCounts.forEach((length, count) -> histogram.add(length, count.sum()));
+        return new Snapshot(counts, histogram, sequenceCount.sum(), gcContentSum.sum(), atContentSum.sum());
+    }
+
+    /**
+     * An immutable view of the totals at the time of a {@link #snapshot()}.
+     */
+    public static final class Snapshot {
+        private final NucleotideCounts nucleotideCounts;
+        private final LengthHistogram lengthHistogram;
+        private final long sequenceCount;
+        private final double gcContentSum;
+        private final double atContentSum;
+
+        private Snapshot(NucleotideCounts nucleotideCounts, LengthHistogram lengthHistogram,
+                long sequenceCount, double gcContentSum, double atContentSum) {
+            this.nucleotideCounts = nucleotideCounts;
+            this.lengthHistogram = lengthHistogram;
+            this.sequenceCount = sequenceCount;
+            this.gcContentSum = gcContentSum;
+            this.atContentSum = atContentSum;
+        }
+
+        /**
+         * Returns the number of sequences added, including null sequences.
+         *
+         * @return the sequence count.
+         */
+        public long getSequenceCount() {
+            return sequenceCount;
+        }
+
+        /**
+         * Returns the 64-bit nucleotide counts across all sequences.
+         *
+         * @return the nucleotide counts.
+         */
+        public NucleotideCounts getNucleotideCounts() {
+            return nucleotideCounts;
+        }
+
+        /**
+         * Returns the nucleotide frequencies, like
+         * {@link H10CustomApp#calculateNucleotideFrequencies(String[])}.
+         *
+         * @return frequencyMap A map with nucleotide as the key and its frequency as the value.
+         * @throws ArithmeticException if a count does not fit in an Integer.
+         */
+        public Map<Character, Integer> getNucleotideFrequencies() {
+            return nucleotideCounts.toFrequencyMap();
+        }
+
+        /**
+         * Returns the 64-bit histogram of sequence lengths.
+         *
+         * @return the length histogram.
+         */
+        public LengthHistogram getLengthHistogram() {
+            return lengthHistogram;
+        }
+
+        /**
+         * Returns the distribution of sequence lengths, like
+         * {@link H10CustomApp#calculateSequenceLengthDistribution(String[])}.
+         *
+         * @return lengthDistribution A map with sequence length as the key and its frequency
+         * as the value.
+         * @throws ArithmeticException if a count does not fit in an Integer.
+         */
+        public Map<Integer, Integer> getLengthDistribution() {
+            return lengthHistogram.toMap();
+        }
+
+        /**
+         * Finds the most common nucleotides, like
+         * {@link H10CustomApp#findMostCommonNucleotides(String[])}.
+         *
+         * @return mostCommonNucleotides A list of the most frequently occurring nucleotides.
+         */
+        public List<Character> getMostCommonNucleotides() {
+            return SequenceMetrics.mostCommon(nucleotideCounts);
+        }
+
+        /**
+         * Returns the sum of the GC content percentages of all sequences.
+         *
+         * @return the GC content sum.
+         */
+        public double getGCContentSum() {
+            return gcContentSum;
+        }
+
+        /**
+         * Returns the sum of the AT content percentages of all sequences.
+         *
+         * @return the AT content sum.
+         */
+        public double getATContentSum() {
+            return atContentSum;
+        }
+
+        /**
+         * Returns the mean GC content percentage per sequence.
+         *
+         * @return the mean GC content, or 0.0 if no sequence was added.
+         */
+        public double getMeanGCContent() {
+            return sequenceCount == 0 ? 0.0 : gcContentSum / sequenceCount;
+        }
+
+        /**
+         * Returns the mean AT content percentage per sequence.
+         *
+         * @return the mean AT content, or 0.0 if no sequence was added.
+         */
+        public double getMeanATContent() {
+            return sequenceCount == 0 ? 0.0 : atContentSum / sequenceCount;
+        }
+    }
+}
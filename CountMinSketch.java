@@ -0,0 +1,204 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A Count-Min sketch of 64-bit items, such as encoded k-mers. Each of {@code depth}
+ * rows of {@code width} counters is indexed by a different hash of the item, and an
+ * item's estimate is the smallest of its counters. With width at least e/epsilon and
+ * depth at least ln(1/delta), an estimate exceeds the true count by more than
+ * {@code epsilon} times the total count with probability at most {@code delta}, and
+ * never falls below it. Memory is fixed by the error bounds, and sketches of the same
+ * size merge by adding counters.
+ *
+ * @author Ajay Shenoy
+ */
+public class CountMinSketch {
+
+    private static final int MAX_WIDTH = 1 << 26;
+    private static final int MAX_DEPTH = 64;
+    /** Largest number of counters, 2 GB of memory. */
+    private static final long MAX_COUNTERS = 1L << 28;
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final long[] counters;
+    private long total;
+
+    /**
+     * Creates a sketch sized for the given error bounds.
+     *
+     * @param epsilon the error, as a fraction of the total count, between 0 and 1.
+     * @param delta the probability of exceeding the error, between 0 and 1.
+     * @throws IllegalArgumentException if the bounds need more than 64 rows or more
+     *                                  than 2^28 counters.
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        this(width(epsilon), depth(delta));
+    }
+
+    private CountMinSketch(int width, int depth) {
+        if (!isValidSize(width, depth)) {
+            throw new IllegalArgumentException("Error bounds need too large a sketch: " + width + "x" + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new long[width * depth];
+    }
+
+    /**
+     * Returns whether a sketch of the given size can be built and read back.
+     */
+    private static boolean isValidSize(int width, int depth) {
+        return width >= 1 && Integer.bitCount(width) == 1 && width <= MAX_WIDTH && depth >= 1 && depth <= MAX_DEPTH
+                && (long) width * depth <= MAX_COUNTERS;
+    }
+
+    private static int width(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1: " + epsilon);
+        }
+        double width = Math.ceil(Math.E / epsilon);
+        if (width > MAX_WIDTH) {
+            throw new IllegalArgumentException("Epsilon is too small: " + epsilon);
+        }
+        return Integer.highestOneBit((int) width - 1) << 1;
+    }
+
+    private static int depth(double delta) {
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Delta must be between 0 and 1: " + delta);
+        }
+        double depth = Math.ceil(Math.log(1 / delta));
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Delta is too small: " + delta);
+        }
+        return Math.max(1, (int) depth);
+    }
+
+    /**
+     * Adds one occurrence of an item.
+     *
+     * @param item the item.
+     */
+    public void increment(long item) {
+        add(item, 1);
+    }
+
+    /**
+     * Adds occurrences of an item.
+     *
+     * @param item the item.
+     * @param count the number of occurrences, not negative.
+     */
+    public void add(long item, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative: " + count);
+        }
+        long hash = SequenceHash.mix(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + ((h1 + row * h2) & mask)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Estimates the number of occurrences of an item.
+     *
+     * @param item the item.
+     * @return an estimate that is never below the true count.
+     */
+    public long estimate(long item) {
+        long hash = SequenceHash.mix(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + ((h1 + row * h2) & mask)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Adds the counts of another sketch of the same size.
+     *
+     * @param other the sketch to merge.
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge sketches of different sizes: "
+                    + width + "x" + depth + " and " + other.width + "x" + other.depth);
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Returns the number of occurrences added.
+     *
+     * @return the total count.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of counters in each row.
+     *
+     * @return the width.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Writes the sketch.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(depth);
+        out.writeLong(total);
+        for (long counter : counters) {
+            out.writeLong(counter);
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from.
+     * @return the sketch.
+     * @throws IOException if the input cannot be read or is not a sketch.
+     */
+    public static CountMinSketch readFrom(DataInput in) throws IOException {
+        int width = in.readInt();
+        int depth = in.readInt();
+        if (!isValidSize(width, depth)) {
+            throw new IOException("Invalid Count-Min sketch size " + width + "x" + depth);
+        }
+        CountMinSketch sketch = new CountMinSketch(width, depth);
+        sketch.total = in.readLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = in.readLong();
+        }
+        return sketch;
+    }
+}
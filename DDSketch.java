@@ -0,0 +1,237 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A DDSketch of non-negative values, such as sequence lengths or GC content, giving
+ * quantiles within a relative error. A positive value x falls in bucket
+ * ceil(log(x) / log(gamma)) with gamma = (1 + alpha) / (1 - alpha), and a quantile
+ * is answered by the midpoint of its bucket, which is within {@code alpha} of the
+ * true value relative to it. Zeros are counted apart. At most {@code maxBuckets}
+ * buckets are kept; beyond that the lowest buckets are collapsed together, so only
+ * the lowest quantiles lose accuracy. Sketches with the same accuracy merge by adding
+ * bucket counts, giving the same quantiles as sketching all values at once.
+ *
+ * @author Ajay Shenoy
+ */
+public class DDSketch {
+
+    private final double relativeAccuracy;
+    private final int maxBuckets;
+    private final double logGamma;
+    private long[] buckets = new long[0];
+    private int offset;
+    private long count;
+    private long zeroCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param relativeAccuracy the relative error of quantiles, between 0 and 1.
+     * @param maxBuckets the largest number of buckets to keep, at least 16.
+     */
+    public DDSketch(double relativeAccuracy, int maxBuckets) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        if (maxBuckets < 16) {
+            throw new IllegalArgumentException("Bucket limit must be at least 16: " + maxBuckets);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBuckets = maxBuckets;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value, not negative.
+     */
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    /**
+     * Adds several occurrences of a value.
+     *
+     * @param value the value, not negative.
+     * @param occurrences the number of occurrences, not negative.
+     */
+    public void add(double value, long occurrences) {
+        if (!(value >= 0) || value == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Value must be finite and not negative: " + value);
+        }
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences cannot be negative: " + occurrences);
+        }
+        if (occurrences == 0) {
+            return;
+        }
+        if (value == 0) {
+            zeroCount += occurrences;
+        } else {
+            addToBucket((int) Math.ceil(Math.log(value) / logGamma), occurrences);
+        }
+        count += occurrences;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private void addToBucket(int key, long occurrences) {
+        if (buckets.length == 0) {
+            buckets = new long[16];
+            offset = key;
+        } else if (key < offset || key >= offset + buckets.length) {
+            int top = offset + buckets.length - 1;
+            while (top > offset && buckets[top - offset] == 0) {
+                top--;
+            }
+            int high = Math.max(top, key);
+            int low = Math.max(Math.min(offset, key), high - maxBuckets + 1);
+            long[] resized = new long[Math.min(maxBuckets, Math.max(high - low + 1, 2 * buckets.length))];
+            for (int i = 0; i <= top - offset; i++) {
+                resized[Math.max(offset + i, low) - low] += buckets[i];
+            }
+            buckets = resized;
+            offset = low;
+        }
+        buckets[Math.max(key, offset) - offset] += occurrences;
+    }
+
+    /**
+     * Returns the value at a quantile.
+     *
+     * @param quantile the quantile, from 0 to 1.
+     * @return the estimated value, or NaN if the sketch is empty.
+     */
+    public double quantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        if (rank < zeroCount) {
+            return 0.0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen > rank) {
+                double value = 2 * Math.exp((offset + i) * logGamma) / (1 + Math.exp(logGamma));
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Adds the values of another sketch with the same accuracy and bucket limit.
+     *
+     * @param other the sketch to merge.
+     */
+    public void merge(DDSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy || other.maxBuckets != maxBuckets) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracies: "
+                    + relativeAccuracy + " and " + other.relativeAccuracy);
+        }
+        for (int i = other.buckets.length - 1; i >= 0; i--) {
+            if (other.buckets[i] != 0) {
+                addToBucket(other.offset + i, other.buckets[i]);
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest value added.
+     *
+     * @return the minimum, or positive infinity if the sketch is empty.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value added.
+     *
+     * @return the maximum, or negative infinity if the sketch is empty.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the relative accuracy of quantiles.
+     *
+     * @return alpha.
+     */
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Writes the sketch.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(relativeAccuracy);
+        out.writeInt(maxBuckets);
+        out.writeLong(count);
+        out.writeLong(zeroCount);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(offset);
+        out.writeInt(buckets.length);
+        for (long bucket : buckets) {
+            out.writeLong(bucket);
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from.
+     * @return the sketch.
+     * @throws IOException if the input cannot be read or is not a sketch.
+     */
+    public static DDSketch readFrom(DataInput in) throws IOException {
+        DDSketch sketch;
+        try {
+            sketch = new DDSketch(in.readDouble(), in.readInt());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid DDSketch: " + e.getMessage());
+        }
+        sketch.count = in.readLong();
+        sketch.zeroCount = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        sketch.offset = in.readInt();
+        int length = in.readInt();
+        if (length < 0 || length > sketch.maxBuckets) {
+            throw new IOException("Invalid DDSketch bucket count " + length);
+        }
+        sketch.buckets = new long[length];
+        for (int i = 0; i < length; i++) {
+            sketch.buckets[i] = in.readLong();
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * Computes the edit (Levenshtein) distance between two sequences with Myers'
+ * bit-parallel algorithm, in Hyyro's formulation for global distance. One column of
+ * the dynamic programming matrix is held as two bit vectors of vertical +1 and -1
+ * deltas, so each character of the second sequence costs a handful of word operations
+ * per 64 characters of the first instead of one cell update per pair. Patterns of up to
+ * 64 characters take a single-word path; longer ones are split into 64-bit blocks with
+ * the horizontal delta carried from block to block.
+ *
+ * <p>Characters compare case-insensitively, with U equal to T. An instance keeps its
+ * bit vectors and match masks between calls and reuses the masks while the first
+ * sequence is the same String, as in an all-vs-all row; it is not safe for concurrent use.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class EditDistance {
+
+    private static final int SYMBOLS = 128;
+    private static final byte[] SYMBOL = new byte[SYMBOLS];
+
+    static {
+        for (int c = 0; c < SYMBOLS; c++) {
+            SYMBOL[c] = (byte) Character.toUpperCase(c);
+        }
+        SYMBOL['U'] = 'T';
+        SYMBOL['u'] = 'T';
+    }
+
+    private CharSequence pattern;
+    private int words;
+    private long[] matches = new long[SYMBOLS];
+    private long[] plus = new long[1];
+    private long[] minus = new long[1];
+
+    /**
+     * Returns the symbol a character is compared as.
+     *
+     * @param c the character.
+     * @return the upper-case character with U read as T, or 127 for non-ASCII characters.
+     */
+    static int symbol(char c) {
+        return c < SYMBOLS ? SYMBOL[c] : SYMBOLS - 1;
+    }
+
+    /**
+     * Computes the edit distance between two sequences with a new instance.
+     *
+     * @param a the first sequence.
+     * @param b the second sequence.
+     * @return the minimum number of substitutions, insertions and deletions.
+     */
+    public static int distance(CharSequence a, CharSequence b) {
+        return new EditDistance().compute(a, b);
+    }
+
+    /**
+     * Computes the edit distance between two sequences.
+     *
+     * @param a the first sequence; its match masks are kept for the next call.
+     * @param b the second sequence.
+     * @return the minimum number of substitutions, insertions and deletions.
+     */
+    public int compute(CharSequence a, CharSequence b) {
+        if (a == null || b == null) {
+            throw new IllegalArgumentException("Sequences cannot be null");
+        }
+        int m = a.length();
+        if (m == 0) {
+            return b.length();
+        }
+        if (a != pattern || !(a instanceof String)) {
+            prepare(a);
+        }
+        return words == 1 ? computeWord(m, b) : computeBlocks(m, b);
+    }
+
+    /**
+     * Builds the match mask of each symbol: bit i of block i / 64 is set where the
+     * pattern has that symbol.
+     */
+    private void prepare(CharSequence a) {
+        int m = a.length();
+        words = (m + 63) >>> 6;
+        if (matches.length < SYMBOLS * words) {
+            matches = new long[SYMBOLS * words];
+            plus = new long[words];
+            minus = new long[words];
+        } else {
+            Arrays.fill(matches, 0, SYMBOLS * words, 0);
+        }
+        for (int i = 0; i < m; i++) {
+            matches[symbol(a.charAt(i)) * words + (i >>> 6)] |= 1L << i;
+        }
+        pattern = a;
+    }
+
+    private int computeWord(int m, CharSequence b) {
+        long pv = -1L;
+        long mv = 0;
+        long high = 1L << (m - 1);
+        int score = m;
+        for (int j = 0, n = b.length(); j < n; j++) {
+            long eq = matches[symbol(b.charAt(j))];
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & high) != 0) {
+                score++;
+            } else if ((mh & high) != 0) {
+                score--;
+            }
+            ph = (ph << 1) | 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score;
+    }
+
+    private int computeBlocks(int m, CharSequence b) {
+        Arrays.fill(plus, 0, words, -1L);
+        Arrays.fill(minus, 0, words, 0);
+        long lastHigh = 1L << ((m - 1) & 63);
+        int score = m;
+        for (int j = 0, n = b.length(); j < n; j++) {
+            int offset = symbol(b.charAt(j)) * words;
+            // The top row of the matrix is 0, 1, 2, ..., so every column enters with +1
+            int carry = 1;
+            for (int w = 0; w < words; w++) {
+                long pv = plus[w];
+                long mv = minus[w];
+                long eq = matches[offset + w];
+                long xv = eq | mv;
+                if (carry < 0) {
+                    eq |= 1;
+                }
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                long high = w == words - 1 ? lastHigh : Long.MIN_VALUE;
+                int out = (ph & high) != 0 ? 1 : (mh & high) != 0 ? -1 : 0;
+                ph <<= 1;
+                mh <<= 1;
+                if (carry < 0) {
+                    mh |= 1;
+                } else if (carry > 0) {
+                    ph |= 1;
+                }
+                plus[w] = mh | ~(xv | ph);
+                minus[w] = ph & xv;
+                carry = out;
+            }
+            score += carry;
+        }
+        return score;
+    }
+
+    /**
+     * Computes the edit distance between every pair of sequences on a fork-join pool,
+     * with one instance per worker thread.
+     *
+     * @param sequences An array of DNA sequences; null entries compare as empty.
+     * @param parallelism the number of worker threads.
+     * @return the symmetric matrix of distances.
+     */
+    public static int[][] allVsAll(String[] sequences, int parallelism) {
+        return AllVsAll.compute(sequences, () -> new EditDistance()::compute, parallelism);
+    }
+}
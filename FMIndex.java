@@ -0,0 +1,365 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compressed full-text index over a fixed set of sequences, for answering many motif
+ * queries against the same reference. Building it costs linear time, through the SA-IS
+ * suffix array construction; afterwards counting the occurrences of a motif costs time
+ * proportional to the motif length, independent of the reference size, and locating
+ * each occurrence costs at most {@value #SAMPLE_RATE} steps.
+ *
+ * <p>The sequences are concatenated with a separator between them and encoded as A=1,
+ * C=2, G=3, T=4 and 5 for any other character, so no match spans two sequences or
+ * includes an N. The index keeps the Burrows-Wheeler transform as one byte per base,
+ * occurrence counts every {@value #OCC_RATE} rows and the suffix array positions that
+ * are multiples of {@value #SAMPLE_RATE}, about 2.5 bytes per base. IUPAC-degenerate
+ * motifs are searched by branching the backward search at each degenerate position,
+ * dropping a branch as soon as its suffix array range is empty. The results match a
+ * {@link MotifSearcher} built with the same motifs.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class FMIndex {
+
+    private static final int OCC_RATE = 64;
+    private static final int SAMPLE_RATE = 32;
+    private static final int ALPHABET = 6;
+    private static final int SEPARATOR = 5;
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, (byte) SEPARATOR);
+        String bases = "ACGTU";
+        for (int i = 0; i < bases.length(); i++) {
+            CODES[bases.charAt(i)] = (byte) Math.min(i + 1, 4);
+            CODES[Character.toLowerCase(bases.charAt(i))] = (byte) Math.min(i + 1, 4);
+        }
+    }
+
+    private final byte[] bwt;
+    private final int[] counts = new int[ALPHABET + 1];
+    private final int[] occurrences;
+    private final long[] sampled;
+    private final int[] sampledRanks;
+    private final int[] samples;
+    private final int[] starts;
+
+    private FMIndex(byte[] text, int[] starts) {
+        int n = text.length;
+        int[] symbols = new int[n];
+        for (int i = 0; i < n; i++) {
+            symbols[i] = text[i];
+            counts[text[i] + 1]++;
+        }
+        for (int c = 1; c <= ALPHABET; c++) {
+            counts[c] += counts[c - 1];
+        }
+        int[] suffixArray = suffixArray(symbols, SEPARATOR);
+        this.starts = starts;
+        this.bwt = new byte[n];
+        this.occurrences = new int[(n / OCC_RATE + 1) * ALPHABET];
+        this.sampled = new long[(n >>> 6) + 1];
+        this.sampledRanks = new int[sampled.length];
+        int[] running = new int[ALPHABET];
+        int sampleCount = 0;
+        for (int row = 0; row < n; row++) {
+            if (row % OCC_RATE == 0) {
+                System.arraycopy(running, 0, occurrences, row / OCC_RATE * ALPHABET, ALPHABET);
+            }
+            int position = suffixArray[row];
+            bwt[row] = text[position == 0 ? n - 1 : position - 1];
+            running[bwt[row]]++;
+            if (position % SAMPLE_RATE == 0) {
+                sampled[row >>> 6] |= 1L << row;
+                sampleCount++;
+            }
+        }
+        if (n % OCC_RATE == 0) {
+            System.arraycopy(running, 0, occurrences, n / OCC_RATE * ALPHABET, ALPHABET);
+        }
+        this.samples = new int[sampleCount];
+        for (int word = 0, rank = 0; word < sampled.length; word++) {
+            sampledRanks[word] = rank;
+            rank += Long.bitCount(sampled[word]);
+        }
+        for (int row = 0, rank = 0; row < n; row++) {
+            if ((sampled[row >>> 6] & (1L << row)) != 0) {
+                samples[rank++] = suffixArray[row];
+            }
+        }
+    }
+
+    /**
+     * Builds an index over the given sequences. Case is ignored and U is read as T.
+     *
+     * @param sequences An array of DNA sequences; null entries are indexed as empty.
+     * @return the index.
+     */
+    public static FMIndex build(String[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        long total = 1;
+        for (String sequence : sequences) {
+            total += (sequence == null ? 0 : sequence.length()) + 1;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Sequences are too long to index: " + total + " characters");
+        }
+        byte[] text = new byte[(int) total];
+        int[] starts = new int[sequences.length];
+        int position = 0;
+        for (int i = 0; i < sequences.length; i++) {
+            starts[i] = position;
+            String sequence = sequences[i];
+            for (int j = 0, length = sequence == null ? 0 : sequence.length(); j < length; j++) {
+                char base = sequence.charAt(j);
+                text[position++] = base < 128 ? CODES[base] : SEPARATOR;
+            }
+            text[position++] = SEPARATOR;
+        }
+        return new FMIndex(text, starts);
+    }
+
+    /**
+     * Counts the occurrences of a motif on the forward strand of all sequences.
+     *
+     * @param motif the motif, made of IUPAC nucleotide codes in either case.
+     * @return the number of occurrences.
+     */
+    public long count(String motif) {
+        byte[] masks = MotifSearcher.masks(motif);
+        return count(masks, masks.length - 1, 0, bwt.length);
+    }
+
+    private long count(byte[] masks, int position, int low, int high) {
+        if (position < 0) {
+            return high - low;
+        }
+        long total = 0;
+        for (int c = 1; c <= 4; c++) {
+            if ((masks[position] & (1 << (c - 1))) != 0) {
+                int nextLow = counts[c] + occurrences(c, low);
+                int nextHigh = counts[c] + occurrences(c, high);
+                if (nextLow < nextHigh) {
+                    total += count(masks, position - 1, nextLow, nextHigh);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Finds every occurrence of the given motifs, with the same coordinates and
+     * ordering as {@link MotifSearcher#search(String[])}.
+     *
+     * @param motifs the motifs, made of IUPAC nucleotide codes in either case.
+     * @param bothStrands whether to also find the reverse complement of each motif.
+     * @return the matches, ordered by sequence and position.
+     */
+    public List<MotifMatch> locate(String[] motifs, boolean bothStrands) {
+        if (motifs == null || motifs.length == 0) {
+            throw new IllegalArgumentException("At least one motif is required");
+        }
+        List<MotifMatch> matches = new ArrayList<>();
+        for (int m = 0; m < motifs.length; m++) {
+            byte[] masks = MotifSearcher.masks(motifs[m]);
+            locate(masks, masks.length - 1, 0, bwt.length, m, false, matches);
+            String reverse = MotifSearcher.reverseComplement(motifs[m]);
+            if (bothStrands && !reverse.equalsIgnoreCase(motifs[m])) {
+                locate(MotifSearcher.masks(reverse), masks.length - 1, 0, bwt.length, m, true, matches);
+            }
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    private void locate(byte[] masks, int position, int low, int high, int motif, boolean reverse,
+            List<MotifMatch> matches) {
+        if (position < 0) {
+            for (int row = low; row < high; row++) {
+                int offset = textPosition(row);
+                int sequence = Arrays.binarySearch(starts, offset);
+                if (sequence < 0) {
+                    sequence = -sequence - 2;
+                }
+                int start = offset - starts[sequence];
+                matches.add(new MotifMatch(sequence, motif, start, start + masks.length, reverse));
+            }
+            return;
+        }
+        for (int c = 1; c <= 4; c++) {
+            if ((masks[position] & (1 << (c - 1))) != 0) {
+                int nextLow = counts[c] + occurrences(c, low);
+                int nextHigh = counts[c] + occurrences(c, high);
+                if (nextLow < nextHigh) {
+                    locate(masks, position - 1, nextLow, nextHigh, motif, reverse, matches);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the text position of the suffix in a row, stepping back through the
+     * transform until a sampled position is reached.
+     */
+    private int textPosition(int row) {
+        int steps = 0;
+        while ((sampled[row >>> 6] & (1L << row)) == 0) {
+            int c = bwt[row];
+            row = counts[c] + occurrences(c, row);
+            steps++;
+        }
+        int rank = sampledRanks[row >>> 6] + Long.bitCount(sampled[row >>> 6] & ((1L << row) - 1));
+        return samples[rank] + steps;
+    }
+
+    /**
+     * Returns the number of times a code occurs in the transform before a row.
+     */
+    private int occurrences(int c, int row) {
+        int checkpoint = row / OCC_RATE;
+        int count = occurrences[checkpoint * ALPHABET + c];
+        for (int i = checkpoint * OCC_RATE; i < row; i++) {
+            if (bwt[i] == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of indexed sequences.
+     *
+     * @return the sequence count.
+     */
+    public int getSequenceCount() {
+        return starts.length;
+    }
+
+    /**
+     * Sorts the suffixes of a string with SA-IS (Nong, Zhang and Chan, 2009), in time
+     * linear in its length.
+     *
+     * @param s the string, of symbols from 0 to upper.
+     * @param upper the largest symbol.
+     * @return the start of each suffix, in lexicographic order of the suffixes.
+     */
+    static int[] suffixArray(int[] s, int upper) {
+        int n = s.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        if (n == 1) {
+            return new int[] {0};
+        }
+        if (n == 2) {
+            return s[0] < s[1] ? new int[] {0, 1} : new int[] {1, 0};
+        }
+        int[] sa = new int[n];
+        boolean[] ls = new boolean[n];
+        for (int i = n - 2; i >= 0; i--) {
+            ls[i] = s[i] == s[i + 1] ? ls[i + 1] : s[i] < s[i + 1];
+        }
+        int[] sumL = new int[upper + 1];
+        int[] sumS = new int[upper + 1];
+        for (int i = 0; i < n; i++) {
+            if (!ls[i]) {
+                sumS[s[i]]++;
+            } else {
+                sumL[s[i] + 1]++;
+            }
+        }
+        for (int i = 0; i <= upper; i++) {
+            sumS[i] += sumL[i];
+            if (i < upper) {
+                sumL[i + 1] += sumS[i];
+            }
+        }
+        int[] lmsMap = new int[n + 1];
+        Arrays.fill(lmsMap, -1);
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lmsMap[i] = m++;
+            }
+        }
+        int[] lms = new int[m];
+        for (int i = 1, j = 0; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lms[j++] = i;
+            }
+        }
+        induce(s, sa, ls, sumS, sumL, lms);
+        if (m > 0) {
+            int[] sortedLms = new int[m];
+            for (int i = 0, j = 0; i < n; i++) {
+                if (lmsMap[sa[i]] != -1) {
+                    sortedLms[j++] = sa[i];
+                }
+            }
+            int[] recursive = new int[m];
+            int recursiveUpper = 0;
+            recursive[lmsMap[sortedLms[0]]] = 0;
+            for (int i = 1; i < m; i++) {
+                int l = sortedLms[i - 1];
+                int r = sortedLms[i];
+                int endL = lmsMap[l] + 1 < m ? lms[lmsMap[l] + 1] : n;
+                int endR = lmsMap[r] + 1 < m ? lms[lmsMap[r] + 1] : n;
+                boolean same = true;
+                if (endL - l != endR - r) {
+                    same = false;
+                } else {
+                    while (l < endL && s[l] == s[r]) {
+                        l++;
+                        r++;
+                    }
+                    if (l == n || s[l] != s[r]) {
+                        same = false;
+                    }
+                }
+                if (!same) {
+                    recursiveUpper++;
+                }
+                recursive[lmsMap[sortedLms[i]]] = recursiveUpper;
+            }
+            int[] recursiveSa = suffixArray(recursive, recursiveUpper);
+            for (int i = 0; i < m; i++) {
+                sortedLms[i] = lms[recursiveSa[i]];
+            }
+            induce(s, sa, ls, sumS, sumL, sortedLms);
+        }
+        return sa;
+    }
+
+    /**
+     * Induces the order of all suffixes from the order of the LMS suffixes.
+     */
+    private static void induce(int[] s, int[] sa, boolean[] ls, int[] sumS, int[] sumL, int[] lms) {
+        int n = s.length;
+        Arrays.fill(sa, -1);
+        int[] buffer = sumS.clone();
+        for (int d : lms) {
+            if (d != n) {
+                sa[buffer[s[d]]++] = d;
+            }
+        }
+        buffer = sumL.clone();
+        sa[buffer[s[n - 1]]++] = n - 1;
+        for (int i = 0; i < n; i++) {
+            int v = sa[i];
+            if (v >= 1 && !ls[v - 1]) {
+                sa[buffer[s[v - 1]]++] = v - 1;
+            }
+        }
+        buffer = sumL.clone();
+        for (int i = n - 1; i >= 0; i--) {
+            int v = sa[i];
+            if (v >= 1 && ls[v - 1]) {
+                sa[--buffer[s[v - 1] + 1]] = v - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An open-addressing set of 128-bit sequence fingerprints held off the Java heap, with
+ * a count per fingerprint. Each slot of a direct buffer holds the two fingerprint
+ * words, the fingerprint's id in insertion order and two counts: copies seen in
+ * forward orientation and copies seen as reverse complements. Slots are probed
+ * linearly from the high word, which must be well mixed, and the table doubles at 70%
+ * load, up to 2^25 slots in a 1 GB buffer. The garbage collector never scans the
+ * slots, so a set of millions of fingerprints adds no GC work; the buffer is freed
+ * when the set is collected.
+ *
+ * @author Ajay Shenoy
+ */
+public class FingerprintSet {
+
+    /**
+     * Receives the entries of a set.
+     */
+    public interface EntryConsumer {
+        /**
+         * Accepts one fingerprint.
+         *
+         * @param high the high word of the fingerprint.
+         * @param low the low word of the fingerprint.
+         * @param id the id assigned when the fingerprint was first added.
+         * @param count the number of copies added.
+         * @param reverseCount how many of those copies were reverse complements.
+         */
+        void accept(long high, long low, int id, int count, int reverseCount);
+    }
+
+    private static final int SLOT_SIZE = 32;
+    private static final int ID = 16;
+    private static final int COUNT = 20;
+    private static final int REVERSE_COUNT = 24;
+    private static final int MAX_CAPACITY = 1 << 25;
+
+    private final byte[] slotBytes = new byte[SLOT_SIZE];
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    public FingerprintSet() {
+        this(1024);
+    }
+
+    /**
+     * Creates an empty set sized for the given number of fingerprints.
+     *
+     * @param expectedSize the expected number of distinct fingerprints.
+     */
+    public FingerprintSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        long capacity = Long.highestOneBit(Math.max(16, (long) expectedSize * 10 / 7) * 2 - 1);
+        allocate((int) Math.min(capacity, MAX_CAPACITY));
+    }
+
+    private void allocate(int capacity) {
+        slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds one copy of a fingerprint.
+     *
+     * @param high the high word of the fingerprint.
+     * @param low the low word of the fingerprint.
+     * @param reverse whether the copy was seen as a reverse complement.
+     * @return the id of the fingerprint: its position among distinct fingerprints in
+     *         the order they were first added.
+     * @throws IllegalStateException if the set cannot grow further.
+     */
+    public int add(long high, long low, boolean reverse) {
+        int slot = find(high, low);
+        int base = slot * SLOT_SIZE;
+        int count = slots.getInt(base + COUNT);
+        if (count == 0) {
+            if (size == MAX_CAPACITY - 1) {
+                throw new IllegalStateException("Fingerprint set is full: " + size + " fingerprints");
+            }
+            slots.putLong(base, high).putLong(base + 8, low).putInt(base + ID, size);
+        }
+        slots.putInt(base + COUNT, Math.incrementExact(count));
+        if (reverse) {
+            slots.putInt(base + REVERSE_COUNT, slots.getInt(base + REVERSE_COUNT) + 1);
+        }
+        if (count > 0) {
+            return slots.getInt(base + ID);
+        }
+        int id = size++;
+        if (size * 10L > (mask + 1) * 7L && mask + 1 < MAX_CAPACITY) {
+            resize();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the number of copies added of a fingerprint.
+     *
+     * @param high the high word of the fingerprint.
+     * @param low the low word of the fingerprint.
+     * @return the count, or 0 if the fingerprint is not in the set.
+     */
+    public int getCount(long high, long low) {
+        return slots.getInt(find(high, low) * SLOT_SIZE + COUNT);
+    }
+
+    /**
+     * Returns the number of distinct fingerprints.
+     *
+     * @return the size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every fingerprint to the consumer, in slot order.
+     *
+     * @param consumer the consumer of entries.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot <= mask; slot++) {
+            int base = slot * SLOT_SIZE;
+            int count = slots.getInt(base + COUNT);
+            if (count != 0) {
+                consumer.accept(slots.getLong(base), slots.getLong(base + 8), slots.getInt(base + ID),
+                        count, slots.getInt(base + REVERSE_COUNT));
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding the fingerprint, or the empty slot where it belongs.
+     */
+    private int find(long high, long low) {
+        int slot = (int) high & mask;
+        while (true) {
+            int base = slot * SLOT_SIZE;
+            if (slots.getInt(base + COUNT) == 0
+                    || (slots.getLong(base) == high && slots.getLong(base + 8) == low)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        ByteBuffer old = slots;
+        allocate((mask + 1) * 2);
+        for (int base = 0; base < old.capacity(); base += SLOT_SIZE) {
+            if (old.getInt(base + COUNT) != 0) {
+                int slot = find(old.getLong(base), old.getLong(base + 8));
+                old.get(base, slotBytes, 0, SLOT_SIZE);
+                slots.put(slot * SLOT_SIZE, slotBytes, 0, SLOT_SIZE);
+            }
+        }
+    }
+}
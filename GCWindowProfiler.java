@@ -0,0 +1,168 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Computes GC content over sliding windows of a sequence with a configurable window
+ * size and step. The GC count of the current window is updated as each base enters
+ * and leaves, so every base costs O(1) work however large the window is. Bases may be
+ * pushed in pieces, such as the lines of a FASTA record, and each complete window is
+ * reported to a {@link WindowConsumer} as a primitive value, so profiling a chromosome
+ * keeps only one window of state.
+ *
+ * <p>As in {@link H10CustomApp#calculateGCContentForAll(String[])}, G and C are matched
+ * case-insensitively and every character counts towards the window length. A trailing
+ * partial window is not reported.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class GCWindowProfiler {
+
+    /**
+     * Receives the GC content of each window.
+     */
+    public interface WindowConsumer {
+        /**
+         * Accepts one window.
+         *
+         * @param start the position of the first base of the window.
+         * @param gcContent the GC content percentage of the window.
+         */
+        void accept(long start, double gcContent);
+    }
+
+    private static final byte[] IS_GC = new byte[256];
+
+    static {
+        IS_GC['G'] = 1;
+        IS_GC['g'] = 1;
+        IS_GC['C'] = 1;
+        IS_GC['c'] = 1;
+    }
+
+    private final int window;
+    private final int step;
+    private final WindowConsumer consumer;
+    private final byte[] ring;
+    private int ringIndex;
+    private int gcCount;
+    private long position;
+    private long nextWindowEnd;
+
+    /**
+     * Creates a profiler.
+     *
+     * @param window the number of bases in each window.
+     * @param step the number of bases between the starts of consecutive windows.
+     * @param consumer receives the GC content of each complete window.
+     */
+    public GCWindowProfiler(int window, int step, WindowConsumer consumer) {
+        if (window <= 0 || step <= 0) {
+            throw new IllegalArgumentException("Window and step must be positive integers");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+        this.window = window;
+        this.step = step;
+        this.consumer = consumer;
+        this.ring = new byte[window];
+        this.nextWindowEnd = window;
+    }
+
+    /**
+     * Calculates the GC content of every complete window of a sequence.
+     *
+     * @param sequence the DNA sequence.
+     * @param window the number of bases in each window.
+     * @param step the number of bases between the starts of consecutive windows.
+     * @return the GC content percentage of each window, in order.
+     */
+    public static double[] profile(CharSequence sequence, int window, int step) {
+        if (sequence == null) {
+            throw new IllegalArgumentException("Sequence cannot be null");
+        }
+        int length = sequence.length();
+        double[] contents = new double[windowCount(length, window, step)];
+        GCWindowProfiler profiler = new GCWindowProfiler(window, step,
+                (start, gcContent) -> contents[(int) (start / step)] = gcContent);
+        profiler.accept(sequence);
+        return contents;
+    }
+
+    /**
+     * Returns the number of complete windows in a sequence of the given length.
+     *
+     * @param length the sequence length.
+     * @param window the number of bases in each window.
+     * @param step the number of bases between the starts of consecutive windows.
+     * @return the window count.
+     */
+    public static int windowCount(long length, int window, int step) {
+        if (window <= 0 || step <= 0) {
+            throw new IllegalArgumentException("Window and step must be positive integers");
+        }
+        return length < window ? 0 : Math.toIntExact((length - window) / step + 1);
+    }
+
+    /**
+     * Pushes the next bases of the sequence.
+     *
+     * @param bases the bases.
+     */
+    public void accept(CharSequence bases) {
+        for (int i = 0, length = bases.length(); i < length; i++) {
+            char base = bases.charAt(i);
+            push(base < 256 ? IS_GC[base] : 0);
+        }
+    }
+
+    /**
+     * Pushes the next bases of the sequence, held as ASCII bytes.
+     *
+     * @param bases the buffer holding the bases.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     */
+    public void accept(byte[] bases, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            push(IS_GC[bases[i] & 0xFF]);
+        }
+    }
+
+    /**
+     * Pushes the next bases of the sequence from a buffer, such as a memory-mapped file.
+     * The buffer's position is not changed.
+     *
+     * @param bases the buffer holding the bases as ASCII bytes.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     */
+    public void accept(ByteBuffer bases, int from, int to) {
+        for (int i = from; i < to; i++) {
+            push(IS_GC[bases.get(i) & 0xFF]);
+        }
+    }
+
+    private void push(byte isGC) {
+        gcCount += isGC - ring[ringIndex];
+        ring[ringIndex] = isGC;
+        if (++ringIndex == window) {
+            ringIndex = 0;
+        }
+        if (++position == nextWindowEnd) {
+            consumer.accept(position - window, gcCount * 100.0 / window);
+            nextWindowEnd += step;
+        }
+    }
+
+    /**
+     * Clears the profiler so it can profile another sequence.
+     */
+    public void reset() {
+        Arrays.fill(ring, (byte) 0);
+        ringIndex = 0;
+        gcCount = 0;
+        position = 0;
+        nextWindowEnd = window;
+    }
+}
@@ -0,0 +1,761 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.NoSuchElementException;
+
+
+/**
+ * This application processes genetic sequences to compute various genetic metrics.
+ *
+ * @author Ajay Shenoy
+ */
+public class H10CustomApp {
+
+    /**
+     * Calculates the nucleotide frequencies across all provided DNA sequences.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return frequencyMap A map with nucleotide as the key and its frequency as the value.
+     * @author Ajay Shenoy
+     */
+    public static Map<Character, Integer> calculateNucleotideFrequencies(String[] sequences) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.FREQUENCIES);
+        SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+        AnalysisMetrics.stop(span, metrics);
+        return metrics.getNucleotideFrequencies();
+    }
+
+    /**
+     * Counts the nucleotides across all provided DNA sequences using 64-bit counters
+     * that do not overflow on genome-scale inputs.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return the A, C, G, T and other-character counts.
+     */
+    public static NucleotideCounts countNucleotides(String[] sequences) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.FREQUENCIES);
+        SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+        AnalysisMetrics.stop(span, metrics);
+        return metrics.getNucleotideCounts();
+    }
+
+    /**
+     * Calculates the GC content of each given DNA sequence.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return gcContents A list of GC content percentages for each sequence.
+     */
+    public static List<Double> calculateGCContentForAll(String[] sequences) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.GC_CONTENT);
+        SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+        AnalysisMetrics.stop(span, metrics);
+        return metrics.getGCContents();
+    }
+
+    /**
+     * Calculates the AT content of each given DNA sequence.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return atContents A list of AT content percentages for each sequence.
+     */
+    public static List<Double> calculateATContentForAll(String[] sequences) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.AT_CONTENT);
+        SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+        AnalysisMetrics.stop(span, metrics);
+        return metrics.getATContents();
+    }
+
+    /**
+     * Calculates the GC content of every complete sliding window of a DNA sequence.
+     *
+     * @param sequence A DNA sequence.
+     * @param window the number of bases in each window.
+     * @param step the number of bases between the starts of consecutive windows.
+     * @return the GC content percentage of each window, in order.
+     */
+    public static double[] calculateGCContentWindows(String sequence, int window, int step) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.GC_WINDOWS);
+        double[] gcContents = GCWindowProfiler.profile(sequence, window, step);
+        AnalysisMetrics.stop(span, 1, sequence.length(), 0);
+        return gcContents;
+    }
+
+    /**
+     * Calculates the distribution of sequence lengths in a list of DNA sequences.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return lengthDistribution A map with sequence length as the key and its frequency
+     * as the value.
+     */
+    public static Map<Integer, Integer> calculateSequenceLengthDistribution(String[] sequences) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.LENGTH_DISTRIBUTION);
+        SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+        AnalysisMetrics.stop(span, metrics);
+        return metrics.getLengthDistribution();
+    }
+
+    /**
+     * Calculates the distribution of sequence lengths using 64-bit counters.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return the histogram of sequence lengths.
+     */
+    public static LengthHistogram calculateSequenceLengthHistogram(String[] sequences) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.LENGTH_DISTRIBUTION);
+        SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+        AnalysisMetrics.stop(span, metrics);
+        return metrics.getLengthHistogram();
+    }
+
+    /**
+     * Finds the most common nucleotides across all provided DNA sequences.
+     * If there are ties, all most common nucleotides are returned.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return mostCommonNucleotides A list of the most frequently occurring nucleotides.
+     */
+    public static List<Character> findMostCommonNucleotides(String[] sequences) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.MOST_COMMON);
+        SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+        AnalysisMetrics.stop(span, metrics);
+        return metrics.getMostCommonNucleotides();
+    }
+
+    /**
+     * Finds the most common canonical k-mers across all provided DNA sequences, counting
+     * each k-mer together with its reverse complement. K-mers containing non-ACGT
+     * characters are skipped. If there are ties, all most common k-mers are returned in
+     * alphabetical order. With {@code -Dsequence.dedup} set, each distinct sequence is
+     * counted once and weighted by its number of copies.
+     *
+     * @param sequences An array of DNA sequences.
+     * @param k the k-mer length, from 1 to {@link KmerCounter#MAX_K}.
+     * @return mostCommonKmers A list of the most frequently occurring canonical k-mers.
+     */
+    public static List<String> findMostCommonKmers(String[] sequences, int k) {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.KMERS);
+        KmerTable table;
+        if (SequenceDeduplicator.ENABLED && sequences != null) {
+            SequenceDeduplicator deduplicator = new SequenceDeduplicator(SequenceDeduplicator.CANONICAL,
+                    sequences.length);
+            List<String> distinct = new ArrayList<>();
+            int[] copies = new int[sequences.length];
+            for (String sequence : sequences) {
+                if (sequence != null) {
+                    int id = deduplicator.add(sequence);
+                    if (id == distinct.size()) {
+                        distinct.add(sequence);
+                    }
+                    copies[id]++;
+                }
+            }
+            table = KmerCounter.countParallel(distinct.toArray(new String[0]), copies, k, true,
+                    Runtime.getRuntime().availableProcessors());
+        } else {
+            table = KmerCounter.countParallel(sequences, k, true,
+                    Runtime.getRuntime().availableProcessors());
+        }
+        List<String> mostCommonKmers = KmerCounter.mostCommon(table, k);
+        AnalysisMetrics.stop(span, sequences);
+        return mostCommonKmers;
+    }
+
+    /**
+     * Builds an approximate, mergeable summary of the given DNA sequences in fixed
+     * memory: canonical k-mer frequencies, distinct k-mer and sequence counts, and
+     * sequence length and GC content quantiles, with the default error bounds of
+     * {@link SequenceSketch}.
+     *
+     * @param sequences An array of DNA sequences.
+     * @param k the k-mer length, from 1 to {@link KmerCounter#MAX_K}.
+     * @return the sketch of the sequences.
+     */
+    public static SequenceSketch sketchSequences(String[] sequences, int k) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.SKETCH);
+        SequenceSketch sketch = new SequenceSketch(k);
+        for (String sequence : sequences) {
+            sketch.add(sequence);
+        }
+        AnalysisMetrics.stop(span, sequences);
+        return sketch;
+    }
+
+    /**
+     * Finds every occurrence of the given motifs on both strands of the given DNA
+     * sequences, in one pass over each sequence with a {@link MotifSearcher}. Motifs may
+     * use IUPAC ambiguity codes; a motif that is its own reverse complement is reported
+     * on the forward strand only. For many queries against the same sequences, build an
+     * {@link FMIndex} once instead.
+     *
+     * @param sequences An array of DNA sequences; null entries have no matches.
+     * @param motifs the motifs, made of IUPAC nucleotide codes in either case.
+     * @return matches The occurrences, ordered by sequence and position.
+     */
+    public static List<MotifMatch> findMotifs(String[] sequences, String[] motifs) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.MOTIFS);
+        List<MotifMatch> matches = new MotifSearcher(motifs, true).search(sequences);
+        AnalysisMetrics.stop(span, sequences);
+        return matches;
+    }
+
+    /**
+     * Translates a DNA sequence into protein in all six reading frames with the
+     * standard genetic code, using the same complement rules as
+     * {@link #generateReverseComplement(String)} for the reverse frames.
+     *
+     * @param sequence the DNA sequence.
+     * @return proteins The proteins of frames +1, +2, +3, -1, -2 and -3, with * for stops.
+     */
+    public static String[] translateSixFrames(String sequence) {
+        if (sequence == null) {
+            throw new IllegalArgumentException("Sequence cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.TRANSLATION);
+        String[] proteins = Translator.translateSixFrames(sequence);
+        AnalysisMetrics.stop(span, 1, sequence.length(), 0);
+        return proteins;
+    }
+
+    /**
+     * Finds the open reading frames of at least the given number of amino acids in
+     * all six frames of the given DNA sequences, on all processors.
+     *
+     * @param sequences An array of DNA sequences; null entries have no frames.
+     * @param minLength the minimum number of amino acids, without the stop.
+     * @return frames The open reading frames, ordered by sequence and start position.
+     */
+    public static List<OpenReadingFrame> findOpenReadingFrames(String[] sequences, int minLength) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.TRANSLATION);
+        List<OpenReadingFrame> frames = Translator.findOpenReadingFrames(sequences, minLength,
+                Runtime.getRuntime().availableProcessors());
+        AnalysisMetrics.stop(span, sequences);
+        return frames;
+    }
+
+    /**
+     * Calculates the base-quality statistics of the given FASTQ quality strings: mean
+     * quality per position, the distribution of per-read mean qualities, and the Q20
+     * and Q30 fractions.
+     *
+     * @param qualities An array of Phred+33 quality strings; null entries are skipped.
+     * @return metrics The quality statistics.
+     */
+    public static QualityMetrics calculateQualityMetrics(String[] qualities) {
+        if (qualities == null) {
+            throw new IllegalArgumentException("Qualities array cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.QUALITY);
+        QualityMetrics metrics = new QualityMetrics(QualityMetrics.PHRED_33, 0);
+        for (String quality : qualities) {
+            if (quality != null) {
+                metrics.add(quality);
+            }
+        }
+        AnalysisMetrics.stop(span, qualities);
+        return metrics;
+    }
+
+    /**
+     * Calculates the edit distance between every pair of the given DNA sequences, with
+     * Myers' bit-parallel algorithm on all processors.
+     *
+     * @param sequences An array of DNA sequences; null entries compare as empty.
+     * @return distances The symmetric matrix of edit distances.
+     */
+    public static int[][] calculateEditDistances(String[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.ALIGNMENT);
+        int[][] distances = EditDistance.allVsAll(sequences, Runtime.getRuntime().availableProcessors());
+        AnalysisMetrics.stop(span, sequences);
+        return distances;
+    }
+
+    /**
+     * Aligns two DNA sequences with the default scores of {@link Aligner}, in memory
+     * linear in their lengths.
+     *
+     * @param first the first sequence.
+     * @param second the second sequence.
+     * @param local whether to find the best local alignment instead of a global one.
+     * @return alignment The best alignment.
+     */
+    public static Alignment alignSequences(String first, String second, boolean local) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Sequences cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.ALIGNMENT);
+        Aligner aligner = new Aligner();
+        Alignment alignment = local ? aligner.local(first, second) : aligner.global(first, second);
+        AnalysisMetrics.stop(span, 2, first.length() + second.length(), 0);
+        return alignment;
+    }
+
+    /**
+     * Generates the complementary DNA strand for the given input strand. IUPAC
+     * ambiguity codes are complemented, case is preserved, and characters that are not
+     * nucleotide codes are skipped.
+     *
+     * @param strand the input DNA strand.
+     * @return the complementary DNA strand.
+     */
+    public static String generateComplementaryStrand(String strand) {
+        if (strand == null) {
+            throw new IllegalArgumentException("Strand cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.COMPLEMENT);
+        String complement = Complementer.complement(strand);
+        AnalysisMetrics.stop(span, 1, strand.length(), strand.length() - complement.length());
+        return complement;
+    }
+
+    /**
+     * Generates the reverse complement of the given input strand, read 5' to 3' like the
+     * input. IUPAC ambiguity codes are complemented, case is preserved, and characters
+     * that are not nucleotide codes are skipped.
+     *
+     * @param strand the input DNA strand.
+     * @return the reverse-complemented DNA strand.
+     */
+    public static String generateReverseComplement(String strand) {
+        if (strand == null) {
+            throw new IllegalArgumentException("Strand cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.REVERSE_COMPLEMENT);
+        String reverseComplement = Complementer.reverseComplement(strand);
+        AnalysisMetrics.stop(span, 1, strand.length(), strand.length() - reverseComplement.length());
+        return reverseComplement;
+    }
+
+    /**
+     * Calculates the GC content of each given packed DNA sequence with a popcount per
+     * 32-base word.
+     *
+     * @param sequences An array of packed DNA sequences.
+     * @return gcContents A list of GC content percentages for each sequence.
+     */
+    public static List<Double> calculateGCContentForAll(PackedSequence[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        List<Double> gcContents = new ArrayList<>(sequences.length);
+        for (PackedSequence sequence : sequences) {
+            gcContents.add(sequence == null ? 0.0 : sequence.gcContent());
+        }
+        return gcContents;
+    }
+
+    /**
+     * Calculates the AT content of each given packed DNA sequence with a popcount per
+     * 32-base word.
+     *
+     * @param sequences An array of packed DNA sequences.
+     * @return atContents A list of AT content percentages for each sequence.
+     */
+    public static List<Double> calculateATContentForAll(PackedSequence[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        List<Double> atContents = new ArrayList<>(sequences.length);
+        for (PackedSequence sequence : sequences) {
+            atContents.add(sequence == null ? 0.0 : sequence.atContent());
+        }
+        return atContents;
+    }
+
+    /**
+     * Generates the complementary DNA strand for a packed strand with one bitwise NOT
+     * per 32-base word. Ambiguous bases stay ambiguous instead of being rejected.
+     *
+     * @param strand the packed input DNA strand.
+     * @return the packed complementary DNA strand.
+     */
+    public static PackedSequence generateComplementaryStrand(PackedSequence strand) {
+        if (strand == null) {
+            throw new IllegalArgumentException("Strand cannot be null");
+        }
+        return strand.complement();
+    }
+
+    /**
+     * Streams records from the given reader, printing the GC and AT content of each
+     * record as it is read, followed by the nucleotide frequencies, sequence length
+     * distribution and most common nucleotides of the whole input. Only running
+     * totals are kept, so memory use does not grow with the number of records.
+     * FASTQ qualities are summarized in the same pass through {@link QualityMetrics},
+     * and with {@code -Dsequence.trim} set, low-quality tails are trimmed before the
+     * composition of each read is counted.
+     *
+     * @param reader the reader supplying FASTA or FASTQ records.
+     * @param out the stream to print the results to.
+     * @throws IOException if the input cannot be read.
+     * @throws IllegalArgumentException if a FASTQ quality character is outside the
+     *                                  Phred+33 range or {@code -Dsequence.trim} is out of range.
+     */
+    public static void analyzeStream(SequenceReader reader, PrintStream out) throws IOException {
+        if (reader == null || out == null) {
+            throw new IllegalArgumentException("Reader and output stream cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.STREAM);
+        PartialResult result = streamRecords(reader, out);
+        printSummary(out, result);
+        AnalysisMetrics.stop(span, result.getMetrics());
+    }
+
+    /**
+     * Prints the GC and AT content of each record as it is read, numbering the records
+     * from 1, and returns the totals of all records.
+     *
+     * @param reader the reader supplying FASTA or FASTQ records.
+     * @param out the stream to print the per-record lines to.
+     * @return the totals-only result of the records.
+     * @throws IOException if the input cannot be read.
+     */
+    static PartialResult streamRecords(SequenceReader reader, PrintStream out) throws IOException {
+        PartialResult result = new PartialResult(false);
+        SequenceMetrics metrics = result.getMetrics();
+        while (reader.next()) {
+            result.add(reader);
+            out.println("Sequence " + metrics.getSequenceCount() + " (" + reader.name() + "): GC Content: " +
+                    metrics.getLastGCContent() + ", AT Content: " + metrics.getLastATContent());
+        }
+        return result;
+    }
+
+    /**
+     * Analyzes a file with several worker processes through a {@link ShardCoordinator}
+     * and prints the same results as
+     * {@link #analyzeStream(SequenceReader, PrintStream)} does for the whole file.
+     * Workers print their records to files that are copied to the output in order, so
+     * as in a single pass only running totals are kept in memory.
+     *
+     * @param path the FASTA or FASTQ file.
+     * @param workers the number of worker processes.
+     * @param out the stream to print the results to.
+     * @throws IOException if the file cannot be read or a worker fails.
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public static void analyzeShards(Path path, int workers, PrintStream out)
+            throws IOException, InterruptedException {
+        if (path == null || out == null) {
+            throw new IllegalArgumentException("Path and output stream cannot be null");
+        }
+        printSummary(out, ShardCoordinator.analyze(path, workers, out));
+    }
+
+    private static void printSummary(PrintStream out, PartialResult result) {
+        SequenceMetrics metrics = result.getMetrics();
+        QualityMetrics quality = result.getQualityMetrics();
+        out.println("Nucleotide Frequencies: " + metrics.getNucleotideFrequencies());
+        out.println("Sequence Length Distribution: " + metrics.getLengthDistribution());
+        out.println("Most Common Nucleotides: " + metrics.getMostCommonNucleotides());
+        if (quality.getReadCount() > 0) {
+            out.println("Mean Quality per Position: " + Arrays.toString(quality.getMeanQualityPerPosition()));
+            out.println("Read Mean Quality Distribution: " + quality.getReadMeanQualityDistribution());
+            out.println("Mean Quality: " + quality.getMeanQuality() + ", Q20: " + quality.getQ20Fraction() +
+                    ", Q30: " + quality.getQ30Fraction());
+            if (quality.getThreshold() > 0) {
+                out.println("Trimmed Bases (Q" + quality.getThreshold() + "): " + quality.getTrimmedBaseCount());
+            }
+        }
+    }
+
+    /**
+     * Streams records from the given reader and writes the results of each record as
+     * it is read. Only one record's counts are kept at a time. With
+     * {@code -Dsequence.trim} set, FASTQ records are written as trimmed.
+     *
+     * @param reader the reader supplying FASTA or FASTQ records.
+     * @param writer the writer to write per-record results to; it is finished but not closed.
+     * @throws IOException if the input cannot be read or the results cannot be written.
+     * @throws IllegalArgumentException if {@code -Dsequence.trim} is out of range.
+     */
+    public static void analyzeStream(SequenceReader reader, ResultsWriter writer) throws IOException {
+        if (reader == null || writer == null) {
+            throw new IllegalArgumentException("Reader and results writer cannot be null");
+        }
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.STREAM);
+        long[] counts = new long[5];
+        long records = 0;
+        long bases = 0;
+        long invalidBases = 0;
+        int threshold = QualityMetrics.defaultThreshold();
+        while (reader.next()) {
+            int length = reader.sequenceLength();
+            if (reader.isFastq() && threshold > 0) {
+                length = QualityMetrics.trimLength(reader.qualityBuffer(), 0, reader.qualityLength(),
+                        QualityMetrics.PHRED_33, threshold);
+            }
+            Arrays.fill(counts, 0);
+            NucleotideCounts.count(reader.sequenceBuffer(), 0, length, counts);
+            writer.write(reader.name(), length, counts);
+            records++;
+            bases += length;
+            invalidBases += counts[NucleotideCounts.OTHER];
+        }
+        writer.finish();
+        AnalysisMetrics.stop(span, records, bases, invalidBases);
+    }
+
+    /**
+     * Prints the approximate statistics of a sketch.
+     */
+    private static void printSketch(SequenceSketch sketch) {
+        System.out.println("Nucleotide Frequencies: " + sketch.getNucleotideCounts());
+        System.out.println("Sequences: " + sketch.getSequenceCount() + ", distinct (approx.): " +
+                sketch.estimateDistinctSequences());
+        System.out.println("Distinct " + sketch.getK() + "-mers (approx.): " + sketch.estimateDistinctKmers());
+        System.out.println("Sequence Length Quantiles (p50, p90, p99): " + sketch.lengthQuantile(0.5) + ", " +
+                sketch.lengthQuantile(0.9) + ", " + sketch.lengthQuantile(0.99));
+        System.out.println("GC Content Quantiles (p50, p90, p99): " + sketch.gcContentQuantile(0.5) + ", " +
+                sketch.gcContentQuantile(0.9) + ", " + sketch.gcContentQuantile(0.99));
+    }
+
+    /**
+     * Main method to interact with the user and process DNA sequences. When a FASTA
+     * or FASTQ file is given, or "-" for standard input, its records are streamed
+     * through {@link #analyzeStream(SequenceReader, PrintStream)} instead of being
+     * entered interactively; adding "--format tsv" or "--format binary" and an optional
+     * output file writes per-record results through a {@link ResultsWriter} instead.
+     * "--mmap" followed by a FASTA file analyzes the file through
+     * {@link MappedSequenceAnalysis}, for reference genomes; "--index" answers from a
+     * {@link SequenceIndex} built next to the file; and "--batch" followed by a
+     * directory or glob and an optional output file writes one summary row per file
+     * through {@link BatchProcessor}. "--sketch" followed by k, an input and an optional
+     * output file prints approximate statistics from a {@link SequenceSketch} and saves
+     * the sketch; "--merge-sketches" followed by an output file and saved sketches
+     * merges them. "--motifs" followed by an input and one or more IUPAC motifs prints
+     * every match on either strand as name, start, end, strand and motif. "--shards"
+     * followed by a number of workers and a file prints the same results as the plain
+     * file mode, computed by that many worker processes on byte ranges of the file.
+     *
+     * @param args Command-line arguments: an optional input file, or "-" for standard input.
+     */
+    public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals("--mmap")) {
+            try {
+                SequenceMetrics metrics = MappedSequenceAnalysis.analyze(Path.of(args[1]));
+                System.out.println("Nucleotide Frequencies: " + metrics.getNucleotideFrequencies());
+                System.out.println("GC Content of each sequence: " + metrics.getGCContents());
+                System.out.println("AT Content of each sequence: " + metrics.getATContents());
+                System.out.println("Sequence Length Distribution: " + metrics.getLengthDistribution());
+                System.out.println("Most Common Nucleotides: " + metrics.getMostCommonNucleotides());
+            } catch (IOException | ArithmeticException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        if ((args.length == 2 || args.length == 3) && args[0].equals("--batch")) {
+            try (OutputStream file = args.length == 3 ? Files.newOutputStream(Path.of(args[2])) : null) {
+                PrintStream out = new PrintStream(new BufferedOutputStream(
+                        file != null ? file : System.out, 1 << 16), false);
+                int failures = new BatchProcessor().process(BatchProcessor.resolve(args[1]), out);
+                out.flush();
+                // PrintStream swallows write errors, so a full disk would otherwise truncate silently
+                if (out.checkError()) {
+                    throw new IOException("Cannot write " + (file != null ? args[2] : "standard output"));
+                }
+                if (failures > 0) {
+                    System.err.println("Error: " + failures + " files could not be processed");
+                }
+            } catch (IOException e) {
+                System.err.println("Error: " + e.getMessage());
+                System.exit(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Error: Interrupted");
+            }
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[0].equals("--sketch")) {
+            try (SequenceReader reader = args[2].equals("-")
+                    ? SequenceReader.openStandardInput() : SequenceReader.open(Path.of(args[2]))) {
+                SequenceSketch sketch = new SequenceSketch(Integer.parseInt(args[1]));
+                while (reader.next()) {
+                    sketch.add(reader.sequenceBuffer(), 0, reader.sequenceLength());
+                }
+                if (args.length == 4) {
+                    try (OutputStream out = Files.newOutputStream(Path.of(args[3]))) {
+                        sketch.writeTo(out);
+                    }
+                }
+                printSketch(sketch);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--merge-sketches")) {
+            try {
+                SequenceSketch merged = null;
+                for (int i = 2; i < args.length; i++) {
+                    try (InputStream in = Files.newInputStream(Path.of(args[i]))) {
+                        SequenceSketch sketch = SequenceSketch.readFrom(in);
+                        if (merged == null) {
+                            merged = sketch;
+                        } else {
+                            merged.merge(sketch);
+                        }
+                    }
+                }
+                if (merged == null) {
+                    throw new IllegalArgumentException("No sketches to merge");
+                }
+                try (OutputStream out = Files.newOutputStream(Path.of(args[1]))) {
+                    merged.writeTo(out);
+                }
+                printSketch(merged);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length >= 3 && args[0].equals("--motifs")) {
+            try (SequenceReader reader = args[1].equals("-")
+                    ? SequenceReader.openStandardInput() : SequenceReader.open(Path.of(args[1]))) {
+                MotifSearcher searcher = new MotifSearcher(Arrays.copyOfRange(args, 2, args.length), true);
+                PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false);
+                List<MotifMatch> matches = new ArrayList<>();
+                while (reader.next()) {
+                    matches.clear();
+                    searcher.search(reader.sequenceBuffer(), 0, reader.sequenceLength(), 0, matches);
+                    Collections.sort(matches);
+                    for (MotifMatch match : matches) {
+                        out.println(reader.name() + "\t" + match.getStart() + "\t" + match.getEnd() + "\t" +
+                                (match.isReverse() ? '-' : '+') + "\t" + searcher.getMotif(match.getMotif()));
+                    }
+                }
+                out.flush();
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length == 3 && args[0].equals("--shards")) {
+            try {
+                PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false);
+                analyzeShards(Path.of(args[2]), Integer.parseInt(args[1]), out);
+                out.flush();
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Error: Interrupted");
+            }
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--index")) {
+            try (SequenceIndex index = SequenceIndex.open(Path.of(args[1]))) {
+                SequenceMetrics metrics = index.getMetrics();
+                System.out.println("Nucleotide Frequencies: " + metrics.getNucleotideFrequencies());
+                System.out.println("GC Content of each sequence: " + index.calculateGCContentForAll());
+                System.out.println("AT Content of each sequence: " + index.calculateATContentForAll());
+                System.out.println("Sequence Length Distribution: " + metrics.getLengthDistribution());
+                System.out.println("Most Common Nucleotides: " + index.findMostCommonNucleotides());
+            } catch (IOException | ArithmeticException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[1].equals("--format")) {
+            try (SequenceReader reader = args[0].equals("-")
+                    ? SequenceReader.openStandardInput() : SequenceReader.open(Path.of(args[0]));
+                    OutputStream out = args.length == 4
+                            ? Files.newOutputStream(Path.of(args[3])) : null) {
+                ResultsWriter writer = ResultsWriter.create(
+                        ResultsWriter.Format.valueOf(args[2].toUpperCase()),
+                        out != null ? out : System.out);
+                analyzeStream(reader, writer);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+        if (args.length > 0) {
+            try (SequenceReader reader = args[0].equals("-")
+                    ? SequenceReader.openStandardInput() : SequenceReader.open(Path.of(args[0]))) {
+                analyzeStream(reader, System.out);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+
+        Scanner scanner = new Scanner(System.in);
+
+        try {
+            System.out.println("Enter the number of sequences:");
+            if (!scanner.hasNextLine()) {
+                throw new NoSuchElementException("No input found for number of sequences");
+            }
+            int numSequences = Integer.parseInt(scanner.nextLine().trim());
+
+            if (numSequences <= 0) {
+                throw new IllegalArgumentException("Number of sequences must " +
+                        "be a positive integer");
+            }
+
+            String[] sequences = new String[numSequences];
+
+            for (int i = 0; i < numSequences; i++) {
+                System.out.println("Enter sequence " + (i + 1) + ":");
+                if (!scanner.hasNextLine()) {
+                    throw new NoSuchElementException("No input found for sequence " + (i + 1));
+                }
+                sequences[i] = scanner.nextLine().trim();
+            }
+
+            // Results go through one buffer, flushed once, instead of a console write per line
+            PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false);
+            SequenceMetrics metrics = SequenceMetrics.compute(sequences);
+            out.println("Nucleotide Frequencies: " +
+                    metrics.getNucleotideFrequencies());
+            out.println("GC Content of each sequence: " +
+                    metrics.getGCContents());
+            out.println("AT Content of each sequence: " +
+                    metrics.getATContents());
+            out.println("Sequence Length Distribution: " +
+                    metrics.getLengthDistribution());
+            out.println("Most Common Nucleotides: " +
+                    metrics.getMostCommonNucleotides());
+
+            // Generate and display the complementary strands for each sequence
+            out.println("Complementary Strands:");
+            String[] complementaryStrands = Complementer.complementAll(sequences);
+            for (int i = 0; i < sequences.length; i++) {
+                out.println("Sequence " + (i + 1) + ": " + sequences[i]);
+                out.println("Complementary Strand: " + complementaryStrands[i]);
+            }
+            out.flush();
+
+        } catch (NoSuchElementException e) {
+            System.err.println("Error: " + e.getMessage());
+        } catch (NumberFormatException e) {
+            System.err.println("Error: Invalid number format. Please enter a valid integer.");
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+        } finally {
+            scanner.close();
+        }
+    }
+}
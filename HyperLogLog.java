@@ -0,0 +1,129 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A HyperLogLog estimate of the number of distinct items, such as k-mers or
+ * sequences, in 2^precision one-byte registers. The top {@code precision} bits of an
+ * item's 64-bit hash pick a register, which keeps the longest run of leading zeros
+ * seen in the remaining bits. The relative standard error is about
+ * 1.04 / sqrt(2^precision): 0.8% at the default precision of 14, in 16 KB. Small
+ * cardinalities use linear counting over the empty registers. Sketches of the same
+ * precision merge by taking the larger register.
+ *
+ * @author Ajay Shenoy
+ */
+public class HyperLogLog {
+
+    /** Smallest supported precision. */
+    public static final int MIN_PRECISION = 4;
+    /** Largest supported precision. */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param precision the number of hash bits that pick a register, from
+     *                  {@link #MIN_PRECISION} to {@link #MAX_PRECISION}.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION +
+                    " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds an item by its hash. The hash must be well mixed in its high bits, as
+     * returned by {@link SequenceHash}.
+     *
+     * @param hash the 64-bit hash of the item.
+     */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Estimates the number of distinct items added.
+     *
+     * @return the estimated cardinality.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Merges another sketch of the same precision into this one.
+     *
+     * @param other the sketch to merge.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precisions: "
+                    + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    /**
+     * Returns the precision.
+     *
+     * @return the number of hash bits that pick a register.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Writes the sketch.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(precision);
+        out.write(registers);
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from.
+     * @return the sketch.
+     * @throws IOException if the input cannot be read or is not a sketch.
+     */
+    public static HyperLogLog readFrom(DataInput in) throws IOException {
+        int precision = in.readInt();
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IOException("Invalid HyperLogLog precision " + precision);
+        }
+        HyperLogLog sketch = new HyperLogLog(precision);
+        in.readFully(sketch.registers);
+        return sketch;
+    }
+}
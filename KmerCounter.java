@@ -0,0 +1,325 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Counts the k-mers of DNA sequences for k up to 31. Each k-mer is encoded at 2 bits
+ * per base (A=0, C=1, G=2, T=3) with a rolling update, and the encoding of its reverse
+ * complement is rolled alongside it, so canonical k-mers (the smaller of the two
+ * encodings) cost no extra pass. K-mers containing N or any other non-ACGT character
+ * are skipped. Counts go into a {@link KmerTable}.
+ *
+ * @author Ajay Shenoy
+ */
+public class KmerCounter {
+
+    /** Largest supported k. */
+    public static final int MAX_K = 31;
+
+    private static final int PIECE_SIZE = 1 << 20;
+    /** 2-bit codes of ASCII bases, or -1 for characters other than A, C, G and T. */
+    static final byte[] CODES = new byte[256];
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        CODES['A'] = 0;
+        CODES['a'] = 0;
+        CODES['C'] = 1;
+        CODES['c'] = 1;
+        CODES['G'] = 2;
+        CODES['g'] = 2;
+        CODES['T'] = 3;
+        CODES['t'] = 3;
+    }
+
+    private final int k;
+    private final boolean canonical;
+    private final long mask;
+    private final int reverseShift;
+    private final KmerTable table;
+
+    /**
+     * Creates a counter.
+     *
+     * @param k the k-mer length, from 1 to {@link #MAX_K}.
+     * @param canonical whether to count each k-mer together with its reverse complement.
+     */
+    public KmerCounter(int k, boolean canonical) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K + ": " + k);
+        }
+        this.k = k;
+        this.canonical = canonical;
+        this.mask = (1L << (2 * k)) - 1;
+        this.reverseShift = 2 * (k - 1);
+        this.table = new KmerTable();
+    }
+
+    /**
+     * Counts the k-mers of a sequence.
+     *
+     * @param sequence the DNA sequence.
+     */
+    public void add(CharSequence sequence) {
+        add(sequence, 0, sequence.length());
+    }
+
+    /**
+     * Counts the k-mers that lie entirely within a range of a sequence.
+     *
+     * @param sequence the DNA sequence.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     */
+    public void add(CharSequence sequence, int from, int to) {
+        add(sequence, from, to, 1);
+    }
+
+    /**
+     * Counts the k-mers that lie entirely within a range of a sequence, as if the
+     * sequence occurred several times.
+     *
+     * @param sequence the DNA sequence.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     * @param copies the number of times to count each k-mer.
+     */
+    public void add(CharSequence sequence, int from, int to, int copies) {
+        long forward = 0;
+        long reverse = 0;
+        int valid = 0;
+        for (int i = from; i < to; i++) {
+            char base = sequence.charAt(i);
+            int code = base < 256 ? CODES[base] : -1;
+            if (code < 0) {
+                valid = 0;
+                continue;
+            }
+            forward = ((forward << 2) | code) & mask;
+            reverse = (reverse >>> 2) | ((long) (3 - code) << reverseShift);
+            if (++valid >= k) {
+                table.add(canonical ? Math.min(forward, reverse) : forward, copies);
+            }
+        }
+    }
+
+    /**
+     * Counts the k-mers of a sequence held as ASCII bytes.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     */
+    public void add(byte[] bases, int offset, int length) {
+        long forward = 0;
+        long reverse = 0;
+        int valid = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int code = CODES[bases[i] & 0xFF];
+            if (code < 0) {
+                valid = 0;
+                continue;
+            }
+            forward = ((forward << 2) | code) & mask;
+            reverse = (reverse >>> 2) | ((long) (3 - code) << reverseShift);
+            if (++valid >= k) {
+                table.increment(canonical ? Math.min(forward, reverse) : forward);
+            }
+        }
+    }
+
+    /**
+     * Returns the table of counts.
+     *
+     * @return the k-mer table.
+     */
+    public KmerTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the k-mer length.
+     *
+     * @return k.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Encodes a k-mer string.
+     *
+     * @param kmer the k-mer, made of A, C, G and T in either case.
+     * @return the 2-bit encoding.
+     */
+    public static long encode(CharSequence kmer) {
+        if (kmer.length() < 1 || kmer.length() > MAX_K) {
+            throw new IllegalArgumentException("k-mer length must be between 1 and " + MAX_K);
+        }
+        long encoded = 0;
+        for (int i = 0; i < kmer.length(); i++) {
+            char base = kmer.charAt(i);
+            int code = base < 256 ? CODES[base] : -1;
+            if (code < 0) {
+                throw new IllegalArgumentException("Invalid nucleotide: " + base);
+            }
+            encoded = (encoded << 2) | code;
+        }
+        return encoded;
+    }
+
+    /**
+     * Decodes a 2-bit encoded k-mer.
+     *
+     * @param kmer the encoded k-mer.
+     * @param k the k-mer length.
+     * @return the k-mer in upper case.
+     */
+    public static String decode(long kmer, int k) {
+        char[] bases = new char[k];
+        for (int i = k - 1; i >= 0; i--) {
+            bases[i] = BASES[(int) (kmer & 3)];
+            kmer >>>= 2;
+        }
+        return new String(bases);
+    }
+
+    /**
+     * Finds the most common k-mers in a table. If there are ties, all most common
+     * k-mers are returned, in alphabetical order.
+     *
+     * @param table the k-mer counts.
+     * @param k the k-mer length.
+     * @return the most frequently occurring k-mers.
+     */
+    public static List<String> mostCommon(KmerTable table, int k) {
+        int maxCount = table.maxCount();
+        List<String> mostCommon = new ArrayList<>();
+        if (maxCount == 0) {
+            return mostCommon;
+        }
+        table.forEach((kmer, count) -> {
+            if (count == maxCount) {
+                mostCommon.add(decode(kmer, k));
+            }
+        });
+        Collections.sort(mostCommon);
+        return mostCommon;
+    }
+
+    /**
+     * Counts the k-mers of many sequences on a fork-join pool. Sequences are split into
+     * pieces of about 1M bases that overlap by k - 1 bases, so k-mers spanning a split
+     * are counted once. Every worker thread counts into its own table and the tables
+     * are merged at the end.
+     *
+     * @param sequences An array of DNA sequences; null entries are skipped.
+     * @param k the k-mer length.
+     * @param canonical whether to count each k-mer together with its reverse complement.
+     * @param parallelism the number of worker threads.
+     * @return the merged k-mer counts.
+     */
+    public static KmerTable countParallel(String[] sequences, int k, boolean canonical, int parallelism) {
+        return countParallel(sequences, null, k, canonical, parallelism);
+    }
+
+    /**
+     * Counts the k-mers of many sequences on a fork-join pool, weighting each sequence
+     * by its number of copies, such as the distinct sequences found by a
+     * {@link SequenceDeduplicator}.
+     *
+     * @param sequences An array of DNA sequences; null entries are skipped.
+     * @param copies the number of copies of each sequence, or null for one each.
+     * @param k the k-mer length.
+     * @param canonical whether to count each k-mer together with its reverse complement.
+     * @param parallelism the number of worker threads.
+     * @return the merged k-mer counts.
+     */
+    public static KmerTable countParallel(String[] sequences, int[] copies, int k, boolean canonical,
+            int parallelism) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        List<int[]> pieces = new ArrayList<>();
+        for (int i = 0; i < sequences.length; i++) {
+            if (sequences[i] == null || (copies != null && copies[i] == 0)) {
+                continue;
+            }
+            int length = sequences[i].length();
+            for (int start = 0; start < length; start += PIECE_SIZE) {
+                pieces.add(new int[] {i, start, Math.min(length, start + PIECE_SIZE + k - 1)});
+            }
+        }
+
+        Map<Thread, KmerCounter> counters = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new PieceTask(sequences, copies, pieces, 0, pieces.size(), counters, k, canonical));
+        } finally {
+            pool.shutdown();
+        }
+
+        KmerTable merged = null;
+        for (KmerCounter counter : counters.values()) {
+            if (merged == null || counter.table.size() > merged.size()) {
+                if (merged != null) {
+                    counter.table.add(merged);
+                }
+                merged = counter.table;
+            } else {
+                merged.add(counter.table);
+            }
+        }
+        return merged == null ? new KmerTable() : merged;
+    }
+
+    /**
+     * Counts a range of pieces, splitting the range in half until one piece is left.
+     */
+    private static final class PieceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] sequences;
+        private final int[] copies;
+        private final List<int[]> pieces;
+        private final int from;
+        private final int to;
+        private final Map<Thread, KmerCounter> counters;
+        private final int k;
+        private final boolean canonical;
+
+        PieceTask(String[] sequences, int[] copies, List<int[]> pieces, int from, int to,
+                Map<Thread, KmerCounter> counters, int k, boolean canonical) {
+            this.sequences = sequences;
+            this.copies = copies;
+            this.pieces = pieces;
+            this.from = from;
+            this.to = to;
+            this.counters = counters;
+            this.k = k;
+            this.canonical = canonical;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 64) {
+                KmerCounter counter = counters.computeIfAbsent(Thread.currentThread(),
+                        thread -> new KmerCounter(k, canonical));
+                for (int i = from; i < to; i++) {
+                    int[] piece = pieces.get(i);
+                    counter.add(sequences[piece[0]], piece[1], piece[2], copies == null ? 1 : copies[piece[0]]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PieceTask(sequences, copies, pieces, from, middle, counters, k, canonical),
+                    new PieceTask(sequences, copies, pieces, middle, to, counters, k, canonical));
+        }
+    }
+}
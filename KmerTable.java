@@ -0,0 +1,173 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from 2-bit encoded k-mers to {@code int} counts, stored
+ * in parallel primitive arrays with linear probing so counting never boxes. Encoded
+ * k-mers use at most 62 bits, so -1 marks an empty slot.
+ *
+ * @author Ajay Shenoy
+ */
+public class KmerTable {
+
+    /**
+     * Receives the entries of a table.
+     */
+    public interface EntryConsumer {
+        /**
+         * Accepts one table entry.
+         *
+         * @param kmer the encoded k-mer.
+         * @param count the number of occurrences.
+         */
+        void accept(long kmer, int count);
+    }
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    /**
+     * Creates an empty table.
+     */
+    public KmerTable() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty table sized for the given number of distinct k-mers.
+     *
+     * @param expectedSize the expected number of distinct k-mers.
+     */
+    public KmerTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Counts one occurrence of a k-mer.
+     *
+     * @param kmer the encoded k-mer.
+     */
+    public void increment(long kmer) {
+        add(kmer, 1);
+    }
+
+    /**
+     * Counts several occurrences of a k-mer.
+     *
+     * @param kmer the encoded k-mer.
+     * @param count the number of occurrences.
+     * @throws ArithmeticException if the count of the k-mer overflows an int.
+     */
+    public void add(long kmer, int count) {
+        if (kmer < 0) {
+            throw new IllegalArgumentException("Encoded k-mers cannot be negative: " + kmer);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(kmer, mask);
+        long key;
+        while ((key = keys[slot]) != EMPTY) {
+            if (key == kmer) {
+                counts[slot] = Math.addExact(counts[slot], count);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = kmer;
+        counts[slot] = count;
+        if (++size * 4 > keys.length * 3) {
+            resize();
+        }
+    }
+
+    /**
+     * Adds every entry of another table.
+     *
+     * @param other the table to add.
+     */
+    public void add(KmerTable other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Returns the number of occurrences of a k-mer.
+     *
+     * @param kmer the encoded k-mer.
+     * @return the count, or 0 if the k-mer never occurred.
+     */
+    public int get(long kmer) {
+        int mask = keys.length - 1;
+        int slot = slot(kmer, mask);
+        long key;
+        while ((key = keys[slot]) != EMPTY) {
+            if (key == kmer) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of distinct k-mers.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the highest count of any k-mer.
+     *
+     * @return the maximum count, or 0 if the table is empty.
+     */
+    public int maxCount() {
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    /**
+     * Passes every entry to the given consumer, in no particular order.
+     *
+     * @param consumer the entry consumer.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    private static int slot(long kmer, int mask) {
+        long hash = kmer * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
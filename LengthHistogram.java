@@ -0,0 +1,215 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Histogram of sequence lengths backed by an open-addressing table of primitive
+ * {@code int} keys and {@code long} counts, so recording a length neither boxes nor
+ * allocates.
+ *
+ * @author Ajay Shenoy
+ */
+public class LengthHistogram {
+
+    /**
+     * Receives the entries of a histogram.
+     */
+    public interface EntryConsumer {
+        /**
+         * Accepts one histogram entry.
+         *
+         * @param length the sequence length.
+         * @param count the number of sequences with that length.
+         */
+        void accept(int length, long count);
+    }
+
+    private int[] lengths;
+    private long[] counts;
+    private int size;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LengthHistogram() {
+        lengths = new int[16];
+        counts = new long[16];
+    }
+
+    /**
+     * Records one sequence of the given length.
+     *
+     * @param length the sequence length.
+     */
+    public void increment(int length) {
+        add(length, 1);
+    }
+
+    /**
+     * Records several sequences of the given length.
+     *
+     * @param length the sequence length.
+     * @param count the number of sequences to record.
+     */
+    public void add(int length, long count) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative: " + length);
+        }
+        if (count <= 0) {
+            return;
+        }
+        int mask = lengths.length - 1;
+        int slot = slot(length, mask);
+        while (counts[slot] != 0) {
+            if (lengths[slot] == length) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        lengths[slot] = length;
+        counts[slot] = count;
+        if (++size * 2 > lengths.length) {
+            resize();
+        }
+    }
+
+    /**
+     * Adds every entry of another histogram.
+     *
+     * @param other the histogram to add.
+     */
+    public void add(LengthHistogram other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Returns the number of sequences recorded with the given length.
+     *
+     * @param length the sequence length.
+     * @return the count, or 0 if no sequence had that length.
+     */
+    public long get(int length) {
+        int mask = lengths.length - 1;
+        int slot = slot(length, mask);
+        while (counts[slot] != 0) {
+            if (lengths[slot] == length) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of distinct lengths recorded.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every entry to the given consumer, in no particular order.
+     *
+     * @param consumer the entry consumer.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < lengths.length; i++) {
+            if (counts[i] != 0) {
+                consumer.accept(lengths[i], counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Converts the histogram to the map returned by
+     * {@link H10CustomApp#calculateSequenceLengthDistribution(String[])}.
+     *
+     * <p>The map iterates in increasing order of length, so equal histograms print the
+     * same however they were built, such as by merging the parts of an input.</p>
+     *
+     * @return lengthDistribution A map with sequence length as the key and its frequency
+     * as the value.
+     * @throws ArithmeticException if a count does not fit in an Integer.
+     */
+    public Map<Integer, Integer> toMap() {
+        int[] sorted = new int[size];
+        int entries = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            if (counts[i] != 0) {
+                sorted[entries++] = lengths[i];
+            }
+        }
+        Arrays.sort(sorted);
+        Map<Integer, Integer> lengthDistribution = new LinkedHashMap<>();
+        for (int length : sorted) {
+            lengthDistribution.put(length, Math.toIntExact(get(length)));
+        }
+        return lengthDistribution;
+    }
+
+    private static int slot(int length, int mask) {
+        int hash = length * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void resize() {
+        int[] oldLengths = lengths;
+        long[] oldCounts = counts;
+        lengths = new int[oldLengths.length * 2];
+        counts = new long[oldCounts.length * 2];
+        int mask = lengths.length - 1;
+        for (int i = 0; i < oldLengths.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = slot(oldLengths[i], mask);
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                lengths[slot] = oldLengths[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((length, count) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(length).append('=').append(count);
+        });
+        return builder.append('}').toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof LengthHistogram)) {
+            return false;
+        }
+        LengthHistogram other = (LengthHistogram) o;
+        if (other.size != size) {
+            return false;
+        }
+        for (int i = 0; i < lengths.length; i++) {
+            if (counts[i] != 0 && other.get(lengths[i]) != counts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            if (counts[i] != 0) {
+                hash += lengths[i] ^ Long.hashCode(counts[i]);
+            }
+        }
+        return hash;
+    }
+}
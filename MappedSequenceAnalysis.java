@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Computes the metrics of a FASTA file, such as a reference genome, directly over the
+ * memory-mapped file. The file is mapped in segments of at most 1 GB that end on a
+ * line boundary, so files larger than 2 GB are supported, and bases are counted straight from the page cache without
+ * being decoded into Java strings. Heap use does not depend on the file size.
+ *
+ * @author Ajay Shenoy
+ */
+public class MappedSequenceAnalysis {
+
+    /** Largest number of bytes mapped at once. */
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private static final int LINE_START = 0;
+    private static final int HEADER = 1;
+    private static final int SEQUENCE = 2;
+
+    private MappedSequenceAnalysis() {
+    }
+
+    /**
+     * Maps a FASTA file and computes the metrics of all of its records.
+     *
+     * @param path the FASTA file.
+     * @return the metrics, with one GC and AT content entry per record.
+     * @throws IOException if the file cannot be read or is not FASTA.
+     */
+    public static SequenceMetrics analyze(Path path) throws IOException {
+        return analyze(path, SEGMENT_SIZE);
+    }
+
+    /**
+     * Maps a FASTA file in segments of the given size and computes its metrics.
+     *
+     * @param path the FASTA file.
+     * @param segmentSize the largest number of bytes to map at once.
+     * @return the metrics, with one GC and AT content entry per record.
+     * @throws IOException if the file cannot be read or is not FASTA.
+     */
+    static SequenceMetrics analyze(Path path, int segmentSize) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        SequenceMetrics metrics = new SequenceMetrics();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int state = LINE_START;
+            boolean inRecord = false;
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(segmentSize, size - position);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                if (position + length < size) {
+                    length = endOfLastLine(segment, length);
+                }
+                int i = 0;
+                while (i < length) {
+                    if (state == LINE_START) {
+                        byte first = segment.get(i);
+                        if (first == '>') {
+                            if (inRecord) {
+                                metrics.endSequence();
+                            }
+                            metrics.startSequence();
+                            inRecord = true;
+                            state = HEADER;
+                            i++;
+                            continue;
+                        }
+                        if (first == '\n' || first == '\r') {
+                            i++;
+                            continue;
+                        }
+                        if (!inRecord) {
+                            throw new IOException("Expected '>' at offset " + (position + i));
+                        }
+                        state = SEQUENCE;
+                    }
+                    int end = i;
+                    while (end < length && segment.get(end) != '\n') {
+                        end++;
+                    }
+                    if (state == SEQUENCE) {
+                        int lineEnd = end;
+                        // Trailing whitespace is dropped as SequenceReader drops it
+                        while (lineEnd > i && isTrailingSpace(segment.get(lineEnd - 1))) {
+                            lineEnd--;
+                        }
+                        metrics.appendBases(segment, i, lineEnd);
+                    }
+                    if (end < length) {
+                        state = LINE_START;
+                        end++;
+                    }
+                    i = end;
+                }
+                position += length;
+            }
+            if (inRecord) {
+                metrics.endSequence();
+            }
+        }
+        return metrics;
+    }
+
+    private static boolean isTrailingSpace(byte b) {
+        return b == '\r' || b == ' ' || b == '\t';
+    }
+
+    /**
+     * Returns the length of the segment up to and including its last line terminator,
+     * so that lines do not straddle segments. A segment holding part of a single line
+     * longer than the segment is used whole.
+     */
+    private static int endOfLastLine(MappedByteBuffer segment, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (segment.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * One occurrence of a motif found by a {@link MotifSearcher} or an {@link FMIndex}.
+ * Positions are 0-based on the forward strand of the searched sequence, whichever
+ * strand the motif matched; a reverse-strand match means the reverse complement of
+ * the motif occurs at that range of the forward strand.
+ *
+ * @author Ajay Shenoy
+ */
+public final class MotifMatch implements Comparable<MotifMatch> {
+
+    private final int sequence;
+    private final int motif;
+    private final int start;
+    private final int end;
+    private final boolean reverse;
+
+    /**
+     * Creates a match.
+     *
+     * @param sequence the index of the searched sequence.
+     * @param motif the index of the motif.
+     * @param start the first matched position, inclusive.
+     * @param end the last matched position, exclusive.
+     * @param reverse whether the motif matched the reverse strand.
+     */
+    public MotifMatch(int sequence, int motif, int start, int end, boolean reverse) {
+        this.sequence = sequence;
+        this.motif = motif;
+        this.start = start;
+        this.end = end;
+        this.reverse = reverse;
+    }
+
+    /**
+     * Returns the index of the searched sequence.
+     *
+     * @return the sequence index, 0 for a single text.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the index of the motif, in the order the motifs were given.
+     *
+     * @return the motif index.
+     */
+    public int getMotif() {
+        return motif;
+    }
+
+    /**
+     * Returns the first matched position.
+     *
+     * @return the start, inclusive.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the position after the last matched base.
+     *
+     * @return the end, exclusive.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns whether the motif matched the reverse strand.
+     *
+     * @return true for a reverse-strand match.
+     */
+    public boolean isReverse() {
+        return reverse;
+    }
+
+    /**
+     * Orders matches by sequence, start, motif and strand, forward first.
+     */
+    @Override
+    public int compareTo(MotifMatch other) {
+        int order = Integer.compare(sequence, other.sequence);
+        if (order == 0) {
+            order = Integer.compare(start, other.start);
+        }
+        if (order == 0) {
+            order = Integer.compare(motif, other.motif);
+        }
+        return order != 0 ? order : Boolean.compare(reverse, other.reverse);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof MotifMatch)) {
+            return false;
+        }
+        MotifMatch other = (MotifMatch) o;
+        return sequence == other.sequence && motif == other.motif && start == other.start
+                && end == other.end && reverse == other.reverse;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((sequence * 31 + motif) * 31 + start) * 2 + (reverse ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "motif " + motif + " at " + sequence + ":" + start + "-" + end + (reverse ? " (-)" : " (+)");
+    }
+}
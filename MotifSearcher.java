@@ -0,0 +1,325 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds many motifs at once with an Aho-Corasick automaton, in one pass over each
+ * sequence whatever the number of motifs. Motifs may use IUPAC codes (R, Y, S, W, K,
+ * M, B, D, H, V and N), which are expanded to the concrete A/C/G/T strings they stand
+ * for when the automaton is built. The failure links are folded into a full
+ * transition table over A, C, G and T, so each base costs one table lookup; any other
+ * character in a sequence, such as N, matches nothing and restarts the automaton.
+ *
+ * <p>To search both strands, the reverse complement of each motif, from
+ * {@link Complementer}, is added to the same automaton, so the reverse strand is
+ * searched in the same pass. Motifs that are their own reverse complement, such as
+ * most restriction sites, are reported once, on the forward strand. A searcher is
+ * immutable once built and can be shared between threads.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class MotifSearcher {
+
+    /** Largest number of concrete strings one degenerate motif may stand for. */
+    public static final int MAX_EXPANSIONS = 1 << 12;
+
+    private static final byte[] CODES = new byte[128];
+    private static final byte[] MASKS = new byte[128];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        String bases = "ACGTU";
+        for (int i = 0; i < bases.length(); i++) {
+            CODES[bases.charAt(i)] = (byte) Math.min(i, 3);
+            CODES[Character.toLowerCase(bases.charAt(i))] = (byte) Math.min(i, 3);
+        }
+        String codes = "ACGTURYSWKMBDHVN";
+        int[] masks = {1, 2, 4, 8, 8, 5, 10, 6, 9, 12, 3, 14, 13, 11, 7, 15};
+        for (int i = 0; i < codes.length(); i++) {
+            MASKS[codes.charAt(i)] = (byte) masks[i];
+            MASKS[Character.toLowerCase(codes.charAt(i))] = (byte) masks[i];
+        }
+    }
+
+    private final String[] motifs;
+    private final int[] lengths;
+    private final int[] transitions;
+    private final int[] dictionaryLinks;
+    private final int[] reports;
+    private final int[][] outputs;
+
+    /**
+     * Builds a searcher for the given motifs.
+     *
+     * @param motifs the motifs, made of IUPAC nucleotide codes in either case.
+     * @param bothStrands whether to also find the reverse complement of each motif.
+     */
+    public MotifSearcher(String[] motifs, boolean bothStrands) {
+        if (motifs == null || motifs.length == 0) {
+            throw new IllegalArgumentException("At least one motif is required");
+        }
+        this.motifs = motifs.clone();
+        this.lengths = new int[motifs.length];
+        Trie trie = new Trie();
+        for (int m = 0; m < motifs.length; m++) {
+            byte[] masks = masks(motifs[m]);
+            lengths[m] = masks.length;
+            for (String expansion : expand(masks)) {
+                trie.insert(expansion, m * 2);
+            }
+            String reverse = reverseComplement(motifs[m]);
+            if (bothStrands && !reverse.equalsIgnoreCase(motifs[m])) {
+                for (String expansion : expand(masks(reverse))) {
+                    trie.insert(expansion, m * 2 + 1);
+                }
+            }
+        }
+        int states = trie.size;
+        this.transitions = Arrays.copyOf(trie.children, states * 4);
+        this.outputs = Arrays.copyOf(trie.outputs, states);
+        this.dictionaryLinks = new int[states];
+        this.reports = new int[states];
+        link(states);
+    }
+
+    /**
+     * Folds failure links into the transition table in breadth-first order, and links
+     * every state to the nearest state on its failure chain that reports a motif.
+     */
+    private void link(int states) {
+        int[] failures = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < 4; c++) {
+            int child = transitions[c];
+            if (child > 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int c = 0; c < 4; c++) {
+                int child = transitions[state * 4 + c];
+                int fallback = transitions[failures[state] * 4 + c];
+                if (child > 0) {
+                    failures[child] = fallback;
+                    dictionaryLinks[child] = outputs[fallback] != null ? fallback : dictionaryLinks[fallback];
+                    queue.add(child);
+                } else {
+                    transitions[state * 4 + c] = fallback;
+                }
+            }
+        }
+        for (int state = 0; state < states; state++) {
+            reports[state] = outputs[state] != null ? state : dictionaryLinks[state];
+        }
+    }
+
+    /**
+     * Finds every motif occurrence in a sequence.
+     *
+     * @param sequence the DNA sequence.
+     * @return the matches, ordered by position.
+     */
+    public List<MotifMatch> search(CharSequence sequence) {
+        if (sequence == null) {
+            throw new IllegalArgumentException("Sequence cannot be null");
+        }
+        List<MotifMatch> matches = new ArrayList<>();
+        search(sequence, 0, matches);
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Finds every motif occurrence in each of the given sequences.
+     *
+     * @param sequences An array of DNA sequences; null entries have no matches.
+     * @return the matches, ordered by sequence and position.
+     */
+    public List<MotifMatch> search(String[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        List<MotifMatch> matches = new ArrayList<>();
+        for (int i = 0; i < sequences.length; i++) {
+            if (sequences[i] != null) {
+                search(sequences[i], i, matches);
+            }
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Appends every motif occurrence in a sequence to a list, in order of end position.
+     *
+     * @param sequence the DNA sequence.
+     * @param index the sequence index to report in the matches.
+     * @param matches the list to add matches to.
+     */
+    public void search(CharSequence sequence, int index, List<MotifMatch> matches) {
+        int state = 0;
+        for (int i = 0, length = sequence.length(); i < length; i++) {
+            char base = sequence.charAt(i);
+            int code = base < 128 ? CODES[base] : -1;
+            if (code < 0) {
+                state = 0;
+                continue;
+            }
+            state = transitions[state * 4 + code];
+            for (int report = reports[state]; report > 0; report = dictionaryLinks[report]) {
+                addMatches(report, index, i + 1, matches);
+            }
+        }
+    }
+
+    /**
+     * Appends every motif occurrence in a sequence held as ASCII bytes to a list, in
+     * order of end position.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     * @param index the sequence index to report in the matches.
+     * @param matches the list to add matches to.
+     */
+    public void search(byte[] bases, int offset, int length, int index, List<MotifMatch> matches) {
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            int base = bases[offset + i];
+            int code = base >= 0 ? CODES[base] : -1;
+            if (code < 0) {
+                state = 0;
+                continue;
+            }
+            state = transitions[state * 4 + code];
+            for (int report = reports[state]; report > 0; report = dictionaryLinks[report]) {
+                addMatches(report, index, i + 1, matches);
+            }
+        }
+    }
+
+    private void addMatches(int state, int index, int end, List<MotifMatch> matches) {
+        for (int entry : outputs[state]) {
+            int motif = entry >>> 1;
+            matches.add(new MotifMatch(index, motif, end - lengths[motif], end, (entry & 1) != 0));
+        }
+    }
+
+    /**
+     * Returns a motif.
+     *
+     * @param index the motif index.
+     * @return the motif as given.
+     */
+    public String getMotif(int index) {
+        return motifs[index];
+    }
+
+    /**
+     * Returns the number of motifs.
+     *
+     * @return the motif count.
+     */
+    public int getMotifCount() {
+        return motifs.length;
+    }
+
+    /**
+     * Returns the bases each position of a motif may match, as 4-bit masks with A, C,
+     * G and T in bits 0 to 3.
+     *
+     * @param motif the motif, made of IUPAC nucleotide codes.
+     * @return the mask of each position.
+     */
+    static byte[] masks(String motif) {
+        if (motif == null || motif.isEmpty()) {
+            throw new IllegalArgumentException("Motif cannot be null or empty");
+        }
+        byte[] masks = new byte[motif.length()];
+        for (int i = 0; i < masks.length; i++) {
+            char code = motif.charAt(i);
+            masks[i] = code < 128 ? MASKS[code] : 0;
+            if (masks[i] == 0) {
+                throw new IllegalArgumentException("Motif contains a non-IUPAC character '" + code + "': " + motif);
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Returns the reverse complement of a motif, complementing IUPAC codes.
+     *
+     * @param motif the motif, made of IUPAC nucleotide codes.
+     * @return the reverse-complemented motif.
+     */
+    static String reverseComplement(String motif) {
+        masks(motif);
+        return Complementer.reverseComplement(motif);
+    }
+
+    /**
+     * Lists the concrete A/C/G/T strings matched by the given position masks.
+     */
+    private static List<String> expand(byte[] masks) {
+        long expansions = 1;
+        for (byte mask : masks) {
+            expansions *= Integer.bitCount(mask);
+            if (expansions > MAX_EXPANSIONS) {
+                throw new IllegalArgumentException("Motif is too degenerate: more than " + MAX_EXPANSIONS +
+                        " concrete sequences");
+            }
+        }
+        List<String> strings = new ArrayList<>((int) expansions);
+        char[] current = new char[masks.length];
+        expand(masks, 0, current, strings);
+        return strings;
+    }
+
+    private static void expand(byte[] masks, int position, char[] current, List<String> strings) {
+        if (position == masks.length) {
+            strings.add(new String(current));
+            return;
+        }
+        for (int c = 0; c < 4; c++) {
+            if ((masks[position] & (1 << c)) != 0) {
+                current[position] = "ACGT".charAt(c);
+                expand(masks, position + 1, current, strings);
+            }
+        }
+    }
+
+    /**
+     * The keyword trie the automaton is built from.
+     */
+    private static final class Trie {
+        private int[] children = new int[64 * 4];
+        private int[][] outputs = new int[64][];
+        private int size = 1;
+
+        void insert(String string, int entry) {
+            int state = 0;
+            for (int i = 0; i < string.length(); i++) {
+                int slot = state * 4 + CODES[string.charAt(i)];
+                if (children[slot] == 0) {
+                    if (size == outputs.length) {
+                        children = Arrays.copyOf(children, size * 8);
+                        outputs = Arrays.copyOf(outputs, size * 2);
+                    }
+                    children[slot] = size++;
+                }
+                state = children[slot];
+            }
+            int[] entries = outputs[state];
+            if (entries == null) {
+                outputs[state] = new int[] {entry};
+            } else if (Arrays.stream(entries).noneMatch(e -> e == entry)) {
+                entries = Arrays.copyOf(entries, entries.length + 1);
+                entries[entries.length - 1] = entry;
+                outputs[state] = entries;
+            }
+        }
+    }
+}
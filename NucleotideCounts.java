@@ -0,0 +1,266 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts nucleotides in a fixed {@code long[]} indexed through a byte lookup table,
+ * so counting a base costs one table load and one increment with no boxing or
+ * hashing. Counts are 64-bit so they do not overflow on genome-scale inputs.
+ *
+ * <p>When the JVM runs with {@code --add-modules jdk.incubator.vector}, ranges of at
+ * least one vector are counted with SIMD compares by {@link VectorBaseCounter} and only
+ * the tail goes through the lookup table. Set {@code -Dsequence.vector=false} to force
+ * the scalar loops.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class NucleotideCounts {
+
+    /** Index of adenine counts. */
+    public static final int A = 0;
+    /** Index of cytosine counts. */
+    public static final int C = 1;
+    /** Index of guanine counts. */
+    public static final int G = 2;
+    /** Index of thymine counts. */
+    public static final int T = 3;
+    /** Index of counts for every other character. */
+    public static final int OTHER = 4;
+
+    private static final byte[] INDEX = new byte[256];
+
+    static {
+        Arrays.fill(INDEX, (byte) OTHER);
+        INDEX['A'] = A;
+        INDEX['a'] = A;
+        INDEX['C'] = C;
+        INDEX['c'] = C;
+        INDEX['G'] = G;
+        INDEX['g'] = G;
+        INDEX['T'] = T;
+        INDEX['t'] = T;
+    }
+
+    private static final boolean VECTORIZED = vectorAvailable();
+    private static final int VECTOR_THRESHOLD = VECTORIZED ? VectorBaseCounter.byteLanes() : Integer.MAX_VALUE;
+
+    private final long[] counts = new long[5];
+
+    private static boolean vectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("sequence.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorBaseCounter.isUseful();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether counting uses the Vector API in this JVM.
+     *
+     * @return true if ranges are counted with SIMD compares.
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Returns the count index of a character, case-insensitively.
+     *
+     * @param nucleotide the character to look up.
+     * @return one of {@link #A}, {@link #C}, {@link #G}, {@link #T} or {@link #OTHER}.
+     */
+    public static int indexOf(char nucleotide) {
+        return nucleotide < 256 ? INDEX[nucleotide] : OTHER;
+    }
+
+    /**
+     * Returns the count index of an ASCII byte, case-insensitively.
+     *
+     * @param nucleotide the byte to look up.
+     * @return one of {@link #A}, {@link #C}, {@link #G}, {@link #T} or {@link #OTHER}.
+     */
+    public static int indexOf(byte nucleotide) {
+        return INDEX[nucleotide & 0xFF];
+    }
+
+    /**
+     * Adds the bases of a sequence to the given count array.
+     *
+     * @param sequence the DNA sequence.
+     * @param counts an array of at least five counts, indexed by {@link #indexOf(char)}.
+     */
+    public static void count(CharSequence sequence, long[] counts) {
+        count(sequence, 0, sequence.length(), counts);
+    }
+
+    /**
+     * Adds the bases in a range of a sequence to the given count array.
+     *
+     * @param sequence the DNA sequence.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     * @param counts an array of at least five counts, indexed by {@link #indexOf(char)}.
+     */
+    public static void count(CharSequence sequence, int from, int to, long[] counts) {
+        if (to - from >= VECTOR_THRESHOLD && sequence instanceof String) {
+            from += VectorBaseCounter.count((String) sequence, from, to, counts);
+        }
+        countScalar(sequence, from, to, counts);
+    }
+
+    static void countScalar(CharSequence sequence, int from, int to, long[] counts) {
+        for (int i = from; i < to; i++) {
+            char nucleotide = sequence.charAt(i);
+            counts[nucleotide < 256 ? INDEX[nucleotide] : OTHER]++;
+        }
+    }
+
+    /**
+     * Adds the bases of an ASCII sequence to the given count array.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     * @param counts an array of at least five counts, indexed by {@link #indexOf(byte)}.
+     */
+    public static void count(byte[] bases, int offset, int length, long[] counts) {
+        if (length >= VECTOR_THRESHOLD) {
+            int handled = VectorBaseCounter.count(bases, offset, length, counts);
+            offset += handled;
+            length -= handled;
+        }
+        countScalar(bases, offset, length, counts);
+    }
+
+    static void countScalar(byte[] bases, int offset, int length, long[] counts) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            counts[INDEX[bases[i] & 0xFF]]++;
+        }
+    }
+
+    /**
+     * Adds the bases in a range of a byte buffer to the given count array, using
+     * absolute reads so the buffer's position is not changed.
+     *
+     * @param bases the buffer holding the sequence as ASCII bytes.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     * @param counts an array of at least five counts, indexed by {@link #indexOf(byte)}.
+     */
+    public static void count(ByteBuffer bases, int from, int to, long[] counts) {
+        if (to - from >= VECTOR_THRESHOLD) {
+            from += VectorBaseCounter.count(bases, from, to, counts);
+        }
+        countScalar(bases, from, to, counts);
+    }
+
+    static void countScalar(ByteBuffer bases, int from, int to, long[] counts) {
+        for (int i = from; i < to; i++) {
+            counts[INDEX[bases.get(i) & 0xFF]]++;
+        }
+    }
+
+    /**
+     * Adds the bases of a sequence.
+     *
+     * @param sequence the DNA sequence.
+     */
+    public void add(CharSequence sequence) {
+        count(sequence, counts);
+    }
+
+    /**
+     * Adds the bases of an ASCII sequence.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     */
+    public void add(byte[] bases, int offset, int length) {
+        count(bases, offset, length, counts);
+    }
+
+    /**
+     * Adds the given per-index counts, such as those filled in by
+     * {@link #count(CharSequence, long[])}.
+     *
+     * @param other an array of five counts.
+     */
+    public void add(long[] other) {
+        for (int i = 0; i <= OTHER; i++) {
+            counts[i] += other[i];
+        }
+    }
+
+    /**
+     * Adds all counts from another instance.
+     *
+     * @param other the counts to add.
+     */
+    public void add(NucleotideCounts other) {
+        add(other.counts);
+    }
+
+    /**
+     * Returns the count at the given index.
+     *
+     * @param index one of {@link #A}, {@link #C}, {@link #G}, {@link #T} or {@link #OTHER}.
+     * @return the count.
+     */
+    public long get(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns the count of a nucleotide, case-insensitively.
+     *
+     * @param nucleotide the nucleotide.
+     * @return the count, or the count of other characters if it is not A, C, G or T.
+     */
+    public long get(char nucleotide) {
+        return counts[indexOf(nucleotide)];
+    }
+
+    /**
+     * Returns the total number of characters counted, including non-ACGT characters.
+     *
+     * @return the total count.
+     */
+    public long getTotal() {
+        return counts[A] + counts[C] + counts[G] + counts[T] + counts[OTHER];
+    }
+
+    /**
+     * Converts the A, C, G and T counts to the map returned by
+     * {@link H10CustomApp#calculateNucleotideFrequencies(String[])}. Nucleotides that
+     * never occur are left out of the map.
+     *
+     * @return frequencyMap A map with nucleotide as the key and its frequency as the value.
+     * @throws ArithmeticException if a count does not fit in an Integer.
+     */
+    public Map<Character, Integer> toFrequencyMap() {
+        Map<Character, Integer> frequencyMap = new HashMap<>();
+        putIfPresent(frequencyMap, 'A', counts[A]);
+        putIfPresent(frequencyMap, 'T', counts[T]);
+        putIfPresent(frequencyMap, 'C', counts[C]);
+        putIfPresent(frequencyMap, 'G', counts[G]);
+        return frequencyMap;
+    }
+
+    private static void putIfPresent(Map<Character, Integer> frequencyMap, char nucleotide, long count) {
+        if (count > 0) {
+            frequencyMap.put(nucleotide, Math.toIntExact(count));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "{A=" + counts[A] + ", C=" + counts[C] + ", G=" + counts[G] + ", T=" + counts[T]
+                + ", other=" + counts[OTHER] + "}";
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * An open reading frame found by {@link Translator}: a start codon followed by codons
+ * up to and including a stop codon in one of the six reading frames. Positions are
+ * 0-based on the forward strand of the sequence, whichever strand the frame reads.
+ *
+ * @author Ajay Shenoy
+ */
+public final class OpenReadingFrame implements Comparable<OpenReadingFrame> {
+
+    private final int sequence;
+    private final int frame;
+    private final int start;
+    private final int end;
+    private final String protein;
+
+    /**
+     * Creates an open reading frame.
+     *
+     * @param sequence the index of the sequence.
+     * @param frame the frame: 1 to 3 on the forward strand, -1 to -3 on the reverse strand.
+     * @param start the first position of the frame, inclusive.
+     * @param end the position after the stop codon.
+     * @param protein the translated amino acids, without the stop.
+     */
+    public OpenReadingFrame(int sequence, int frame, int start, int end, String protein) {
+        this.sequence = sequence;
+        this.frame = frame;
+        this.start = start;
+        this.end = end;
+        this.protein = protein;
+    }
+
+    /**
+     * Returns the index of the sequence the frame was found in.
+     *
+     * @return the sequence index, 0 for a single sequence.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the reading frame.
+     *
+     * @return 1 to 3 for the forward strand, -1 to -3 for the reverse strand.
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Returns the first forward-strand position covered by the frame. On the reverse
+     * strand this is the end of the stop codon.
+     *
+     * @return the start, inclusive.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the position after the last forward-strand base covered by the frame. On
+     * the reverse strand this is after the start codon.
+     *
+     * @return the end, exclusive.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the translated protein, starting with M and without the stop.
+     *
+     * @return the amino acids.
+     */
+    public String getProtein() {
+        return protein;
+    }
+
+    /**
+     * Returns the number of amino acids, without the stop.
+     *
+     * @return the protein length.
+     */
+    public int length() {
+        return protein.length();
+    }
+
+    /**
+     * Orders frames by sequence, start and frame.
+     */
+    @Override
+    public int compareTo(OpenReadingFrame other) {
+        int order = Integer.compare(sequence, other.sequence);
+        if (order == 0) {
+            order = Integer.compare(start, other.start);
+        }
+        return order != 0 ? order : Integer.compare(frame, other.frame);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof OpenReadingFrame)) {
+            return false;
+        }
+        OpenReadingFrame other = (OpenReadingFrame) o;
+        return sequence == other.sequence && frame == other.frame && start == other.start && end == other.end
+                && protein.equals(other.protein);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((sequence * 31 + frame) * 31 + start) * 31 + end;
+    }
+
+    @Override
+    public String toString() {
+        return "frame " + (frame > 0 ? "+" : "") + frame + " at " + sequence + ":" + start + "-" + end + " " + protein;
+    }
+}
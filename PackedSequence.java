@@ -0,0 +1,355 @@
+import java.util.Arrays;
+
+/**
+ * A DNA sequence stored at 2 bits per base in a {@code long[]}, 32 bases per word,
+ * with A=00, C=01, G=10 and T=11. N and every other non-ACGT character is recorded
+ * in a side bitmap and decoded as 'N'; the bitmap is only allocated when the sequence
+ * contains such characters. Case is not preserved.
+ *
+ * <p>Because the complement of a base is the bitwise NOT of its code, complementing
+ * is one NOT per word, and GC/AT counting is a popcount per word.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class PackedSequence {
+
+    private static final int BASES_PER_WORD = 32;
+    private static final long EVEN_BITS = 0x5555555555555555L;
+    private static final byte[] CODES = new byte[256];
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        CODES['A'] = 0;
+        CODES['a'] = 0;
+        CODES['C'] = 1;
+        CODES['c'] = 1;
+        CODES['G'] = 2;
+        CODES['g'] = 2;
+        CODES['T'] = 3;
+        CODES['t'] = 3;
+    }
+
+    private final long[] words;
+    private final long[] ambiguous;
+    private final int length;
+
+    private PackedSequence(long[] words, long[] ambiguous, int length) {
+        this.words = words;
+        this.ambiguous = ambiguous;
+        this.length = length;
+    }
+
+    /**
+     * Packs a DNA sequence.
+     *
+     * @param sequence the DNA sequence.
+     * @return the packed sequence.
+     */
+    public static PackedSequence pack(CharSequence sequence) {
+        if (sequence == null) {
+            throw new IllegalArgumentException("Sequence cannot be null");
+        }
+        int length = sequence.length();
+        long[] words = new long[wordCount(length)];
+        long[] ambiguous = null;
+        for (int i = 0; i < length; i++) {
+            char nucleotide = sequence.charAt(i);
+            int code = nucleotide < 256 ? CODES[nucleotide] : -1;
+            if (code < 0) {
+                if (ambiguous == null) {
+                    ambiguous = new long[(length + 63) >>> 6];
+                }
+                ambiguous[i >>> 6] |= 1L << i;
+            } else {
+                words[i >>> 5] |= (long) code << ((i & 31) << 1);
+            }
+        }
+        return new PackedSequence(words, ambiguous, length);
+    }
+
+    /**
+     * Packs a DNA sequence held as ASCII bytes.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     * @return the packed sequence.
+     */
+    public static PackedSequence pack(byte[] bases, int offset, int length) {
+        long[] words = new long[wordCount(length)];
+        long[] ambiguous = null;
+        for (int i = 0; i < length; i++) {
+            int code = CODES[bases[offset + i] & 0xFF];
+            if (code < 0) {
+                if (ambiguous == null) {
+                    ambiguous = new long[(length + 63) >>> 6];
+                }
+                ambiguous[i >>> 6] |= 1L << i;
+            } else {
+                words[i >>> 5] |= (long) code << ((i & 31) << 1);
+            }
+        }
+        return new PackedSequence(words, ambiguous, length);
+    }
+
+    private static int wordCount(int length) {
+        return (length + BASES_PER_WORD - 1) / BASES_PER_WORD;
+    }
+
+    /**
+     * Returns the number of bases, including ambiguous ones.
+     *
+     * @return the sequence length.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the base at the given position.
+     *
+     * @param index the position of the base.
+     * @return 'A', 'C', 'G', 'T', or 'N' for an ambiguous base.
+     */
+    public char baseAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        if (isAmbiguous(index)) {
+            return 'N';
+        }
+        return BASES[(int) (words[index >>> 5] >>> ((index & 31) << 1)) & 3];
+    }
+
+    private boolean isAmbiguous(int index) {
+        return ambiguous != null && (ambiguous[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of ambiguous (non-ACGT) bases.
+     *
+     * @return the ambiguous base count.
+     */
+    public long countAmbiguous() {
+        if (ambiguous == null) {
+            return 0;
+        }
+        long count = 0;
+        for (long word : ambiguous) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the G and C bases. A base is G or C exactly when the two bits of its code
+     * differ, so each word is counted with one XOR and one popcount.
+     *
+     * @return the GC base count.
+     */
+    public long countGC() {
+        long count = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            long differing = (word ^ (word >>> 1)) & EVEN_BITS;
+            if (ambiguous != null) {
+                differing &= ~spread((int) (ambiguous[w >>> 1] >>> ((w & 1) << 5)));
+            }
+            count += Long.bitCount(differing);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the A and T bases.
+     *
+     * @return the AT base count.
+     */
+    public long countAT() {
+        return length - countAmbiguous() - countGC();
+    }
+
+    /**
+     * Calculates the GC content as a percentage of all bases, including ambiguous ones.
+     *
+     * @return the GC content percentage, or 0.0 for an empty sequence.
+     */
+    public double gcContent() {
+        return length == 0 ? 0.0 : countGC() * 100.0 / length;
+    }
+
+    /**
+     * Calculates the AT content as a percentage of all bases, including ambiguous ones.
+     *
+     * @return the AT content percentage, or 0.0 for an empty sequence.
+     */
+    public double atContent() {
+        return length == 0 ? 0.0 : countAT() * 100.0 / length;
+    }
+
+    /**
+     * Moves the 32 bits of a mask to the even bit positions of a long, so that mask bit
+     * i lines up with the low bit of base i in a packed word.
+     */
+    private static long spread(int mask) {
+        long x = mask & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & EVEN_BITS;
+        return x;
+    }
+
+    /**
+     * Returns the complementary strand, computed as a bitwise NOT of every word.
+     * Ambiguous bases stay ambiguous.
+     *
+     * @return the complementary strand.
+     */
+    public PackedSequence complement() {
+        long[] complemented = new long[words.length];
+        for (int w = 0; w < words.length; w++) {
+            complemented[w] = ~words[w];
+        }
+        clearPadding(complemented);
+        clearAmbiguous(complemented, ambiguous);
+        return new PackedSequence(complemented, ambiguous == null ? null : ambiguous.clone(), length);
+    }
+
+    /**
+     * Returns the reverse complement, computed as a bitwise NOT and a reversal of the
+     * 2-bit groups in every word, with the words in reverse order.
+     *
+     * @return the reverse-complemented strand.
+     */
+    public PackedSequence reverseComplement() {
+        int count = words.length;
+        long[] reversed = new long[count];
+        for (int w = 0; w < count; w++) {
+            reversed[count - 1 - w] = ~reverseBases(words[w]);
+        }
+        int shift = (count * BASES_PER_WORD - length) << 1;
+        if (shift > 0) {
+            for (int w = 0; w < count - 1; w++) {
+                reversed[w] = (reversed[w] >>> shift) | (reversed[w + 1] << (64 - shift));
+            }
+            reversed[count - 1] >>>= shift;
+        }
+
+        long[] reversedAmbiguous = null;
+        if (ambiguous != null) {
+            reversedAmbiguous = new long[ambiguous.length];
+            for (int w = 0; w < ambiguous.length; w++) {
+                long word = ambiguous[w];
+                while (word != 0) {
+                    int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                    int target = length - 1 - index;
+                    reversedAmbiguous[target >>> 6] |= 1L << target;
+                    word &= word - 1;
+                }
+            }
+        }
+        clearAmbiguous(reversed, reversedAmbiguous);
+        return new PackedSequence(reversed, reversedAmbiguous, length);
+    }
+
+    private static long reverseBases(long word) {
+        word = ((word >>> 2) & 0x3333333333333333L) | ((word & 0x3333333333333333L) << 2);
+        word = ((word >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((word & 0x0F0F0F0F0F0F0F0FL) << 4);
+        return Long.reverseBytes(word);
+    }
+
+    private void clearPadding(long[] packed) {
+        int used = length & 31;
+        if (used != 0) {
+            packed[packed.length - 1] &= (1L << (used << 1)) - 1;
+        }
+    }
+
+    /**
+     * Zeroes the code bits of every ambiguous base, so that equal sequences always have
+     * equal words.
+     */
+    private static void clearAmbiguous(long[] packed, long[] mask) {
+        if (mask == null) {
+            return;
+        }
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                packed[index >>> 5] &= ~(3L << ((index & 31) << 1));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the packed words, 32 bases per word. Unused bits of the last word are zero.
+     *
+     * @return the packed words; callers must not modify the array.
+     */
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Returns the ambiguity bitmap, 64 bases per word, or null if no base is ambiguous.
+     *
+     * @return the ambiguity bitmap; callers must not modify the array.
+     */
+    long[] ambiguityMask() {
+        return ambiguous;
+    }
+
+    /**
+     * Recreates a packed sequence from its words and ambiguity bitmap.
+     *
+     * @param words the packed words.
+     * @param ambiguous the ambiguity bitmap, or null.
+     * @param length the number of bases.
+     * @return the packed sequence.
+     */
+    static PackedSequence of(long[] words, long[] ambiguous, int length) {
+        if (words.length != wordCount(length)
+                || (ambiguous != null && ambiguous.length != (length + 63) >>> 6)) {
+            throw new IllegalArgumentException("Array sizes do not match length " + length);
+        }
+        return new PackedSequence(words, ambiguous, length);
+    }
+
+    @Override
+    public String toString() {
+        char[] decoded = new char[length];
+        for (int i = 0; i < length; i++) {
+            decoded[i] = BASES[(int) (words[i >>> 5] >>> ((i & 31) << 1)) & 3];
+        }
+        if (ambiguous != null) {
+            for (int w = 0; w < ambiguous.length; w++) {
+                long word = ambiguous[w];
+                while (word != 0) {
+                    decoded[(w << 6) + Long.numberOfTrailingZeros(word)] = 'N';
+                    word &= word - 1;
+                }
+            }
+        }
+        return new String(decoded);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PackedSequence)) {
+            return false;
+        }
+        PackedSequence other = (PackedSequence) o;
+        return length == other.length && Arrays.equals(words, other.words)
+                && Arrays.equals(ambiguous, other.ambiguous);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(words) + Arrays.hashCode(ambiguous);
+    }
+}
@@ -0,0 +1,273 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the batch metrics of {@link H10CustomApp} on a fork-join pool. The input is
+ * cut into chunks of roughly equal base counts: runs of short sequences are grouped
+ * into one chunk, and sequences longer than a chunk are split across several. Each
+ * chunk counts into its own arrays, which are merged once all chunks finish, and the
+ * per-sequence results come back in input order, equal to the sequential methods.
+ *
+ * @author Ajay Shenoy
+ */
+public class ParallelSequenceAnalysis implements AutoCloseable {
+
+    /** Default number of bases handled by one fork-join task. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final boolean parallel;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an analysis that runs on all available processors.
+     */
+    public ParallelSequenceAnalysis() {
+        this(true, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an analysis.
+     *
+     * @param parallel whether to run on the fork-join pool; when false every method
+     *                 delegates to the sequential {@link H10CustomApp} method.
+     * @param parallelism the number of worker threads.
+     * @param chunkSize the number of bases handled by one task.
+     */
+    public ParallelSequenceAnalysis(boolean parallel, int parallelism, int chunkSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be a positive integer");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be a positive integer");
+        }
+        this.parallel = parallel;
+        this.chunkSize = chunkSize;
+        this.pool = parallel ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * Returns whether this analysis runs on the fork-join pool.
+     *
+     * @return true in parallel mode, false in sequential mode.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Counts the nucleotides across all provided DNA sequences.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return the A, C, G, T and other-character counts.
+     */
+    public NucleotideCounts countNucleotides(String[] sequences) {
+        if (!parallel) {
+            return H10CustomApp.countNucleotides(sequences);
+        }
+        return run(sequences).totals;
+    }
+
+    /**
+     * Calculates the nucleotide frequencies across all provided DNA sequences.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return frequencyMap A map with nucleotide as the key and its frequency as the value.
+     */
+    public Map<Character, Integer> calculateNucleotideFrequencies(String[] sequences) {
+        if (!parallel) {
+            return H10CustomApp.calculateNucleotideFrequencies(sequences);
+        }
+        return run(sequences).totals.toFrequencyMap();
+    }
+
+    /**
+     * Calculates the GC content of each given DNA sequence.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return gcContents A list of GC content percentages for each sequence.
+     */
+    public List<Double> calculateGCContentForAll(String[] sequences) {
+        if (!parallel) {
+            return H10CustomApp.calculateGCContentForAll(sequences);
+        }
+        Batch batch = run(sequences);
+        return toPercentages(batch.gcCounts, sequences);
+    }
+
+    /**
+     * Calculates the AT content of each given DNA sequence.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return atContents A list of AT content percentages for each sequence.
+     */
+    public List<Double> calculateATContentForAll(String[] sequences) {
+        if (!parallel) {
+            return H10CustomApp.calculateATContentForAll(sequences);
+        }
+        Batch batch = run(sequences);
+        return toPercentages(batch.atCounts, sequences);
+    }
+
+    private static List<Double> toPercentages(long[] counts, String[] sequences) {
+        List<Double> contents = new ArrayList<>(sequences.length);
+        for (int i = 0; i < sequences.length; i++) {
+            int length = sequences[i] == null ? 0 : sequences[i].length();
+            contents.add(length == 0 ? 0.0 : counts[i] * 100.0 / length);
+        }
+        return contents;
+    }
+
+    private Batch run(String[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        Batch batch = new Batch(sequences);
+        List<Chunk> chunks = split(sequences);
+        pool.invoke(new ChunkTask(batch, chunks, 0, chunks.size()));
+        for (Chunk chunk : chunks) {
+            batch.totals.add(chunk.counts);
+            if (chunk.isSlice()) {
+                batch.gcCounts[chunk.first] += chunk.gcCount;
+                batch.atCounts[chunk.first] += chunk.atCount;
+            }
+        }
+        return batch;
+    }
+
+    private List<Chunk> split(String[] sequences) {
+        List<Chunk> chunks = new ArrayList<>();
+        int first = 0;
+        long bases = 0;
+        for (int i = 0; i < sequences.length; i++) {
+            int length = sequences[i] == null ? 0 : sequences[i].length();
+            if (length > chunkSize) {
+                if (first < i) {
+                    chunks.add(new Chunk(first, i, -1, -1));
+                }
+                for (int start = 0; start < length; start += chunkSize) {
+                    chunks.add(new Chunk(i, i + 1, start, Math.min(length, start + chunkSize)));
+                }
+                first = i + 1;
+                bases = 0;
+                continue;
+            }
+            bases += length + 1;
+            if (bases >= chunkSize) {
+                chunks.add(new Chunk(first, i + 1, -1, -1));
+                first = i + 1;
+                bases = 0;
+            }
+        }
+        if (first < sequences.length) {
+            chunks.add(new Chunk(first, sequences.length, -1, -1));
+        }
+        return chunks;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The merged results of one batch.
+     */
+    private static final class Batch {
+        final String[] sequences;
+        final long[] gcCounts;
+        final long[] atCounts;
+        final NucleotideCounts totals = new NucleotideCounts();
+
+        Batch(String[] sequences) {
+            this.sequences = sequences;
+            this.gcCounts = new long[sequences.length];
+            this.atCounts = new long[sequences.length];
+        }
+    }
+
+    /**
+     * A run of whole sequences [first, last), or the slice [start, end) of sequence
+     * {@code first}.
+     */
+    private static final class Chunk {
+        final int first;
+        final int last;
+        final int start;
+        final int end;
+        final long[] counts = new long[5];
+        long gcCount;
+        long atCount;
+
+        Chunk(int first, int last, int start, int end) {
+            this.first = first;
+            this.last = last;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean isSlice() {
+            return start >= 0;
+        }
+
+        void count(Batch batch) {
+            if (isSlice()) {
+                NucleotideCounts.count(batch.sequences[first], start, end, counts);
+                gcCount = counts[NucleotideCounts.G] + counts[NucleotideCounts.C];
+                atCount = counts[NucleotideCounts.A] + counts[NucleotideCounts.T];
+                return;
+            }
+            long[] sequenceCounts = new long[5];
+            for (int i = first; i < last; i++) {
+                String sequence = batch.sequences[i];
+                if (sequence == null) {
+                    continue;
+                }
+                Arrays.fill(sequenceCounts, 0);
+                NucleotideCounts.count(sequence, 0, sequence.length(), sequenceCounts);
+                batch.gcCounts[i] = sequenceCounts[NucleotideCounts.G] + sequenceCounts[NucleotideCounts.C];
+                batch.atCounts[i] = sequenceCounts[NucleotideCounts.A] + sequenceCounts[NucleotideCounts.T];
+                for (int j = 0; j < sequenceCounts.length; j++) {
+                    counts[j] += sequenceCounts[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a range of chunks in half until a single chunk is left to count.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Batch batch, List<Chunk> chunks, int from, int to) {
+            this.batch = batch;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    chunks.get(from).count(batch);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(batch, chunks, from, middle), new ChunkTask(batch, chunks, middle, to));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The results of {@link H10CustomApp#analyzeStream(SequenceReader, PrintStream)} over
+ * part of an input: nucleotide counts, the length histogram and FASTQ quality
+ * statistics, with either the name, GC and AT content of every record or only the
+ * totals. Partial results of consecutive shards merge into the result of the whole
+ * input, and are written and read in a binary form so that separate processes can
+ * each analyze one shard, as {@link ShardCoordinator} does.
+ *
+ * <p>Merging is associative: records of the merged result come first, so merging the
+ * shards in input order, in any grouping, gives the same result as one pass.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class PartialResult {
+
+    private static final int MAGIC = 0x50415254;
+    private static final int VERSION = 2;
+
+    private final SequenceMetrics metrics;
+    private final QualityMetrics quality;
+    private final List<String> names;
+
+    /**
+     * Creates an empty result with the default trimming threshold.
+     *
+     * @param perRecord whether to keep the name, GC and AT content of every record, or
+     *                  only the totals.
+     */
+    public PartialResult(boolean perRecord) {
+        this(new SequenceMetrics(perRecord), new QualityMetrics(), perRecord ? new ArrayList<>() : null);
+    }
+
+    private PartialResult(SequenceMetrics metrics, QualityMetrics quality, List<String> names) {
+        this.metrics = metrics;
+        this.quality = quality;
+        this.names = names;
+    }
+
+    /**
+     * Adds the current record of a reader. FASTQ qualities are added to the quality
+     * statistics and, when trimming is enabled, only the kept bases are counted.
+     *
+     * @param reader the reader positioned on a record.
+     */
+    public void add(SequenceReader reader) {
+        int length = reader.sequenceLength();
+        if (reader.isFastq()) {
+            length = quality.add(reader.qualityBuffer(), 0, reader.qualityLength());
+        }
+        metrics.add(reader.sequenceBuffer(), 0, length);
+        if (names != null) {
+            names.add(reader.name());
+        }
+    }
+
+    /**
+     * Merges the result of the part of the input that follows this one.
+     *
+     * @param other the result to merge.
+     */
+    public void merge(PartialResult other) {
+        if ((other.names != null) != (names != null)) {
+            throw new IllegalArgumentException("Cannot merge per-record and total-only results");
+        }
+        metrics.add(other.metrics);
+        quality.add(other.quality);
+        if (names != null) {
+            names.addAll(other.names);
+        }
+    }
+
+    /**
+     * Returns whether the name, GC and AT content of every record are kept.
+     *
+     * @return true for per-record results, false for totals only.
+     */
+    public boolean isPerRecord() {
+        return names != null;
+    }
+
+    /**
+     * Returns the number of records added.
+     *
+     * @return the record count.
+     */
+    public long getRecordCount() {
+        return metrics.getSequenceCount();
+    }
+
+    /**
+     * Returns the name of a record.
+     *
+     * @param index the index of the record, in input order.
+     * @return the record name.
+     */
+    public String getName(int index) {
+        if (names == null) {
+            throw new IllegalStateException("Record names were not retained");
+        }
+        return names.get(index);
+    }
+
+    /**
+     * Returns the sequence metrics.
+     *
+     * @return the metrics, with per-sequence content for per-record results.
+     */
+    public SequenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the quality statistics of the FASTQ records.
+     *
+     * @return the quality statistics.
+     */
+    public QualityMetrics getQualityMetrics() {
+        return quality;
+    }
+
+    /**
+     * Writes the result. The stream is flushed but not closed.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeBoolean(names != null);
+        metrics.writeTo(data);
+        quality.writeTo(data);
+        if (names != null) {
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                data.writeInt(bytes.length);
+                data.write(bytes);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a result written by {@link #writeTo(OutputStream)}.
+     *
+     * @param in the stream to read from; it is not closed, but may be read past the result.
+     * @return the result.
+     * @throws IOException if the stream cannot be read or does not hold a result.
+     */
+    public static PartialResult readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a partial result");
+        }
+        boolean perRecord = data.readBoolean();
+        SequenceMetrics metrics = SequenceMetrics.readFrom(data);
+        QualityMetrics quality = QualityMetrics.readFrom(data);
+        List<String> names = null;
+        if (perRecord) {
+            // Per-record results keep their contents in arrays, so the count fits in an int
+            int count = (int) metrics.getSequenceCount();
+            names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = data.readInt();
+                if (length < 0) {
+                    throw new IOException("Invalid record name length " + length);
+                }
+                byte[] bytes = new byte[length];
+                data.readFully(bytes);
+                names.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+        return new PartialResult(metrics, quality, names);
+    }
+}
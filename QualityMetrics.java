@@ -0,0 +1,383 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running base-quality statistics of FASTQ reads: mean quality at each read position,
+ * the distribution of per-read mean qualities, and the fractions of bases at Q20 and
+ * Q30 or better. Phred scores are decoded straight from the quality bytes into
+ * primitive accumulators in one branch-free pass per read, and a second pass from the
+ * 3' end stops as soon as the tail is good enough to keep, so adding a read creates no
+ * objects. The per-position sums grow with the longest read; the number of reads
+ * covering each position is derived from a read length histogram when asked for.
+ *
+ * <p>Tails are trimmed as BWA does: the read is cut where the sum of
+ * (threshold - quality) over the tail is largest. The statistics always describe the
+ * untrimmed reads. A threshold of 0 disables trimming; the default threshold comes from
+ * {@code -Dsequence.trim}.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class QualityMetrics {
+
+    /** Default trimming threshold, from {@code -Dsequence.trim}; 0 disables trimming. */
+    public static final int TRIM_THRESHOLD = Integer.getInteger("sequence.trim", 0);
+    /** Offset of Sanger and Illumina 1.8+ quality characters. */
+    public static final int PHRED_33 = 33;
+    /** Highest Phred score a quality character can carry. */
+    public static final int MAX_QUALITY = 93;
+
+    private final int offset;
+    private final int threshold;
+    private long[] positionSums = new long[256];
+    private long[] readLengths = new long[257];
+    private final long[] readMeans = new long[MAX_QUALITY + 1];
+    private long reads;
+    private long bases;
+    private long trimmedBases;
+    private long q20Bases;
+    private long q30Bases;
+    private long qualitySum;
+
+    /**
+     * Creates empty statistics for Phred+33 qualities with the default trimming threshold.
+     *
+     * @throws IllegalArgumentException if {@code -Dsequence.trim} is out of range.
+     */
+    public QualityMetrics() {
+        this(PHRED_33, defaultThreshold());
+    }
+
+    /**
+     * Returns the default trimming threshold after checking it.
+     *
+     * @return {@link #TRIM_THRESHOLD}.
+     * @throws IllegalArgumentException if {@code -Dsequence.trim} is not between 0 and
+     *                                  {@link #MAX_QUALITY}.
+     */
+    public static int defaultThreshold() {
+        if (TRIM_THRESHOLD < 0 || TRIM_THRESHOLD > MAX_QUALITY) {
+            throw new IllegalArgumentException("-Dsequence.trim must be between 0 and " + MAX_QUALITY + ": " +
+                    TRIM_THRESHOLD);
+        }
+        return TRIM_THRESHOLD;
+    }
+
+    /**
+     * Creates empty statistics.
+     *
+     * @param offset the ASCII offset of the quality characters, 33 or 64.
+     * @param threshold the Phred score below which tails are trimmed, or 0 for no trimming.
+     */
+    public QualityMetrics(int offset, int threshold) {
+        if (offset != 33 && offset != 64) {
+            throw new IllegalArgumentException("Quality offset must be 33 or 64: " + offset);
+        }
+        if (threshold < 0 || threshold > MAX_QUALITY) {
+            throw new IllegalArgumentException("Trimming threshold must be between 0 and " + MAX_QUALITY + ": " +
+                    threshold);
+        }
+        this.offset = offset;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Adds the qualities of one read.
+     *
+     * @param quality the buffer holding the quality characters.
+     * @param from the index of the first quality character.
+     * @param length the number of quality characters.
+     * @return the length to keep after trimming the low-quality tail, or length if
+     *         trimming is disabled.
+     */
+    public int add(byte[] quality, int from, int length) {
+        if (length > positionSums.length) {
+            int capacity = Math.max(length, positionSums.length * 2);
+            positionSums = Arrays.copyOf(positionSums, capacity);
+            readLengths = Arrays.copyOf(readLengths, capacity + 1);
+        }
+        long[] sums = positionSums;
+        long total = 0;
+        int q20 = 0;
+        int q30 = 0;
+        int invalid = 0;
+        for (int i = 0; i < length; i++) {
+            int q = quality[from + i] - offset;
+            invalid |= q | (MAX_QUALITY - q);
+            sums[i] += q;
+            total += q;
+            q20 += (19 - q) >>> 31;
+            q30 += (29 - q) >>> 31;
+        }
+        if (invalid < 0) {
+            // Undo this read before reporting it, so the statistics stay consistent
+            for (int i = 0; i < length; i++) {
+                sums[i] -= quality[from + i] - offset;
+            }
+            throw new IllegalArgumentException("Quality string contains characters outside the Phred+" + offset +
+                    " range");
+        }
+        reads++;
+        bases += length;
+        qualitySum += total;
+        q20Bases += q20;
+        q30Bases += q30;
+        readLengths[length]++;
+        if (length > 0) {
+            readMeans[(int) (total / length)]++;
+        }
+        if (threshold == 0) {
+            return length;
+        }
+        int keep = trimLength(quality, from, length, offset, threshold);
+        trimmedBases += length - keep;
+        return keep;
+    }
+
+    /**
+     * Adds the qualities of one read given as a string.
+     *
+     * @param quality the quality characters.
+     * @return the length to keep after trimming the low-quality tail.
+     */
+    public int add(CharSequence quality) {
+        if (quality == null) {
+            throw new IllegalArgumentException("Quality string cannot be null");
+        }
+        byte[] bytes = new byte[quality.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = quality.charAt(i);
+            bytes[i] = c < 128 ? (byte) c : 0;
+        }
+        return add(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Adds the statistics of another instance with the same offset, as when reads were
+     * split between workers. Trimming totals are added too.
+     *
+     * @param other the statistics to add.
+     */
+    public void add(QualityMetrics other) {
+        if (other.offset != offset) {
+            throw new IllegalArgumentException("Cannot add statistics with quality offset " + other.offset +
+                    " to " + offset);
+        }
+        if (other.positionSums.length > positionSums.length) {
+            positionSums = Arrays.copyOf(positionSums, other.positionSums.length);
+            readLengths = Arrays.copyOf(readLengths, other.readLengths.length);
+        }
+        for (int i = 0; i < other.positionSums.length; i++) {
+            positionSums[i] += other.positionSums[i];
+        }
+        for (int i = 0; i < other.readLengths.length; i++) {
+            readLengths[i] += other.readLengths[i];
+        }
+        for (int i = 0; i <= MAX_QUALITY; i++) {
+            readMeans[i] += other.readMeans[i];
+        }
+        reads += other.reads;
+        bases += other.bases;
+        trimmedBases += other.trimmedBases;
+        q20Bases += other.q20Bases;
+        q30Bases += other.q30Bases;
+        qualitySum += other.qualitySum;
+    }
+
+    /**
+     * Writes the statistics in a compact binary form, with the per-position sums cut
+     * at the longest read.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the statistics cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        int longest = readLengths.length - 1;
+        while (longest > 0 && readLengths[longest] == 0) {
+            longest--;
+        }
+        out.writeInt(offset);
+        out.writeInt(threshold);
+        out.writeInt(longest);
+        for (int i = 0; i < longest; i++) {
+            out.writeLong(positionSums[i]);
+        }
+        for (int i = 0; i <= longest; i++) {
+            out.writeLong(readLengths[i]);
+        }
+        for (long count : readMeans) {
+            out.writeLong(count);
+        }
+        out.writeLong(reads);
+        out.writeLong(bases);
+        out.writeLong(trimmedBases);
+        out.writeLong(q20Bases);
+        out.writeLong(q30Bases);
+        out.writeLong(qualitySum);
+    }
+
+    /**
+     * Reads statistics written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from.
+     * @return the statistics.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    public static QualityMetrics readFrom(DataInput in) throws IOException {
+        QualityMetrics metrics;
+        try {
+            metrics = new QualityMetrics(in.readInt(), in.readInt());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid quality statistics: " + e.getMessage());
+        }
+        int longest = in.readInt();
+        if (longest < 0) {
+            throw new IOException("Invalid read length " + longest);
+        }
+        if (longest > metrics.positionSums.length) {
+            metrics.positionSums = new long[longest];
+            metrics.readLengths = new long[longest + 1];
+        }
+        for (int i = 0; i < longest; i++) {
+            metrics.positionSums[i] = in.readLong();
+        }
+        for (int i = 0; i <= longest; i++) {
+            metrics.readLengths[i] = in.readLong();
+        }
+        for (int i = 0; i <= MAX_QUALITY; i++) {
+            metrics.readMeans[i] = in.readLong();
+        }
+        metrics.reads = in.readLong();
+        metrics.bases = in.readLong();
+        metrics.trimmedBases = in.readLong();
+        metrics.q20Bases = in.readLong();
+        metrics.q30Bases = in.readLong();
+        metrics.qualitySum = in.readLong();
+        return metrics;
+    }
+
+    /**
+     * Returns the length to keep of a read after trimming its low-quality 3' tail.
+     *
+     * @param quality the buffer holding the quality characters.
+     * @param from the index of the first quality character.
+     * @param length the number of quality characters.
+     * @param offset the ASCII offset of the quality characters.
+     * @param threshold the Phred score below which tails are trimmed.
+     * @return the number of leading bases to keep.
+     */
+    public static int trimLength(byte[] quality, int from, int length, int offset, int threshold) {
+        int tail = 0;
+        int bestTail = 0;
+        int keep = length;
+        for (int i = length - 1; i >= 0 && tail >= 0; i--) {
+            tail += threshold - (quality[from + i] - offset);
+            if (tail > bestTail) {
+                bestTail = tail;
+                keep = i;
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * Returns the mean quality at each read position, over the reads long enough to
+     * have one.
+     *
+     * @return the mean Phred score of each position, up to the longest read.
+     */
+    public double[] getMeanQualityPerPosition() {
+        int longest = readLengths.length - 1;
+        while (longest > 0 && readLengths[longest] == 0) {
+            longest--;
+        }
+        double[] means = new double[longest];
+        long covering = 0;
+        for (int i = longest - 1; i >= 0; i--) {
+            covering += readLengths[i + 1];
+            means[i] = (double) positionSums[i] / covering;
+        }
+        return means;
+    }
+
+    /**
+     * Returns how many reads have each mean quality, rounded down. Empty reads are left out.
+     *
+     * @return the read counts keyed by mean Phred score, in increasing order.
+     */
+    public Map<Integer, Long> getReadMeanQualityDistribution() {
+        Map<Integer, Long> distribution = new TreeMap<>();
+        for (int q = 0; q <= MAX_QUALITY; q++) {
+            if (readMeans[q] > 0) {
+                distribution.put(q, readMeans[q]);
+            }
+        }
+        return distribution;
+    }
+
+    /**
+     * Returns the mean quality of all bases.
+     *
+     * @return the mean Phred score, or 0.0 if no bases were added.
+     */
+    public double getMeanQuality() {
+        return bases == 0 ? 0.0 : (double) qualitySum / bases;
+    }
+
+    /**
+     * Returns the fraction of bases with quality 20 or better.
+     *
+     * @return the Q20 fraction, or 0.0 if no bases were added.
+     */
+    public double getQ20Fraction() {
+        return bases == 0 ? 0.0 : (double) q20Bases / bases;
+    }
+
+    /**
+     * Returns the fraction of bases with quality 30 or better.
+     *
+     * @return the Q30 fraction, or 0.0 if no bases were added.
+     */
+    public double getQ30Fraction() {
+        return bases == 0 ? 0.0 : (double) q30Bases / bases;
+    }
+
+    /**
+     * Returns the number of reads added.
+     *
+     * @return the read count.
+     */
+    public long getReadCount() {
+        return reads;
+    }
+
+    /**
+     * Returns the number of bases added.
+     *
+     * @return the base count, before trimming.
+     */
+    public long getBaseCount() {
+        return bases;
+    }
+
+    /**
+     * Returns the number of bases removed by trimming.
+     *
+     * @return the trimmed base count.
+     */
+    public long getTrimmedBaseCount() {
+        return trimmedBases;
+    }
+
+    /**
+     * Returns the trimming threshold.
+     *
+     * @return the Phred score below which tails are trimmed, or 0 if trimming is disabled.
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+}
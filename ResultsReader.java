@@ -0,0 +1,144 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the binary results written by {@link ResultsWriter}, one block of records at a
+ * time. Like {@link SequenceReader}, the reader is positioned on a record by
+ * {@link #next()} and its fields are read through accessors.
+ *
+ * @author Ajay Shenoy
+ */
+public class ResultsReader implements Closeable {
+
+    private final DataInputStream in;
+    private final int[] lengths = new int[ResultsWriter.BLOCK_SIZE];
+    private final double[] gcContents = new double[ResultsWriter.BLOCK_SIZE];
+    private final double[] atContents = new double[ResultsWriter.BLOCK_SIZE];
+    private final long[][] counts = new long[NucleotideCounts.OTHER + 1][ResultsWriter.BLOCK_SIZE];
+    private final String[] names = new String[ResultsWriter.BLOCK_SIZE];
+    private int size;
+    private int index = -1;
+    private boolean ended;
+
+    /**
+     * Creates a reader over the given stream and checks its header. The stream is
+     * closed when the reader is closed.
+     *
+     * @param in the stream to read binary results from.
+     * @throws IOException if the stream cannot be read or is not in the binary format.
+     */
+    public ResultsReader(InputStream in) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input stream cannot be null");
+        }
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (this.in.readInt() != ResultsWriter.MAGIC || this.in.readInt() != ResultsWriter.VERSION) {
+            throw new IOException("Not a binary results file");
+        }
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return true if a record was read, false at the end of the results.
+     * @throws IOException if the stream cannot be read or ends before the end marker.
+     */
+    public boolean next() throws IOException {
+        if (++index < size) {
+            return true;
+        }
+        if (ended) {
+            return false;
+        }
+        size = in.readInt();
+        index = 0;
+        if (size == 0) {
+            ended = true;
+            return false;
+        }
+        if (size < 0 || size > ResultsWriter.BLOCK_SIZE) {
+            throw new IOException("Invalid block size " + size);
+        }
+        for (int i = 0; i < size; i++) {
+            lengths[i] = in.readInt();
+        }
+        for (int i = 0; i < size; i++) {
+            gcContents[i] = in.readDouble();
+        }
+        for (int i = 0; i < size; i++) {
+            atContents[i] = in.readDouble();
+        }
+        for (long[] column : counts) {
+            for (int i = 0; i < size; i++) {
+                column[i] = in.readLong();
+            }
+        }
+        int[] nameLengths = new int[size];
+        for (int i = 0; i < size; i++) {
+            nameLengths[i] = in.readInt();
+        }
+        for (int i = 0; i < size; i++) {
+            byte[] name = new byte[nameLengths[i]];
+            in.readFully(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of the current record.
+     *
+     * @return the record name.
+     */
+    public String name() {
+        return names[index];
+    }
+
+    /**
+     * Returns the number of bases in the current record.
+     *
+     * @return the sequence length.
+     */
+    public int length() {
+        return lengths[index];
+    }
+
+    /**
+     * Returns a nucleotide count of the current record.
+     *
+     * @param nucleotide one of {@link NucleotideCounts#A}, {@link NucleotideCounts#C},
+     *                   {@link NucleotideCounts#G}, {@link NucleotideCounts#T} or
+     *                   {@link NucleotideCounts#OTHER}.
+     * @return the count.
+     */
+    public long count(int nucleotide) {
+        return counts[nucleotide][index];
+    }
+
+    /**
+     * Returns the GC content of the current record.
+     *
+     * @return the GC content percentage.
+     */
+    public double gcContent() {
+        return gcContents[index];
+    }
+
+    /**
+     * Returns the AT content of the current record.
+     *
+     * @return the AT content percentage.
+     */
+    public double atContent() {
+        return atContents[index];
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,225 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes per-record results (name, length, A/C/G/T/other counts, GC and AT content) as
+ * records are processed, either as buffered tab-separated text or in a compact binary
+ * columnar format read back by {@link ResultsReader}. Nothing is kept beyond one block
+ * of records, so output cost and memory stay flat however large the run is.
+ *
+ * <p>The binary format is big-endian: the magic {@code SRES} and a version, then
+ * blocks of up to {@value #BLOCK_SIZE} records, each an int record count followed by
+ * the columns in order: lengths (int), GC content (double), AT content (double), the
+ * A, C, G, T and other counts (long each), name byte lengths (int) and the UTF-8 name
+ * bytes. A block count of 0 ends the file.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public abstract class ResultsWriter implements Closeable {
+
+    /** Output formats. */
+    public enum Format {
+        /** Tab-separated text with a header line. */
+        TSV,
+        /** Binary columnar blocks. */
+        BINARY
+    }
+
+    /** Column names of the tab-separated format. */
+    public static final String HEADER = "name\tlength\tA\tC\tG\tT\tother\tgc\tat";
+
+    static final int MAGIC = 0x53524553;
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 4096;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ResultsWriter() {
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param format the output format.
+     * @param out the stream to write to.
+     * @return the writer.
+     * @throws IOException if the header cannot be written.
+     */
+    public static ResultsWriter create(Format format, OutputStream out) throws IOException {
+        if (format == null || out == null) {
+            throw new IllegalArgumentException("Format and output stream cannot be null");
+        }
+        return format == Format.TSV ? new Tsv(out) : new Binary(out);
+    }
+
+    /**
+     * Writes the results of one record. GC and AT content are computed from the counts
+     * as in {@link H10CustomApp#calculateGCContentForAll(String[])}.
+     *
+     * @param name the record name.
+     * @param length the number of bases, including non-ACGT characters.
+     * @param counts the five counts of the record, indexed by
+     *               {@link NucleotideCounts#indexOf(char)}.
+     * @throws IOException if the output cannot be written.
+     */
+    public void write(String name, int length, long[] counts) throws IOException {
+        double gcContent = 0.0;
+        double atContent = 0.0;
+        if (length > 0) {
+            gcContent = (counts[NucleotideCounts.G] + counts[NucleotideCounts.C]) * 100.0 / length;
+            atContent = (counts[NucleotideCounts.A] + counts[NucleotideCounts.T]) * 100.0 / length;
+        }
+        write(name == null ? "" : name, length, counts, gcContent, atContent);
+    }
+
+    abstract void write(String name, int length, long[] counts, double gcContent, double atContent)
+            throws IOException;
+
+    /**
+     * Writes any buffered records and the end of the output, then flushes the stream
+     * without closing it, for output to standard output.
+     *
+     * @throws IOException if the output cannot be written.
+     */
+    public abstract void finish() throws IOException;
+
+    /**
+     * Finishes the output and closes the stream.
+     *
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public abstract void close() throws IOException;
+
+    /**
+     * Buffered tab-separated text.
+     */
+    private static final class Tsv extends ResultsWriter {
+        private final Writer out;
+
+        Tsv(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.out.write(HEADER);
+            this.out.write('\n');
+        }
+
+        @Override
+        void write(String name, int length, long[] counts, double gcContent, double atContent)
+                throws IOException {
+            out.write(name.indexOf('\t') < 0 ? name : name.replace('\t', ' '));
+            out.write('\t');
+            out.write(Integer.toString(length));
+            for (int i = 0; i <= NucleotideCounts.OTHER; i++) {
+                out.write('\t');
+                out.write(Long.toString(counts[i]));
+            }
+            out.write('\t');
+            out.write(Double.toString(gcContent));
+            out.write('\t');
+            out.write(Double.toString(atContent));
+            out.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Binary columnar blocks.
+     */
+    private static final class Binary extends ResultsWriter {
+        private final DataOutputStream out;
+        private final int[] lengths = new int[BLOCK_SIZE];
+        private final double[] gcContents = new double[BLOCK_SIZE];
+        private final double[] atContents = new double[BLOCK_SIZE];
+        private final long[][] counts = new long[NucleotideCounts.OTHER + 1][BLOCK_SIZE];
+        private final byte[][] names = new byte[BLOCK_SIZE][];
+        private int size;
+        private boolean finished;
+
+        Binary(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        }
+
+        @Override
+        void write(String name, int length, long[] recordCounts, double gcContent, double atContent)
+                throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Results have already been finished");
+            }
+            lengths[size] = length;
+            gcContents[size] = gcContent;
+            atContents[size] = atContent;
+            for (int i = 0; i <= NucleotideCounts.OTHER; i++) {
+                counts[i][size] = recordCounts[i];
+            }
+            names[size] = name.getBytes(StandardCharsets.UTF_8);
+            if (++size == BLOCK_SIZE) {
+                writeBlock();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(lengths[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeDouble(gcContents[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeDouble(atContents[i]);
+            }
+            for (long[] column : counts) {
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(column[i]);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(names[i].length);
+            }
+            for (int i = 0; i < size; i++) {
+                out.write(names[i]);
+            }
+            Arrays.fill(names, 0, size, null);
+            size = 0;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!finished) {
+                if (size > 0) {
+                    writeBlock();
+                }
+                out.writeInt(0);
+                finished = true;
+            }
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A thread-safe, size-bounded cache of per-sequence results keyed by the
+ * {@link SequenceHash} of the sequence. Entries are spread over independently locked
+ * stripes, each an access-ordered map that evicts its least recently used entries
+ * once the stripe holds more than its share of the capacity. Capacity is measured in
+ * bases of the cached sequences, so memory stays bounded whether the batch holds
+ * short reads or long fragments.
+ *
+ * <p>Each entry keeps its sequence, and a hit is only returned when the sequences are
+ * equal, so a hash collision costs a recomputation rather than a wrong result. Results
+ * are computed outside the stripe lock; two threads missing on the same sequence at
+ * once may both compute it.</p>
+ *
+ * @param <V> the type of cached results.
+ * @author Ajay Shenoy
+ */
+public class SequenceCache<V> {
+
+    private final Function<String, V> loader;
+    private final Stripe<V>[] stripes;
+    private final long stripeCapacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache with one stripe per available processor, rounded up to a power
+     * of two.
+     *
+     * @param maxBases the total number of bases of cached sequences to keep.
+     * @param loader computes the result of a sequence on a miss.
+     */
+    public SequenceCache(long maxBases, Function<String, V> loader) {
+        this(maxBases, Runtime.getRuntime().availableProcessors(), loader);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBases the total number of bases of cached sequences to keep.
+     * @param stripeCount the number of independently locked stripes, rounded up to a
+     *                    power of two.
+     * @param loader computes the result of a sequence on a miss.
+     */
+    public SequenceCache(long maxBases, int stripeCount, Function<String, V> loader) {
+        if (maxBases <= 0 || stripeCount <= 0) {
+            throw new IllegalArgumentException("Capacity and stripe count must be positive");
+        }
+        if (loader == null) {
+            throw new IllegalArgumentException("Loader cannot be null");
+        }
+        int count = Integer.highestOneBit(Math.max(1, stripeCount * 2 - 1));
+        this.loader = loader;
+        @SuppressWarnings("unchecked")
+        Stripe<V>[] created = (Stripe<V>[]) new Stripe<?>[count];
+        this.stripes = created;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.stripeCapacity = Math.max(1, maxBases / count);
+    }
+
+    /**
+     * Returns the result for a sequence, computing and caching it on a miss. A
+     * sequence longer than one stripe's share of the capacity is computed but not
+     * cached.
+     *
+     * @param sequence the sequence.
+     * @return the result.
+     */
+    public V get(String sequence) {
+        long hash = SequenceHash.hash(sequence);
+        Stripe<V> stripe = stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+        stripe.lock.lock();
+        try {
+            Entry<V> entry = stripe.entries.get(hash);
+            if (entry != null && entry.sequence.equals(sequence)) {
+                hits.increment();
+                return entry.value;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        misses.increment();
+        V value = loader.apply(sequence);
+        long weight = weightOf(sequence);
+        if (weight > stripeCapacity) {
+            return value;
+        }
+        stripe.lock.lock();
+        try {
+            Entry<V> previous = stripe.entries.put(hash, new Entry<>(sequence, value));
+            stripe.weight += weight - (previous == null ? 0 : weightOf(previous.sequence));
+            Iterator<Entry<V>> eldest = stripe.entries.values().iterator();
+            while (stripe.weight > stripeCapacity) {
+                stripe.weight -= weightOf(eldest.next().sequence);
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return value;
+    }
+
+    private static long weightOf(String sequence) {
+        return sequence.length() + 1L;
+    }
+
+    /**
+     * Removes every entry. The counters are not reset.
+     */
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.entries.clear();
+                stripe.weight = 0;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the entry count.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that computed their result.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the capacity.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "{hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions="
+                + getEvictionCount() + ", size=" + size() + "}";
+    }
+
+    /**
+     * A cached sequence and its result.
+     */
+    private static final class Entry<V> {
+        final String sequence;
+        final V value;
+
+        Entry(String sequence, V value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+    /**
+     * One lock and the access-ordered entries it guards.
+     */
+    private static final class Stripe<V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        long weight;
+    }
+}
@@ -0,0 +1,355 @@
+import java.util.Arrays;
+
+/**
+ * Collapses exact duplicate sequences ahead of the metric computations, so each
+ * distinct sequence is counted once and its copies reuse its counts. Every sequence
+ * is reduced to a 128-bit fingerprint, two independent multiply-rotate hashes in one
+ * pass, kept with a copy count in an off-heap {@link FingerprintSet}. The nucleotide
+ * counts of the first copy are stored per distinct sequence.
+ *
+ * <p>In canonical mode a sequence and its reverse complement share a fingerprint, the
+ * smaller of the hashes of the two strands. Strands are complemented A/T and C/G in
+ * either case, with every other character left unchanged, so a reverse-complement
+ * copy has exactly the counts of its original with A and T, and C and G, swapped,
+ * and the same GC and AT content. Other IUPAC codes are not complemented, so
+ * sequences containing them only match their reverse complements when those codes
+ * are symmetric, such as N.</p>
+ *
+ * <p>Results are exact unless two different sequences share a 128-bit fingerprint.
+ * The stage is off by default; {@code -Dsequence.dedup=exact} or
+ * {@code -Dsequence.dedup=canonical} makes {@link SequenceMetrics#compute(String[])},
+ * and every {@link H10CustomApp} operation built on it, deduplicate first.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class SequenceDeduplicator {
+
+    /** Whether {@link SequenceMetrics#compute(String[])} deduplicates first. */
+    static final boolean ENABLED;
+    /** Whether that deduplication matches reverse complements. */
+    static final boolean CANONICAL;
+
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+    private static final long K1 = 0x87C37B91114253D5L;
+    private static final long K2 = 0x4CF5AD432745937FL;
+    private static final long K3 = 0x52DCE729DA3ED6B5L;
+    private static final long K4 = 0x38495AB5C6D4E1F3L;
+    private static final char[] FLIP = new char[128];
+
+    static {
+        String mode = System.getProperty("sequence.dedup", "off");
+        ENABLED = mode.equals("exact") || mode.equals("canonical");
+        CANONICAL = mode.equals("canonical");
+        for (char c = 0; c < 128; c++) {
+            FLIP[c] = c;
+        }
+        String bases = "ACGTacgt";
+        String complements = "TGCAtgca";
+        for (int i = 0; i < bases.length(); i++) {
+            FLIP[bases.charAt(i)] = complements.charAt(i);
+        }
+    }
+
+    private final boolean canonical;
+    private final FingerprintSet fingerprints;
+    private final long[] scratch = new long[5];
+    private long[] uniqueCounts = new long[5 * 64];
+    private boolean[] uniqueReverse = new boolean[64];
+    private int storedCount;
+    private long high;
+    private long low;
+    private boolean reverse;
+    private boolean lastFlipped;
+    private long sequenceCount;
+
+    /**
+     * Creates an empty deduplicator.
+     *
+     * @param canonical whether a sequence and its reverse complement count as duplicates.
+     */
+    public SequenceDeduplicator(boolean canonical) {
+        this(canonical, 1024);
+    }
+
+    /**
+     * Creates an empty deduplicator sized for the given number of distinct sequences.
+     *
+     * @param canonical whether a sequence and its reverse complement count as duplicates.
+     * @param expectedUnique the expected number of distinct sequences.
+     */
+    public SequenceDeduplicator(boolean canonical, int expectedUnique) {
+        this.canonical = canonical;
+        this.fingerprints = new FingerprintSet(expectedUnique);
+    }
+
+    /**
+     * Computes all metrics for the given DNA sequences, counting each distinct
+     * sequence once. The result is the same as {@link SequenceMetrics#compute(String[])},
+     * including the per-sequence GC and AT content in input order.
+     *
+     * @param sequences An array of DNA sequences.
+     * @param canonical whether a sequence and its reverse complement count as duplicates.
+     * @return the combined metrics.
+     */
+    public static SequenceMetrics compute(String[] sequences, boolean canonical) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        SequenceDeduplicator deduplicator = new SequenceDeduplicator(canonical, sequences.length);
+        SequenceMetrics metrics = new SequenceMetrics();
+        long[] counts = new long[5];
+        for (String sequence : sequences) {
+            if (sequence == null) {
+                metrics.add((CharSequence) null);
+                continue;
+            }
+            int id = deduplicator.add(sequence);
+            deduplicator.getCounts(id, deduplicator.isFlipped(), counts);
+            metrics.addCounts(counts);
+        }
+        return metrics;
+    }
+
+    /**
+     * Adds a sequence, counting its bases only if it has not been seen before.
+     *
+     * @param sequence the DNA sequence.
+     * @return the id of the distinct sequence, in order of first appearance.
+     */
+    public int add(CharSequence sequence) {
+        if (sequence == null) {
+            throw new IllegalArgumentException("Sequence cannot be null");
+        }
+        fingerprint(sequence);
+        int id = fingerprints.add(high, low, reverse);
+        if (id == storedCount) {
+            Arrays.fill(scratch, 0);
+            NucleotideCounts.count(sequence, scratch);
+            store(id);
+        }
+        lastFlipped = uniqueReverse[id] != reverse;
+        sequenceCount++;
+        return id;
+    }
+
+    /**
+     * Adds a sequence held as ASCII bytes, counting its bases only if it has not been
+     * seen before.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     * @return the id of the distinct sequence, in order of first appearance.
+     */
+    public int add(byte[] bases, int offset, int length) {
+        fingerprint(bases, offset, length);
+        int id = fingerprints.add(high, low, reverse);
+        if (id == storedCount) {
+            Arrays.fill(scratch, 0);
+            NucleotideCounts.count(bases, offset, length, scratch);
+            store(id);
+        }
+        lastFlipped = uniqueReverse[id] != reverse;
+        sequenceCount++;
+        return id;
+    }
+
+    /**
+     * Returns whether the sequence added last is the reverse complement of the first
+     * copy of its distinct sequence, rather than equal to it.
+     *
+     * @return true if the last sequence matched as a reverse complement.
+     */
+    public boolean isFlipped() {
+        return lastFlipped;
+    }
+
+    /**
+     * Copies the nucleotide counts of a distinct sequence.
+     *
+     * @param id the id returned by {@code add}.
+     * @param flipped whether to give the counts of its reverse complement, with A and T,
+     *                and C and G, swapped.
+     * @param target an array of at least five counts, overwritten.
+     */
+    public void getCounts(int id, boolean flipped, long[] target) {
+        if (id < 0 || id >= fingerprints.size()) {
+            throw new IllegalArgumentException("Unknown sequence id: " + id);
+        }
+        System.arraycopy(uniqueCounts, id * 5, target, 0, 5);
+        if (flipped) {
+            swap(target, NucleotideCounts.A, NucleotideCounts.T);
+            swap(target, NucleotideCounts.C, NucleotideCounts.G);
+        }
+    }
+
+    /**
+     * Returns the number of distinct sequences added.
+     *
+     * @return the distinct count.
+     */
+    public int getUniqueCount() {
+        return fingerprints.size();
+    }
+
+    /**
+     * Returns the number of sequences added, including duplicates.
+     *
+     * @return the sequence count.
+     */
+    public long getSequenceCount() {
+        return sequenceCount;
+    }
+
+    /**
+     * Computes the nucleotide frequencies and length distribution of every sequence
+     * added, by weighting the counts of each distinct sequence by its number of copies.
+     * Per-sequence GC and AT content is not kept.
+     *
+     * @return the combined metrics.
+     */
+    public SequenceMetrics getMetrics() {
+        SequenceMetrics metrics = new SequenceMetrics(false);
+        long[] counts = new long[5];
+        fingerprints.forEach((entryHigh, entryLow, id, count, reverseCount) -> {
+            int flippedCopies = uniqueReverse[id] ? count - reverseCount : reverseCount;
+            getCounts(id, false, counts);
+            metrics.addCounts(counts, count - flippedCopies);
+            getCounts(id, true, counts);
+            metrics.addCounts(counts, flippedCopies);
+        });
+        return metrics;
+    }
+
+    private void store(int id) {
+        if (id == uniqueReverse.length) {
+            uniqueReverse = Arrays.copyOf(uniqueReverse, id * 2);
+            uniqueCounts = Arrays.copyOf(uniqueCounts, id * 10);
+        }
+        System.arraycopy(scratch, 0, uniqueCounts, id * 5, 5);
+        uniqueReverse[id] = reverse;
+        storedCount = id + 1;
+    }
+
+    private static void swap(long[] counts, int i, int j) {
+        long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+    }
+
+    /**
+     * Sets {@code high}, {@code low} and {@code reverse} to the fingerprint of a sequence.
+     */
+    private void fingerprint(CharSequence sequence) {
+        int length = sequence.length();
+        long h1 = SEED_HIGH ^ length;
+        long h2 = SEED_LOW ^ length;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = sequence.charAt(i)
+                    | (long) sequence.charAt(i + 1) << 16
+                    | (long) sequence.charAt(i + 2) << 32
+                    | (long) sequence.charAt(i + 3) << 48;
+            h1 = Long.rotateLeft(h1 ^ block * K1, 31) * K2;
+            h2 = Long.rotateLeft(h2 ^ block * K3, 29) * K4;
+        }
+        long block = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            block |= (long) sequence.charAt(i) << shift;
+        }
+        finish(h1, h2, block);
+        reverse = false;
+        if (canonical) {
+            long forwardHigh = high;
+            long forwardLow = low;
+            h1 = SEED_HIGH ^ length;
+            h2 = SEED_LOW ^ length;
+            i = length - 1;
+            for (; i >= 3; i -= 4) {
+                block = flip(sequence.charAt(i))
+                        | (long) flip(sequence.charAt(i - 1)) << 16
+                        | (long) flip(sequence.charAt(i - 2)) << 32
+                        | (long) flip(sequence.charAt(i - 3)) << 48;
+                h1 = Long.rotateLeft(h1 ^ block * K1, 31) * K2;
+                h2 = Long.rotateLeft(h2 ^ block * K3, 29) * K4;
+            }
+            block = 0;
+            for (int shift = 0; i >= 0; i--, shift += 16) {
+                block |= (long) flip(sequence.charAt(i)) << shift;
+            }
+            finish(h1, h2, block);
+            choose(forwardHigh, forwardLow);
+        }
+    }
+
+    /**
+     * Sets {@code high}, {@code low} and {@code reverse} to the fingerprint of a
+     * sequence held as ASCII bytes, matching {@link #fingerprint(CharSequence)}.
+     */
+    private void fingerprint(byte[] bases, int offset, int length) {
+        long h1 = SEED_HIGH ^ length;
+        long h2 = SEED_LOW ^ length;
+        int i = offset;
+        int end = offset + length;
+        for (; i + 4 <= end; i += 4) {
+            long block = (bases[i] & 0xFF)
+                    | (long) (bases[i + 1] & 0xFF) << 16
+                    | (long) (bases[i + 2] & 0xFF) << 32
+                    | (long) (bases[i + 3] & 0xFF) << 48;
+            h1 = Long.rotateLeft(h1 ^ block * K1, 31) * K2;
+            h2 = Long.rotateLeft(h2 ^ block * K3, 29) * K4;
+        }
+        long block = 0;
+        for (int shift = 0; i < end; i++, shift += 16) {
+            block |= (long) (bases[i] & 0xFF) << shift;
+        }
+        finish(h1, h2, block);
+        reverse = false;
+        if (canonical) {
+            long forwardHigh = high;
+            long forwardLow = low;
+            h1 = SEED_HIGH ^ length;
+            h2 = SEED_LOW ^ length;
+            i = end - 1;
+            for (; i >= offset + 3; i -= 4) {
+                block = flip((char) (bases[i] & 0xFF))
+                        | (long) flip((char) (bases[i - 1] & 0xFF)) << 16
+                        | (long) flip((char) (bases[i - 2] & 0xFF)) << 32
+                        | (long) flip((char) (bases[i - 3] & 0xFF)) << 48;
+                h1 = Long.rotateLeft(h1 ^ block * K1, 31) * K2;
+                h2 = Long.rotateLeft(h2 ^ block * K3, 29) * K4;
+            }
+            block = 0;
+            for (int shift = 0; i >= offset; i--, shift += 16) {
+                block |= (long) flip((char) (bases[i] & 0xFF)) << shift;
+            }
+            finish(h1, h2, block);
+            choose(forwardHigh, forwardLow);
+        }
+    }
+
+    private static char flip(char base) {
+        return base < 128 ? FLIP[base] : base;
+    }
+
+    private void finish(long h1, long h2, long block) {
+        h1 = Long.rotateLeft(h1 ^ block * K1, 31) * K2;
+        h2 = Long.rotateLeft(h2 ^ block * K3, 29) * K4;
+        high = SequenceHash.mix(h1 + h2);
+        low = SequenceHash.mix(h2 ^ Long.rotateLeft(h1, 23));
+    }
+
+    /**
+     * Keeps the smaller of the forward fingerprint and the reverse one just computed.
+     */
+    private void choose(long forwardHigh, long forwardLow) {
+        int order = Long.compareUnsigned(high, forwardHigh);
+        if (order > 0 || (order == 0 && Long.compareUnsigned(low, forwardLow) >= 0)) {
+            high = forwardHigh;
+            low = forwardLow;
+        } else {
+            reverse = true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Fast 64-bit content hashes of sequences. Four characters are folded into each
+ * multiply-rotate step and the result goes through a final avalanche, so the hash is
+ * well spread in both its high and low bits. It is not a cryptographic hash.
+ *
+ * @author Ajay Shenoy
+ */
+public final class SequenceHash {
+
+    private static final long K1 = 0x87C37B91114253D5L;
+    private static final long K2 = 0x4CF5AD432745937FL;
+
+    private SequenceHash() {
+    }
+
+    /**
+     * Hashes the characters of a sequence. Case is significant.
+     *
+     * @param sequence the sequence.
+     * @return the 64-bit hash.
+     */
+    public static long hash(CharSequence sequence) {
+        int length = sequence.length();
+        long hash = 0x9E3779B97F4A7C15L ^ length;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = sequence.charAt(i)
+                    | (long) sequence.charAt(i + 1) << 16
+                    | (long) sequence.charAt(i + 2) << 32
+                    | (long) sequence.charAt(i + 3) << 48;
+            hash = Long.rotateLeft(hash ^ block * K1, 31) * K2;
+        }
+        if (i < length) {
+            long block = 0;
+            for (int shift = 0; i < length; i++, shift += 16) {
+                block |= (long) sequence.charAt(i) << shift;
+            }
+            hash = Long.rotateLeft(hash ^ block * K1, 31) * K2;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Hashes a sequence held as ASCII bytes, giving the same hash as
+     * {@link #hash(CharSequence)} for the same characters.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     * @return the 64-bit hash.
+     */
+    public static long hash(byte[] bases, int offset, int length) {
+        long hash = 0x9E3779B97F4A7C15L ^ length;
+        int i = offset;
+        int end = offset + length;
+        for (; i + 4 <= end; i += 4) {
+            long block = (bases[i] & 0xFF)
+                    | (long) (bases[i + 1] & 0xFF) << 16
+                    | (long) (bases[i + 2] & 0xFF) << 32
+                    | (long) (bases[i + 3] & 0xFF) << 48;
+            hash = Long.rotateLeft(hash ^ block * K1, 31) * K2;
+        }
+        if (i < end) {
+            long block = 0;
+            for (int shift = 0; i < end; i++, shift += 16) {
+                block |= (long) (bases[i] & 0xFF) << shift;
+            }
+            hash = Long.rotateLeft(hash ^ block * K1, 31) * K2;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Applies the MurmurHash3 finalizer, so every input bit affects every output bit.
+     *
+     * @param hash the value to mix.
+     * @return the mixed value.
+     */
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,534 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * A binary index built alongside a FASTA or FASTQ file, by default at the input path
+ * plus {@value #EXTENSION}. For every record it stores the byte offset, sequence
+ * length, name, A/C/G/T/other counts, GC and AT content, and the bases packed as a
+ * {@link PackedSequence}, so metrics can be answered without parsing the input again.
+ *
+ * <p>The header records how many bytes of the input were indexed, the input's
+ * modification time and a CRC-32C of the indexed bytes. The index is current when the
+ * input has the same size, modification time and checksum. When the input has grown
+ * and the checksum of the indexed prefix is unchanged, only the last indexed record
+ * (which may have been extended) and the new records are parsed and appended to the
+ * index. Any other change rebuilds the index from scratch into a temporary file that
+ * replaces the index once complete, so a failed build leaves no index behind.</p>
+ *
+ * <p>Index layout, big-endian: a header of magic, version, indexed length, modification
+ * time, checksum, position of the last record and record count, followed by the
+ * records. Each record is its offset, length, flags, five counts, GC and AT content,
+ * name, packed words and, if any base is ambiguous, the ambiguity bitmap.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class SequenceIndex implements Closeable {
+
+    /** File name extension added to the input path for the default index location. */
+    public static final String EXTENSION = ".sidx";
+
+    private static final int MAGIC = 0x53494458;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 48;
+    private static final int RECORD_HEAD_SIZE = 76;
+    private static final int HAS_AMBIGUITY = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final int size;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final String[] names;
+    private final long[] counts;
+    private final double[] gcContents;
+    private final double[] atContents;
+    private final long[] dataPositions;
+    private final boolean[] ambiguous;
+    private SequenceMetrics metrics;
+
+    private SequenceIndex(FileChannel channel, int size) {
+        this.channel = channel;
+        this.size = size;
+        this.offsets = new long[size];
+        this.lengths = new int[size];
+        this.names = new String[size];
+        this.counts = new long[size * 5];
+        this.gcContents = new double[size];
+        this.atContents = new double[size];
+        this.dataPositions = new long[size];
+        this.ambiguous = new boolean[size];
+    }
+
+    /**
+     * Opens the index of a file at its default location, building or updating it
+     * first if it is missing or out of date.
+     *
+     * @param input the FASTA or FASTQ file.
+     * @return the index.
+     * @throws IOException if the input cannot be read or the index cannot be written.
+     */
+    public static SequenceIndex open(Path input) throws IOException {
+        return open(input, defaultIndexPath(input));
+    }
+
+    /**
+     * Opens the index of a file, building or updating it first if it is missing or out
+     * of date.
+     *
+     * @param input the FASTA or FASTQ file.
+     * @param index the index file.
+     * @return the index.
+     * @throws IOException if the input cannot be read or the index cannot be written.
+     */
+    public static SequenceIndex open(Path input, Path index) throws IOException {
+        update(input, index);
+        return load(index);
+    }
+
+    /**
+     * Returns the default index location of a file.
+     *
+     * @param input the FASTA or FASTQ file.
+     * @return the input path with {@value #EXTENSION} appended.
+     */
+    public static Path defaultIndexPath(Path input) {
+        return input.resolveSibling(input.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Brings an index up to date with its input, appending to it when the input has
+     * only grown.
+     *
+     * @param input the FASTA or FASTQ file.
+     * @param index the index file.
+     * @return the number of records parsed from the input, 0 if the index was current.
+     * @throws IOException if the input cannot be read or the index cannot be written.
+     */
+    public static int update(Path input, Path index) throws IOException {
+        // Check the input before the index is created, so a missing input leaves no index
+        if (!Files.isRegularFile(input)) {
+            throw new NoSuchFileException(input.toString(), null, "Input not found");
+        }
+        long inputSize = Files.size(input);
+        long modified = Files.getLastModifiedTime(input).toMillis();
+        if (Files.exists(index)) {
+            boolean appending = false;
+            try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                long[] header = readHeader(indexChannel);
+                Checksum checksum = new CRC32C();
+                if (header != null && (header[0] < inputSize || header[0] == inputSize && header[1] == modified)
+                        && checksum(input, 0, header[0], checksum) == header[2]) {
+                    if (header[0] == inputSize) {
+                        return 0;
+                    }
+                    if (header[4] > 0) {
+                        appending = true;
+                        return append(indexChannel, input, header, checksum, modified);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // A failed append leaves an invalidated index; remove it once it is closed
+                if (appending) {
+                    Files.deleteIfExists(index);
+                }
+                throw e;
+            }
+        }
+        return rebuild(input, index, modified);
+    }
+
+    /**
+     * Reparses the last indexed record and parses the records after it, replacing the
+     * last record of the index. The checksum has been updated with the indexed prefix.
+     */
+    private static int append(FileChannel indexChannel, Path input, long[] header, Checksum checksum,
+            long modified) throws IOException {
+        ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+        readFully(indexChannel, offset, header[3]);
+        return writeRecords(indexChannel, input, offset.getLong(0), header[3], (int) header[4] - 1,
+                checksum, header[0], modified);
+    }
+
+    /**
+     * Builds the index from scratch into a temporary file next to it, then moves it into
+     * place.
+     */
+    private static int rebuild(Path input, Path index, long modified) throws IOException {
+        Path temporary = index.resolveSibling(index.getFileName() + ".tmp");
+        try {
+            int parsed;
+            try (FileChannel indexChannel = FileChannel.open(temporary, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                parsed = writeRecords(indexChannel, input, 0, HEADER_SIZE, 0, new CRC32C(), 0, modified);
+            }
+            Files.move(temporary, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return parsed;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Parses the input from the given offset and writes its records to the index from
+     * the given position, then writes the header.
+     *
+     * @param start the input offset to parse from.
+     * @param position the index position to write the first record at.
+     * @param recordCount the number of records before that position.
+     * @param checksum the checksum of the first {@code checked} bytes of the input.
+     * @param checked the number of input bytes already added to the checksum.
+     * @param modified the modification time of the input before it was read.
+     * @return the number of records parsed.
+     */
+    private static int writeRecords(FileChannel indexChannel, Path input, long start, long position,
+            int recordCount, Checksum checksum, long checked, long modified) throws IOException {
+        // Invalidate the header first, so an interrupted update forces a rebuild
+        indexChannel.write(ByteBuffer.allocate(HEADER_SIZE), 0);
+        indexChannel.truncate(position);
+        indexChannel.position(position);
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(indexChannel), BUFFER_SIZE));
+        long lastRecordPosition = position;
+        long indexedLength;
+        int parsed = 0;
+        FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+        inputChannel.position(start);
+        try (SequenceReader reader = new SequenceReader(inputChannel)) {
+            long[] recordCounts = new long[5];
+            while (reader.next()) {
+                lastRecordPosition = position;
+                position += writeRecord(out, start + reader.recordOffset(), reader, recordCounts);
+                parsed++;
+            }
+            indexedLength = inputChannel.position();
+        }
+        out.flush();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(indexedLength).putLong(modified)
+                .putLong(checksum(input, checked, indexedLength, checksum)).putLong(lastRecordPosition)
+                .putInt(recordCount + parsed).putInt(0).flip();
+        indexChannel.force(false);
+        indexChannel.write(buffer, 0);
+        indexChannel.force(false);
+        return parsed;
+    }
+
+    private static long writeRecord(DataOutputStream out, long offset, SequenceReader reader,
+            long[] recordCounts) throws IOException {
+        byte[] bases = reader.sequenceBuffer();
+        int length = reader.sequenceLength();
+        Arrays.fill(recordCounts, 0);
+        NucleotideCounts.count(bases, 0, length, recordCounts);
+        PackedSequence packed = PackedSequence.pack(bases, 0, length);
+        long[] words = packed.words();
+        long[] ambiguity = packed.ambiguityMask();
+        byte[] name = reader.name().getBytes(StandardCharsets.UTF_8);
+
+        out.writeLong(offset);
+        out.writeInt(length);
+        out.writeInt(ambiguity == null ? 0 : HAS_AMBIGUITY);
+        for (long count : recordCounts) {
+            out.writeLong(count);
+        }
+        if (length == 0) {
+            out.writeDouble(0.0);
+            out.writeDouble(0.0);
+        } else {
+            out.writeDouble((recordCounts[NucleotideCounts.G] + recordCounts[NucleotideCounts.C])
+                    * 100.0 / length);
+            out.writeDouble((recordCounts[NucleotideCounts.A] + recordCounts[NucleotideCounts.T])
+                    * 100.0 / length);
+        }
+        out.writeInt(name.length);
+        out.write(name);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+        if (ambiguity != null) {
+            for (long word : ambiguity) {
+                out.writeLong(word);
+            }
+        }
+        return RECORD_HEAD_SIZE + name.length
+                + (long) Long.BYTES * (words.length + (ambiguity == null ? 0 : ambiguity.length));
+    }
+
+    /**
+     * Reads the header fields: indexed length, modification time, checksum, last record
+     * position and record count. Returns null if the file is not a current index.
+     */
+    private static long[] readHeader(FileChannel indexChannel) throws IOException {
+        if (indexChannel.size() < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(indexChannel, buffer, 0);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+        return new long[] {buffer.getLong(8), buffer.getLong(16), buffer.getLong(24), buffer.getLong(32),
+            buffer.getInt(40)};
+    }
+
+    /**
+     * Adds a range of the input to a checksum.
+     *
+     * @return the checksum value after the range.
+     */
+    private static long checksum(Path input, long from, long to, Checksum checksum) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+            for (long position = from; position < to; position += buffer.limit()) {
+                buffer.clear().limit((int) Math.min(BUFFER_SIZE, to - position));
+                readFully(inputChannel, buffer, position);
+                checksum.update(buffer.array(), 0, buffer.limit());
+            }
+        }
+        return checksum.getValue();
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of file at offset " + (position + buffer.position()));
+            }
+        }
+    }
+
+    private static SequenceIndex load(Path index) throws IOException {
+        FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ);
+        try {
+            long[] header = readHeader(indexChannel);
+            if (header == null) {
+                throw new IOException("Not a sequence index: " + index);
+            }
+            SequenceIndex sequenceIndex = new SequenceIndex(indexChannel, (int) header[4]);
+            sequenceIndex.readRecords(index);
+            return sequenceIndex;
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    private void readRecords(Path index) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(index), BUFFER_SIZE))) {
+            in.skipNBytes(HEADER_SIZE);
+            long position = HEADER_SIZE;
+            for (int i = 0; i < size; i++) {
+                offsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+                ambiguous[i] = (in.readInt() & HAS_AMBIGUITY) != 0;
+                for (int j = 0; j < 5; j++) {
+                    counts[i * 5 + j] = in.readLong();
+                }
+                gcContents[i] = in.readDouble();
+                atContents[i] = in.readDouble();
+                byte[] name = new byte[in.readInt()];
+                in.readFully(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                dataPositions[i] = position + RECORD_HEAD_SIZE + name.length;
+                long dataSize = dataSize(i);
+                in.skipNBytes(dataSize);
+                position = dataPositions[i] + dataSize;
+            }
+        }
+    }
+
+    private long dataSize(int record) {
+        long words = (lengths[record] + 31L) >>> 5;
+        long ambiguityWords = ambiguous[record] ? (lengths[record] + 63L) >>> 6 : 0;
+        return Long.BYTES * (words + ambiguityWords);
+    }
+
+    /**
+     * Returns the number of indexed records.
+     *
+     * @return the record count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the byte offset of a record's header line in the input.
+     *
+     * @param record the record number, starting at 0.
+     * @return the byte offset.
+     */
+    public long getOffset(int record) {
+        return offsets[record];
+    }
+
+    /**
+     * Returns the name of a record.
+     *
+     * @param record the record number, starting at 0.
+     * @return the name, without the leading '>' or '@'.
+     */
+    public String getName(int record) {
+        return names[record];
+    }
+
+    /**
+     * Returns the sequence length of a record.
+     *
+     * @param record the record number, starting at 0.
+     * @return the number of bases.
+     */
+    public int getLength(int record) {
+        return lengths[record];
+    }
+
+    /**
+     * Returns a nucleotide count of a record.
+     *
+     * @param record the record number, starting at 0.
+     * @param index one of {@link NucleotideCounts#A}, {@link NucleotideCounts#C},
+     *              {@link NucleotideCounts#G}, {@link NucleotideCounts#T} or
+     *              {@link NucleotideCounts#OTHER}.
+     * @return the count.
+     */
+    public long getCount(int record, int index) {
+        return counts[record * 5 + index];
+    }
+
+    /**
+     * Returns the GC content of a record.
+     *
+     * @param record the record number, starting at 0.
+     * @return the GC content percentage.
+     */
+    public double getGCContent(int record) {
+        return gcContents[record];
+    }
+
+    /**
+     * Returns the AT content of a record.
+     *
+     * @param record the record number, starting at 0.
+     * @return the AT content percentage.
+     */
+    public double getATContent(int record) {
+        return atContents[record];
+    }
+
+    /**
+     * Reads the packed bases of a record from the index.
+     *
+     * @param record the record number, starting at 0.
+     * @return the packed sequence.
+     * @throws IOException if the index cannot be read.
+     */
+    public PackedSequence getSequence(int record) throws IOException {
+        int length = lengths[record];
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(dataSize(record)));
+        readFully(channel, buffer, dataPositions[record]);
+        buffer.flip();
+        LongBuffer longs = buffer.asLongBuffer();
+        long[] words = new long[(length + 31) >>> 5];
+        longs.get(words);
+        long[] ambiguity = null;
+        if (ambiguous[record]) {
+            ambiguity = new long[(length + 63) >>> 6];
+            longs.get(ambiguity);
+        }
+        return PackedSequence.of(words, ambiguity, length);
+    }
+
+    /**
+     * Returns the metrics of every record, built from the stored counts.
+     *
+     * @return the combined metrics.
+     */
+    public SequenceMetrics getMetrics() {
+        if (metrics == null) {
+            SequenceMetrics built = new SequenceMetrics();
+            long[] recordCounts = new long[5];
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(counts, i * 5, recordCounts, 0, 5);
+                built.addCounts(recordCounts);
+            }
+            metrics = built;
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the GC content of each record, like
+     * {@link H10CustomApp#calculateGCContentForAll(String[])}.
+     *
+     * @return gcContents A list of GC content percentages for each sequence.
+     */
+    public List<Double> calculateGCContentForAll() {
+        return toList(gcContents);
+    }
+
+    /**
+     * Returns the AT content of each record, like
+     * {@link H10CustomApp#calculateATContentForAll(String[])}.
+     *
+     * @return atContents A list of AT content percentages for each sequence.
+     */
+    public List<Double> calculateATContentForAll() {
+        return toList(atContents);
+    }
+
+    private List<Double> toList(double[] contents) {
+        List<Double> list = new ArrayList<>(size);
+        for (double content : contents) {
+            list.add(content);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the distribution of record lengths, like
+     * {@link H10CustomApp#calculateSequenceLengthDistribution(String[])}.
+     *
+     * @return lengthDistribution A map with sequence length as the key and its frequency
+     * as the value.
+     */
+    public Map<Integer, Integer> calculateSequenceLengthDistribution() {
+        return getMetrics().getLengthDistribution();
+    }
+
+    /**
+     * Finds the most common nucleotides across all records, like
+     * {@link H10CustomApp#findMostCommonNucleotides(String[])}.
+     *
+     * @return mostCommonNucleotides A list of the most frequently occurring nucleotides.
+     */
+    public List<Character> findMostCommonNucleotides() {
+        return getMetrics().getMostCommonNucleotides();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
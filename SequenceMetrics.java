@@ -0,0 +1,460 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates every metric reported by {@link H10CustomApp} in a single pass over
+ * each sequence: nucleotide frequencies, per-sequence GC and AT content, and the
+ * sequence length distribution. Each base is read once, case-insensitively, without
+ * copying the sequence.
+ *
+ * @author Ajay Shenoy
+ */
+public class SequenceMetrics {
+
+    private static final char[] NUCLEOTIDES = {'A', 'C', 'G', 'T'};
+    private static final int[] REPORT_ORDER = {
+        NucleotideCounts.A, NucleotideCounts.C, NucleotideCounts.T, NucleotideCounts.G
+    };
+
+    private final boolean retainPerSequence;
+    private final NucleotideCounts nucleotideCounts = new NucleotideCounts();
+    private final LengthHistogram lengthHistogram = new LengthHistogram();
+    private final long[] sequenceCounts = new long[5];
+    private double[] gcContents = new double[16];
+    private double[] atContents = new double[16];
+    private long sequenceCount;
+    private long pendingLength;
+    private double lastGCContent;
+    private double lastATContent;
+
+    /**
+     * Creates an empty accumulator that keeps the GC and AT content of every sequence.
+     */
+    public SequenceMetrics() {
+        this(true);
+    }
+
+    /**
+     * Creates an empty accumulator.
+     *
+     * @param retainPerSequence whether to keep the GC and AT content of every sequence.
+     *                          Streaming callers that only need the content of the most
+     *                          recent sequence can pass false so memory stays flat.
+     */
+    public SequenceMetrics(boolean retainPerSequence) {
+        this.retainPerSequence = retainPerSequence;
+    }
+
+    /**
+     * Computes all metrics for the given DNA sequences.
+     *
+     * @param sequences An array of DNA sequences.
+     * @return the combined metrics.
+     */
+    public static SequenceMetrics compute(String[] sequences) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        if (SequenceDeduplicator.ENABLED) {
+            return SequenceDeduplicator.compute(sequences, SequenceDeduplicator.CANONICAL);
+        }
+        SequenceMetrics metrics = new SequenceMetrics();
+        for (String sequence : sequences) {
+            metrics.add(sequence);
+        }
+        return metrics;
+    }
+
+    /**
+     * Adds a sequence. A null sequence counts as 0% GC and AT content but does not
+     * contribute to the nucleotide frequencies or length distribution.
+     *
+     * @param sequence the DNA sequence, or null.
+     */
+    public void add(CharSequence sequence) {
+        if (sequence == null) {
+            record(0.0, 0.0);
+            return;
+        }
+        Arrays.fill(sequenceCounts, 0);
+        NucleotideCounts.count(sequence, sequenceCounts);
+        addSequenceCounts(sequence.length());
+    }
+
+    /**
+     * Adds a sequence held as ASCII bytes.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     */
+    public void add(byte[] bases, int offset, int length) {
+        Arrays.fill(sequenceCounts, 0);
+        NucleotideCounts.count(bases, offset, length, sequenceCounts);
+        addSequenceCounts(length);
+    }
+
+    /**
+     * Adds a sequence from counts computed earlier, such as those stored in a
+     * {@link SequenceIndex}. The sequence length is the sum of the counts.
+     *
+     * @param counts the five counts of the sequence, indexed by
+     *               {@link NucleotideCounts#indexOf(char)}.
+     * @throws ArithmeticException if the sequence is longer than Integer.MAX_VALUE bases.
+     */
+    public void addCounts(long[] counts) {
+        long length = 0;
+        for (int i = 0; i <= NucleotideCounts.OTHER; i++) {
+            sequenceCounts[i] = counts[i];
+            length += counts[i];
+        }
+        addSequenceCounts(Math.toIntExact(length));
+    }
+
+    /**
+     * Adds several identical sequences from counts computed earlier, such as the copies
+     * of a distinct sequence found by a {@link SequenceDeduplicator}. When per-sequence
+     * content is not retained this costs the same for any number of copies.
+     *
+     * @param counts the five counts of each sequence, indexed by
+     *               {@link NucleotideCounts#indexOf(char)}.
+     * @param copies the number of sequences, not negative.
+     * @throws ArithmeticException if the sequence is longer than Integer.MAX_VALUE bases.
+     */
+    public void addCounts(long[] counts, int copies) {
+        if (copies < 0) {
+            throw new IllegalArgumentException("Copies cannot be negative: " + copies);
+        }
+        if (copies == 0) {
+            return;
+        }
+        if (retainPerSequence) {
+            for (int i = 0; i < copies; i++) {
+                addCounts(counts);
+            }
+            return;
+        }
+        long length = 0;
+        for (int i = 0; i <= NucleotideCounts.OTHER; i++) {
+            sequenceCounts[i] = counts[i] * copies;
+            length += counts[i];
+        }
+        nucleotideCounts.add(sequenceCounts);
+        lengthHistogram.add(Math.toIntExact(length), copies);
+        if (length == 0) {
+            lastGCContent = 0.0;
+            lastATContent = 0.0;
+        } else {
+            lastGCContent = (counts[NucleotideCounts.G] + counts[NucleotideCounts.C]) * 100.0 / length;
+            lastATContent = (counts[NucleotideCounts.A] + counts[NucleotideCounts.T]) * 100.0 / length;
+        }
+        sequenceCount += copies;
+    }
+
+    /**
+     * Starts a sequence whose bases arrive in several pieces, such as the lines of a
+     * FASTA record. Pieces are added with {@link #appendBases(ByteBuffer, int, int)}
+     * and the sequence is completed by {@link #endSequence()}.
+     */
+    public void startSequence() {
+        Arrays.fill(sequenceCounts, 0);
+        pendingLength = 0;
+    }
+
+    /**
+     * Adds a piece of the current sequence held as ASCII bytes in a buffer, such as a
+     * memory-mapped file. The buffer's position is not changed.
+     *
+     * @param bases the buffer holding the bases.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     */
+    public void appendBases(ByteBuffer bases, int from, int to) {
+        NucleotideCounts.count(bases, from, to, sequenceCounts);
+        pendingLength += to - from;
+    }
+
+    /**
+     * Completes the sequence started by {@link #startSequence()}.
+     *
+     * @throws ArithmeticException if the sequence is longer than Integer.MAX_VALUE bases.
+     */
+    public void endSequence() {
+        addSequenceCounts(Math.toIntExact(pendingLength));
+    }
+
+    private void addSequenceCounts(int length) {
+        long[] counts = sequenceCounts;
+        nucleotideCounts.add(counts);
+        lengthHistogram.increment(length);
+        if (length == 0) {
+            record(0.0, 0.0);
+        } else {
+            record((counts[NucleotideCounts.G] + counts[NucleotideCounts.C]) * 100.0 / length,
+                    (counts[NucleotideCounts.A] + counts[NucleotideCounts.T]) * 100.0 / length);
+        }
+    }
+
+    private void record(double gcContent, double atContent) {
+        lastGCContent = gcContent;
+        lastATContent = atContent;
+        if (retainPerSequence) {
+            int index = (int) sequenceCount;
+            if (index == gcContents.length) {
+                gcContents = Arrays.copyOf(gcContents, Math.multiplyExact(index, 2));
+                atContents = Arrays.copyOf(atContents, gcContents.length);
+            }
+            gcContents[index] = gcContent;
+            atContents[index] = atContent;
+        }
+        sequenceCount++;
+    }
+
+    /**
+     * Adds the metrics of another accumulator, as when the sequences were split between
+     * workers. The other accumulator's sequences count as coming after this one's, so
+     * adding the parts of an input in order gives the same metrics as one pass over it.
+     *
+     * @param other the metrics to add.
+     */
+    public void add(SequenceMetrics other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
+        }
+        if (other.sequenceCount == 0) {
+            return;
+        }
+        if (retainPerSequence && !other.retainPerSequence) {
+            throw new IllegalArgumentException("Cannot add metrics without per-sequence contents");
+        }
+        nucleotideCounts.add(other.nucleotideCounts);
+        lengthHistogram.add(other.lengthHistogram);
+        if (retainPerSequence) {
+            // Retained contents live in arrays, so both counts fit in an int
+            int index = (int) sequenceCount;
+            int otherCount = (int) other.sequenceCount;
+            int count = Math.addExact(index, otherCount);
+            if (count > gcContents.length) {
+                gcContents = Arrays.copyOf(gcContents, (int) Math.min(Integer.MAX_VALUE, Math.max(count, index * 2L)));
+                atContents = Arrays.copyOf(atContents, gcContents.length);
+            }
+            System.arraycopy(other.gcContents, 0, gcContents, index, otherCount);
+            System.arraycopy(other.atContents, 0, atContents, index, otherCount);
+        }
+        sequenceCount = Math.addExact(sequenceCount, other.sequenceCount);
+        lastGCContent = other.lastGCContent;
+        lastATContent = other.lastATContent;
+    }
+
+    /**
+     * Writes the metrics in a compact binary form: the five nucleotide counts, the
+     * non-empty length histogram entries and, when retained, the content of each
+     * sequence.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the metrics cannot be written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(retainPerSequence);
+        out.writeLong(sequenceCount);
+        out.writeDouble(lastGCContent);
+        out.writeDouble(lastATContent);
+        for (int i = 0; i <= NucleotideCounts.OTHER; i++) {
+            out.writeLong(nucleotideCounts.get(i));
+        }
+        int[] lengths = new int[lengthHistogram.size()];
+        long[] lengthCounts = new long[lengths.length];
+        int[] entries = new int[1];
+        lengthHistogram.forEach((length, count) -> {
+            lengths[entries[0]] = length;
+            lengthCounts[entries[0]++] = count;
+        });
+        out.writeInt(lengths.length);
+        for (int i = 0; i < lengths.length; i++) {
+            out.writeInt(lengths[i]);
+            out.writeLong(lengthCounts[i]);
+        }
+        if (retainPerSequence) {
+            for (int i = 0; i < sequenceCount; i++) {
+                out.writeDouble(gcContents[i]);
+                out.writeDouble(atContents[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads metrics written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from.
+     * @return the metrics.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    public static SequenceMetrics readFrom(DataInput in) throws IOException {
+        SequenceMetrics metrics = new SequenceMetrics(in.readBoolean());
+        long sequenceCount = in.readLong();
+        if (sequenceCount < 0 || metrics.retainPerSequence && sequenceCount > Integer.MAX_VALUE) {
+            throw new IOException("Invalid sequence count " + sequenceCount);
+        }
+        metrics.lastGCContent = in.readDouble();
+        metrics.lastATContent = in.readDouble();
+        long[] counts = new long[NucleotideCounts.OTHER + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = in.readLong();
+        }
+        metrics.nucleotideCounts.add(counts);
+        int entries = in.readInt();
+        try {
+            for (int i = 0; i < entries; i++) {
+                metrics.lengthHistogram.add(in.readInt(), in.readLong());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid length histogram: " + e.getMessage());
+        }
+        if (metrics.retainPerSequence) {
+            metrics.gcContents = new double[Math.max((int) sequenceCount, 16)];
+            metrics.atContents = new double[metrics.gcContents.length];
+            for (int i = 0; i < sequenceCount; i++) {
+                metrics.gcContents[i] = in.readDouble();
+                metrics.atContents[i] = in.readDouble();
+            }
+        }
+        metrics.sequenceCount = sequenceCount;
+        return metrics;
+    }
+
+    /**
+     * Returns the number of sequences added so far, including null sequences.
+     *
+     * @return the sequence count.
+     */
+    public long getSequenceCount() {
+        return sequenceCount;
+    }
+
+    /**
+     * Returns the GC content of the most recently added sequence.
+     *
+     * @return the GC content percentage.
+     */
+    public double getLastGCContent() {
+        return lastGCContent;
+    }
+
+    /**
+     * Returns the AT content of the most recently added sequence.
+     *
+     * @return the AT content percentage.
+     */
+    public double getLastATContent() {
+        return lastATContent;
+    }
+
+    /**
+     * Returns the 64-bit nucleotide counts across all sequences.
+     *
+     * @return the nucleotide counts.
+     */
+    public NucleotideCounts getNucleotideCounts() {
+        return nucleotideCounts;
+    }
+
+    /**
+     * Returns the nucleotide frequencies across all sequences. Nucleotides that never
+     * occur are left out of the map.
+     *
+     * @return frequencyMap A map with nucleotide as the key and its frequency as the value.
+     * @throws ArithmeticException if a count does not fit in an Integer.
+     */
+    public Map<Character, Integer> getNucleotideFrequencies() {
+        return nucleotideCounts.toFrequencyMap();
+    }
+
+    /**
+     * Returns the GC content of each sequence, in the order the sequences were added.
+     *
+     * @return gcContents A list of GC content percentages for each sequence.
+     */
+    public List<Double> getGCContents() {
+        return toList(gcContents);
+    }
+
+    /**
+     * Returns the AT content of each sequence, in the order the sequences were added.
+     *
+     * @return atContents A list of AT content percentages for each sequence.
+     */
+    public List<Double> getATContents() {
+        return toList(atContents);
+    }
+
+    private List<Double> toList(double[] contents) {
+        if (!retainPerSequence) {
+            throw new IllegalStateException("Per-sequence contents were not retained");
+        }
+        List<Double> list = new ArrayList<>((int) sequenceCount);
+        for (int i = 0; i < sequenceCount; i++) {
+            list.add(contents[i]);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the 64-bit histogram of sequence lengths.
+     *
+     * @return the length histogram.
+     */
+    public LengthHistogram getLengthHistogram() {
+        return lengthHistogram;
+    }
+
+    /**
+     * Returns the distribution of sequence lengths.
+     *
+     * @return lengthDistribution A map with sequence length as the key and its frequency
+     * as the value.
+     * @throws ArithmeticException if a count does not fit in an Integer.
+     */
+    public Map<Integer, Integer> getLengthDistribution() {
+        return lengthHistogram.toMap();
+    }
+
+    /**
+     * Finds the most common nucleotides. If there are ties, all most common
+     * nucleotides are returned, in the same order as the frequency map reports them.
+     *
+     * @return mostCommonNucleotides A list of the most frequently occurring nucleotides.
+     */
+    public List<Character> getMostCommonNucleotides() {
+        return mostCommon(nucleotideCounts);
+    }
+
+    /**
+     * Finds the most common nucleotides in the given counts, in the same order as the
+     * frequency map reports them.
+     *
+     * @param nucleotideCounts the nucleotide counts.
+     * @return the most frequently occurring nucleotides.
+     */
+    static List<Character> mostCommon(NucleotideCounts nucleotideCounts) {
+        long maxFrequency = 0;
+        for (int index : REPORT_ORDER) {
+            maxFrequency = Math.max(maxFrequency, nucleotideCounts.get(index));
+        }
+        List<Character> mostCommonNucleotides = new ArrayList<>();
+        if (maxFrequency == 0) {
+            return mostCommonNucleotides;
+        }
+        for (int index : REPORT_ORDER) {
+            if (nucleotideCounts.get(index) == maxFrequency) {
+                mostCommonNucleotides.add(NUCLEOTIDES[index]);
+            }
+        }
+        return mostCommonNucleotides;
+    }
+}
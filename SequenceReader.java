@@ -0,0 +1,452 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams FASTA and FASTQ records one at a time from a file or standard input,
+ * plain or compressed with gzip or BGZF. Records may span multiple lines. The bases
+ * of the current record are kept in a reusable byte buffer, so memory use depends on
+ * the longest record rather than on the size of the input. A byte range of a plain
+ * file can be read on its own, so separate processes can each take one shard.
+ *
+ * @author Ajay Shenoy
+ */
+public class SequenceReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAGIC_LENGTH = 16;
+    private static final int HEADER = 0;
+    private static final int SEQUENCE = 1;
+    private static final int QUALITY = 2;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private int position;
+    private int limit;
+    private long bufferOffset;
+    private boolean endOfInput;
+
+    private byte[] header = new byte[128];
+    private int headerLength;
+    private byte[] sequence = new byte[1024];
+    private int sequenceLength;
+    private byte[] quality = new byte[0];
+    private int qualityLength;
+    private long recordOffset;
+    private boolean fastq;
+
+    /**
+     * Creates a reader over the given channel. The channel is closed when the reader
+     * is closed.
+     *
+     * @param channel the channel to read FASTA or FASTQ text from.
+     */
+    public SequenceReader(ReadableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Opens a reader over the given file, which may be plain text, gzip or BGZF.
+     * Compression is detected from the first bytes; BGZF blocks are inflated in
+     * parallel by a {@link BgzfChannel}.
+     *
+     * @param path the FASTA or FASTQ file.
+     * @return a reader positioned before the first record.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static SequenceReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC_LENGTH);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Short files end before the magic is full.
+            }
+            channel.position(0);
+            if (!BgzfChannel.isGzip(magic.array(), magic.position())) {
+                return new SequenceReader(channel);
+            }
+            return new SequenceReader(decompress(Channels.newInputStream(channel),
+                    magic.array(), magic.position()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a reader over a byte range of an uncompressed file. The range must start at
+     * a record's '>' or '@' marker and end at the start of a later record or at the end
+     * of the file, as the ranges from {@link ShardCoordinator#split(Path, int)} do.
+     * {@link #recordOffset()} reports offsets in the whole file.
+     *
+     * @param path the plain FASTA or FASTQ file.
+     * @param start the offset of the first byte to read.
+     * @param end the offset after the last byte to read.
+     * @return a reader positioned before the first record of the range.
+     * @throws IOException if the file cannot be opened or is compressed.
+     */
+    public static SequenceReader open(Path path, long start, long end) throws IOException {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid byte range " + start + "-" + end);
+        }
+        if (isCompressed(path)) {
+            throw new IOException("Byte ranges cannot be read from compressed file " + path);
+        }
+        SequenceReader reader = new SequenceReader(new RangeChannel(
+                FileChannel.open(path, StandardOpenOption.READ), start, end));
+        reader.bufferOffset = start;
+        return reader;
+    }
+
+    /**
+     * Returns whether the given file is compressed with gzip or BGZF.
+     *
+     * @param path the file.
+     * @return true if the file starts with a gzip header.
+     * @throws IOException if the file cannot be read.
+     */
+    static boolean isCompressed(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC_LENGTH);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Short files end before the magic is full.
+            }
+            return BgzfChannel.isGzip(magic.array(), magic.position());
+        }
+    }
+
+    /**
+     * Opens a reader over the given stream, which may be plain text, gzip or BGZF.
+     * The stream is closed when the reader is closed.
+     *
+     * @param in the FASTA or FASTQ input.
+     * @return a reader positioned before the first record.
+     * @throws IOException if the start of the stream cannot be read.
+     */
+    public static SequenceReader open(InputStream in) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Input stream cannot be null");
+        }
+        PushbackInputStream pushback = new PushbackInputStream(in, MAGIC_LENGTH);
+        byte[] magic = pushback.readNBytes(MAGIC_LENGTH);
+        pushback.unread(magic);
+        return new SequenceReader(decompress(pushback, magic, magic.length));
+    }
+
+    /**
+     * Opens a reader over standard input, which may be plain text, gzip or BGZF.
+     *
+     * @return a reader positioned before the first record.
+     * @throws IOException if the start of the input cannot be read.
+     */
+    public static SequenceReader openStandardInput() throws IOException {
+        return open(System.in);
+    }
+
+    private static ReadableByteChannel decompress(InputStream in, byte[] magic, int length)
+            throws IOException {
+        if (BgzfChannel.isBgzf(magic, length)) {
+            return new BgzfChannel(in);
+        }
+        if (BgzfChannel.isGzip(magic, length)) {
+            return Channels.newChannel(new GZIPInputStream(in, BUFFER_SIZE));
+        }
+        return Channels.newChannel(in);
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return true if a record was read, false at the end of the input.
+     * @throws IOException if the input cannot be read or is not valid FASTA/FASTQ.
+     */
+    public boolean next() throws IOException {
+        int first = skipBlankLines();
+        if (first == -1) {
+            return false;
+        }
+        if (first != '>' && first != '@') {
+            throw new IOException("Expected '>' or '@' at offset " + offset());
+        }
+        recordOffset = offset();
+        fastq = first == '@';
+        position++;
+        headerLength = 0;
+        sequenceLength = 0;
+        qualityLength = 0;
+        readLine(HEADER);
+
+        if (!fastq) {
+            int next;
+            while ((next = peek()) != -1 && next != '>') {
+                readLine(SEQUENCE);
+            }
+            return true;
+        }
+
+        int next;
+        while ((next = peek()) != '+') {
+            if (next == -1) {
+                throw new IOException("Truncated FASTQ record at offset " + recordOffset);
+            }
+            readLine(SEQUENCE);
+        }
+        skipLine();
+        if (quality.length < sequenceLength) {
+            quality = new byte[sequence.length];
+        }
+        while (qualityLength < sequenceLength) {
+            if (peek() == -1) {
+                throw new IOException("Truncated FASTQ record at offset " + recordOffset);
+            }
+            readLine(QUALITY);
+        }
+        if (qualityLength != sequenceLength) {
+            throw new IOException("Quality length does not match sequence length in record at offset "
+                    + recordOffset);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of the current record, without the leading '>' or '@'.
+     *
+     * @return the record name.
+     */
+    public String name() {
+        return new String(header, 0, headerLength, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the bases of the current record as a string.
+     *
+     * @return the record sequence.
+     */
+    public String sequence() {
+        return new String(sequence, 0, sequenceLength, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the buffer holding the bases of the current record. The buffer is
+     * reused between records; only the first {@link #sequenceLength()} bytes are valid.
+     *
+     * @return the sequence buffer.
+     */
+    public byte[] sequenceBuffer() {
+        return sequence;
+    }
+
+    /**
+     * Returns the number of bases in the current record.
+     *
+     * @return the sequence length.
+     */
+    public int sequenceLength() {
+        return sequenceLength;
+    }
+
+    /**
+     * Returns the buffer holding the Phred quality characters of the current FASTQ
+     * record. The buffer is reused between records; only the first
+     * {@link #qualityLength()} bytes are valid.
+     *
+     * @return the quality buffer.
+     */
+    public byte[] qualityBuffer() {
+        return quality;
+    }
+
+    /**
+     * Returns the number of quality characters in the current record, which is zero
+     * for FASTA records.
+     *
+     * @return the quality length.
+     */
+    public int qualityLength() {
+        return qualityLength;
+    }
+
+    /**
+     * Returns whether the current record was read from FASTQ input.
+     *
+     * @return true for FASTQ records, false for FASTA records.
+     */
+    public boolean isFastq() {
+        return fastq;
+    }
+
+    /**
+     * Returns the byte offset in the input at which the current record starts. For
+     * compressed input this is the offset in the decompressed text.
+     *
+     * @return the offset of the record's '>' or '@' marker.
+     */
+    public long recordOffset() {
+        return recordOffset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long offset() {
+        return bufferOffset + position;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        bufferOffset += limit;
+        position = 0;
+        limit = 0;
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private int skipBlankLines() throws IOException {
+        int c;
+        while ((c = peek()) == '\n' || c == '\r' || c == ' ' || c == '\t') {
+            position++;
+        }
+        return c;
+    }
+
+    private void skipLine() throws IOException {
+        while (peek() != -1) {
+            if (bytes[position++] == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends the rest of the current line to the header, sequence or quality buffer,
+     * growing it if needed, and consumes the line terminator. Trailing whitespace is
+     * dropped.
+     */
+    private void readLine(int field) throws IOException {
+        byte[] target;
+        int length;
+        if (field == HEADER) {
+            target = header;
+            length = headerLength;
+        } else if (field == SEQUENCE) {
+            target = sequence;
+            length = sequenceLength;
+        } else {
+            target = quality;
+            length = qualityLength;
+        }
+        while (peek() != -1) {
+            int end = position;
+            while (end < limit && bytes[end] != '\n') {
+                end++;
+            }
+            int count = end - position;
+            if (length + count > target.length) {
+                target = Arrays.copyOf(target, Math.max(target.length * 2, length + count));
+            }
+            System.arraycopy(bytes, position, target, length, count);
+            length += count;
+            position = end;
+            if (end < limit) {
+                position++;
+                break;
+            }
+        }
+        while (length > 0 && (target[length - 1] == '\r' || target[length - 1] == ' '
+                || target[length - 1] == '\t')) {
+            length--;
+        }
+        if (field == HEADER) {
+            header = target;
+            headerLength = length;
+        } else if (field == SEQUENCE) {
+            sequence = target;
+            sequenceLength = length;
+        } else {
+            quality = target;
+            qualityLength = length;
+        }
+    }
+
+    /**
+     * Reads a byte range of a file channel with positional reads, so the channel's own
+     * position is never moved.
+     */
+    private static final class RangeChannel implements ReadableByteChannel {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        RangeChannel(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > end - position) {
+                dst.limit(dst.position() + (int) (end - position));
+            }
+            try {
+                int read = channel.read(dst, position);
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Approximate statistics of a set of sequences in fixed memory, for runs too large for
+ * exact k-mer tables and length maps. Canonical k-mer frequencies go into a
+ * {@link CountMinSketch}, distinct k-mers and distinct sequences into
+ * {@link HyperLogLog}s, and sequence lengths and GC content into {@link DDSketch}es
+ * for quantiles. Nucleotide counts stay exact, since they take five counters.
+ *
+ * <p>Sketches built with the same parameters on separate shards merge into the sketch
+ * of the whole input, and are written and read in a binary form with
+ * {@link #writeTo(OutputStream)} and {@link #readFrom(InputStream)}. As with
+ * {@link SequenceMetrics}, a null sequence counts as 0% GC content but is left out of
+ * the other statistics.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class SequenceSketch {
+
+    /** Default Count-Min error, as a fraction of the total k-mer count. */
+    public static final double DEFAULT_EPSILON = 1e-4;
+    /** Default probability of exceeding the Count-Min error. */
+    public static final double DEFAULT_DELTA = 0.01;
+    /** Default HyperLogLog precision, for about 0.8% error. */
+    public static final int DEFAULT_PRECISION = 14;
+    /** Default relative error of length and GC content quantiles. */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private static final int MAGIC = 0x53534B54;
+    private static final int VERSION = 1;
+    private static final int MAX_BUCKETS = 2048;
+
+    private final int k;
+    private final long mask;
+    private final int reverseShift;
+    private final long[] sequenceCounts = new long[5];
+    private final NucleotideCounts counts;
+    private final CountMinSketch kmers;
+    private final HyperLogLog distinctKmers;
+    private final HyperLogLog distinctSequences;
+    private final DDSketch lengths;
+    private final DDSketch gcContents;
+
+    /**
+     * Creates a sketch with the default error bounds, about 1.4 MB.
+     *
+     * @param k the k-mer length, from 1 to {@link KmerCounter#MAX_K}.
+     */
+    public SequenceSketch(int k) {
+        this(k, DEFAULT_EPSILON, DEFAULT_DELTA, DEFAULT_PRECISION, DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Creates a sketch with the given error bounds.
+     *
+     * @param k the k-mer length, from 1 to {@link KmerCounter#MAX_K}.
+     * @param epsilon the Count-Min error, as a fraction of the total k-mer count.
+     * @param delta the probability of exceeding the Count-Min error.
+     * @param precision the HyperLogLog precision.
+     * @param relativeAccuracy the relative error of length and GC content quantiles.
+     */
+    public SequenceSketch(int k, double epsilon, double delta, int precision, double relativeAccuracy) {
+        this(k, new NucleotideCounts(), new CountMinSketch(epsilon, delta), new HyperLogLog(precision),
+                new HyperLogLog(precision), new DDSketch(relativeAccuracy, MAX_BUCKETS),
+                new DDSketch(relativeAccuracy, MAX_BUCKETS));
+    }
+
+    private SequenceSketch(int k, NucleotideCounts counts, CountMinSketch kmers, HyperLogLog distinctKmers,
+            HyperLogLog distinctSequences, DDSketch lengths, DDSketch gcContents) {
+        if (k < 1 || k > KmerCounter.MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + KmerCounter.MAX_K + ": " + k);
+        }
+        this.k = k;
+        this.mask = (1L << (2 * k)) - 1;
+        this.reverseShift = 2 * (k - 1);
+        this.counts = counts;
+        this.kmers = kmers;
+        this.distinctKmers = distinctKmers;
+        this.distinctSequences = distinctSequences;
+        this.lengths = lengths;
+        this.gcContents = gcContents;
+    }
+
+    /**
+     * Adds a sequence.
+     *
+     * @param sequence the DNA sequence, or null.
+     */
+    public void add(CharSequence sequence) {
+        if (sequence == null) {
+            gcContents.add(0.0);
+            return;
+        }
+        int length = sequence.length();
+        Arrays.fill(sequenceCounts, 0);
+        NucleotideCounts.count(sequence, sequenceCounts);
+        long forward = 0;
+        long reverse = 0;
+        int valid = 0;
+        for (int i = 0; i < length; i++) {
+            char base = sequence.charAt(i);
+            int code = base < 256 ? KmerCounter.CODES[base] : -1;
+            if (code < 0) {
+                valid = 0;
+                continue;
+            }
+            forward = ((forward << 2) | code) & mask;
+            reverse = (reverse >>> 2) | ((long) (3 - code) << reverseShift);
+            if (++valid >= k) {
+                addKmer(Math.min(forward, reverse));
+            }
+        }
+        addSequence(SequenceHash.hash(sequence), length);
+    }
+
+    /**
+     * Adds a sequence held as ASCII bytes.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     */
+    public void add(byte[] bases, int offset, int length) {
+        Arrays.fill(sequenceCounts, 0);
+        NucleotideCounts.count(bases, offset, length, sequenceCounts);
+        long forward = 0;
+        long reverse = 0;
+        int valid = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int code = KmerCounter.CODES[bases[i] & 0xFF];
+            if (code < 0) {
+                valid = 0;
+                continue;
+            }
+            forward = ((forward << 2) | code) & mask;
+            reverse = (reverse >>> 2) | ((long) (3 - code) << reverseShift);
+            if (++valid >= k) {
+                addKmer(Math.min(forward, reverse));
+            }
+        }
+        addSequence(SequenceHash.hash(bases, offset, length), length);
+    }
+
+    private void addKmer(long kmer) {
+        kmers.increment(kmer);
+        distinctKmers.addHash(SequenceHash.mix(kmer));
+    }
+
+    private void addSequence(long hash, int length) {
+        counts.add(sequenceCounts);
+        distinctSequences.addHash(hash);
+        lengths.add(length);
+        gcContents.add(length == 0 ? 0.0
+                : (sequenceCounts[NucleotideCounts.G] + sequenceCounts[NucleotideCounts.C]) * 100.0 / length);
+    }
+
+    /**
+     * Estimates how often a k-mer or its reverse complement occurs.
+     *
+     * @param kmer the k-mer, of length k, made of A, C, G and T in either case.
+     * @return an estimate that is never below the true count.
+     */
+    public long estimateKmerCount(String kmer) {
+        if (kmer == null || kmer.length() != k) {
+            throw new IllegalArgumentException("K-mer must have length " + k + ": " + kmer);
+        }
+        long forward = KmerCounter.encode(kmer);
+        long reverse = 0;
+        for (int i = 0; i < k; i++) {
+            reverse = (reverse << 2) | (3 - ((forward >>> (2 * i)) & 3));
+        }
+        return kmers.estimate(Math.min(forward, reverse));
+    }
+
+    /**
+     * Estimates the number of distinct canonical k-mers.
+     *
+     * @return the estimated count.
+     */
+    public long estimateDistinctKmers() {
+        return distinctKmers.estimate();
+    }
+
+    /**
+     * Estimates the number of distinct sequences. Case is significant.
+     *
+     * @return the estimated count.
+     */
+    public long estimateDistinctSequences() {
+        return distinctSequences.estimate();
+    }
+
+    /**
+     * Returns a quantile of the sequence lengths.
+     *
+     * @param quantile the quantile, from 0 to 1.
+     * @return the length, within the relative accuracy, or NaN if no sequences were added.
+     */
+    public double lengthQuantile(double quantile) {
+        return lengths.quantile(quantile);
+    }
+
+    /**
+     * Returns a quantile of the GC content percentages of the sequences.
+     *
+     * @param quantile the quantile, from 0 to 1.
+     * @return the GC content, within the relative accuracy, or NaN if no sequences were added.
+     */
+    public double gcContentQuantile(double quantile) {
+        return gcContents.quantile(quantile);
+    }
+
+    /**
+     * Returns the exact nucleotide counts.
+     *
+     * @return the A, C, G, T and other-character counts.
+     */
+    public NucleotideCounts getNucleotideCounts() {
+        return counts;
+    }
+
+    /**
+     * Returns the number of sequences added, excluding nulls.
+     *
+     * @return the sequence count.
+     */
+    public long getSequenceCount() {
+        return lengths.getCount();
+    }
+
+    /**
+     * Returns the k-mer length.
+     *
+     * @return k.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Merges a sketch built with the same parameters into this one.
+     *
+     * @param other the sketch to merge.
+     */
+    public void merge(SequenceSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches of different k: " + k + " and " + other.k);
+        }
+        counts.add(other.counts);
+        kmers.merge(other.kmers);
+        distinctKmers.merge(other.distinctKmers);
+        distinctSequences.merge(other.distinctSequences);
+        lengths.merge(other.lengths);
+        gcContents.merge(other.gcContents);
+    }
+
+    /**
+     * Writes the sketch. The stream is flushed but not closed.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(k);
+        for (int i = 0; i <= NucleotideCounts.OTHER; i++) {
+            data.writeLong(counts.get(i));
+        }
+        kmers.writeTo(data);
+        distinctKmers.writeTo(data);
+        distinctSequences.writeTo(data);
+        lengths.writeTo(data);
+        gcContents.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(OutputStream)}.
+     *
+     * @param in the stream to read from; it is not closed, but may be read past the sketch.
+     * @return the sketch.
+     * @throws IOException if the stream cannot be read or does not hold a sketch.
+     */
+    public static SequenceSketch readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a sequence sketch");
+        }
+        int k = data.readInt();
+        if (k < 1 || k > KmerCounter.MAX_K) {
+            throw new IOException("Invalid sketch k-mer length " + k);
+        }
+        long[] nucleotideCounts = new long[NucleotideCounts.OTHER + 1];
+        for (int i = 0; i < nucleotideCounts.length; i++) {
+            nucleotideCounts[i] = data.readLong();
+        }
+        NucleotideCounts counts = new NucleotideCounts();
+        counts.add(nucleotideCounts);
+        return new SequenceSketch(k, counts, CountMinSketch.readFrom(data), HyperLogLog.readFrom(data),
+                HyperLogLog.readFrom(data), DDSketch.readFrom(data), DDSketch.readFrom(data));
+    }
+}
@@ -0,0 +1,321 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analyzes one FASTA or FASTQ file with several worker processes on the same host.
+ * The file is split into byte ranges that start on record boundaries, and each range
+ * is analyzed by a separate JVM that prints its per-record lines to one temporary file
+ * and writes the totals of its records as a {@link PartialResult} to another. The
+ * coordinator copies the per-record lines to the output in file order, renumbering
+ * them, and merges the totals, so it prints what a single pass over the file prints
+ * while keeping no more in memory.
+ *
+ * <p>Workers run this class's {@code main} with the same Java runtime, class path and
+ * JVM options, such as {@code -Dsequence.trim}, as the coordinator; debugging and
+ * profiling agents are not passed on.</p>
+ *
+ * <p>FASTA ranges start at a line beginning with '>'. FASTQ ranges start at a line
+ * beginning with '@' whose second following line begins with '+' and whose sequence
+ * and quality lines are equally long, which identifies record starts exactly in
+ * four-line FASTQ, the layout sequencers write. Compressed files cannot be read from
+ * an offset and are analyzed by a single worker.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class ShardCoordinator {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ShardCoordinator() {
+    }
+
+    /**
+     * Splits a file into byte ranges of about equal size that each start at a record.
+     * Ranges that would hold no record start are dropped, so fewer ranges than asked
+     * for may be returned.
+     *
+     * @param path the FASTA or FASTQ file.
+     * @param shards the number of ranges wanted.
+     * @return the range boundaries: range i runs from element i to element i + 1.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long[] split(Path path, int shards) throws IOException {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Number of shards must be positive: " + shards);
+        }
+        long size = Files.size(path);
+        if (shards == 1 || size == 0 || SequenceReader.isCompressed(path)) {
+            return new long[] {0, size};
+        }
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean fastq = firstMarker(channel) == '@';
+            long previous = 0;
+            for (int i = 1; i < shards; i++) {
+                long target = Math.max(size / shards * i, previous + 1);
+                if (target >= size) {
+                    break;
+                }
+                long boundary = nextRecord(channel, target, fastq);
+                if (boundary >= size) {
+                    break;
+                }
+                if (boundary > previous) {
+                    boundaries.add(boundary);
+                    previous = boundary;
+                }
+            }
+        }
+        boundaries.add(size);
+        long[] ranges = new long[boundaries.size()];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = boundaries.get(i);
+        }
+        return ranges;
+    }
+
+    /**
+     * Analyzes a byte range of a file in this process, printing the per-record lines as
+     * {@link H10CustomApp#analyzeStream(SequenceReader, PrintStream)} does, with records
+     * numbered from 1 within the range.
+     *
+     * @param path the plain FASTA or FASTQ file.
+     * @param start the offset of the first record of the range.
+     * @param end the offset after the range.
+     * @param records the stream to print the per-record lines to.
+     * @return the totals of the range.
+     * @throws IOException if the file cannot be read or is not valid FASTA/FASTQ.
+     */
+    public static PartialResult analyzeRange(Path path, long start, long end, PrintStream records)
+            throws IOException {
+        AnalysisMetrics.Span span = AnalysisMetrics.start(AnalysisMetrics.Stage.STREAM);
+        PartialResult result;
+        try (SequenceReader reader = start == 0 && end == Files.size(path)
+                ? SequenceReader.open(path) : SequenceReader.open(path, start, end)) {
+            result = H10CustomApp.streamRecords(reader, records);
+        }
+        AnalysisMetrics.stop(span, result.getMetrics());
+        return result;
+    }
+
+    /**
+     * Analyzes a file with one worker process per range, prints the per-record lines of
+     * all ranges in file order and merges the totals.
+     *
+     * @param path the FASTA or FASTQ file.
+     * @param workers the number of worker processes.
+     * @param out the stream to print the per-record lines to.
+     * @return the totals of the whole file.
+     * @throws IOException if the file cannot be read or a worker fails.
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public static PartialResult analyze(Path path, int workers, PrintStream out)
+            throws IOException, InterruptedException {
+        long[] ranges = split(path, workers);
+        int shards = ranges.length - 1;
+        Path[] totals = new Path[shards];
+        Path[] records = new Path[shards];
+        Process[] processes = new Process[shards];
+        try {
+            for (int i = 0; i < shards; i++) {
+                totals[i] = Files.createTempFile("shard" + i + "-", ".partial");
+                records[i] = Files.createTempFile("shard" + i + "-", ".records");
+                processes[i] = new ProcessBuilder(workerCommand(path, ranges[i], ranges[i + 1], totals[i], records[i]))
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+            }
+            PartialResult merged = new PartialResult(false);
+            for (int i = 0; i < shards; i++) {
+                int exitCode = processes[i].waitFor();
+                if (exitCode != 0) {
+                    throw new IOException("Worker for bytes " + ranges[i] + "-" + ranges[i + 1] +
+                            " failed with exit code " + exitCode);
+                }
+                try (InputStream in = Files.newInputStream(totals[i])) {
+                    PartialResult partial = PartialResult.readFrom(in);
+                    copyRecords(records[i], merged.getRecordCount(), out);
+                    merged.merge(partial);
+                }
+            }
+            return merged;
+        } finally {
+            for (int i = 0; i < shards; i++) {
+                if (processes[i] != null) {
+                    processes[i].destroy();
+                }
+                if (totals[i] != null) {
+                    Files.deleteIfExists(totals[i]);
+                }
+                if (records[i] != null) {
+                    Files.deleteIfExists(records[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one worker: analyzes a byte range, printing its per-record lines to one file
+     * and writing its totals as a {@link PartialResult} to another. Exits with status 1
+     * if the range cannot be analyzed.
+     *
+     * @param args Command-line arguments: the input file, the start and end offsets of
+     *             the range, the file to write the totals to and the file to print the
+     *             per-record lines to.
+     */
+    public static void main(String[] args) {
+        if (args.length != 5) {
+            System.err.println("Usage: ShardCoordinator <input> <start> <end> <totals> <records>");
+            System.exit(2);
+        }
+        try (PrintStream records = new PrintStream(new BufferedOutputStream(
+                Files.newOutputStream(Path.of(args[4])), BUFFER_SIZE), false);
+                OutputStream totals = Files.newOutputStream(Path.of(args[3]))) {
+            PartialResult result = analyzeRange(Path.of(args[0]), Long.parseLong(args[1]), Long.parseLong(args[2]),
+                    records);
+            if (records.checkError()) {
+                throw new IOException("Cannot write " + args[4]);
+            }
+            result.writeTo(totals);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Copies the per-record lines of a worker to the output, replacing the number each
+     * line starts with, which counts from 1 within the worker's range, by its number in
+     * the whole file.
+     */
+    private static void copyRecords(Path records, long previous, PrintStream out) throws IOException {
+        try (InputStream in = Files.newInputStream(records)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long number = previous;
+            boolean lineStart = true;
+            // Spaces seen in the "Sequence <n> " prefix being skipped, or -1 while copying
+            int spaces = -1;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                int from = 0;
+                for (int i = 0; i < read; i++) {
+                    if (lineStart) {
+                        out.print("Sequence " + ++number);
+                        lineStart = false;
+                        spaces = 0;
+                    }
+                    if (spaces >= 0) {
+                        if (buffer[i] == ' ' && ++spaces == 2) {
+                            spaces = -1;
+                            from = i;
+                        }
+                    } else if (buffer[i] == '\n') {
+                        out.write(buffer, from, i + 1 - from);
+                        lineStart = true;
+                    }
+                }
+                if (spaces < 0 && !lineStart) {
+                    out.write(buffer, from, read - from);
+                }
+            }
+        }
+    }
+
+    private static List<String> workerCommand(Path path, long start, long end, Path totals, Path records) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!option.startsWith("-agentlib") && !option.startsWith("-agentpath") &&
+                    !option.startsWith("-javaagent")) {
+                command.add(option);
+            }
+        }
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), ShardCoordinator.class.getName(),
+                path.toString(), Long.toString(start), Long.toString(end), totals.toString(), records.toString()));
+        return command;
+    }
+
+    /**
+     * Returns the first character of the file that is not whitespace.
+     */
+    private static int firstMarker(FileChannel channel) throws IOException {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(0)), BUFFER_SIZE);
+        int c;
+        while ((c = in.read()) == '\n' || c == '\r' || c == ' ' || c == '\t') {
+            // Leading blank lines are skipped by SequenceReader as well.
+        }
+        return c;
+    }
+
+    /**
+     * Finds the first record that starts at or after the given offset.
+     *
+     * @return the offset of the record, or the file size if there is none.
+     */
+    private static long nextRecord(FileChannel channel, long from, boolean fastq) throws IOException {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(from - 1)), BUFFER_SIZE);
+        long offset = from - 1;
+        // Skip to the start of the first whole line at or after from
+        int c;
+        while ((c = in.read()) != -1) {
+            offset++;
+            if (c == '\n') {
+                break;
+            }
+        }
+        // The first character and length of the last four lines, oldest first
+        int[] first = new int[4];
+        long[] starts = new long[4];
+        long[] lengths = new long[4];
+        int lines = 0;
+        while (true) {
+            long start = offset;
+            int marker = in.read();
+            if (marker == -1) {
+                return channel.size();
+            }
+            long length = 0;
+            for (c = marker; c != -1 && c != '\n'; c = in.read()) {
+                if (c != '\r') {
+                    length++;
+                }
+                offset++;
+            }
+            if (c == '\n') {
+                offset++;
+            }
+            if (!fastq) {
+                if (marker == '>') {
+                    return start;
+                }
+                continue;
+            }
+            if (lines == 4) {
+                System.arraycopy(first, 1, first, 0, 3);
+                System.arraycopy(starts, 1, starts, 0, 3);
+                System.arraycopy(lengths, 1, lengths, 0, 3);
+                lines = 3;
+            }
+            first[lines] = marker;
+            starts[lines] = start;
+            lengths[lines++] = length;
+            if (lines == 4 && first[0] == '@' && first[2] == '+' && lengths[1] == lengths[3]) {
+                return starts[0];
+            }
+        }
+    }
+}
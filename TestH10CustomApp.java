@@ -0,0 +1,2606 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Scanner;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * This contains testing methods for the H10CustomApp class.
+ *
+ * @author Ajay Shenoy
+ */
+public class TestH10CustomApp {
+
+    /**
+     * This calls the testH10CustomApp method and prints out the result. Exits with
+     * status 1 if any test fails, so the build can run this as its test step.
+     * @param args command-line arguments (unused)
+     */
+    public static void main(String[] args) {
+        boolean success = true;
+        success &= report("Success: ", testH10CustomApp());
+        success &= report("Complementary Strand Test Success: ", testComplementaryStrand());
+        success &= report("Sequence Reader Test Success: ", testSequenceReader());
+        success &= report("Primitive Counters Test Success: ", testPrimitiveCounters());
+        success &= report("Packed Sequence Test Success: ", testPackedSequence());
+        success &= report("Parallel Analysis Test Success: ", testParallelAnalysis());
+        success &= report("Mapped Analysis Test Success: ", testMappedAnalysis());
+        success &= report("GC Window Test Success: ", testGCWindows());
+        success &= report("K-mer Counter Test Success: ", testKmerCounter());
+        success &= report("Sequence Index Test Success: ", testSequenceIndex());
+        success &= report("Sequence Cache Test Success: ", testSequenceCache());
+        success &= report("Concurrent Metrics Test Success: ", testConcurrentMetrics());
+        success &= report("Batch Processor Test Success: ", testBatchProcessor());
+        success &= report("Vector Counting Test Success: ", testVectorCounting());
+        success &= report("Results Writer Test Success: ", testResultsWriter());
+        success &= report("Analysis Metrics Test Success: ", testAnalysisMetrics());
+        success &= report("Compressed Input Test Success: ", testCompressedInput());
+        success &= report("Sequence Sketch Test Success: ", testSequenceSketch());
+        success &= report("Deduplication Test Success: ", testDeduplication());
+        success &= report("Motif Search Test Success: ", testMotifSearch());
+        success &= report("Alignment Test Success: ", testAlignment());
+        success &= report("Quality Metrics Test Success: ", testQualityMetrics());
+        success &= report("Translation Test Success: ", testTranslation());
+        success &= report("Shard Merge Test Success: ", testShardMerge());
+        if (!success) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the result of a test method.
+     * @param label the label to print before the result
+     * @param result the result of the test method
+     * @return the result, so that results can be combined
+     */
+    private static boolean report(String label, boolean result) {
+        System.out.println(label + result);
+        return result;
+    }
+
+    /**
+     * Runs a single test case and compares the results with the expected values.
+     *
+     * @param sequences the input sequences for the test case. This is an array of
+     *                  strings where each string represents a nucleotide sequence.
+     * @param expectedFrequencies the expected nucleotide frequencies in the sequences.
+     *                            This is a string representation of a map where keys
+     *                            are nucleotide characters and values are their counts.
+     * @param expectedGCContents the expected GC content percentages for each sequence.
+     *                           This is a list of doubles representing the percentage
+     *                           of GC content for each sequence.
+     * @param expectedATContents the expected AT content percentages for each sequence.
+     *                           This is a list of doubles representing the percentage
+     *                           of AT content for each sequence.
+     * @param expectedLengthDistribution the expected distribution of sequence lengths.
+     *                                  This is a string representation of a map where
+     *                                   keys are sequence lengths and values are their counts.
+     * @param expectedMostCommon the expected most common nucleotides in the sequences.
+     *                           This is a string representation of a list of nucleotides
+     *                           that are most frequent in the sequences.
+     *
+     * @return true if the test case fails, false otherwise
+     */
+
+    public static boolean testH10CustomApp() {
+        boolean error = false;
+
+        // Test Case 1: Basic Input
+        {
+            String[] sequences = {"ATCG", "GATTACA", "CCGG"};
+            // Expected Results
+            String expectedFrequencies = "{A=4, C=4, T=3, G=4}";
+            List<Double> expectedGCContents = List.of(50.0, 28.571428571428573, 100.0);
+            List<Double> expectedATContents = List.of(50.0, 71.42857142857143, 0.0);
+            String expectedLengthDistribution = "{4=2, 7=1}";
+            String expectedMostCommon = "[A, C, G]";
+
+            String actualFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences).toString();
+            List<Double> actualGCContents =
+                    H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> actualATContents =
+                    H10CustomApp.calculateATContentForAll(sequences);
+            String actualLengthDistribution =
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences).toString();
+            String actualMostCommon =
+                    H10CustomApp.findMostCommonNucleotides(sequences).toString();
+
+            if (!actualFrequencies.equals(expectedFrequencies)) {
+                error = true;
+                System.out.println("Test Case 1 - Nucleotide Frequencies: Expected: " +
+                        expectedFrequencies + " actual: " + actualFrequencies);
+            }
+            if (!actualGCContents.equals(expectedGCContents)) {
+                error = true;
+                System.out.println("Test Case 1 - GC Contents: Expected: " +
+                        expectedGCContents + " actual: " + actualGCContents);
+            }
+            if (!actualATContents.equals(expectedATContents)) {
+                error = true;
+                System.out.println("Test Case 1 - AT Contents: Expected: " +
+                        expectedATContents + " actual: " + actualATContents);
+            }
+            if (!actualLengthDistribution.equals(expectedLengthDistribution)) {
+                error = true;
+                System.out.println("Test Case 1 - Length Distribution: Expected: " +
+                        expectedLengthDistribution + " actual: " + actualLengthDistribution);
+            }
+            if (!actualMostCommon.equals(expectedMostCommon)) {
+                error = true;
+                System.out.println("Test Case 1 - Most Common Nucleotides: Expected: " +
+                        expectedMostCommon + " actual: " + actualMostCommon);
+            }
+        }
+
+        // Test Case 2: Sequences with Only One Nucleotide
+        {
+            String[] sequences = {"AAAA", "TTTT", "CCCC", "GGGG"};
+            // Expected Results
+            String expectedFrequencies = "{A=4, C=4, T=4, G=4}";
+            List<Double> expectedGCContents = List.of(0.0, 0.0, 100.0, 100.0);
+            List<Double> expectedATContents = List.of(100.0, 100.0, 0.0, 0.0);
+            String expectedLengthDistribution = "{4=4}";
+            String expectedMostCommon = "[A, C, T, G]";
+
+            String actualFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences).toString();
+            List<Double> actualGCContents = H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> actualATContents = H10CustomApp.calculateATContentForAll(sequences);
+            String actualLengthDistribution =
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences).toString();
+            String actualMostCommon =
+                    H10CustomApp.findMostCommonNucleotides(sequences).toString();
+
+            if (!actualFrequencies.equals(expectedFrequencies)) {
+                error = true;
+                System.out.println("Test Case 2 - Nucleotide Frequencies: Expected: "
+                        + expectedFrequencies + " actual: " + actualFrequencies);
+            }
+            if (!actualGCContents.equals(expectedGCContents)) {
+                error = true;
+                System.out.println("Test Case 2 - GC Contents: Expected: " +
+                        expectedGCContents + " actual: " + actualGCContents);
+            }
+            if (!actualATContents.equals(expectedATContents)) {
+                error = true;
+                System.out.println("Test Case 2 - AT Contents: Expected: " +
+                        expectedATContents + " actual: " + actualATContents);
+            }
+            if (!actualLengthDistribution.equals(expectedLengthDistribution)) {
+                error = true;
+                System.out.println("Test Case 2 - Length Distribution: Expected: " +
+                        expectedLengthDistribution + " actual: " + actualLengthDistribution);
+            }
+            if (!actualMostCommon.equals(expectedMostCommon)) {
+                error = true;
+                System.out.println("Test Case 2 - Most Common Nucleotides: Expected: " +
+                        expectedMostCommon + " actual: " + actualMostCommon);
+            }
+        }
+
+        // Test Case 3: Mixed Content with Empty Sequences
+        {
+            String[] sequences = {"ATCG", "GATTACA", "", "CCGG", ""};
+            // Expected Results
+            String expectedFrequencies = "{A=4, C=4, T=3, G=4}";
+            List<Double> expectedATContents = List.of(50.0, 71.42857142857143, 0.0, 0.0, 0.0);
+            List<Double> expectedGCContents =
+                    List.of(50.0, 28.571428571428573, 0.0, 100.0, 0.0);
+            String expectedLengthDistribution = "{0=2, 4=2, 7=1}";
+            String expectedMostCommon = "[A, C, G]";
+
+            String actualFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences).toString();
+            List<Double> actualGCContents = H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> actualATContents = H10CustomApp.calculateATContentForAll(sequences);
+            String actualLengthDistribution =
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences).toString();
+            String actualMostCommon =
+                    H10CustomApp.findMostCommonNucleotides(sequences).toString();
+
+            if (!actualFrequencies.equals(expectedFrequencies)) {
+                error = true;
+                System.out.println("Test Case 3 - Nucleotide Frequencies: Expected: " +
+                        expectedFrequencies + " actual: " + actualFrequencies);
+            }
+            if (!actualGCContents.equals(expectedGCContents)) {
+                error = true;
+                System.out.println("Test Case 3 - GC Contents: Expected: "
+                        + expectedGCContents + " actual: " + actualGCContents);
+            }
+            if (!actualATContents.equals(expectedATContents)) {
+                error = true;
+                System.out.println("Test Case 3 - AT Contents: Expected: "
+                        + expectedATContents + " actual: " + actualATContents);
+            }
+            if (!actualLengthDistribution.equals(expectedLengthDistribution)) {
+                error = true;
+                System.out.println("Test Case 3 - Length Distribution: Expected: "
+                        + expectedLengthDistribution + " actual: " + actualLengthDistribution);
+            }
+            if (!actualMostCommon.equals(expectedMostCommon)) {
+                error = true;
+                System.out.println("Test Case 3 - Most Common Nucleotides: Expected: "
+                        + expectedMostCommon + " actual: " + actualMostCommon);
+            }
+        }
+
+        // Test Case 4: All Sequences Identical
+        {
+            String[] sequences = {"ATCGATCG", "ATCGATCG", "ATCGATCG"};
+            // Expected Results
+            String expectedFrequencies = "{A=6, C=6, T=6, G=6}";
+            List<Double> expectedGCContents = List.of(50.0, 50.0, 50.0);
+            List<Double> expectedATContents = List.of(50.0, 50.0, 50.0);
+            String expectedLengthDistribution = "{8=3}";
+            String expectedMostCommon = "[A, C, T, G]";
+
+            String actualFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences).toString();
+            List<Double> actualGCContents = H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> actualATContents = H10CustomApp.calculateATContentForAll(sequences);
+            String actualLengthDistribution =
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences).toString();
+            String actualMostCommon = H10CustomApp.findMostCommonNucleotides(sequences).toString();
+
+            if (!actualFrequencies.equals(expectedFrequencies)) {
+                error = true;
+                System.out.println("Test Case 4 - Nucleotide Frequencies: Expected: "
+                        + expectedFrequencies + " actual: " + actualFrequencies);
+            }
+            if (!actualGCContents.equals(expectedGCContents)) {
+                error = true;
+                System.out.println("Test Case 4 - GC Contents: Expected: " +
+                        expectedGCContents + " actual: " + actualGCContents);
+            }
+            if (!actualATContents.equals(expectedATContents)) {
+                error = true;
+                System.out.println("Test Case 4 - AT Contents: Expected: " +
+                        expectedATContents + " actual: " + actualATContents);
+            }
+            if (!actualLengthDistribution.equals(expectedLengthDistribution)) {
+                error = true;
+                System.out.println("Test Case 4 - Length Distribution: Expected: " +
+                        expectedLengthDistribution + " actual: " + actualLengthDistribution);
+            }
+            if (!actualMostCommon.equals(expectedMostCommon)) {
+                error = true;
+                System.out.println("Test Case 4 - Most Common Nucleotides: Expected: " +
+                        expectedMostCommon + " actual: " + actualMostCommon);
+            }
+        }
+
+        // Test Case 5: Sequences with Non-ATCG Characters
+        {
+            String[] sequences = {"ATCGXYZF", "TACG1234"};
+            // Expected Results
+            String expectedFrequencies = "{A=2, C=2, T=2, G=2}";
+            List<Double> expectedGCContents = List.of(25.0, 25.0);
+            List<Double> expectedATContents = List.of(25.0, 25.0);
+            String expectedLengthDistribution = "{8=2}";
+            String expectedMostCommon = "[A, C, T, G]";
+
+            String actualFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences).toString();
+            List<Double> actualGCContents = H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> actualATContents = H10CustomApp.calculateATContentForAll(sequences);
+            String actualLengthDistribution =
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences).toString();
+            String actualMostCommon = H10CustomApp.findMostCommonNucleotides(sequences).toString();
+
+            if (!actualFrequencies.equals(expectedFrequencies)) {
+                error = true;
+                System.out.println("Test Case 5 - Nucleotide Frequencies: Expected: " +
+                        expectedFrequencies + " actual: " + actualFrequencies);
+            }
+            if (!actualGCContents.equals(expectedGCContents)) {
+                error = true;
+                System.out.println("Test Case 5 - GC Contents: Expected: " + expectedGCContents +
+                        " actual: " + actualGCContents);
+            }
+            if (!actualATContents.equals(expectedATContents)) {
+                error = true;
+                System.out.println("Test Case 5 - AT Contents: Expected: " +
+                        expectedATContents + " actual: " + actualATContents);
+            }
+            if (!actualLengthDistribution.equals(expectedLengthDistribution)) {
+                error = true;
+                System.out.println("Test Case 5 - Length Distribution: Expected: " +
+                        expectedLengthDistribution + " actual: " + actualLengthDistribution);
+            }
+            if (!actualMostCommon.equals(expectedMostCommon)) {
+                error = true;
+                System.out.println("Test Case 5 - Most Common Nucleotides: Expected: " +
+                        expectedMostCommon + " actual: " + actualMostCommon);
+            }
+        }
+
+        // Test Case 6: Very Large Sequences
+        {
+            String[] sequences = {
+                    "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA",
+                    "TTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTTT"
+            };
+            // Expected Results
+            String expectedFrequencies = "{A=68, T=63}";
+            List<Double> expectedGCContents = List.of(0.0, 0.0);
+            List<Double> expectedATContents = List.of(100.0, 100.0);
+            String expectedLengthDistribution = "{63=1, 68=1}";
+            String expectedMostCommon = "[A]";
+
+            String actualFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences).toString();
+            List<Double> actualGCContents = H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> actualATContents = H10CustomApp.calculateATContentForAll(sequences);
+            String actualLengthDistribution =
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences).toString();
+            String actualMostCommon = H10CustomApp.findMostCommonNucleotides(sequences).toString();
+
+            if (!actualFrequencies.equals(expectedFrequencies)) {
+                error = true;
+                System.out.println("Test Case 6 - Nucleotide Frequencies: Expected: " +
+                        expectedFrequencies + " actual: " + actualFrequencies);
+            }
+            if (!actualGCContents.equals(expectedGCContents)) {
+                error = true;
+                System.out.println("Test Case 6 - GC Contents: Expected: " +
+                        expectedGCContents + " actual: " + actualGCContents);
+            }
+            if (!actualATContents.equals(expectedATContents)) {
+                error = true;
+                System.out.println("Test Case 6 - AT Contents: Expected: " +
+                        expectedATContents + " actual: " + actualATContents);
+            }
+            if (!actualLengthDistribution.equals(expectedLengthDistribution)) {
+                error = true;
+                System.out.println("Test Case 6 - Length Distribution: Expected: " +
+                        expectedLengthDistribution + " actual: " + actualLengthDistribution);
+            }
+            if (!actualMostCommon.equals(expectedMostCommon)) {
+                error = true;
+                System.out.println("Test Case 6 - Most Common Nucleotides: Expected: " +
+                        expectedMostCommon + " actual: " + actualMostCommon);
+            }
+        }
+
+        if (error) {
+            System.out.println("Error(s) in test cases.");
+        } else {
+            System.out.println("All test cases passed.");
+        }
+        return !error;
+    }
+
+    /**
+     * Test the generateComplementaryStrand function to ensure it returns the correct complementary strand.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testComplementaryStrand() {
+        boolean error = false;
+
+        // Test Case 1: Basic sequences
+        {
+            String sequence = "ATCG";
+            String expectedComplementaryStrand = "TAGC";
+
+            String actualComplementaryStrand = H10CustomApp.generateComplementaryStrand(sequence);
+
+            if (!actualComplementaryStrand.equals(expectedComplementaryStrand)) {
+                error = true;
+                System.out.println("Test Case 1 - Complementary Strand: Expected: " +
+                        expectedComplementaryStrand + " actual: " + actualComplementaryStrand);
+            }
+        }
+
+        // Test Case 2: Empty sequence
+        {
+            String sequence = "";
+            String expectedComplementaryStrand = "";
+
+            String actualComplementaryStrand = H10CustomApp.generateComplementaryStrand(sequence);
+
+            if (!actualComplementaryStrand.equals(expectedComplementaryStrand)) {
+                error = true;
+                System.out.println("Test Case 2 - Complementary Strand: Expected: " +
+                        expectedComplementaryStrand + " actual: " + actualComplementaryStrand);
+            }
+        }
+
+        // Test Case 3: Sequence with invalid characters
+        {
+            String sequence = "ATCGX";
+            String expectedComplementaryStrand = "TAGC";
+
+            String actualComplementaryStrand = H10CustomApp.generateComplementaryStrand(sequence);
+
+            if (!actualComplementaryStrand.equals(expectedComplementaryStrand)) {
+                error = true;
+                System.out.println("Test Case 3 - Complementary Strand: Expected: " +
+                        expectedComplementaryStrand + " actual: " + actualComplementaryStrand);
+            }
+        }
+
+        // Test Case 4: Longer sequence
+        {
+            String sequence = "GATTACA";
+            String expectedComplementaryStrand = "CTAATGT";
+
+            String actualComplementaryStrand = H10CustomApp.generateComplementaryStrand(sequence);
+
+            if (!actualComplementaryStrand.equals(expectedComplementaryStrand)) {
+                error = true;
+                System.out.println("Test Case 4 - Complementary Strand: Expected: " +
+                        expectedComplementaryStrand + " actual: " + actualComplementaryStrand);
+            }
+        }
+
+        // Test Case 5: IUPAC codes and lower case
+        {
+            String sequence = "acgtNRYKMBDHVSWu";
+            String expectedComplementaryStrand = "tgcaNYRMKVHDBSWa";
+
+            String actualComplementaryStrand = H10CustomApp.generateComplementaryStrand(sequence);
+
+            if (!actualComplementaryStrand.equals(expectedComplementaryStrand)) {
+                error = true;
+                System.out.println("Test Case 5 - Complementary Strand: Expected: " +
+                        expectedComplementaryStrand + " actual: " + actualComplementaryStrand);
+            }
+        }
+
+        // Test Case 6: Reverse complement, singly and in a batch
+        {
+            String[] sequences = {"GATTACA", "", null, "AAcgN"};
+            String[] expectedReverseComplements = {"TGTAATC", "", null, "NcgTT"};
+
+            String actualReverseComplement = H10CustomApp.generateReverseComplement(sequences[0]);
+            String[] actualReverseComplements = Complementer.reverseComplementAll(sequences);
+
+            if (!actualReverseComplement.equals(expectedReverseComplements[0])
+                    || !Arrays.equals(actualReverseComplements, expectedReverseComplements)) {
+                error = true;
+                System.out.println("Test Case 6 - Reverse Complement: Expected: " +
+                        Arrays.toString(expectedReverseComplements) + " actual: " +
+                        actualReverseComplement + " " + Arrays.toString(actualReverseComplements));
+            }
+        }
+
+        // Test Case 7: Reverse complement into a caller-provided byte buffer
+        {
+            byte[] strand = "xxACGTTx".getBytes(StandardCharsets.US_ASCII);
+            String expectedReverseComplement = "AACGT";
+
+            byte[] target = new byte[strand.length];
+            int written = Complementer.reverseComplement(strand, 2, 5, target, 0);
+            String actualReverseComplement = new String(target, 0, written, StandardCharsets.US_ASCII);
+
+            if (!actualReverseComplement.equals(expectedReverseComplement)) {
+                error = true;
+                System.out.println("Test Case 7 - Reverse Complement: Expected: " +
+                        expectedReverseComplement + " actual: " + actualReverseComplement);
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test the SequenceReader class on multi-line FASTA and FASTQ input.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testSequenceReader() {
+        boolean error = false;
+
+        // Test Case 1: Multi-line FASTA records
+        {
+            String input = ">seq1 first\nATCG\nGATT\r\n\n>seq2\nccgg\n";
+            List<String> expectedNames = List.of("seq1 first", "seq2");
+            List<String> expectedSequences = List.of("ATCGGATT", "ccgg");
+
+            List<String> actualNames = new ArrayList<>();
+            List<String> actualSequences = new ArrayList<>();
+            try (SequenceReader reader = readerFor(input)) {
+                while (reader.next()) {
+                    actualNames.add(reader.name());
+                    actualSequences.add(reader.sequence());
+                }
+            } catch (IOException e) {
+                error = true;
+                System.out.println("Test Case 1 - FASTA Reader: " + e.getMessage());
+            }
+
+            if (!actualNames.equals(expectedNames) || !actualSequences.equals(expectedSequences)) {
+                error = true;
+                System.out.println("Test Case 1 - FASTA Reader: Expected: " + expectedNames +
+                        expectedSequences + " actual: " + actualNames + actualSequences);
+            }
+        }
+
+        // Test Case 2: Multi-line FASTQ records with '@' in the quality string
+        {
+            String input = "@read1\nACGT\nAC\n+\n@III\nII\n@read2\nNN\n+read2\n@@\n";
+            List<String> expectedSequences = List.of("ACGTAC", "NN");
+            List<Integer> expectedQualityLengths = List.of(6, 2);
+
+            List<String> actualSequences = new ArrayList<>();
+            List<Integer> actualQualityLengths = new ArrayList<>();
+            try (SequenceReader reader = readerFor(input)) {
+                while (reader.next()) {
+                    actualSequences.add(reader.sequence());
+                    actualQualityLengths.add(reader.qualityLength());
+                }
+            } catch (IOException e) {
+                error = true;
+                System.out.println("Test Case 2 - FASTQ Reader: " + e.getMessage());
+            }
+
+            if (!actualSequences.equals(expectedSequences)
+                    || !actualQualityLengths.equals(expectedQualityLengths)) {
+                error = true;
+                System.out.println("Test Case 2 - FASTQ Reader: Expected: " + expectedSequences +
+                        expectedQualityLengths + " actual: " + actualSequences + actualQualityLengths);
+            }
+        }
+
+        // Test Case 3: Truncated FASTQ record
+        {
+            boolean thrown = false;
+            try (SequenceReader reader = readerFor("@read1\nACGT\n+\nII\n")) {
+                reader.next();
+            } catch (IOException e) {
+                thrown = true;
+            }
+
+            if (!thrown) {
+                error = true;
+                System.out.println("Test Case 3 - Truncated FASTQ: Expected an IOException");
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test the NucleotideCounts and LengthHistogram counters behind the Map-returning methods.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testPrimitiveCounters() {
+        boolean error = false;
+
+        // Test Case 1: Mixed case and non-ACGT characters
+        {
+            String[] sequences = {"ATCGxyz", "ggNN"};
+            String expectedCounts = "{A=1, C=1, G=3, T=1, other=5}";
+
+            String actualCounts = H10CustomApp.countNucleotides(sequences).toString();
+
+            if (!actualCounts.equals(expectedCounts)) {
+                error = true;
+                System.out.println("Test Case 1 - Nucleotide Counts: Expected: " +
+                        expectedCounts + " actual: " + actualCounts);
+            }
+        }
+
+        // Test Case 2: Many distinct lengths force the histogram to grow
+        {
+            String[] sequences = new String[1000];
+            for (int i = 0; i < sequences.length; i++) {
+                sequences[i] = "A".repeat(i % 250);
+            }
+            LengthHistogram histogram = H10CustomApp.calculateSequenceLengthHistogram(sequences);
+
+            if (histogram.size() != 250 || histogram.get(0) != 4 || histogram.get(249) != 4
+                    || histogram.get(250) != 0) {
+                error = true;
+                System.out.println("Test Case 2 - Length Histogram: Expected 250 lengths with 4 each" +
+                        " actual: " + histogram);
+            }
+            if (!histogram.toMap().equals(
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences))) {
+                error = true;
+                System.out.println("Test Case 2 - Length Histogram: Map adapter does not match");
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test the PackedSequence class against the String-based methods.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testPackedSequence() {
+        boolean error = false;
+
+        // Test Case 1: Round trip and content with ambiguous bases
+        {
+            String sequence = "ACGTNacgtRGATTACA";
+            String expectedDecoded = "ACGTNACGTNGATTACA";
+            List<Double> expectedGCContents =
+                    H10CustomApp.calculateGCContentForAll(new String[] {sequence});
+            List<Double> expectedATContents =
+                    H10CustomApp.calculateATContentForAll(new String[] {sequence});
+
+            PackedSequence[] packed = {PackedSequence.pack(sequence)};
+            String actualDecoded = packed[0].toString();
+            List<Double> actualGCContents = H10CustomApp.calculateGCContentForAll(packed);
+            List<Double> actualATContents = H10CustomApp.calculateATContentForAll(packed);
+
+            if (!actualDecoded.equals(expectedDecoded)) {
+                error = true;
+                System.out.println("Test Case 1 - Packed Round Trip: Expected: " +
+                        expectedDecoded + " actual: " + actualDecoded);
+            }
+            if (!actualGCContents.equals(expectedGCContents)
+                    || !actualATContents.equals(expectedATContents)) {
+                error = true;
+                System.out.println("Test Case 1 - Packed Contents: Expected: " + expectedGCContents +
+                        expectedATContents + " actual: " + actualGCContents + actualATContents);
+            }
+        }
+
+        // Test Case 2: Complement and reverse complement across word boundaries
+        {
+            String bases = "ACGTTGCANGGATCCA";
+            for (int length = 0; length <= 100; length++) {
+                StringBuilder sequence = new StringBuilder();
+                for (int i = 0; i < length; i++) {
+                    sequence.append(bases.charAt((i * 7 + length) % bases.length()));
+                }
+                String expectedComplement = sequence.toString().replace('A', 't')
+                        .replace('T', 'a').replace('C', 'g').replace('G', 'c').toUpperCase();
+                String expectedReverseComplement =
+                        new StringBuilder(expectedComplement).reverse().toString();
+
+                PackedSequence packed = PackedSequence.pack(sequence);
+                String actualComplement =
+                        H10CustomApp.generateComplementaryStrand(packed).toString();
+                PackedSequence reverseComplement = packed.reverseComplement();
+
+                if (!actualComplement.equals(expectedComplement)
+                        || !reverseComplement.toString().equals(expectedReverseComplement)
+                        || !reverseComplement.equals(PackedSequence.pack(expectedReverseComplement))) {
+                    error = true;
+                    System.out.println("Test Case 2 - Packed Complement: Expected: " +
+                            expectedComplement + " / " + expectedReverseComplement + " actual: " +
+                            actualComplement + " / " + reverseComplement);
+                }
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that ParallelSequenceAnalysis matches the sequential methods, including when
+     * sequences are split across several chunks.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testParallelAnalysis() {
+        boolean error = false;
+
+        // Test Case 1: Short, long, empty and null sequences with a tiny chunk size
+        {
+            String[] sequences = {"ATCG", "GATTACA", "", null, "CCGGNNatcgATCGGGCCTTAA", "acgt",
+                    "GGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGGAT"};
+            Map<Character, Integer> expectedFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences);
+            List<Double> expectedGCContents = H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> expectedATContents = H10CustomApp.calculateATContentForAll(sequences);
+
+            try (ParallelSequenceAnalysis analysis = new ParallelSequenceAnalysis(true, 4, 5)) {
+                Map<Character, Integer> actualFrequencies =
+                        analysis.calculateNucleotideFrequencies(sequences);
+                List<Double> actualGCContents = analysis.calculateGCContentForAll(sequences);
+                List<Double> actualATContents = analysis.calculateATContentForAll(sequences);
+
+                if (!actualFrequencies.equals(expectedFrequencies)) {
+                    error = true;
+                    System.out.println("Test Case 1 - Parallel Frequencies: Expected: " +
+                            expectedFrequencies + " actual: " + actualFrequencies);
+                }
+                if (!actualGCContents.equals(expectedGCContents)) {
+                    error = true;
+                    System.out.println("Test Case 1 - Parallel GC Contents: Expected: " +
+                            expectedGCContents + " actual: " + actualGCContents);
+                }
+                if (!actualATContents.equals(expectedATContents)) {
+                    error = true;
+                    System.out.println("Test Case 1 - Parallel AT Contents: Expected: " +
+                            expectedATContents + " actual: " + actualATContents);
+                }
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that MappedSequenceAnalysis matches the String-based methods, including when
+     * records and lines straddle mapped segments.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testMappedAnalysis() {
+        boolean error = false;
+
+        // Test Case 1: Multi-line records with CRLF line endings, trailing whitespace and tiny segments
+        {
+            String input = ">chr1\r\nATCGAT  \r\nGGccNN\t\r\n>chr2 empty\n>chr3\nGATTACA \n\nTTTT";
+            String[] sequences = {"ATCGATGGccNN", "", "GATTACATTTT"};
+            Map<Character, Integer> expectedFrequencies =
+                    H10CustomApp.calculateNucleotideFrequencies(sequences);
+            List<Double> expectedGCContents = H10CustomApp.calculateGCContentForAll(sequences);
+            List<Double> expectedATContents = H10CustomApp.calculateATContentForAll(sequences);
+            Map<Integer, Integer> expectedLengthDistribution =
+                    H10CustomApp.calculateSequenceLengthDistribution(sequences);
+
+            for (int segmentSize : new int[] {3, 8, 1 << 20}) {
+                try {
+                    Path file = Files.createTempFile("mapped", ".fa");
+                    try {
+                        Files.writeString(file, input, StandardCharsets.US_ASCII);
+                        SequenceMetrics metrics = MappedSequenceAnalysis.analyze(file, segmentSize);
+
+                        if (!metrics.getNucleotideFrequencies().equals(expectedFrequencies)
+                                || !metrics.getGCContents().equals(expectedGCContents)
+                                || !metrics.getATContents().equals(expectedATContents)
+                                || !metrics.getLengthDistribution().equals(expectedLengthDistribution)) {
+                            error = true;
+                            System.out.println("Test Case 1 - Mapped Metrics (segment " + segmentSize +
+                                    "): Expected: " + expectedFrequencies + expectedGCContents +
+                                    expectedLengthDistribution + " actual: " +
+                                    metrics.getNucleotideFrequencies() + metrics.getGCContents() +
+                                    metrics.getLengthDistribution());
+                        }
+                    } finally {
+                        Files.delete(file);
+                    }
+                } catch (IOException e) {
+                    error = true;
+                    System.out.println("Test Case 1 - Mapped Metrics: " + e.getMessage());
+                }
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test the sliding-window GC profile against the GC content of each window substring.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testGCWindows() {
+        boolean error = false;
+
+        // Test Case 1: Overlapping, adjacent and gapped windows
+        {
+            String sequence = "ATGCGCnnATggccAATTGCGATCGCCGTA";
+            int[][] windowsAndSteps = {{4, 1}, {5, 5}, {3, 7}, {30, 1}, {31, 1}};
+            for (int[] windowAndStep : windowsAndSteps) {
+                int window = windowAndStep[0];
+                int step = windowAndStep[1];
+                List<Double> expected = new ArrayList<>();
+                for (int start = 0; start + window <= sequence.length(); start += step) {
+                    expected.add(H10CustomApp.calculateGCContentForAll(
+                            new String[] {sequence.substring(start, start + window)}).get(0));
+                }
+
+                double[] windows = H10CustomApp.calculateGCContentWindows(sequence, window, step);
+                List<Double> actual = new ArrayList<>();
+                for (double gcContent : windows) {
+                    actual.add(gcContent);
+                }
+
+                if (!actual.equals(expected)) {
+                    error = true;
+                    System.out.println("Test Case 1 - GC Windows (" + window + ", " + step +
+                            "): Expected: " + expected + " actual: " + actual);
+                }
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test k-mer counting against substring counts, and parallel counting against serial.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testKmerCounter() {
+        boolean error = false;
+
+        // Test Case 1: Forward and canonical counts match counts of each substring
+        {
+            String[] sequences = {"ATGCGCnnATggccAATTGCGATCGCCGTA", "ACGT", "AAAAAAAA", "", null};
+            for (int k : new int[] {1, 3, 5, 21}) {
+                for (boolean canonical : new boolean[] {false, true}) {
+                    Map<String, Integer> expected = new HashMap<>();
+                    KmerCounter counter = new KmerCounter(k, canonical);
+                    for (String sequence : sequences) {
+                        if (sequence == null) {
+                            continue;
+                        }
+                        counter.add(sequence);
+                        for (int i = 0; i + k <= sequence.length(); i++) {
+                            String kmer = sequence.substring(i, i + k).toUpperCase();
+                            if (!kmer.matches("[ACGT]+")) {
+                                continue;
+                            }
+                            if (canonical) {
+                                String reverse = H10CustomApp.generateReverseComplement(kmer);
+                                kmer = KmerCounter.encode(reverse) < KmerCounter.encode(kmer) ? reverse : kmer;
+                            }
+                            expected.merge(kmer, 1, Integer::sum);
+                        }
+                    }
+
+                    Map<String, Integer> actual = new HashMap<>();
+                    int size = k;
+                    counter.getTable().forEach((kmer, count) ->
+                            actual.put(KmerCounter.decode(kmer, size), count));
+                    KmerTable parallel = KmerCounter.countParallel(sequences, k, canonical, 3);
+                    Map<String, Integer> parallelActual = new HashMap<>();
+                    parallel.forEach((kmer, count) -> parallelActual.put(KmerCounter.decode(kmer, size), count));
+
+                    if (!actual.equals(expected) || !parallelActual.equals(expected)) {
+                        error = true;
+                        System.out.println("Test Case 1 - K-mer Counts (" + k + ", " + canonical +
+                                "): Expected: " + expected + " actual: " + actual + parallelActual);
+                    }
+                }
+            }
+        }
+
+        // Test Case 2: Most common k-mers, with ties in alphabetical order
+        {
+            String[] sequences = {"AAAC", "GTTT", "CCGA"};
+            List<String> expected = Arrays.asList("AAA", "AAC");
+            List<String> actual = H10CustomApp.findMostCommonKmers(sequences, 3);
+            if (!actual.equals(expected)) {
+                error = true;
+                System.out.println("Test Case 2 - Most Common K-mers: Expected: " + expected +
+                        " actual: " + actual);
+            }
+        }
+
+        // Test Case 3: Parallel counts over sequences split into overlapping pieces
+        {
+            Random random = new Random(10);
+            char[] bases = new char[2_500_000];
+            for (int i = 0; i < bases.length; i++) {
+                bases[i] = "ACGTN".charAt(random.nextInt(i % 1000 == 0 ? 5 : 4));
+            }
+            String[] sequences = {new String(bases), "ACGTACGTAC"};
+            KmerCounter counter = new KmerCounter(21, true);
+            for (String sequence : sequences) {
+                counter.add(sequence);
+            }
+            KmerTable parallel = KmerCounter.countParallel(sequences, 21, true, 4);
+            boolean[] mismatch = {parallel.size() != counter.getTable().size()};
+            counter.getTable().forEach((kmer, count) -> mismatch[0] |= parallel.get(kmer) != count);
+            if (mismatch[0]) {
+                error = true;
+                System.out.println("Test Case 3 - Parallel K-mer Counts: Expected: " +
+                        counter.getTable().size() + " distinct actual: " + parallel.size());
+            }
+        }
+
+        // Test Case 4: Invalid k
+        {
+            try {
+                new KmerCounter(32, true);
+                error = true;
+                System.out.println("Test Case 4 - Invalid k: Expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that an index answers the same metrics as the static methods, and that it
+     * is updated incrementally when records are appended.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testSequenceIndex() {
+        boolean error = false;
+
+        // Test Case 1: Metrics and packed bases from a new index
+        // Test Case 2: Appending parses only the last indexed record and the new ones
+        // Test Case 3: Rewriting the input rebuilds the index
+        // Test Case 4: A missing input leaves no index behind
+        // Test Case 5: A same-size edit of the first record rebuilds the index
+        // Test Case 6: An input that fails to parse leaves no index behind
+        try {
+            Path file = Files.createTempFile("index", ".fa");
+            Path indexFile = SequenceIndex.defaultIndexPath(file);
+            try {
+                String text = ">s1 first\nATGCGC\nnnAT\n>s2\nAAAA\n>s3\nggccTTNA\n";
+                String[] sequences = {"ATGCGCnnAT", "AAAA", "ggccTTNA"};
+                Files.writeString(file, text);
+                error |= !checkIndex(file, sequences, 3, "Test Case 1");
+                error |= !checkIndex(file, sequences, 0, "Test Case 1 - Reopen");
+
+                Files.writeString(file, "GGCC\n>s4\nCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCC\n",
+                        StandardOpenOption.APPEND);
+                String[] appended = {"ATGCGCnnAT", "AAAA", "ggccTTNAGGCC",
+                    "CCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCCC"};
+                error |= !checkIndex(file, appended, 2, "Test Case 2");
+
+                Files.writeString(file, ">t1\nACGT\n>t2\nTT\n");
+                error |= !checkIndex(file, new String[] {"ACGT", "TT"}, 2, "Test Case 3");
+
+                // Keep the modification time, so only the checksum reveals the edit
+                FileTime modified = Files.getLastModifiedTime(file);
+                Files.writeString(file, ">t1\nACGG\n>t2\nTT\n");
+                Files.setLastModifiedTime(file, modified);
+                error |= !checkIndex(file, new String[] {"ACGG", "TT"}, 2, "Test Case 5");
+
+                Files.writeString(file, "not a sequence\n");
+                Files.delete(indexFile);
+                try {
+                    SequenceIndex.update(file, indexFile);
+                    error = true;
+                    System.out.println("Test Case 6 - Failed Build: Expected: IOException actual: none");
+                } catch (IOException e) {
+                    Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+                    if (Files.exists(indexFile) || Files.exists(temporary)) {
+                        error = true;
+                        System.out.println("Test Case 6 - Failed Build: Expected: no index actual: an index file");
+                    }
+                }
+
+                Path missing = file.resolveSibling(file.getFileName() + ".missing");
+                try {
+                    SequenceIndex.update(missing, SequenceIndex.defaultIndexPath(missing));
+                    error = true;
+                    System.out.println("Test Case 4 - Missing Input: Expected: NoSuchFileException actual: none");
+                } catch (NoSuchFileException e) {
+                    if (Files.exists(SequenceIndex.defaultIndexPath(missing))) {
+                        error = true;
+                        System.out.println("Test Case 4 - Missing Input: Expected: no index actual: an index file");
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(indexFile);
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Sequence Index: " + e.getMessage());
+        }
+
+        return !error;
+    }
+
+    /**
+     * Updates and opens the index of a file and compares it with the static methods.
+     * @param file the FASTA file
+     * @param sequences the sequences in the file
+     * @param expectedParsed the number of records the update should parse
+     * @param label the test case label
+     * @return true if the index matches, false otherwise
+     * @throws IOException if the file or index cannot be read
+     */
+    private static boolean checkIndex(Path file, String[] sequences, int expectedParsed, String label)
+            throws IOException {
+        int parsed = SequenceIndex.update(file, SequenceIndex.defaultIndexPath(file));
+        try (SequenceIndex index = SequenceIndex.open(file)) {
+            List<String> packed = new ArrayList<>();
+            List<String> expectedPacked = new ArrayList<>();
+            for (int i = 0; i < index.size(); i++) {
+                packed.add(index.getSequence(i).toString());
+            }
+            for (String sequence : sequences) {
+                expectedPacked.add(PackedSequence.pack(sequence).toString());
+            }
+            if (parsed != expectedParsed
+                    || !index.calculateGCContentForAll().equals(H10CustomApp.calculateGCContentForAll(sequences))
+                    || !index.calculateATContentForAll().equals(H10CustomApp.calculateATContentForAll(sequences))
+                    || !index.calculateSequenceLengthDistribution().equals(
+                            H10CustomApp.calculateSequenceLengthDistribution(sequences))
+                    || !index.findMostCommonNucleotides().equals(H10CustomApp.findMostCommonNucleotides(sequences))
+                    || !packed.equals(expectedPacked)) {
+                System.out.println(label + " - Sequence Index: Expected: " + expectedParsed + " parsed, "
+                        + H10CustomApp.calculateGCContentForAll(sequences) + expectedPacked
+                        + " actual: " + parsed + " parsed, " + index.calculateGCContentForAll() + packed);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Test the cached operations against the uncached methods, and the cache counters.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testSequenceCache() {
+        boolean error = false;
+
+        // Test Case 1: Cached results equal uncached results, and duplicates hit
+        {
+            String[] sequences = {"ATGCGCnnAT", "AAAA", "ATGCGCnnAT", null, "", "ggccTTNA", "AAAA"};
+            CachedSequenceAnalysis analysis = new CachedSequenceAnalysis();
+            for (int round = 0; round < 2; round++) {
+                List<String> complements = new ArrayList<>();
+                List<String> expectedComplements = new ArrayList<>();
+                for (String sequence : sequences) {
+                    if (sequence != null) {
+                        complements.add(analysis.generateComplementaryStrand(sequence));
+                        expectedComplements.add(H10CustomApp.generateComplementaryStrand(sequence));
+                    }
+                }
+                if (!complements.equals(expectedComplements)
+                        || !analysis.calculateGCContentForAll(sequences).equals(
+                                H10CustomApp.calculateGCContentForAll(sequences))
+                        || !analysis.calculateATContentForAll(sequences).equals(
+                                H10CustomApp.calculateATContentForAll(sequences))) {
+                    error = true;
+                    System.out.println("Test Case 1 - Cached Results: Expected: " + expectedComplements +
+                            H10CustomApp.calculateGCContentForAll(sequences) + " actual: " + complements +
+                            analysis.calculateGCContentForAll(sequences));
+                }
+            }
+            SequenceCache<String> cache = analysis.getComplementCache();
+            if (cache.getMissCount() != 4 || cache.getHitCount() != 8 || cache.size() != 4) {
+                error = true;
+                System.out.println("Test Case 1 - Cache Counters: Expected: {hits=8, misses=4, " +
+                        "evictions=0, size=4} actual: " + cache);
+            }
+        }
+
+        // Test Case 2: Least recently used entries are evicted beyond the capacity
+        {
+            SequenceCache<String> cache = new SequenceCache<>(15, 1, Complementer::complement);
+            cache.get("AAAA");
+            cache.get("CCCC");
+            cache.get("GGGG");
+            cache.get("AAAA");
+            cache.get("TTTT");
+            cache.get("AAAA");
+            cache.get("CCCC");
+            if (cache.getEvictionCount() != 2 || cache.getHitCount() != 2 || cache.size() != 3) {
+                error = true;
+                System.out.println("Test Case 2 - LRU Eviction: Expected: {hits=2, misses=5, " +
+                        "evictions=2, size=3} actual: " + cache);
+            }
+        }
+
+        // Test Case 3: Concurrent lookups from several threads
+        {
+            CachedSequenceAnalysis analysis = new CachedSequenceAnalysis(64);
+            String[] sequences = new String[64];
+            for (int i = 0; i < sequences.length; i++) {
+                sequences[i] = "ACGT".repeat(i % 8) + "GC".repeat(i % 3);
+            }
+            List<Double> expected = H10CustomApp.calculateGCContentForAll(sequences);
+            boolean[] mismatch = new boolean[1];
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int round = 0; round < 200; round++) {
+                        if (!analysis.calculateGCContentForAll(sequences).equals(expected)) {
+                            mismatch[0] = true;
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    mismatch[0] = true;
+                }
+            }
+            SequenceCache<double[]> cache = analysis.getContentCache();
+            if (mismatch[0] || cache.getHitCount() + cache.getMissCount() != 4 * 200 * sequences.length) {
+                error = true;
+                System.out.println("Test Case 3 - Concurrent Cache: Expected: " + (4 * 200 * sequences.length) +
+                        " lookups actual: " + cache);
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that totals added from several threads match the static methods.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testConcurrentMetrics() {
+        boolean error = false;
+
+        // Test Case 1: Four producers adding interleaved sequences
+        // Test Case 2: Lengths beyond the common range are counted as well
+        {
+            Random random = new Random(13);
+            String[] sequences = new String[4000];
+            for (int i = 0; i < sequences.length; i++) {
+                char[] bases = new char[random.nextInt(40)];
+                for (int j = 0; j < bases.length; j++) {
+                    bases[j] = "ACGTacgtN".charAt(random.nextInt(9));
+                }
+                sequences[i] = i % 500 == 0 ? null : new String(bases);
+            }
+            ConcurrentSequenceMetrics metrics = new ConcurrentSequenceMetrics();
+            Thread[] producers = new Thread[4];
+            for (int t = 0; t < producers.length; t++) {
+                int first = t;
+                producers[t] = new Thread(() -> {
+                    for (int i = first; i < sequences.length; i += producers.length) {
+                        metrics.add(sequences[i]);
+                        if (i % 100 == 0) {
+                            metrics.snapshot();
+                        }
+                    }
+                });
+                producers[t].start();
+            }
+            for (Thread producer : producers) {
+                try {
+                    producer.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = true;
+                }
+            }
+
+            ConcurrentSequenceMetrics.Snapshot snapshot = metrics.snapshot();
+            double expectedMeanGC = 0;
+            for (double gcContent : H10CustomApp.calculateGCContentForAll(sequences)) {
+                expectedMeanGC += gcContent;
+            }
+            expectedMeanGC /= sequences.length;
+            if (snapshot.getSequenceCount() != sequences.length
+                    || !snapshot.getNucleotideFrequencies().equals(
+                            H10CustomApp.calculateNucleotideFrequencies(sequences))
+                    || !snapshot.getLengthDistribution().equals(
+                            H10CustomApp.calculateSequenceLengthDistribution(sequences))
+                    || !snapshot.getMostCommonNucleotides().equals(
+                            H10CustomApp.findMostCommonNucleotides(sequences))
+                    || Math.abs(snapshot.getMeanGCContent() - expectedMeanGC) > 1e-9) {
+                error = true;
+                System.out.println("Test Case 1 - Concurrent Metrics: Expected: " +
+                        H10CustomApp.calculateNucleotideFrequencies(sequences) + expectedMeanGC +
+                        " actual: " + snapshot.getNucleotideFrequencies() + snapshot.getMeanGCContent());
+            }
+        }
+
+        {
+            String[] sequences = {"A".repeat(5000), "ACGT", "G".repeat(5000), "C".repeat(4096)};
+            ConcurrentSequenceMetrics metrics = new ConcurrentSequenceMetrics();
+            metrics.addAll(sequences);
+            Map<Integer, Integer> expected = H10CustomApp.calculateSequenceLengthDistribution(sequences);
+            Map<Integer, Integer> actual = metrics.snapshot().getLengthDistribution();
+            if (!actual.equals(expected)) {
+                error = true;
+                System.out.println("Test Case 2 - Long Lengths: Expected: " + expected + " actual: " + actual);
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that the batch processor writes one row per file, in file order, matching
+     * the static methods, and reports unreadable files without stopping.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testBatchProcessor() {
+        boolean error = false;
+
+        try {
+            Path directory = Files.createTempDirectory("batch");
+            Path nested = Files.createDirectory(directory.resolve("run1"));
+            List<Path> created = new ArrayList<>();
+            try {
+                String[][] samples = {{"ATGCGCnnAT", "AAAA"}, {"ggccTTNA"}, {}};
+                for (int i = 0; i < samples.length; i++) {
+                    StringBuilder text = new StringBuilder();
+                    for (int j = 0; j < samples[i].length; j++) {
+                        text.append(">r").append(j).append("\n").append(samples[i][j]).append("\n");
+                    }
+                    created.add(Files.writeString(directory.resolve("sample" + i + ".fa"), text));
+                }
+                created.add(Files.writeString(directory.resolve("sample3.fa"), "not fasta\n"));
+                created.add(Files.writeString(nested.resolve("sample4.fa"), ">r0\nCCCC\n"));
+
+                // Test Case 1: Resolving a directory and globs
+                List<Path> expectedFiles = created.subList(0, 4);
+                List<Path> fromDirectory = BatchProcessor.resolve(directory.toString());
+                List<Path> fromGlob = BatchProcessor.resolve(directory + "/sample[0-3].fa");
+                List<Path> fromNestedGlob = BatchProcessor.resolve(directory + "/*/*.fa");
+                if (!fromDirectory.equals(expectedFiles) || !fromGlob.equals(expectedFiles)
+                        || !fromNestedGlob.equals(List.of(created.get(4)))) {
+                    error = true;
+                    System.out.println("Test Case 1 - Resolve: Expected: " + expectedFiles +
+                            " actual: " + fromDirectory + fromGlob + fromNestedGlob);
+                }
+
+                // Test Case 2: One row per file, matching the static methods
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                int failures = new BatchProcessor(2).process(expectedFiles,
+                        new PrintStream(bytes, true, StandardCharsets.UTF_8));
+                String[] rows = bytes.toString(StandardCharsets.UTF_8).split("\n");
+                boolean rowsMatch = failures == 1 && rows.length == 5
+                        && rows[0].equals(BatchProcessor.HEADER);
+                for (int i = 0; rowsMatch && i < samples.length; i++) {
+                    String[] columns = rows[i + 1].split("\t", -1);
+                    Map<Character, Integer> frequencies = H10CustomApp.calculateNucleotideFrequencies(samples[i]);
+                    double meanGC = 0;
+                    for (double gcContent : H10CustomApp.calculateGCContentForAll(samples[i])) {
+                        meanGC += gcContent / samples[i].length;
+                    }
+                    StringBuilder mostCommon = new StringBuilder();
+                    for (char nucleotide : H10CustomApp.findMostCommonNucleotides(samples[i])) {
+                        mostCommon.append(nucleotide);
+                    }
+                    rowsMatch = columns.length == 14
+                            && columns[0].equals(expectedFiles.get(i).toString())
+                            && columns[1].equals(String.valueOf(samples[i].length))
+                            && columns[3].equals(String.valueOf(frequencies.getOrDefault('A', 0)))
+                            && columns[4].equals(String.valueOf(frequencies.getOrDefault('C', 0)))
+                            && Math.abs(Double.parseDouble(columns[8]) - meanGC) < 1e-9
+                            && columns[12].equals(mostCommon.toString())
+                            && columns[13].isEmpty();
+                }
+                if (!rowsMatch || !rows[4].startsWith(expectedFiles.get(3) + "\t")
+                        || rows[4].endsWith("\t")) {
+                    error = true;
+                    System.out.println("Test Case 2 - Batch Rows: Expected: 1 failure and 4 rows actual: " +
+                            failures + " failures and " + Arrays.toString(rows));
+                }
+            } finally {
+                for (Path file : created) {
+                    Files.deleteIfExists(file);
+                }
+                Files.delete(nested);
+                Files.delete(directory);
+            }
+        } catch (IOException | InterruptedException e) {
+            error = true;
+            System.out.println("Batch Processor: " + e.getMessage());
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that counting matches the scalar loops at every length and offset, whether
+     * or not the Vector API is in use.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testVectorCounting() {
+        boolean error = false;
+
+        // Test Case 1: Strings, byte arrays and direct buffers with every kind of character
+        {
+            Random random = new Random(15);
+            String alphabet = "ACGTacgtNnRY-\u00c1\u00e1\u0141\u0161";
+            for (int length : new int[] {0, 1, 31, 32, 63, 64, 65, 200, 4095, 4096, 4097, 10000}) {
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+                }
+                String sequence = new String(chars);
+                byte[] bytes = sequence.getBytes(StandardCharsets.ISO_8859_1);
+                ByteBuffer direct = ByteBuffer.allocateDirect(length).put(bytes);
+                int from = Math.min(length, 3);
+
+                long[] expectedChars = new long[5];
+                long[] expectedBytes = new long[5];
+                NucleotideCounts.countScalar(sequence, from, length, expectedChars);
+                NucleotideCounts.countScalar(bytes, from, length - from, expectedBytes);
+                long[] actualChars = new long[5];
+                long[] actualBytes = new long[5];
+                long[] actualBuffer = new long[5];
+                NucleotideCounts.count(sequence, from, length, actualChars);
+                NucleotideCounts.count(bytes, from, length - from, actualBytes);
+                NucleotideCounts.count(direct, from, length, actualBuffer);
+                if (!Arrays.equals(actualChars, expectedChars) || !Arrays.equals(actualBytes, expectedBytes)
+                        || !Arrays.equals(actualBuffer, expectedBytes)) {
+                    error = true;
+                    System.out.println("Test Case 1 - Vector Counts (" + length + ", vectorized " +
+                            NucleotideCounts.isVectorized() + "): Expected: " + Arrays.toString(expectedChars) +
+                            Arrays.toString(expectedBytes) + " actual: " + Arrays.toString(actualChars) +
+                            Arrays.toString(actualBytes) + Arrays.toString(actualBuffer));
+                }
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that streamed TSV and binary results match the static methods, across
+     * several binary blocks.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testResultsWriter() {
+        boolean error = false;
+
+        Random random = new Random(16);
+        String[] sequences = new String[5000];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sequences.length; i++) {
+            char[] bases = new char[random.nextInt(30)];
+            for (int j = 0; j < bases.length; j++) {
+                bases[j] = "ACGTacgtN".charAt(random.nextInt(9));
+            }
+            sequences[i] = new String(bases);
+            text.append(">read").append(i).append(" sample\n").append(sequences[i]).append("\n");
+        }
+        List<Double> expectedGC = H10CustomApp.calculateGCContentForAll(sequences);
+        List<Double> expectedAT = H10CustomApp.calculateATContentForAll(sequences);
+
+        try {
+            // Test Case 1: Binary results read back record by record
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            H10CustomApp.analyzeStream(readerFor(text.toString()),
+                    ResultsWriter.create(ResultsWriter.Format.BINARY, binary));
+            List<Double> gcContents = new ArrayList<>();
+            List<Double> atContents = new ArrayList<>();
+            Map<Character, Integer> frequencies = new HashMap<>();
+            boolean namesMatch = true;
+            try (ResultsReader reader = new ResultsReader(new ByteArrayInputStream(binary.toByteArray()))) {
+                while (reader.next()) {
+                    namesMatch &= reader.name().equals("read" + gcContents.size() + " sample")
+                            && reader.length() == sequences[gcContents.size()].length();
+                    gcContents.add(reader.gcContent());
+                    atContents.add(reader.atContent());
+                    for (char nucleotide : new char[] {'A', 'C', 'G', 'T'}) {
+                        int count = (int) reader.count(NucleotideCounts.indexOf(nucleotide));
+                        if (count > 0) {
+                            frequencies.merge(nucleotide, count, Integer::sum);
+                        }
+                    }
+                }
+            }
+            if (!namesMatch || !gcContents.equals(expectedGC) || !atContents.equals(expectedAT)
+                    || !frequencies.equals(H10CustomApp.calculateNucleotideFrequencies(sequences))) {
+                error = true;
+                System.out.println("Test Case 1 - Binary Results: Expected: " + expectedGC.size() +
+                        " records actual: " + gcContents.size() + " records, names match " + namesMatch);
+            }
+
+            // Test Case 2: TSV results, one line per record after the header
+            ByteArrayOutputStream tsv = new ByteArrayOutputStream();
+            H10CustomApp.analyzeStream(readerFor(text.toString()),
+                    ResultsWriter.create(ResultsWriter.Format.TSV, tsv));
+            String[] lines = tsv.toString(StandardCharsets.UTF_8).split("\n");
+            boolean linesMatch = lines.length == sequences.length + 1 && lines[0].equals(ResultsWriter.HEADER);
+            for (int i = 1; linesMatch && i < lines.length; i++) {
+                String[] columns = lines[i].split("\t");
+                linesMatch = columns[0].equals("read" + (i - 1) + " sample")
+                        && Integer.parseInt(columns[1]) == sequences[i - 1].length()
+                        && Double.parseDouble(columns[7]) == expectedGC.get(i - 1)
+                        && Double.parseDouble(columns[8]) == expectedAT.get(i - 1);
+            }
+            if (!linesMatch) {
+                error = true;
+                System.out.println("Test Case 2 - TSV Results: Expected: " + (sequences.length + 1) +
+                        " matching lines actual: " + lines.length + " lines");
+            }
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Results Writer: " + e.getMessage());
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that instrumented operations record records, bases and invalid bases, and
+     * that the counters are published over JMX. The harness runs with
+     * -Dsequence.metrics=true; without it, only the disabled path is checked.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testAnalysisMetrics() {
+        boolean error = false;
+
+        AnalysisMetrics.reset();
+        H10CustomApp.calculateGCContentForAll(new String[] {"ACGTN", null, "gg"});
+        H10CustomApp.generateComplementaryStrand("AC-GT");
+        AnalysisMetrics.StageMXBean gc = AnalysisMetrics.get(AnalysisMetrics.Stage.GC_CONTENT);
+        AnalysisMetrics.StageMXBean complement = AnalysisMetrics.get(AnalysisMetrics.Stage.COMPLEMENT);
+
+        if (!AnalysisMetrics.ENABLED) {
+            // Test Case 1: Disabled instrumentation records nothing
+            if (AnalysisMetrics.start(AnalysisMetrics.Stage.GC_CONTENT) != null || gc.getCalls() != 0
+                    || !AnalysisMetrics.summary().equals("no calls")) {
+                error = true;
+                System.out.println("Test Case 1 - Disabled Metrics: Expected: no calls actual: " +
+                        AnalysisMetrics.summary());
+            }
+            return !error;
+        }
+
+        // Test Case 1: Records, bases and invalid bases of a batch
+        if (gc.getCalls() != 1 || gc.getRecords() != 3 || gc.getBases() != 7 || gc.getInvalidBases() != 1
+                || gc.getNanos() <= 0) {
+            error = true;
+            System.out.println("Test Case 1 - GC Content Metrics: Expected: calls=1 records=3 bases=7 invalid=1" +
+                    " actual: " + AnalysisMetrics.summary());
+        }
+
+        // Test Case 2: Skipped characters count as invalid bases
+        if (complement.getCalls() != 1 || complement.getBases() != 5 || complement.getInvalidBases() != 1) {
+            error = true;
+            System.out.println("Test Case 2 - Complement Metrics: Expected: calls=1 bases=5 invalid=1" +
+                    " actual: " + AnalysisMetrics.summary());
+        }
+
+        // Test Case 3: Counters are readable over JMX
+        try {
+            Object calls = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                    new ObjectName("GeneticSequenceAnalysis:type=AnalysisMetrics,stage=GC_CONTENT"), "Calls");
+            if (!Long.valueOf(1).equals(calls)) {
+                error = true;
+                System.out.println("Test Case 3 - JMX Metrics: Expected: 1 actual: " + calls);
+            }
+        } catch (JMException e) {
+            error = true;
+            System.out.println("Test Case 3 - JMX Metrics: " + e.getMessage());
+        }
+
+        // Test Case 4: Array operations count each entry as a record and its characters as bases
+        H10CustomApp.sketchSequences(new String[] {"ACGTAC", null}, 3);
+        H10CustomApp.calculateQualityMetrics(new String[] {"IIII", "##"});
+        AnalysisMetrics.StageMXBean sketch = AnalysisMetrics.get(AnalysisMetrics.Stage.SKETCH);
+        AnalysisMetrics.StageMXBean quality = AnalysisMetrics.get(AnalysisMetrics.Stage.QUALITY);
+        if (sketch.getCalls() != 1 || sketch.getRecords() != 2 || sketch.getBases() != 6
+                || quality.getCalls() != 1 || quality.getRecords() != 2 || quality.getBases() != 6) {
+            error = true;
+            System.out.println("Test Case 4 - Array Metrics: Expected: records=2 bases=6 for SKETCH and QUALITY" +
+                    " actual: " + AnalysisMetrics.summary());
+        }
+
+        // Test Case 5: Reset clears every stage
+        AnalysisMetrics.reset();
+        if (gc.getCalls() != 0 || !AnalysisMetrics.summary().equals("no calls")) {
+            error = true;
+            System.out.println("Test Case 5 - Reset Metrics: Expected: no calls actual: " +
+                    AnalysisMetrics.summary());
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that gzip and BGZF input, from a file or a stream, yields the same records as
+     * plain text, and that damaged BGZF blocks are reported.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testCompressedInput() {
+        boolean error = false;
+
+        Random random = new Random(18);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append(">read").append(i).append("\n");
+            for (int j = random.nextInt(200); j > 0; j--) {
+                text.append("ACGTN".charAt(random.nextInt(5)));
+            }
+            text.append("\n");
+        }
+        byte[] plain = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+        Path file = null;
+        try {
+            List<String> expected = readAll(new SequenceReader(Channels.newChannel(new ByteArrayInputStream(plain))));
+
+            // Test Case 1: BGZF file split into many small blocks
+            byte[] bgzf = bgzf(plain, 1000);
+            file = Files.createTempFile("sequences", ".fa.gz");
+            Files.write(file, bgzf);
+            List<String> actual = readAll(SequenceReader.open(file));
+            if (!actual.equals(expected)) {
+                error = true;
+                System.out.println("Test Case 1 - BGZF File: Expected: " + expected.size() +
+                        " records actual: " + actual.size() + " records");
+            }
+
+            // Test Case 2: Plain gzip stream
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(plain);
+            }
+            actual = readAll(SequenceReader.open(new ByteArrayInputStream(gzip.toByteArray())));
+            if (!actual.equals(expected)) {
+                error = true;
+                System.out.println("Test Case 2 - Gzip Stream: Expected: " + expected.size() +
+                        " records actual: " + actual.size() + " records");
+            }
+
+            // Test Case 3: Uncompressed stream
+            actual = readAll(SequenceReader.open(new ByteArrayInputStream(plain)));
+            if (!actual.equals(expected)) {
+                error = true;
+                System.out.println("Test Case 3 - Plain Stream: Expected: " + expected.size() +
+                        " records actual: " + actual.size() + " records");
+            }
+
+            // Test Case 4: A damaged checksum and a truncated block are errors
+            byte[] corrupt = bgzf.clone();
+            corrupt[bgzf.length / 2] ^= 0x55;
+            byte[] truncated = Arrays.copyOf(bgzf, bgzf.length - 100);
+            for (byte[] damaged : new byte[][] {corrupt, truncated}) {
+                try {
+                    readAll(SequenceReader.open(new ByteArrayInputStream(damaged)));
+                    error = true;
+                    System.out.println("Test Case 4 - Damaged BGZF: Expected: IOException actual: no exception");
+                } catch (IOException e) {
+                    // Expected
+                }
+            }
+
+            // Test Case 5: Readers open at once share one pool of inflating threads
+            List<SequenceReader> readers = new ArrayList<>();
+            try {
+                for (int i = 0; i < 16; i++) {
+                    SequenceReader reader = SequenceReader.open(new ByteArrayInputStream(bgzf));
+                    readers.add(reader);
+                    reader.next();
+                }
+                int threads = 0;
+                for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                    threads += thread.getName().equals("bgzf-inflate") ? 1 : 0;
+                }
+                if (threads > Runtime.getRuntime().availableProcessors()) {
+                    error = true;
+                    System.out.println("Test Case 5 - Shared Pool: Expected: at most " +
+                            Runtime.getRuntime().availableProcessors() + " threads actual: " + threads);
+                }
+            } finally {
+                for (SequenceReader reader : readers) {
+                    reader.close();
+                }
+            }
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Compressed Input: " + e.getMessage());
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // Leave the temporary file behind
+                }
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Reads every record as its name and sequence, closing the reader.
+     */
+    private static List<String> readAll(SequenceReader reader) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (reader) {
+            while (reader.next()) {
+                records.add(reader.name() + " " + reader.sequence());
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Compresses text as BGZF blocks of the given size, followed by the empty end block.
+     */
+    private static byte[] bgzf(byte[] text, int blockSize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        byte[] compressed = new byte[BgzfChannel.MAX_BLOCK_SIZE];
+        for (int start = 0; ; start = Math.min(start + blockSize, text.length)) {
+            int length = Math.min(blockSize, text.length - start);
+            deflater.reset();
+            deflater.setInput(text, start, length);
+            deflater.finish();
+            int compressedLength = deflater.deflate(compressed);
+            CRC32 crc = new CRC32();
+            crc.update(text, start, length);
+            ByteBuffer block = ByteBuffer.allocate(26 + compressedLength).order(ByteOrder.LITTLE_ENDIAN);
+            block.put(new byte[] {0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF, 6, 0, 'B', 'C', 2, 0});
+            block.putShort((short) (block.capacity() - 1));
+            block.put(compressed, 0, compressedLength);
+            block.putInt((int) crc.getValue());
+            block.putInt(length);
+            out.write(block.array(), 0, block.capacity());
+            if (length == 0) {
+                break;
+            }
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    /**
+     * Test that sketched statistics stay within their error bounds of the exact ones,
+     * and that merging serialized sketches of two halves matches sketching the whole.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testSequenceSketch() {
+        boolean error = false;
+
+        Random random = new Random(19);
+        String[] sequences = new String[3000];
+        for (int i = 0; i < sequences.length; i++) {
+            char[] bases = new char[1 + random.nextInt(2000)];
+            for (int j = 0; j < bases.length; j++) {
+                bases[j] = "ACGTG".charAt(random.nextInt(5));
+            }
+            sequences[i] = new String(bases);
+        }
+        String[] doubled = Arrays.copyOf(sequences, 2 * sequences.length);
+        System.arraycopy(sequences, 0, doubled, sequences.length, sequences.length);
+        int k = 11;
+        SequenceSketch sketch = H10CustomApp.sketchSequences(doubled, k);
+        KmerTable exact = KmerCounter.countParallel(doubled, k, true, 1);
+
+        // Test Case 1: Distinct sequences and k-mers within 3%
+        long distinctSequences = sketch.estimateDistinctSequences();
+        long distinctKmers = sketch.estimateDistinctKmers();
+        if (Math.abs(distinctSequences - sequences.length) > 0.03 * sequences.length
+                || Math.abs(distinctKmers - exact.size()) > 0.03 * exact.size()) {
+            error = true;
+            System.out.println("Test Case 1 - Distinct Counts: Expected: " + sequences.length + ", " +
+                    exact.size() + " actual: " + distinctSequences + ", " + distinctKmers);
+        }
+
+        // Test Case 2: K-mer counts never below the true count or above it by epsilon * total
+        long total = 0;
+        for (String sequence : doubled) {
+            total += sequence.length() - k + 1;
+        }
+        long bound = (long) (SequenceSketch.DEFAULT_EPSILON * total);
+        long[] outOfBounds = {0};
+        exact.forEach((kmer, count) -> {
+            long estimate = sketch.estimateKmerCount(KmerCounter.decode(kmer, k));
+            if (estimate < count || estimate > count + bound) {
+                outOfBounds[0]++;
+            }
+        });
+        if (outOfBounds[0] > exact.size() * SequenceSketch.DEFAULT_DELTA) {
+            error = true;
+            System.out.println("Test Case 2 - K-mer Counts: Expected: at most " +
+                    (long) (exact.size() * SequenceSketch.DEFAULT_DELTA) + " out of bounds actual: " +
+                    outOfBounds[0]);
+        }
+
+        // Test Case 3: Length and GC content quantiles within 1%
+        List<Double> gcContents = H10CustomApp.calculateGCContentForAll(doubled);
+        double[] lengths = new double[doubled.length];
+        double[] gcs = new double[doubled.length];
+        for (int i = 0; i < doubled.length; i++) {
+            lengths[i] = doubled[i].length();
+            gcs[i] = gcContents.get(i);
+        }
+        Arrays.sort(lengths);
+        Arrays.sort(gcs);
+        for (double q : new double[] {0.0, 0.1, 0.5, 0.9, 0.99, 1.0}) {
+            double length = lengths[(int) (q * (lengths.length - 1))];
+            double gc = gcs[(int) (q * (gcs.length - 1))];
+            if (Math.abs(sketch.lengthQuantile(q) - length) > 0.01 * length
+                    || Math.abs(sketch.gcContentQuantile(q) - gc) > 0.01 * gc) {
+                error = true;
+                System.out.println("Test Case 3 - Quantiles at " + q + ": Expected: " + length + ", " + gc +
+                        " actual: " + sketch.lengthQuantile(q) + ", " + sketch.gcContentQuantile(q));
+            }
+        }
+
+        // Test Case 4: Serialized halves merge into the sketch of the whole
+        try {
+            SequenceSketch merged = null;
+            for (String[] half : new String[][] {Arrays.copyOf(doubled, 1000),
+                    Arrays.copyOfRange(doubled, 1000, doubled.length)}) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                H10CustomApp.sketchSequences(half, k).writeTo(bytes);
+                SequenceSketch read = SequenceSketch.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+                if (merged == null) {
+                    merged = read;
+                } else {
+                    merged.merge(read);
+                }
+            }
+            String kmer = doubled[0].substring(0, k);
+            if (merged.estimateDistinctKmers() != distinctKmers
+                    || merged.estimateDistinctSequences() != distinctSequences
+                    || merged.estimateKmerCount(kmer) != sketch.estimateKmerCount(kmer)
+                    || merged.lengthQuantile(0.5) != sketch.lengthQuantile(0.5)
+                    || merged.gcContentQuantile(0.9) != sketch.gcContentQuantile(0.9)
+                    || !merged.getNucleotideCounts().toString().equals(sketch.getNucleotideCounts().toString())) {
+                error = true;
+                System.out.println("Test Case 4 - Merged Sketch: Expected: " + distinctKmers + " k-mers actual: " +
+                        merged.estimateDistinctKmers());
+            }
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Test Case 4 - Merged Sketch: " + e.getMessage());
+        }
+
+        // Test Case 5: Sketches of different k cannot be merged
+        try {
+            sketch.merge(new SequenceSketch(k + 1));
+            error = true;
+            System.out.println("Test Case 5 - Merge Different k: Expected: IllegalArgumentException " +
+                    "actual: no exception");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        // Test Case 6: Sketches too large to build or read back are rejected up front
+        for (double[] bounds : new double[][] {{1e-7, 1e-30}, {0.1, 1e-29}}) {
+            try {
+                new CountMinSketch(bounds[0], bounds[1]);
+                error = true;
+                System.out.println("Test Case 6 - Sketch Size: Expected: IllegalArgumentException actual: " +
+                        "a sketch for " + Arrays.toString(bounds));
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            CountMinSketch deepest = new CountMinSketch(0.1, 1e-27);
+            deepest.increment(42);
+            deepest.writeTo(new DataOutputStream(bytes));
+            CountMinSketch read = CountMinSketch.readFrom(new DataInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray())));
+            if (read.estimate(42) != 1) {
+                error = true;
+                System.out.println("Test Case 6 - Sketch Size: Expected: 1 actual: " + read.estimate(42));
+            }
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Test Case 6 - Sketch Size: " + e.getMessage());
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that deduplicated metrics, exact and canonical, match metrics computed over
+     * every copy, and that the fingerprint set counts copies as it grows.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testDeduplication() {
+        boolean error = false;
+
+        Random random = new Random(20);
+        String[] distinct = new String[300];
+        for (int i = 0; i < distinct.length; i++) {
+            char[] bases = new char[random.nextInt(50)];
+            for (int j = 0; j < bases.length; j++) {
+                bases[j] = "ACGTNacgt".charAt(random.nextInt(9));
+            }
+            distinct[i] = new String(bases);
+        }
+        String[] sequences = new String[5000];
+        Set<String> exactKeys = new HashSet<>();
+        Set<String> canonicalKeys = new HashSet<>();
+        for (int i = 0; i < sequences.length; i++) {
+            String sequence = distinct[random.nextInt(distinct.length)];
+            int choice = random.nextInt(10);
+            sequences[i] = choice == 0 ? null : choice < 4 ? H10CustomApp.generateReverseComplement(sequence) : sequence;
+            if (sequences[i] != null) {
+                String reverse = H10CustomApp.generateReverseComplement(sequences[i]);
+                exactKeys.add(sequences[i]);
+                canonicalKeys.add(sequences[i].compareTo(reverse) < 0 ? sequences[i] : reverse);
+            }
+        }
+        SequenceMetrics expected = new SequenceMetrics();
+        for (String sequence : sequences) {
+            expected.add(sequence);
+        }
+
+        // Test Case 1: Exact and canonical deduplication give the same metrics
+        for (boolean canonical : new boolean[] {false, true}) {
+            SequenceMetrics actual = SequenceDeduplicator.compute(sequences, canonical);
+            if (!actual.getNucleotideCounts().toString().equals(expected.getNucleotideCounts().toString())
+                    || !actual.getGCContents().equals(expected.getGCContents())
+                    || !actual.getATContents().equals(expected.getATContents())
+                    || !actual.getLengthDistribution().equals(expected.getLengthDistribution())
+                    || !actual.getMostCommonNucleotides().equals(expected.getMostCommonNucleotides())) {
+                error = true;
+                System.out.println("Test Case 1 - Deduplicated Metrics (canonical " + canonical + "): Expected: " +
+                        expected.getNucleotideCounts() + " actual: " + actual.getNucleotideCounts());
+            }
+        }
+
+        // Test Case 2: Distinct counts, and weighted metrics from copy counts
+        for (boolean canonical : new boolean[] {false, true}) {
+            SequenceDeduplicator deduplicator = new SequenceDeduplicator(canonical);
+            for (String sequence : sequences) {
+                if (sequence != null) {
+                    deduplicator.add(sequence);
+                }
+            }
+            int expectedUnique = canonical ? canonicalKeys.size() : exactKeys.size();
+            SequenceMetrics weighted = deduplicator.getMetrics();
+            if (deduplicator.getUniqueCount() != expectedUnique
+                    || weighted.getSequenceCount() != deduplicator.getSequenceCount()
+                    || !weighted.getNucleotideCounts().toString().equals(expected.getNucleotideCounts().toString())
+                    || !weighted.getLengthHistogram().equals(expected.getLengthHistogram())) {
+                error = true;
+                System.out.println("Test Case 2 - Weighted Metrics (canonical " + canonical + "): Expected: " +
+                        expectedUnique + " distinct, " + expected.getNucleotideCounts() + " actual: " +
+                        deduplicator.getUniqueCount() + " distinct, " + weighted.getNucleotideCounts());
+            }
+        }
+
+        // Test Case 3: The fingerprint set keeps ids and counts as it grows
+        FingerprintSet set = new FingerprintSet();
+        boolean idsMatch = true;
+        for (int i = 0; i < 100000; i++) {
+            long high = SequenceHash.mix(i);
+            idsMatch &= set.add(high, i, false) == i && set.add(high, i, i % 2 == 0) == i;
+        }
+        long[] totals = new long[2];
+        set.forEach((high, low, id, count, reverseCount) -> {
+            totals[0] += count;
+            totals[1] += reverseCount;
+        });
+        if (!idsMatch || set.size() != 100000 || set.getCount(SequenceHash.mix(7), 7) != 2
+                || set.getCount(1, 2) != 0 || totals[0] != 200000 || totals[1] != 50000) {
+            error = true;
+            System.out.println("Test Case 3 - Fingerprint Set: Expected: 100000 fingerprints, 200000 copies" +
+                    " actual: " + set.size() + " fingerprints, " + totals[0] + " copies");
+        }
+
+        // Test Case 4: Canonical k-mers of distinct sequences weighted by copies
+        SequenceDeduplicator deduplicator = new SequenceDeduplicator(true);
+        List<String> unique = new ArrayList<>();
+        int[] copies = new int[sequences.length];
+        for (String sequence : sequences) {
+            if (sequence != null) {
+                int id = deduplicator.add(sequence);
+                if (id == unique.size()) {
+                    unique.add(sequence);
+                }
+                copies[id]++;
+            }
+        }
+        KmerTable all = KmerCounter.countParallel(sequences, 5, true, 2);
+        KmerTable weighted = KmerCounter.countParallel(unique.toArray(new String[0]), copies, 5, true, 2);
+        boolean[] kmersMatch = {all.size() == weighted.size()};
+        all.forEach((kmer, count) -> kmersMatch[0] &= weighted.get(kmer) == count);
+        if (!kmersMatch[0]) {
+            error = true;
+            System.out.println("Test Case 4 - Weighted K-mers: Expected: " + all.size() + " k-mers actual: " +
+                    weighted.size() + " k-mers");
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that the Aho-Corasick searcher and the FM-index find the same matches as a
+     * naive scan, for degenerate motifs on both strands, and that the SA-IS suffix array
+     * matches a sorted one.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testMotifSearch() {
+        boolean error = false;
+
+        // Test Case 1: Restriction sites, palindromic and not, on both strands
+        List<MotifMatch> sites = H10CustomApp.findMotifs(new String[] {"ttGAATTCaGGATCCnggatg", null, "CATCC"},
+                new String[] {"GAATTC", "GGATG", "ggatcc"});
+        List<MotifMatch> expectedSites = List.of(new MotifMatch(0, 0, 2, 8, false),
+                new MotifMatch(0, 2, 9, 15, false), new MotifMatch(0, 1, 16, 21, false),
+                new MotifMatch(2, 1, 0, 5, true));
+        if (!sites.equals(expectedSites)) {
+            error = true;
+            System.out.println("Test Case 1 - Restriction Sites: Expected: " + expectedSites + " actual: " + sites);
+        }
+
+        // Test Case 2: Degenerate motifs on random sequences match a naive scan
+        Random random = new Random(21);
+        String[] sequences = new String[200];
+        for (int i = 0; i < sequences.length; i++) {
+            char[] bases = new char[random.nextInt(300)];
+            for (int j = 0; j < bases.length; j++) {
+                bases[j] = "ACGTACGTACGTacgtN".charAt(random.nextInt(17));
+            }
+            sequences[i] = i % 50 == 7 ? null : new String(bases);
+        }
+        String[] motifs = {"ACGT", "GATC", "RYN", "TTNAA", "CWGG", "gcnnngc", "A", "ACGTNNNNNACGT"};
+        List<MotifMatch> expected = new ArrayList<>();
+        for (int m = 0; m < motifs.length; m++) {
+            String reverse = H10CustomApp.generateReverseComplement(motifs[m]);
+            for (int i = 0; i < sequences.length; i++) {
+                int length = sequences[i] == null ? 0 : sequences[i].length();
+                for (int start = 0; start + motifs[m].length() <= length; start++) {
+                    String window = sequences[i].substring(start, start + motifs[m].length());
+                    if (matchesMotif(window, motifs[m])) {
+                        expected.add(new MotifMatch(i, m, start, start + motifs[m].length(), false));
+                    }
+                    if (!reverse.equalsIgnoreCase(motifs[m]) && matchesMotif(window, reverse)) {
+                        expected.add(new MotifMatch(i, m, start, start + motifs[m].length(), true));
+                    }
+                }
+            }
+        }
+        Collections.sort(expected);
+        List<MotifMatch> searched = new MotifSearcher(motifs, true).search(sequences);
+        FMIndex index = FMIndex.build(sequences);
+        List<MotifMatch> located = index.locate(motifs, true);
+        if (!searched.equals(expected) || !located.equals(expected)) {
+            error = true;
+            System.out.println("Test Case 2 - Degenerate Motifs: Expected: " + expected.size() +
+                    " matches actual: " + searched.size() + " searched, " + located.size() + " located");
+        }
+
+        // Test Case 3: Forward-strand counts from the index
+        long expectedCount = expected.stream().filter(match -> match.getMotif() == 4 && !match.isReverse()).count();
+        if (index.count("CWGG") != expectedCount || index.count("GGGGGGGGGGGGGGGGGGGG") != 0) {
+            error = true;
+            System.out.println("Test Case 3 - Index Count: Expected: " + expectedCount + " actual: " +
+                    index.count("CWGG"));
+        }
+
+        // Test Case 4: The SA-IS suffix array matches a sorted one
+        for (int trial = 0; trial < 50; trial++) {
+            int[] text = new int[random.nextInt(200) + 1];
+            int upper = random.nextInt(5) + 1;
+            for (int i = 0; i < text.length; i++) {
+                text[i] = random.nextInt(upper + 1);
+            }
+            Integer[] naive = new Integer[text.length];
+            for (int i = 0; i < naive.length; i++) {
+                naive[i] = i;
+            }
+            Arrays.sort(naive, (a, b) -> Arrays.compare(Arrays.copyOfRange(text, a, text.length),
+                    Arrays.copyOfRange(text, b, text.length)));
+            int[] suffixArray = FMIndex.suffixArray(text, upper);
+            if (!Arrays.equals(suffixArray, Arrays.stream(naive).mapToInt(Integer::intValue).toArray())) {
+                error = true;
+                System.out.println("Test Case 4 - Suffix Array: Expected: " + Arrays.toString(naive) +
+                        " actual: " + Arrays.toString(suffixArray));
+                break;
+            }
+        }
+
+        // Test Case 5: Invalid motifs are rejected
+        for (String[] invalid : new String[][] {{"ACXT"}, {""}, {}, {"NNNNNNNNNNNNNNNNNNNN"}}) {
+            try {
+                new MotifSearcher(invalid, true);
+                error = true;
+                System.out.println("Test Case 5 - Invalid Motif: Expected: IllegalArgumentException for " +
+                        Arrays.toString(invalid));
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Checks whether a window of a sequence matches a motif of IUPAC codes.
+     * @param window the sequence window, of the motif length
+     * @param motif the motif
+     * @return true if every base is one the motif code stands for
+     */
+    private static boolean matchesMotif(String window, String motif) {
+        String codes = "ACGTRYSWKMBDHVN";
+        String[] bases = {"A", "C", "G", "T", "AG", "CT", "CG", "AT", "GT", "AC", "CGT", "AGT", "ACT", "ACG", "ACGT"};
+        for (int i = 0; i < window.length(); i++) {
+            String allowed = bases[codes.indexOf(Character.toUpperCase(motif.charAt(i)))];
+            if (allowed.indexOf(Character.toUpperCase(window.charAt(i))) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Test that bit-parallel edit distances and banded, linear-memory alignments match
+     * full dynamic programming, and that all-vs-all batches match pairwise results.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testAlignment() {
+        boolean error = false;
+
+        // Test Case 1: Known edit distances
+        if (EditDistance.distance("kitten", "sitting") != 3 || EditDistance.distance("", "ACGT") != 4
+                || EditDistance.distance("ACGU", "acgt") != 0) {
+            error = true;
+            System.out.println("Test Case 1 - Known Distances: Expected: 3, 4, 0 actual: " +
+                    EditDistance.distance("kitten", "sitting") + ", " + EditDistance.distance("", "ACGT") + ", " +
+                    EditDistance.distance("ACGU", "acgt"));
+        }
+
+        // Test Case 2: Edit distances and alignment scores of related random pairs
+        Random random = new Random(22);
+        EditDistance editDistance = new EditDistance();
+        Aligner aligner = new Aligner();
+        Aligner banded = new Aligner(Aligner.DEFAULT_MATCH, Aligner.DEFAULT_MISMATCH, Aligner.DEFAULT_GAP, 400);
+        for (int trial = 0; trial < 200 && !error; trial++) {
+            String first = randomBases(random, random.nextInt(trial < 100 ? 70 : 400));
+            String second = mutate(random, first, random.nextInt(first.length() / 5 + 2));
+            int expectedDistance = alignmentScore(first, second, 0, -1, -1, false);
+            int expectedGlobal = alignmentScore(first, second, 2, -3, -5, false);
+            int expectedLocal = alignmentScore(first, second, 2, -3, -5, true);
+            Alignment global = aligner.global(first, second);
+            Alignment local = aligner.local(first, second);
+            if (editDistance.compute(first, second) != -expectedDistance
+                    || global.getScore() != expectedGlobal || rescore(global, 2, -3, -5) != expectedGlobal
+                    || global.getAlignedA().replace("-", "").length() != first.length()
+                    || local.getScore() != expectedLocal || rescore(local, 2, -3, -5) != expectedLocal
+                    || !local.getAlignedA().replace("-", "").equals(
+                            first.substring(local.getStartA(), local.getEndA()))
+                    || !local.getAlignedB().replace("-", "").equals(
+                            second.substring(local.getStartB(), local.getEndB()))
+                    || banded.globalScore(first, second) != expectedGlobal
+                    || banded.localScore(first, second) != expectedLocal) {
+                error = true;
+                System.out.println("Test Case 2 - Random Pairs: Expected: distance " + -expectedDistance +
+                        ", global " + expectedGlobal + ", local " + expectedLocal + " actual: distance " +
+                        editDistance.compute(first, second) + ", global " + global.getScore() + ", local " +
+                        local.getScore() + " for " + first + " and " + second);
+            }
+        }
+
+        // Test Case 3: A narrow band still finds an alignment with few indels
+        String reference = randomBases(random, 5000);
+        String read = reference.substring(0, 2000) + reference.substring(2003, 4000) + "ACGT" +
+                reference.substring(4000);
+        Aligner narrow = new Aligner(Aligner.DEFAULT_MATCH, Aligner.DEFAULT_MISMATCH, Aligner.DEFAULT_GAP, 8);
+        Alignment alignment = narrow.global(reference, read);
+        int expectedScore = alignmentScore(reference, read, 2, -3, -5, false);
+        long deletions = alignment.getAlignedB().chars().filter(c -> c == '-').count();
+        long insertions = alignment.getAlignedA().chars().filter(c -> c == '-').count();
+        if (alignment.getScore() != expectedScore || rescore(alignment, 2, -3, -5) != expectedScore
+                || deletions != 3 || insertions != 4) {
+            error = true;
+            System.out.println("Test Case 3 - Banded Alignment: Expected: " + expectedScore + ", 3 and 4 gaps" +
+                    " actual: " + alignment.getScore() + ", " + alignment.getCigar());
+        }
+
+        // Test Case 4: All-vs-all batches match pairwise results
+        String[] sequences = new String[40];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = i == 5 ? null : mutate(random, reference.substring(0, 150), random.nextInt(30));
+        }
+        int[][] distances = EditDistance.allVsAll(sequences, 2);
+        int[][] scores = aligner.allVsAll(sequences, true, 2);
+        for (int i = 0; i < sequences.length; i++) {
+            for (int j = 0; j < sequences.length; j++) {
+                String first = sequences[i] == null ? "" : sequences[i];
+                String second = sequences[j] == null ? "" : sequences[j];
+                if (distances[i][j] != EditDistance.distance(first, second)
+                        || scores[i][j] != aligner.localScore(first, second)) {
+                    error = true;
+                    System.out.println("Test Case 4 - All vs All: Expected: " + EditDistance.distance(first, second) +
+                            " actual: " + distances[i][j] + " at " + i + ", " + j);
+                    i = sequences.length;
+                    break;
+                }
+            }
+        }
+
+        return !error;
+    }
+
+    /**
+     * Returns random A, C, G and T bases.
+     * @param random the source of randomness
+     * @param length the number of bases
+     * @return the bases
+     */
+    private static String randomBases(Random random, int length) {
+        char[] bases = new char[length];
+        for (int i = 0; i < length; i++) {
+            bases[i] = "ACGT".charAt(random.nextInt(4));
+        }
+        return new String(bases);
+    }
+
+    /**
+     * Applies random substitutions, insertions and deletions to a sequence.
+     * @param random the source of randomness
+     * @param sequence the sequence to mutate
+     * @param edits the number of edits
+     * @return the mutated sequence
+     */
+    private static String mutate(Random random, String sequence, int edits) {
+        StringBuilder mutated = new StringBuilder(sequence);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(mutated.length() + 1);
+            int kind = random.nextInt(3);
+            if (kind == 0 || position == mutated.length()) {
+                mutated.insert(position, "ACGT".charAt(random.nextInt(4)));
+            } else if (kind == 1) {
+                mutated.deleteCharAt(position);
+            } else {
+                mutated.setCharAt(position, "ACGT".charAt(random.nextInt(4)));
+            }
+        }
+        return mutated.toString();
+    }
+
+    /**
+     * Computes a global or local alignment score with a full dynamic programming matrix.
+     * @param a the first sequence
+     * @param b the second sequence
+     * @param match the score of a match
+     * @param mismatch the score of a mismatch
+     * @param gap the score of each gap position
+     * @param local whether to compute a local alignment score
+     * @return the best score
+     */
+    private static int alignmentScore(String a, String b, int match, int mismatch, int gap, boolean local) {
+        int[][] scores = new int[a.length() + 1][b.length() + 1];
+        int best = 0;
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                int score;
+                if (i == 0 || j == 0) {
+                    score = local ? 0 : (i + j) * gap;
+                } else {
+                    score = Math.max(scores[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? match : mismatch),
+                            Math.max(scores[i - 1][j], scores[i][j - 1]) + gap);
+                    score = local ? Math.max(score, 0) : score;
+                }
+                scores[i][j] = score;
+                best = Math.max(best, score);
+            }
+        }
+        return local ? best : scores[a.length()][b.length()];
+    }
+
+    /**
+     * Recomputes the score of an alignment from its gapped rows.
+     * @param alignment the alignment
+     * @param match the score of a match
+     * @param mismatch the score of a mismatch
+     * @param gap the score of each gap position
+     * @return the score of the rows
+     */
+    private static int rescore(Alignment alignment, int match, int mismatch, int gap) {
+        int score = 0;
+        for (int i = 0; i < alignment.getAlignedA().length(); i++) {
+            char x = alignment.getAlignedA().charAt(i);
+            char y = alignment.getAlignedB().charAt(i);
+            score += x == '-' || y == '-' ? gap : x == y ? match : mismatch;
+        }
+        return score;
+    }
+
+    /**
+     * Test that quality statistics and tail trimming match direct computation, that
+     * split statistics add up, and that streamed FASTQ input reports them.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testQualityMetrics() {
+        boolean error = false;
+
+        // Test Case 1: Known qualities
+        QualityMetrics known = H10CustomApp.calculateQualityMetrics(new String[] {"IIIII", null, "###", ""});
+        double[] expectedMeans = {21.0, 21.0, 21.0, 40.0, 40.0};
+        if (!Arrays.equals(known.getMeanQualityPerPosition(), expectedMeans)
+                || !known.getReadMeanQualityDistribution().equals(Map.of(2, 1L, 40, 1L))
+                || known.getQ20Fraction() != 5 / 8.0 || known.getQ30Fraction() != 5 / 8.0
+                || known.getReadCount() != 3 || known.getMeanQuality() != 206 / 8.0) {
+            error = true;
+            System.out.println("Test Case 1 - Known Qualities: Expected: " + Arrays.toString(expectedMeans) +
+                    " actual: " + Arrays.toString(known.getMeanQualityPerPosition()) + ", " +
+                    known.getReadMeanQualityDistribution());
+        }
+
+        // Test Case 2: Trimming, statistics and splits on random reads
+        Random random = new Random(23);
+        QualityMetrics all = new QualityMetrics(QualityMetrics.PHRED_33, 20);
+        QualityMetrics[] halves = {new QualityMetrics(QualityMetrics.PHRED_33, 20),
+                new QualityMetrics(QualityMetrics.PHRED_33, 20)};
+        long[] positionSums = new long[400];
+        long[] positionCounts = new long[400];
+        long q30 = 0;
+        long bases = 0;
+        long trimmed = 0;
+        for (int read = 0; read < 2000; read++) {
+            byte[] quality = new byte[read == 0 ? 400 : random.nextInt(150)];
+            for (int i = 0; i < quality.length; i++) {
+                int q = i > quality.length * 3 / 4 ? random.nextInt(25) : 20 + random.nextInt(21);
+                quality[i] = (byte) (q + 33);
+                positionSums[i] += q;
+                positionCounts[i]++;
+                q30 += q >= 30 ? 1 : 0;
+            }
+            bases += quality.length;
+            int expectedKeep = quality.length;
+            int tail = 0;
+            int bestTail = 0;
+            for (int i = quality.length - 1; i >= 0; i--) {
+                tail += 20 - (quality[i] - 33);
+                if (tail < 0) {
+                    break;
+                }
+                if (tail > bestTail) {
+                    bestTail = tail;
+                    expectedKeep = i;
+                }
+            }
+            trimmed += quality.length - expectedKeep;
+            int keep = all.add(quality, 0, quality.length);
+            halves[read % 2].add(quality, 0, quality.length);
+            if (keep != expectedKeep
+                    || QualityMetrics.trimLength(quality, 0, quality.length, 33, 20) != expectedKeep) {
+                error = true;
+                System.out.println("Test Case 2 - Trimming: Expected: " + expectedKeep + " actual: " + keep);
+                break;
+            }
+        }
+        double[] means = all.getMeanQualityPerPosition();
+        boolean meansMatch = means.length == 400;
+        for (int i = 0; meansMatch && i < means.length; i++) {
+            meansMatch = means[i] == (double) positionSums[i] / positionCounts[i];
+        }
+        halves[0].add(halves[1]);
+        if (!meansMatch || all.getQ30Fraction() != (double) q30 / bases || all.getTrimmedBaseCount() != trimmed
+                || !Arrays.equals(halves[0].getMeanQualityPerPosition(), means)
+                || !halves[0].getReadMeanQualityDistribution().equals(all.getReadMeanQualityDistribution())
+                || halves[0].getQ20Fraction() != all.getQ20Fraction()) {
+            error = true;
+            System.out.println("Test Case 2 - Random Reads: Expected: Q30 " + (double) q30 / bases + ", trimmed " +
+                    trimmed + " actual: Q30 " + all.getQ30Fraction() + ", trimmed " + all.getTrimmedBaseCount());
+        }
+
+        // Test Case 3: Invalid quality characters are rejected without changing the statistics
+        try {
+            all.add(new byte[] {'I', ' ', 'I'}, 0, 3);
+            error = true;
+            System.out.println("Test Case 3 - Invalid Quality: Expected: IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            if (!Arrays.equals(all.getMeanQualityPerPosition(), means)) {
+                error = true;
+                System.out.println("Test Case 3 - Invalid Quality: Expected: unchanged statistics");
+            }
+        }
+
+        // Test Case 4: Streamed FASTQ input reports quality statistics
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            H10CustomApp.analyzeStream(readerFor("@r1\nACGT\n+\nII##\n@r2\nGG\n+\n55\n"),
+                    new PrintStream(output, true, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Test Case 4 - Streamed FASTQ: " + e);
+        }
+        String printed = output.toString(StandardCharsets.UTF_8);
+        if (!printed.contains("Mean Quality per Position: [30.0, 30.0, 2.0, 2.0]")
+                || !printed.contains("Read Mean Quality Distribution: {20=1, 21=1}")
+                || !printed.contains("Q20: " + 4 / 6.0)) {
+            error = true;
+            System.out.println("Test Case 4 - Streamed FASTQ: Expected: quality lines actual: " + printed);
+        }
+
+        // Test Case 5: Quality characters outside the Phred+33 range are reported
+        try {
+            H10CustomApp.analyzeStream(readerFor("@r\nACGT\n+\nII\u007fI\n"),
+                    new PrintStream(new ByteArrayOutputStream()));
+            error = true;
+            System.out.println("Test Case 5 - Invalid Quality: Expected: IllegalArgumentException actual: none");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Test Case 5 - Invalid Quality: Expected: IllegalArgumentException actual: " + e);
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that six-frame translation matches codon-by-codon translation of each frame,
+     * and that open reading frames found in parallel match a scan of each frame.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testTranslation() {
+        boolean error = false;
+
+        // Test Case 1: A known gene on the forward strand and its reverse frames
+        String[] known = H10CustomApp.translateSixFrames("ATGAAATAG");
+        String[] expectedKnown = {"MK*", "*N", "EI", "LFH", "YF", "IS"};
+        List<OpenReadingFrame> knownFrames = Translator.findOpenReadingFrames("ccATGAAATAGcc", 2);
+        if (!Arrays.equals(known, expectedKnown) || knownFrames.size() != 1
+                || !knownFrames.get(0).equals(new OpenReadingFrame(0, 3, 2, 11, "MK"))) {
+            error = true;
+            System.out.println("Test Case 1 - Known Gene: Expected: " + Arrays.toString(expectedKnown) +
+                    " actual: " + Arrays.toString(known) + ", " + knownFrames);
+        }
+
+        // Test Case 2: Random sequences against codon-by-codon translation
+        Map<String, Character> code = new HashMap<>();
+        String bases = "ACGT";
+        String aminoAcids = "KNKNTTTTRSRSIIMIQHQHPPPPRRRRLLLLEDEDAAAAGGGGVVVV*Y*YSSSS*CWCLFLF";
+        for (int i = 0; i < 64; i++) {
+            code.put("" + bases.charAt(i / 16) + bases.charAt(i / 4 % 4) + bases.charAt(i % 4), aminoAcids.charAt(i));
+        }
+        Random random = new Random(24);
+        String[] sequences = new String[300];
+        List<OpenReadingFrame> expectedFrames = new ArrayList<>();
+        for (int i = 0; i < sequences.length; i++) {
+            char[] sequence = new char[random.nextInt(600)];
+            for (int j = 0; j < sequence.length; j++) {
+                sequence[j] = "ACGTACGTACGTacgtN".charAt(random.nextInt(17));
+            }
+            sequences[i] = i == 9 ? null : new String(sequence);
+            if (sequences[i] == null) {
+                continue;
+            }
+            String[] strands = {sequences[i].toUpperCase(),
+                    H10CustomApp.generateReverseComplement(sequences[i]).toUpperCase()};
+            String[] proteins = H10CustomApp.translateSixFrames(sequences[i]);
+            for (int f = 0; f < 6; f++) {
+                String strand = strands[f / 3];
+                StringBuilder protein = new StringBuilder();
+                for (int j = f % 3; j + 3 <= strand.length(); j += 3) {
+                    protein.append(code.getOrDefault(strand.substring(j, j + 3), 'X'));
+                }
+                if (!proteins[f].equals(protein.toString())) {
+                    error = true;
+                    System.out.println("Test Case 2 - Six Frames: Expected: " + protein + " actual: " + proteins[f]);
+                }
+                Matcher orf = Pattern.compile("M[^*]{19,}?\\*").matcher(protein);
+                while (orf.find()) {
+                    int from = f % 3 + 3 * orf.start();
+                    int to = f % 3 + 3 * orf.end();
+                    String translated = protein.substring(orf.start(), orf.end() - 1);
+                    expectedFrames.add(f < 3 ? new OpenReadingFrame(i, f + 1, from, to, translated)
+                            : new OpenReadingFrame(i, 2 - f, strand.length() - to, strand.length() - from, translated));
+                }
+            }
+        }
+        Collections.sort(expectedFrames);
+        List<OpenReadingFrame> frames = H10CustomApp.findOpenReadingFrames(sequences, 20);
+        List<OpenReadingFrame> serial = Translator.findOpenReadingFrames(sequences, 20, 1);
+        if (!frames.equals(expectedFrames) || !serial.equals(expectedFrames)) {
+            error = true;
+            System.out.println("Test Case 2 - Open Reading Frames: Expected: " + expectedFrames.size() +
+                    " frames actual: " + frames.size() + " frames");
+        }
+
+        return !error;
+    }
+
+    /**
+     * Test that files split into record-aligned byte ranges give partial results that
+     * survive serialization and merge associatively into the single-pass result, and
+     * that worker processes print the same output as a single-process run.
+     * @return true if all test cases pass, false otherwise
+     */
+    public static boolean testShardMerge() {
+        boolean error = false;
+
+        Random random = new Random(25);
+        StringBuilder fasta = new StringBuilder();
+        StringBuilder fastq = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            String bases = randomBases(random, random.nextInt(300)).toLowerCase();
+            fasta.append(">r").append(i).append(i % 50 == 0 ? "\n\n" : "\n");
+            for (int j = 0; j < bases.length(); j += 60) {
+                fasta.append(bases, j, Math.min(bases.length(), j + 60)).append('\n');
+            }
+            char[] quality = new char[bases.length()];
+            for (int j = 0; j < quality.length; j++) {
+                // Quality lines starting with '@' must not be taken for headers
+                quality[j] = j == 0 && i % 3 == 0 ? '@' : (char) ('!' + random.nextInt(42));
+            }
+            fastq.append("@q").append(i).append('\n').append(bases.toUpperCase()).append("\n+\n")
+                    .append(quality).append('\n');
+        }
+
+        try {
+            Path directory = Files.createTempDirectory("shards");
+            try {
+                String[] texts = {fasta.toString(), fastq.toString()};
+                for (int t = 0; t < texts.length; t++) {
+                    Path file = directory.resolve(t == 0 ? "input.fa" : "input.fq");
+                    Files.writeString(file, texts[t], StandardCharsets.US_ASCII);
+                    PartialResult single = new PartialResult(true);
+                    Set<Long> recordOffsets = new HashSet<>();
+                    try (SequenceReader reader = readerFor(texts[t])) {
+                        while (reader.next()) {
+                            single.add(reader);
+                            recordOffsets.add(reader.recordOffset());
+                        }
+                    }
+
+                    // Test Case 1: Ranges start at records and their serialized results merge in order
+                    long[] ranges = ShardCoordinator.split(file, 6);
+                    PartialResult[] partials = new PartialResult[ranges.length - 1];
+                    PartialResult merged = new PartialResult(true);
+                    for (int i = 0; i < partials.length; i++) {
+                        if (i > 0 && !recordOffsets.contains(ranges[i])) {
+                            error = true;
+                            System.out.println("Test Case 1 - Split: Expected: a record offset actual: " + ranges[i]);
+                        }
+                        partials[i] = new PartialResult(true);
+                        try (SequenceReader reader = SequenceReader.open(file, ranges[i], ranges[i + 1])) {
+                            while (reader.next()) {
+                                partials[i].add(reader);
+                            }
+                        }
+                        partials[i] = copyOf(partials[i]);
+                        merged.merge(copyOf(partials[i]));
+                    }
+                    if (partials.length != 6 || !samePartials(merged, single)) {
+                        error = true;
+                        System.out.println("Test Case 1 - Merge: Expected: 6 shards matching one pass actual: " +
+                                Arrays.toString(ranges));
+                    }
+
+                    // Test Case 2: Grouping does not change the merged result
+                    PartialResult left = copyOf(partials[0]);
+                    left.merge(copyOf(partials[1]));
+                    left.merge(copyOf(partials[2]));
+                    PartialResult right = copyOf(partials[1]);
+                    right.merge(copyOf(partials[2]));
+                    PartialResult grouped = copyOf(partials[0]);
+                    grouped.merge(right);
+                    if (!samePartials(left, grouped) || left.getRecordCount() == 0) {
+                        error = true;
+                        System.out.println("Test Case 2 - Associativity: Expected: " + left.getRecordCount() +
+                                " records actual: " + grouped.getRecordCount());
+                    }
+                }
+
+                // Test Case 3: Worker processes print exactly what one process prints
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                try (PrintStream out = new PrintStream(expected, true, StandardCharsets.US_ASCII)) {
+                    H10CustomApp.analyzeStream(readerFor(texts[1]), out);
+                }
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                try (PrintStream out = new PrintStream(actual, true, StandardCharsets.US_ASCII)) {
+                    H10CustomApp.analyzeShards(directory.resolve("input.fq"), 3, out);
+                }
+                if (!expected.toString(StandardCharsets.US_ASCII).equals(actual.toString(StandardCharsets.US_ASCII))) {
+                    error = true;
+                    System.out.println("Test Case 3 - Worker Processes: Expected: " + expected.size() +
+                            " bytes actual: " + actual);
+                }
+            } finally {
+                Files.deleteIfExists(directory.resolve("input.fa"));
+                Files.deleteIfExists(directory.resolve("input.fq"));
+                Files.delete(directory);
+            }
+        } catch (IOException e) {
+            error = true;
+            System.out.println("Shard Merge: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = true;
+            System.out.println("Shard Merge: Interrupted");
+        }
+
+        // Test Case 4: Per-record and total-only results cannot be merged
+        try {
+            new PartialResult(true).merge(new PartialResult(false));
+            error = true;
+            System.out.println("Test Case 4 - Mixed Merge: Expected: IllegalArgumentException actual: none");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        // Test Case 5: Length distributions list lengths in increasing order however they were added
+        LengthHistogram histogram = new LengthHistogram();
+        for (int length = 1000; length > 0; length -= 37) {
+            histogram.add(length, length % 5 + 1);
+        }
+        List<Integer> lengths = new ArrayList<>(histogram.toMap().keySet());
+        List<Integer> sortedLengths = new ArrayList<>(lengths);
+        Collections.sort(sortedLengths);
+        if (!lengths.equals(sortedLengths)) {
+            error = true;
+            System.out.println("Test Case 5 - Length Order: Expected: " + sortedLengths + " actual: " + lengths);
+        }
+
+        // Test Case 6: Record counts past Integer.MAX_VALUE merge and survive the binary form
+        try {
+            PartialResult merged = new PartialResult(false);
+            for (int i = 0; i < 2; i++) {
+                PartialResult part = new PartialResult(false);
+                part.getMetrics().addCounts(new long[] {1, 0, 0, 1, 0}, Integer.MAX_VALUE);
+                merged.merge(copyOf(part));
+            }
+            long expected = 2L * Integer.MAX_VALUE;
+            long actual = copyOf(merged).getRecordCount();
+            if (actual != expected) {
+                error = true;
+                System.out.println("Test Case 6 - Large Record Count: Expected: " + expected + " actual: " + actual);
+            }
+        } catch (IOException | ArithmeticException e) {
+            error = true;
+            System.out.println("Test Case 6 - Large Record Count: Expected: no exception actual: " + e);
+        }
+
+        return !error;
+    }
+
+    /**
+     * Copies a partial result through its binary form.
+     * @param result the result to copy
+     * @return the copy read back
+     * @throws IOException if the result cannot be read back
+     */
+    private static PartialResult copyOf(PartialResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        result.writeTo(bytes);
+        return PartialResult.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    /**
+     * Checks whether two per-record partial results report the same metrics.
+     * @param a the first result
+     * @param b the second result
+     * @return true if every reported metric is equal
+     */
+    private static boolean samePartials(PartialResult a, PartialResult b) {
+        if (a.getRecordCount() != b.getRecordCount()) {
+            return false;
+        }
+        for (int i = 0; i < a.getRecordCount(); i++) {
+            if (!a.getName(i).equals(b.getName(i))) {
+                return false;
+            }
+        }
+        SequenceMetrics x = a.getMetrics();
+        SequenceMetrics y = b.getMetrics();
+        QualityMetrics p = a.getQualityMetrics();
+        QualityMetrics q = b.getQualityMetrics();
+        return x.getGCContents().equals(y.getGCContents()) && x.getATContents().equals(y.getATContents())
+                && x.getNucleotideFrequencies().equals(y.getNucleotideFrequencies())
+                && x.getLengthDistribution().equals(y.getLengthDistribution())
+                && x.getLastGCContent() == y.getLastGCContent()
+                && Arrays.equals(p.getMeanQualityPerPosition(), q.getMeanQualityPerPosition())
+                && p.getReadMeanQualityDistribution().equals(q.getReadMeanQualityDistribution())
+                && p.getMeanQuality() == q.getMeanQuality() && p.getQ30Fraction() == q.getQ30Fraction()
+                && p.getTrimmedBaseCount() == q.getTrimmedBaseCount();
+    }
+
+    /**
+     * Creates a SequenceReader over the given text.
+     * @param input the FASTA or FASTQ text to read
+     * @return a reader over the text
+     */
+    private static SequenceReader readerFor(String input) {
+        return new SequenceReader(Channels.newChannel(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))));
+    }
+}
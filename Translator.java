@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Translates DNA into protein in all six reading frames with the standard genetic
+ * code. Each codon is encoded as a 6-bit index, two bits per base, into a flat
+ * 64-entry amino acid table, and the index of the reverse-complement codon is updated
+ * alongside it, so one pass over the bases fills the three forward frames and the
+ * three reverse-complement frames together. Codons containing a base other than A, C,
+ * G, T or U translate to X; case is ignored.
+ *
+ * <p>Open reading frames run from an ATG start codon to the next in-frame stop codon,
+ * starting at the first ATG after the previous stop, so nested starts are not reported
+ * separately. Frames without a stop before the end of the sequence are not reported.</p>
+ *
+ * @author Ajay Shenoy
+ */
+public class Translator {
+
+    /** Amino acid of each codon index, with A, C, G and T as 0 to 3 and the first base highest. */
+    private static final char[] AMINO_ACIDS =
+            "KNKNTTTTRSRSIIMIQHQHPPPPRRRRLLLLEDEDAAAAGGGGVVVV*Y*YSSSS*CWCLFLF".toCharArray();
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        String bases = "ACGTU";
+        for (int i = 0; i < bases.length(); i++) {
+            CODES[bases.charAt(i)] = (byte) Math.min(i, 3);
+            CODES[Character.toLowerCase(bases.charAt(i))] = (byte) Math.min(i, 3);
+        }
+    }
+
+    private Translator() {
+    }
+
+    /**
+     * Translates a sequence in all six reading frames.
+     *
+     * @param sequence the DNA sequence.
+     * @return the proteins of frames +1, +2, +3, -1, -2 and -3, with * for stops;
+     *         frame -1 reads the reverse complement from its first base.
+     */
+    public static String[] translateSixFrames(CharSequence sequence) {
+        if (sequence == null) {
+            throw new IllegalArgumentException("Sequence cannot be null");
+        }
+        int length = sequence.length();
+        char[][] frames = new char[6][];
+        for (int f = 0; f < 3; f++) {
+            frames[f] = new char[Math.max(0, (length - f) / 3)];
+            frames[3 + f] = new char[Math.max(0, (length - f) / 3)];
+        }
+        int forward = 0;
+        int reverse = 0;
+        int valid = 0;
+        for (int i = 0; i < length; i++) {
+            char base = sequence.charAt(i);
+            int code = base < 128 ? CODES[base] : -1;
+            if (code < 0) {
+                valid = 0;
+                code = 0;
+            } else {
+                valid++;
+            }
+            forward = ((forward << 2) | code) & 63;
+            reverse = (reverse >>> 2) | ((3 - code) << 4);
+            if (i < 2) {
+                continue;
+            }
+            int codonStart = i - 2;
+            // The same codon starts at length - 1 - i on the reverse complement
+            int reverseStart = length - 1 - i;
+            char forwardAmino = valid >= 3 ? AMINO_ACIDS[forward] : 'X';
+            char reverseAmino = valid >= 3 ? AMINO_ACIDS[reverse] : 'X';
+            frames[codonStart % 3][codonStart / 3] = forwardAmino;
+            frames[3 + reverseStart % 3][reverseStart / 3] = reverseAmino;
+        }
+        String[] proteins = new String[6];
+        for (int f = 0; f < 6; f++) {
+            proteins[f] = new String(frames[f]);
+        }
+        return proteins;
+    }
+
+    /**
+     * Finds the open reading frames of a sequence in all six frames.
+     *
+     * @param sequence the DNA sequence.
+     * @param minLength the minimum number of amino acids, without the stop.
+     * @return the frames, ordered by start position.
+     */
+    public static List<OpenReadingFrame> findOpenReadingFrames(CharSequence sequence, int minLength) {
+        if (minLength < 1) {
+            throw new IllegalArgumentException("Minimum length must be positive: " + minLength);
+        }
+        List<OpenReadingFrame> frames = new ArrayList<>();
+        findOpenReadingFrames(sequence, 0, minLength, frames);
+        frames.sort(null);
+        return frames;
+    }
+
+    /**
+     * Finds the open reading frames of many sequences on a fork-join pool.
+     *
+     * @param sequences An array of DNA sequences; null entries have no frames.
+     * @param minLength the minimum number of amino acids, without the stop.
+     * @param parallelism the number of worker threads.
+     * @return the frames, ordered by sequence and start position.
+     */
+    public static List<OpenReadingFrame> findOpenReadingFrames(String[] sequences, int minLength, int parallelism) {
+        if (sequences == null) {
+            throw new IllegalArgumentException("Sequences array cannot be null");
+        }
+        if (minLength < 1) {
+            throw new IllegalArgumentException("Minimum length must be positive: " + minLength);
+        }
+        OpenReadingFrame[][] found = new OpenReadingFrame[sequences.length][];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SequenceTask(sequences, minLength, found, 0, sequences.length));
+        } finally {
+            pool.shutdown();
+        }
+        List<OpenReadingFrame> frames = new ArrayList<>();
+        for (OpenReadingFrame[] sequenceFrames : found) {
+            if (sequenceFrames != null) {
+                frames.addAll(Arrays.asList(sequenceFrames));
+            }
+        }
+        return frames;
+    }
+
+    private static void findOpenReadingFrames(CharSequence sequence, int index, int minLength,
+            List<OpenReadingFrame> frames) {
+        int length = sequence.length();
+        String[] proteins = translateSixFrames(sequence);
+        for (int f = 0; f < 6; f++) {
+            String protein = proteins[f];
+            int offset = f % 3;
+            int start = -1;
+            for (int a = 0; a < protein.length(); a++) {
+                char amino = protein.charAt(a);
+                if (amino == '*') {
+                    if (start >= 0 && a - start >= minLength) {
+                        int from = offset + 3 * start;
+                        int to = offset + 3 * (a + 1);
+                        frames.add(f < 3
+                                ? new OpenReadingFrame(index, f + 1, from, to, protein.substring(start, a))
+                                : new OpenReadingFrame(index, 2 - f, length - to, length - from,
+                                        protein.substring(start, a)));
+                    }
+                    start = -1;
+                } else if (amino == 'M' && start < 0) {
+                    start = a;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the frames of a range of sequences, splitting the range in half until at
+     * most 64 sequences are left.
+     */
+    private static final class SequenceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] sequences;
+        private final int minLength;
+        private final OpenReadingFrame[][] found;
+        private final int from;
+        private final int to;
+
+        SequenceTask(String[] sequences, int minLength, OpenReadingFrame[][] found, int from, int to) {
+            this.sequences = sequences;
+            this.minLength = minLength;
+            this.found = found;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 64) {
+                for (int i = from; i < to; i++) {
+                    if (sequences[i] != null) {
+                        List<OpenReadingFrame> frames = new ArrayList<>();
+                        findOpenReadingFrames(sequences[i], i, minLength, frames);
+                        frames.sort(null);
+                        found[i] = frames.toArray(new OpenReadingFrame[0]);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SequenceTask(sequences, minLength, found, from, middle),
+                    new SequenceTask(sequences, minLength, found, middle, to));
+        }
+    }
+}
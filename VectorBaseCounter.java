@@ -0,0 +1,154 @@
+import java.nio.ByteBuffer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD base counting with the incubating Vector API. Each step loads a full vector of
+ * bases (64 bytes with AVX-512, 32 with AVX2), folds lower case onto upper case with
+ * one OR, compares all lanes against A, C, G and T at once and adds the popcount of
+ * each comparison mask. Only {@code x | 0x20 == 'a'} for x in {'A', 'a'}, so the fold
+ * cannot match any other character.
+ *
+ * <p>This class must only be loaded when the {@code jdk.incubator.vector} module is
+ * present; {@link NucleotideCounts} checks that and otherwise keeps its scalar loops.
+ * Each method counts a whole number of vectors and returns how many bases it handled,
+ * leaving the tail to the caller.</p>
+ *
+ * @author Ajay Shenoy
+ */
+final class VectorBaseCounter {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final int CHUNK_SIZE = 4096;
+    private static final ThreadLocal<char[]> CHAR_CHUNKS = ThreadLocal.withInitial(() -> new char[CHUNK_SIZE]);
+    private static final ThreadLocal<byte[]> BYTE_CHUNKS = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+
+    private VectorBaseCounter() {
+    }
+
+    /**
+     * Returns whether the preferred vectors are wide enough to beat the scalar loops.
+     *
+     * @return true if vectors hold at least 16 bytes.
+     */
+    static boolean isUseful() {
+        return BYTES.vectorBitSize() >= 128;
+    }
+
+    /**
+     * Returns the number of bases one vector holds.
+     *
+     * @return the byte lane count.
+     */
+    static int byteLanes() {
+        return BYTES.length();
+    }
+
+    /**
+     * Counts the bases of an ASCII sequence, a whole number of vectors at a time.
+     *
+     * @param bases the buffer holding the sequence.
+     * @param offset the index of the first base.
+     * @param length the number of bases.
+     * @param counts an array of at least five counts, indexed by {@link NucleotideCounts#indexOf(byte)}.
+     * @return the number of bases counted, from {@code offset}.
+     */
+    static int count(byte[] bases, int offset, int length, long[] counts) {
+        int handled = BYTES.loopBound(length);
+        long a = 0;
+        long c = 0;
+        long g = 0;
+        long t = 0;
+        for (int i = offset, end = offset + handled; i < end; i += BYTES.length()) {
+            ByteVector folded = ByteVector.fromArray(BYTES, bases, i).or((byte) 0x20);
+            a += folded.eq((byte) 'a').trueCount();
+            c += folded.eq((byte) 'c').trueCount();
+            g += folded.eq((byte) 'g').trueCount();
+            t += folded.eq((byte) 't').trueCount();
+        }
+        addCounts(counts, handled, a, c, g, t);
+        return handled;
+    }
+
+    /**
+     * Counts the bases in a range of a string, copying it through a per-thread chunk
+     * buffer. Characters above 0xFF compare as 16-bit lanes, so they are never folded
+     * onto a nucleotide.
+     *
+     * @param sequence the DNA sequence.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     * @param counts an array of at least five counts, indexed by {@link NucleotideCounts#indexOf(char)}.
+     * @return the number of bases counted, from {@code from}.
+     */
+    static int count(String sequence, int from, int to, long[] counts) {
+        char[] chunk = CHAR_CHUNKS.get();
+        int handled = 0;
+        long a = 0;
+        long c = 0;
+        long g = 0;
+        long t = 0;
+        for (int start = from; start < to; start += CHUNK_SIZE) {
+            int chunkLength = SHORTS.loopBound(Math.min(CHUNK_SIZE, to - start));
+            if (chunkLength == 0) {
+                break;
+            }
+            sequence.getChars(start, start + chunkLength, chunk, 0);
+            for (int i = 0; i < chunkLength; i += SHORTS.length()) {
+                ShortVector folded = ShortVector.fromCharArray(SHORTS, chunk, i).or((short) 0x20);
+                a += folded.eq((short) 'a').trueCount();
+                c += folded.eq((short) 'c').trueCount();
+                g += folded.eq((short) 'g').trueCount();
+                t += folded.eq((short) 't').trueCount();
+            }
+            handled += chunkLength;
+            if (chunkLength < CHUNK_SIZE) {
+                break;
+            }
+        }
+        addCounts(counts, handled, a, c, g, t);
+        return handled;
+    }
+
+    /**
+     * Counts the bases in a range of a byte buffer, such as a memory-mapped file, using
+     * absolute reads so the buffer's position is not changed. Direct buffers are copied
+     * through a per-thread chunk buffer.
+     *
+     * @param bases the buffer holding the sequence as ASCII bytes.
+     * @param from the index of the first base, inclusive.
+     * @param to the index of the last base, exclusive.
+     * @param counts an array of at least five counts, indexed by {@link NucleotideCounts#indexOf(byte)}.
+     * @return the number of bases counted, from {@code from}.
+     */
+    static int count(ByteBuffer bases, int from, int to, long[] counts) {
+        if (bases.hasArray()) {
+            return count(bases.array(), bases.arrayOffset() + from, to - from, counts);
+        }
+        byte[] chunk = BYTE_CHUNKS.get();
+        int handled = 0;
+        for (int start = from; start < to; start += CHUNK_SIZE) {
+            int chunkLength = BYTES.loopBound(Math.min(CHUNK_SIZE, to - start));
+            if (chunkLength == 0) {
+                break;
+            }
+            bases.get(start, chunk, 0, chunkLength);
+            handled += count(chunk, 0, chunkLength, counts);
+            if (chunkLength < CHUNK_SIZE) {
+                break;
+            }
+        }
+        return handled;
+    }
+
+    private static void addCounts(long[] counts, int handled, long a, long c, long g, long t) {
+        counts[NucleotideCounts.A] += a;
+        counts[NucleotideCounts.C] += c;
+        counts[NucleotideCounts.G] += g;
+        counts[NucleotideCounts.T] += t;
+        counts[NucleotideCounts.OTHER] += handled - a - c - g - t;
+    }
+}
@@ -0,0 +1,155 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles for the analysis API. JMH requires benchmarks to live in a named
+ * package, and classes in a named package cannot refer to the default-package
+ * classes by name, so the benchmarks reach them through handles. The handles are
+ * static final, which lets the JIT compiler inline them like direct calls.
+ *
+ * @author Ajay Shenoy
+ */
+final class AnalysisApi {
+
+    static final MethodHandle CALCULATE_NUCLEOTIDE_FREQUENCIES =
+            find("H10CustomApp", "calculateNucleotideFrequencies", String[].class);
+    static final MethodHandle COUNT_NUCLEOTIDES =
+            find("H10CustomApp", "countNucleotides", String[].class);
+    static final MethodHandle CALCULATE_GC_CONTENT_FOR_ALL =
+            find("H10CustomApp", "calculateGCContentForAll", String[].class);
+    static final MethodHandle CALCULATE_AT_CONTENT_FOR_ALL =
+            find("H10CustomApp", "calculateATContentForAll", String[].class);
+    static final MethodHandle CALCULATE_SEQUENCE_LENGTH_DISTRIBUTION =
+            find("H10CustomApp", "calculateSequenceLengthDistribution", String[].class);
+    static final MethodHandle CALCULATE_SEQUENCE_LENGTH_HISTOGRAM =
+            find("H10CustomApp", "calculateSequenceLengthHistogram", String[].class);
+    static final MethodHandle FIND_MOST_COMMON_NUCLEOTIDES =
+            find("H10CustomApp", "findMostCommonNucleotides", String[].class);
+    static final MethodHandle FIND_MOST_COMMON_KMERS = findKmers();
+    static final MethodHandle GENERATE_COMPLEMENTARY_STRAND =
+            find("H10CustomApp", "generateComplementaryStrand", String.class);
+    static final MethodHandle CALCULATE_GC_CONTENT_WINDOWS = findWindows();
+    static final MethodHandle GENERATE_REVERSE_COMPLEMENT =
+            find("H10CustomApp", "generateReverseComplement", String.class);
+    static final MethodHandle REVERSE_COMPLEMENT_ALL =
+            find("Complementer", "reverseComplementAll", String[].class);
+    static final MethodHandle COMPUTE_METRICS =
+            find("SequenceMetrics", "compute", String[].class);
+    static final MethodHandle CALCULATE_EDIT_DISTANCES =
+            find("H10CustomApp", "calculateEditDistances", String[].class);
+    static final MethodHandle ALIGN_SEQUENCES = find("H10CustomApp", "alignSequences",
+            MethodType.methodType(Object.class, Object.class, Object.class, boolean.class),
+            String.class, String.class, boolean.class);
+    static final MethodHandle TRANSLATE_SIX_FRAMES =
+            find("H10CustomApp", "translateSixFrames", String.class);
+    static final MethodHandle FIND_OPEN_READING_FRAMES = find("H10CustomApp", "findOpenReadingFrames",
+            MethodType.methodType(Object.class, Object.class, int.class), String[].class, int.class);
+    static final MethodHandle FIND_MOTIFS = find("H10CustomApp", "findMotifs",
+            MethodType.methodType(Object.class, Object.class, Object.class), String[].class, String[].class);
+    static final MethodHandle BUILD_FM_INDEX = find("FMIndex", "build", String[].class);
+    static final MethodHandle LOCATE_MOTIFS = find("FMIndex", "locate",
+            MethodType.methodType(Object.class, Object.class, Object.class, boolean.class),
+            String[].class, boolean.class);
+    static final MethodHandle SKETCH_SEQUENCES = find("H10CustomApp", "sketchSequences",
+            MethodType.methodType(Object.class, Object.class, int.class), String[].class, int.class);
+    static final MethodHandle CALCULATE_QUALITY_METRICS =
+            find("H10CustomApp", "calculateQualityMetrics", String[].class);
+    static final MethodHandle COUNT_BASES = find("NucleotideCounts", "count",
+            MethodType.methodType(void.class, byte[].class, int.class, int.class, long[].class),
+            byte[].class, int.class, int.class, long[].class);
+    static final MethodHandle PACK = find("PackedSequence", "pack", CharSequence.class);
+    static final MethodHandle CALCULATE_PACKED_GC_CONTENT_FOR_ALL =
+            find("H10CustomApp", "calculateGCContentForAll", arrayOf("PackedSequence"));
+    static final MethodHandle GENERATE_PACKED_COMPLEMENTARY_STRAND =
+            find("H10CustomApp", "generateComplementaryStrand", type("PackedSequence"));
+
+    private AnalysisApi() {
+    }
+
+    /**
+     * Creates an array of packed sequences.
+     *
+     * @param sequences the sequences to pack.
+     * @return a PackedSequence[] holding the packed sequences.
+     * @throws Throwable if packing fails.
+     */
+    static Object packAll(String[] sequences) throws Throwable {
+        Object[] packed = (Object[]) java.lang.reflect.Array.newInstance(type("PackedSequence"),
+                sequences.length);
+        for (int i = 0; i < sequences.length; i++) {
+            packed[i] = (Object) PACK.invokeExact((Object) sequences[i]);
+        }
+        return packed;
+    }
+
+    /**
+     * Finds a public static method and adapts it to take and return Object, so it can
+     * be called with invokeExact.
+     */
+    private static MethodHandle find(String className, String name, Class<?> parameter) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .unreflect(owner.getMethod(name, parameter));
+            return handle.asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Finds a public static method and adapts it to the given type, so it can be called
+     * with invokeExact.
+     */
+    private static MethodHandle find(String className, String name, MethodType type,
+            Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .unreflect(type(className).getMethod(name, parameters));
+            return handle.asType(type);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Finds calculateGCContentWindows, adapted to (Object, int, int) -> Object.
+     */
+    private static MethodHandle findWindows() {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(type("H10CustomApp")
+                    .getMethod("calculateGCContentWindows", String.class, int.class, int.class));
+            return handle.asType(MethodType.methodType(Object.class, Object.class, int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Finds findMostCommonKmers, adapted to (Object, int) -> Object.
+     */
+    private static MethodHandle findKmers() {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(type("H10CustomApp")
+                    .getMethod("findMostCommonKmers", String[].class, int.class));
+            return handle.asType(MethodType.methodType(Object.class, Object.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static Class<?> type(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static Class<?> arrayOf(String className) {
+        return type(className).arrayType();
+    }
+}
@@ -0,0 +1,141 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic inputs for the benchmarks. Every dataset is generated from a fixed seed
+ * so runs are comparable.
+ *
+ * @author Ajay Shenoy
+ */
+public enum Datasets {
+
+    /** Many short upper-case reads, as produced by a sequencer. */
+    SHORT_READS(200_000, 150, false),
+    /** A few chromosome-length upper-case sequences. */
+    CHROMOSOMES(4, 8_000_000, false),
+    /** Medium-length reads with mixed case, N runs and IUPAC ambiguity codes. */
+    MIXED(20_000, 1_500, true);
+
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+    private static final char[] AMBIGUOUS = {'N', 'R', 'Y', 'S', 'W', 'K', 'M'};
+
+    private final int count;
+    private final int length;
+    private final boolean mixed;
+
+    Datasets(int count, int length, boolean mixed) {
+        this.count = count;
+        this.length = length;
+        this.mixed = mixed;
+    }
+
+    /**
+     * Generates the sequences of this dataset.
+     *
+     * @return the sequences.
+     */
+    public String[] generate() {
+        Random random = new Random(42);
+        String[] sequences = new String[count];
+        char[] buffer = new char[length];
+        for (int i = 0; i < count; i++) {
+            int sequenceLength = mixed ? length / 2 + random.nextInt(length / 2 + 1) : length;
+            for (int j = 0; j < sequenceLength; j++) {
+                char base = BASES[random.nextInt(4)];
+                if (mixed) {
+                    int roll = random.nextInt(100);
+                    if (roll < 30) {
+                        base = Character.toLowerCase(base);
+                    } else if (roll < 33) {
+                        base = AMBIGUOUS[random.nextInt(AMBIGUOUS.length)];
+                    }
+                }
+                buffer[j] = base;
+            }
+            sequences[i] = new String(buffer, 0, sequenceLength);
+        }
+        return sequences;
+    }
+
+    /**
+     * Returns the total number of bases in the given sequences.
+     *
+     * @param sequences the sequences.
+     * @return the base count.
+     */
+    public static long totalBases(String[] sequences) {
+        long total = 0;
+        for (String sequence : sequences) {
+            total += sequence.length();
+        }
+        return total;
+    }
+
+    /**
+     * Cuts sequences into pieces of at most the given length, for the pairwise
+     * operations, whose cost grows with the product of two sequence lengths.
+     *
+     * @param sequences the sequences.
+     * @param count the maximum number of pieces.
+     * @param length the maximum piece length.
+     * @return the first pieces, in sequence order.
+     */
+    public static String[] pieces(String[] sequences, int count, int length) {
+        List<String> pieces = new ArrayList<>(count);
+        for (String sequence : sequences) {
+            for (int start = 0; start < sequence.length() && pieces.size() < count; start += length) {
+                pieces.add(sequence.substring(start, Math.min(sequence.length(), start + length)));
+            }
+        }
+        return pieces.toArray(new String[0]);
+    }
+
+    /**
+     * Generates random A/C/G/T motifs from a fixed seed.
+     *
+     * @param count the number of motifs.
+     * @param length the motif length.
+     * @return the motifs.
+     */
+    public static String[] motifs(int count, int length) {
+        Random random = new Random(7);
+        String[] motifs = new String[count];
+        char[] buffer = new char[length];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < length; j++) {
+                buffer[j] = BASES[random.nextInt(4)];
+            }
+            motifs[i] = new String(buffer);
+        }
+        return motifs;
+    }
+
+    /**
+     * Generates a Phred+33 quality string for each sequence, as in a FASTQ file from a
+     * short-read sequencer: qualities fall from about Q38 at the 5' end to about Q25 at
+     * the 3' end, with noise and an occasional Q2 base.
+     *
+     * @param sequences the sequences.
+     * @return the quality strings, each as long as its sequence.
+     */
+    public static String[] qualities(String[] sequences) {
+        Random random = new Random(42);
+        String[] qualities = new String[sequences.length];
+        for (int i = 0; i < sequences.length; i++) {
+            int length = sequences[i].length();
+            char[] buffer = new char[length];
+            for (int j = 0; j < length; j++) {
+                int quality = 38 - (int) (13L * j / length) + random.nextInt(7) - 3;
+                if (random.nextInt(100) == 0) {
+                    quality = 2;
+                }
+                buffer[j] = (char) ('!' + Math.min(41, Math.max(2, quality)));
+            }
+            qualities[i] = new String(buffer);
+        }
+        return qualities;
+    }
+}
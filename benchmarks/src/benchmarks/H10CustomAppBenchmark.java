@@ -0,0 +1,286 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of every public static method of H10CustomApp on each synthetic
+ * dataset. Besides ops/s, each benchmark reports a "bases" counter in bases/s. Run
+ * with {@code -prof gc} to see the allocation rate per operation.
+ *
+ * @author Ajay Shenoy
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class H10CustomAppBenchmark {
+
+    /**
+     * The dataset under test, generated once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param
+        public Datasets dataset;
+
+        String[] sequences;
+        Object packedSequences;
+        long bases;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            sequences = dataset.generate();
+            packedSequences = AnalysisApi.packAll(sequences);
+            bases = Datasets.totalBases(sequences);
+        }
+    }
+
+    /**
+     * The first pieces of up to 1,000 bases of the dataset, for the pairwise operations,
+     * whose cost grows with the square of the number or length of the sequences.
+     */
+    @State(Scope.Benchmark)
+    public static class Pairs {
+        String[] sequences;
+        long bases;
+
+        @Setup(Level.Trial)
+        public void setUp(Input input) {
+            sequences = Datasets.pieces(input.sequences, 128, 1_000);
+            bases = Datasets.totalBases(sequences);
+        }
+    }
+
+    /**
+     * Random 8-base motifs to search for, and an FM-index of the dataset built once per
+     * trial, so the locate benchmark measures queries only.
+     */
+    @State(Scope.Benchmark)
+    public static class Motifs {
+        String[] motifs;
+        Object index;
+
+        @Setup(Level.Trial)
+        public void setUp(Input input) throws Throwable {
+            motifs = Datasets.motifs(200, 8);
+            index = (Object) AnalysisApi.BUILD_FM_INDEX.invokeExact((Object) input.sequences);
+        }
+    }
+
+    /**
+     * FASTQ-like quality strings for the reads of the dataset.
+     */
+    @State(Scope.Benchmark)
+    public static class Qualities {
+        String[] qualities;
+
+        @Setup(Level.Trial)
+        public void setUp(Input input) {
+            qualities = Datasets.qualities(input.sequences);
+        }
+    }
+
+    /**
+     * Counts the bases processed, reported by JMH as a rate next to ops/s.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long bases;
+    }
+
+    @Benchmark
+    public Object calculateNucleotideFrequencies(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.CALCULATE_NUCLEOTIDE_FREQUENCIES.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object countNucleotides(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.COUNT_NUCLEOTIDES.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object calculateGCContentForAll(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.CALCULATE_GC_CONTENT_FOR_ALL.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object calculateATContentForAll(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.CALCULATE_AT_CONTENT_FOR_ALL.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object calculateSequenceLengthDistribution(Input input, Throughput throughput)
+            throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.CALCULATE_SEQUENCE_LENGTH_DISTRIBUTION
+                .invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object calculateSequenceLengthHistogram(Input input, Throughput throughput)
+            throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.CALCULATE_SEQUENCE_LENGTH_HISTOGRAM
+                .invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object findMostCommonNucleotides(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.FIND_MOST_COMMON_NUCLEOTIDES.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object findMostCommonKmers(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.FIND_MOST_COMMON_KMERS.invokeExact((Object) input.sequences, 21);
+    }
+
+    @Benchmark
+    public Object sketchSequences(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.SKETCH_SEQUENCES.invokeExact((Object) input.sequences, 21);
+    }
+
+    @Benchmark
+    public void calculateGCContentWindows(Input input, Throughput throughput, Blackhole blackhole)
+            throws Throwable {
+        throughput.bases += input.bases;
+        for (String sequence : input.sequences) {
+            blackhole.consume((Object) AnalysisApi.CALCULATE_GC_CONTENT_WINDOWS
+                    .invokeExact((Object) sequence, 100, 10));
+        }
+    }
+
+    @Benchmark
+    public Object computeAllMetrics(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.COMPUTE_METRICS.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public void generateComplementaryStrand(Input input, Throughput throughput, Blackhole blackhole)
+            throws Throwable {
+        throughput.bases += input.bases;
+        for (String strand : input.sequences) {
+            blackhole.consume((Object) AnalysisApi.GENERATE_COMPLEMENTARY_STRAND.invokeExact((Object) strand));
+        }
+    }
+
+    @Benchmark
+    public void generateReverseComplement(Input input, Throughput throughput, Blackhole blackhole)
+            throws Throwable {
+        throughput.bases += input.bases;
+        for (String strand : input.sequences) {
+            blackhole.consume((Object) AnalysisApi.GENERATE_REVERSE_COMPLEMENT.invokeExact((Object) strand));
+        }
+    }
+
+    @Benchmark
+    public Object reverseComplementAll(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.REVERSE_COMPLEMENT_ALL.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    public Object calculatePackedGCContentForAll(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.CALCULATE_PACKED_GC_CONTENT_FOR_ALL
+                .invokeExact(input.packedSequences);
+    }
+
+    @Benchmark
+    public void generatePackedComplementaryStrand(Input input, Throughput throughput,
+            Blackhole blackhole) throws Throwable {
+        throughput.bases += input.bases;
+        for (Object strand : (Object[]) input.packedSequences) {
+            blackhole.consume((Object) AnalysisApi.GENERATE_PACKED_COMPLEMENTARY_STRAND.invokeExact(strand));
+        }
+    }
+
+    @Benchmark
+    public Object calculateEditDistances(Pairs pairs, Throughput throughput) throws Throwable {
+        throughput.bases += pairs.bases;
+        return (Object) AnalysisApi.CALCULATE_EDIT_DISTANCES.invokeExact((Object) pairs.sequences);
+    }
+
+    @Benchmark
+    public void alignSequencesGlobal(Pairs pairs, Throughput throughput, Blackhole blackhole)
+            throws Throwable {
+        alignSequences(pairs, throughput, blackhole, false);
+    }
+
+    @Benchmark
+    public void alignSequencesLocal(Pairs pairs, Throughput throughput, Blackhole blackhole)
+            throws Throwable {
+        alignSequences(pairs, throughput, blackhole, true);
+    }
+
+    /**
+     * Aligns each piece with the next one.
+     */
+    private static void alignSequences(Pairs pairs, Throughput throughput, Blackhole blackhole,
+            boolean local) throws Throwable {
+        throughput.bases += pairs.bases;
+        String[] sequences = pairs.sequences;
+        for (int i = 1; i < sequences.length; i++) {
+            blackhole.consume((Object) AnalysisApi.ALIGN_SEQUENCES
+                    .invokeExact((Object) sequences[i - 1], (Object) sequences[i], local));
+        }
+    }
+
+    @Benchmark
+    public void translateSixFrames(Input input, Throughput throughput, Blackhole blackhole)
+            throws Throwable {
+        throughput.bases += input.bases;
+        for (String sequence : input.sequences) {
+            blackhole.consume((Object) AnalysisApi.TRANSLATE_SIX_FRAMES.invokeExact((Object) sequence));
+        }
+    }
+
+    @Benchmark
+    public Object findOpenReadingFrames(Input input, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.FIND_OPEN_READING_FRAMES.invokeExact((Object) input.sequences, 30);
+    }
+
+    @Benchmark
+    public Object findMotifs(Input input, Motifs motifs, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.FIND_MOTIFS.invokeExact((Object) input.sequences, (Object) motifs.motifs);
+    }
+
+    @Benchmark
+    public Object locateMotifs(Input input, Motifs motifs, Throughput throughput) throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.LOCATE_MOTIFS.invokeExact(motifs.index, (Object) motifs.motifs, true);
+    }
+
+    @Benchmark
+    public Object calculateQualityMetrics(Input input, Qualities qualities, Throughput throughput)
+            throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.CALCULATE_QUALITY_METRICS.invokeExact((Object) qualities.qualities);
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base counting with the Vector API against the scalar lookup-table loops. Both run
+ * with the incubator module present; the scalar forks turn the vector path off with
+ * {@code -Dsequence.vector=false}, so the pairs differ only in the counting kernel.
+ * Each benchmark reports a "bases" counter in bases/s.
+ *
+ * @author Ajay Shenoy
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VectorCountingBenchmark {
+
+    /**
+     * The dataset under test as strings and as ASCII bytes, generated once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param({"CHROMOSOMES", "SHORT_READS"})
+        public Datasets dataset;
+
+        String[] sequences;
+        byte[][] bytes;
+        long bases;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            sequences = dataset.generate();
+            bytes = new byte[sequences.length][];
+            for (int i = 0; i < sequences.length; i++) {
+                bytes[i] = sequences[i].getBytes(StandardCharsets.US_ASCII);
+            }
+            bases = Datasets.totalBases(sequences);
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+    public Object countNucleotidesVector(Input input, H10CustomAppBenchmark.Throughput throughput)
+            throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.COUNT_NUCLEOTIDES.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector",
+        "-Dsequence.vector=false"})
+    public Object countNucleotidesScalar(Input input, H10CustomAppBenchmark.Throughput throughput)
+            throws Throwable {
+        throughput.bases += input.bases;
+        return (Object) AnalysisApi.COUNT_NUCLEOTIDES.invokeExact((Object) input.sequences);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+    public long[] countBytesVector(Input input, H10CustomAppBenchmark.Throughput throughput)
+            throws Throwable {
+        return countBytes(input, throughput);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector",
+        "-Dsequence.vector=false"})
+    public long[] countBytesScalar(Input input, H10CustomAppBenchmark.Throughput throughput)
+            throws Throwable {
+        return countBytes(input, throughput);
+    }
+
+    private static long[] countBytes(Input input, H10CustomAppBenchmark.Throughput throughput)
+            throws Throwable {
+        throughput.bases += input.bases;
+        long[] counts = new long[5];
+        for (byte[] sequence : input.bytes) {
+            AnalysisApi.COUNT_BASES.invokeExact(sequence, 0, sequence.length, counts);
+        }
+        return counts;
+    }
+}